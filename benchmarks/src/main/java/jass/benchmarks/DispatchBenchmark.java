@@ -0,0 +1,87 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.benchmarks;
+
+import jass.lib.message.MessageData;
+import jass.server.message.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the server message for the data of every message type.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatchBenchmark {
+    /**
+     * The type of the message.
+     */
+    @Param({
+        "BroadcastAPlayerQuit", "BroadcastDeck", "BroadcastGameMode", "BroadcastPoints", "BroadcastRoundOver",
+        "BroadcastTurn", "CancelSearchGame", "ChangePassword", "ChooseGameMode", "ChosenGameMode",
+        "ContinuePlaying", "DeleteLogin", "GameFound", "Hello", "Login", "Logout", "MessageError", "PlayCard",
+        "PlayedCard", "Register", "Result", "SearchGame", "StopPlaying", "UserOnline"
+    })
+    public String messageType;
+
+    /**
+     * The data of the message to dispatch.
+     */
+    private MessageData messageData;
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Setup
+    public void setup() {
+        messageData = MessageSamples.create(messageType);
+    }
+
+    /**
+     * @return Returns the server message.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public Message fromDataObject() {
+        return Message.fromDataObject(messageData);
+    }
+}
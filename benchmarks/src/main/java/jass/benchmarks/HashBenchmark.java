@@ -0,0 +1,98 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.benchmarks;
+
+import jass.server.util.HashUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing a password on registration and checking it on login.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HashBenchmark {
+    /**
+     * The password of the user.
+     */
+    private static final String PASSWORD = "secret123";
+
+    /**
+     * The password as stored in the database.
+     */
+    private String storedPassword;
+
+    /**
+     * @throws NoSuchAlgorithmException If the algorithm is missing.
+     * @throws InvalidKeySpecException  If the key is invalid.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Setup
+    public void setup() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        storedPassword = HashUtil.generateStrongPasswordHash(PASSWORD);
+    }
+
+    /**
+     * @return Returns the password to be stored.
+     *
+     * @throws NoSuchAlgorithmException If the algorithm is missing.
+     * @throws InvalidKeySpecException  If the key is invalid.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public String generateStrongPasswordHash() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        return HashUtil.generateStrongPasswordHash(PASSWORD);
+    }
+
+    /**
+     * @return Returns whether the password matches.
+     *
+     * @throws NoSuchAlgorithmException If the algorithm is missing.
+     * @throws InvalidKeySpecException  If the key is invalid.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public boolean validatePassword() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        return HashUtil.validatePassword(PASSWORD, storedPassword);
+    }
+}
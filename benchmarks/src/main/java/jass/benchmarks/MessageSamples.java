@@ -0,0 +1,144 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.benchmarks;
+
+import jass.lib.Card;
+import jass.lib.GameMode;
+import jass.lib.message.BroadcastAPlayerQuitData;
+import jass.lib.message.BroadcastDeckData;
+import jass.lib.message.BroadcastGameModeData;
+import jass.lib.message.BroadcastPointsData;
+import jass.lib.message.BroadcastRoundOverData;
+import jass.lib.message.BroadcastTurnData;
+import jass.lib.message.CancelSearchGameData;
+import jass.lib.message.CardData;
+import jass.lib.message.ChangePasswordData;
+import jass.lib.message.ChooseGameModeData;
+import jass.lib.message.ChosenGameModeData;
+import jass.lib.message.ContinuePlayingData;
+import jass.lib.message.DeleteLoginData;
+import jass.lib.message.GameFoundData;
+import jass.lib.message.HelloData;
+import jass.lib.message.LoginData;
+import jass.lib.message.LogoutData;
+import jass.lib.message.MessageData;
+import jass.lib.message.MessageErrorData;
+import jass.lib.message.PlayCardData;
+import jass.lib.message.PlayedCardData;
+import jass.lib.message.RegisterData;
+import jass.lib.message.ResultData;
+import jass.lib.message.SearchGameData;
+import jass.lib.message.StopPlayingData;
+import jass.lib.message.UserOnlineData;
+import jass.lib.message.WireFormat;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A typical message of every type, as sent during a game.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+final class MessageSamples {
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private MessageSamples() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param messageType The type of the message.
+     *
+     * @return Returns a message of the given type.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static MessageData create(final String messageType) {
+        // A full hand, as sent at the start of a round
+        List<CardData> cards = new ArrayList<>();
+        String[] ranks = {"6", "7", "8", "9", "10", "jack", "queen", "king", "ace"};
+        for (int i = 0; i < ranks.length; i++) {
+            cards.add(new CardData(i + 1, 1, "hearts", i + 1, ranks[i]));
+        }
+
+        switch (messageType) {
+            case "BroadcastAPlayerQuit":
+                return new BroadcastAPlayerQuitData();
+            case "BroadcastDeck":
+                return new BroadcastDeckData(3, cards);
+            case "BroadcastGameMode":
+                return new BroadcastGameModeData(GameMode.TRUMPF, Card.Suit.Hearts);
+            case "BroadcastPoints":
+                return new BroadcastPointsData(4, 57);
+            case "BroadcastRoundOver":
+                return new BroadcastRoundOverData(2, 100, 57, "player0", "player1", "player2", "player3");
+            case "BroadcastTurn":
+                return new BroadcastTurnData(5, "player0", "player1", cards.subList(0, 4));
+            case "CancelSearchGame":
+                return new CancelSearchGameData("token", "player0");
+            case "ChangePassword":
+                return new ChangePasswordData("token", "new password");
+            case "ChooseGameMode":
+                return new ChooseGameModeData();
+            case "ChosenGameMode":
+                return new ChosenGameModeData(7, "token", GameMode.TRUMPF, Card.Suit.Clubs);
+            case "ContinuePlaying":
+                return new ContinuePlayingData();
+            case "DeleteLogin":
+                return new DeleteLoginData("token");
+            case "GameFound":
+                return new GameFoundData(1, 2, "player0", 3, 4, "player1", 5, 6, "player2", 3, 7, "player3", 5);
+            case "Hello":
+                return new HelloData(WireFormat.BINARY);
+            case "Login":
+                return new LoginData("player0", "secret123");
+            case "Logout":
+                return new LogoutData();
+            case "MessageError":
+                return new MessageErrorData(MessageErrorData.ErrorType.INVALID_COMMAND);
+            case "PlayCard":
+                return new PlayCardData(8, 12);
+            case "PlayedCard":
+                return new PlayedCardData(true);
+            case "Register":
+                return new RegisterData("player0", "secret123");
+            case "Result":
+                return new ResultData(9, true, new JSONObject().put("token", "0123456789abcdef0123456789abcdef"));
+            case "SearchGame":
+                return new SearchGameData("token", "player0");
+            case "StopPlaying":
+                return new StopPlayingData();
+            case "UserOnline":
+                return new UserOnlineData("token", "player0");
+            default:
+                throw new IllegalArgumentException("Unknown message type " + messageType);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.benchmarks;
+
+import jass.lib.database.UnitOfWork;
+import jass.server.entity.UserEntity;
+import jass.server.repository.UserRepository;
+import jass.server.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and updating users in an SQLite database file, created for the
+ * benchmark only. The writes of one move (turn, deck and round) are
+ * compared as separate commits and as one unit of work.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RepositoryBenchmark {
+    /**
+     * How many users are in the database.
+     */
+    private static final int USERS = 1000;
+
+    /**
+     * The database file.
+     */
+    private Path file;
+
+    /**
+     * The database connection.
+     */
+    private DatabaseUtil db;
+
+    /**
+     * The repository of the users.
+     */
+    private UserRepository userRepository;
+
+    /**
+     * The users, to update them.
+     */
+    private final List<UserEntity> users = new ArrayList<>();
+
+    /**
+     * The next user to use.
+     */
+    private int next;
+
+    /**
+     * @throws IOException  If the file couldn't be created.
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Setup
+    public void setup() throws IOException, SQLException {
+        file = Files.createTempFile("jass-benchmark", ".sqlite3");
+        db = new DatabaseUtil("sqlite:" + file.toAbsolutePath());
+        userRepository = UserRepository.getSingleton(null);
+
+        for (int i = 0; i < USERS; i++) {
+            users.add((new UserEntity()).setUsername("player" + i).setPassword("secret123"));
+        }
+        if (!userRepository.addAll(users)) {
+            throw new IllegalStateException("The users couldn't be added");
+        }
+    }
+
+    /**
+     * @throws IOException If the file couldn't be deleted.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        db.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @return Returns the user.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public UserEntity getById() {
+        next = (next + 1) % USERS;
+        return userRepository.getById(users.get(next).getId());
+    }
+
+    /**
+     * @return Returns whether the user was updated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public boolean update() {
+        next = (next + 1) % USERS;
+        UserEntity user = users.get(next);
+        if (user.isOnline()) {
+            user.setOffline();
+        } else {
+            user.setOnline();
+        }
+        return userRepository.update(user);
+    }
+
+    /**
+     * @return Returns whether the users were updated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public boolean updateThreeSeparately() {
+        boolean updated = true;
+        for (int i = 0; i < 3; i++) {
+            updated &= update();
+        }
+        return updated;
+    }
+
+    /**
+     * @return Returns whether the users were updated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public boolean updateThreeInUnitOfWork() {
+        UnitOfWork unitOfWork = userRepository.newUnitOfWork();
+        for (int i = 0; i < 3; i++) {
+            next = (next + 1) % USERS;
+            UserEntity user = users.get(next);
+            if (user.isOnline()) {
+                user.setOffline();
+            } else {
+                user.setOnline();
+            }
+            unitOfWork.update(userRepository, user);
+        }
+        return unitOfWork.commit();
+    }
+}
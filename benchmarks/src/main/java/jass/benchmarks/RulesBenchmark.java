@@ -0,0 +1,190 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.benchmarks;
+
+import jass.lib.Card;
+import jass.lib.CardSet;
+import jass.lib.GameMode;
+import jass.server.entity.CardEntity;
+import jass.server.entity.DeckEntity;
+import jass.server.entity.RankEntity;
+import jass.server.entity.RoundEntity;
+import jass.server.entity.SuitEntity;
+import jass.server.entity.TurnEntity;
+import jass.server.entity.UserEntity;
+import jass.server.util.GameUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a played card and finding the winner of a turn, on the entities
+ * the server keeps during a game.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RulesBenchmark {
+    /**
+     * How many different situations to go through, a power of two.
+     */
+    private static final int SITUATIONS = 1024;
+
+    /**
+     * The ranks from six to ace, as seeded into the database.
+     */
+    private static final String[] RANK_KEYS = {"6", "7", "8", "9", "10", "jack", "queen", "king", "ace"};
+
+    /**
+     * The suits, as seeded into the database.
+     */
+    private static final String[] SUIT_KEYS = {"hearts", "diamonds", "spades", "clubs"};
+
+    /**
+     * The game mode of the round.
+     */
+    @Param({"TRUMPF", "OBE_ABE", "ONDE_UFE"})
+    public GameMode gameMode;
+
+    /**
+     * The round, with hearts as trumpf.
+     */
+    private RoundEntity round;
+
+    /**
+     * The hands, three cards of each have been played already.
+     */
+    private final DeckEntity[] hands = new DeckEntity[SITUATIONS];
+
+    /**
+     * The first card of the turn.
+     */
+    private final CardEntity[] leads = new CardEntity[SITUATIONS];
+
+    /**
+     * The card which is played, from the hand.
+     */
+    private final CardEntity[] played = new CardEntity[SITUATIONS];
+
+    /**
+     * Turns with all four cards.
+     */
+    private final TurnEntity[] turns = new TurnEntity[SITUATIONS];
+
+    /**
+     * The next situation to use.
+     */
+    private int next;
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Setup
+    public void setup() {
+        // The whole deck, like the seed data
+        List<CardEntity> deck = new ArrayList<>();
+        for (int i = 0; i < SUIT_KEYS.length; i++) {
+            SuitEntity suit = (new SuitEntity()).setId(i + 1).setKey(SUIT_KEYS[i]);
+            for (int j = 0; j < RANK_KEYS.length; j++) {
+                RankEntity rank = (new RankEntity()).setId(j + 1).setKey(RANK_KEYS[j]);
+                deck.add((new CardEntity()).setId(i * RANK_KEYS.length + j + 1).setRank(rank).setSuit(suit));
+            }
+        }
+        UserEntity[] players = new UserEntity[4];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = (new UserEntity()).setUsername("player" + i);
+        }
+        round = (new RoundEntity()).setGameMode(gameMode).setTrumpfSuit(gameMode == GameMode.TRUMPF ? Card.Suit.Hearts : null);
+
+        // Random hands, leads and turns
+        Random random = new Random(42);
+        for (int i = 0; i < SITUATIONS; i++) {
+            Collections.shuffle(deck, random);
+            long dealtCards = CardSet.EMPTY;
+            long playedCards = CardSet.EMPTY;
+            for (int j = 0; j < CardSet.RANKS; j++) {
+                dealtCards |= CardSet.of(deck.get(j).getIndex());
+                if (j < 3) {
+                    playedCards |= CardSet.of(deck.get(j).getIndex());
+                }
+            }
+            hands[i] = (new DeckEntity()).setDealtCards(dealtCards).setPlayedCards(playedCards);
+            leads[i] = deck.get(9);
+            played[i] = deck.get(3 + random.nextInt(6));
+            TurnEntity turn = (new TurnEntity()).setRound(round).setStartingPlayer(players[0]);
+            for (int j = 0; j < players.length; j++) {
+                turn.addCard(deck.get(10 + j), players[j]);
+            }
+            turns[i] = turn;
+        }
+    }
+
+    /**
+     * @return Returns whether the card may be played.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public boolean validateMove() {
+        int s = next++ & (SITUATIONS - 1);
+        switch (gameMode) {
+            case TRUMPF:
+                return GameUtil.validateMoveTrump(played[s], hands[s], leads[s], "hearts");
+            case OBE_ABE:
+                return GameUtil.validateMoveObeAbe(played[s], hands[s], leads[s]);
+            default:
+                return GameUtil.validateMoveOndeUfe(played[s], hands[s], leads[s]);
+        }
+    }
+
+    /**
+     * @return Returns the player who won the turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Benchmark
+    public UserEntity calculateTurnWinner() {
+        return GameUtil.calculateTurnWinner(round, turns[next++ & (SITUATIONS - 1)]);
+    }
+}
@@ -22,8 +22,9 @@
 import jass.client.util.SocketUtil;
 import jass.lib.message.MessageData;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * The base model every message that is being sent to the server, needs to
@@ -34,6 +35,38 @@
  * @since 1.0.0
  */
 public abstract class Message {
+    /**
+     * The handlers by the type of message they process, built once instead of
+     * looking up the class of every message by reflection.
+     */
+    private static final Map<String, Function<MessageData, Message>> HANDLERS = new HashMap<>();
+
+    static {
+        HANDLERS.put("BroadcastAPlayerQuit", BroadcastAPlayerQuit::new);
+        HANDLERS.put("BroadcastDeck", BroadcastDeck::new);
+        HANDLERS.put("BroadcastGameMode", BroadcastGameMode::new);
+        HANDLERS.put("BroadcastPoints", BroadcastPoints::new);
+        HANDLERS.put("BroadcastRoundOver", BroadcastRoundOver::new);
+        HANDLERS.put("BroadcastTurn", BroadcastTurn::new);
+        HANDLERS.put("CancelSearchGame", CancelSearchGame::new);
+        HANDLERS.put("ChangePassword", ChangePassword::new);
+        HANDLERS.put("ChooseGameMode", ChooseGameMode::new);
+        HANDLERS.put("ChosenGameMode", ChosenGameMode::new);
+        HANDLERS.put("ContinuePlaying", ContinuePlaying::new);
+        HANDLERS.put("DeleteLogin", DeleteLogin::new);
+        HANDLERS.put("GameFound", GameFound::new);
+        HANDLERS.put("Login", Login::new);
+        HANDLERS.put("Logout", Logout::new);
+        HANDLERS.put("MessageError", MessageError::new);
+        HANDLERS.put("PlayCard", PlayCard::new);
+        HANDLERS.put("PlayedCard", PlayedCard::new);
+        HANDLERS.put("Register", Register::new);
+        HANDLERS.put("Result", Result::new);
+        HANDLERS.put("SearchGame", SearchGame::new);
+        HANDLERS.put("StopPlaying", StopPlaying::new);
+        HANDLERS.put("UserOnline", UserOnline::new);
+    }
+
     /**
      * The data of the message (still not casted).
      */
@@ -83,22 +116,26 @@ public MessageData getRawData() {
     public abstract boolean process(SocketUtil socket);
 
     /**
-     * Create a message object of the correct class, using reflection.
+     * Create a message object of the correct class, using the
+     * handler registered for the type of the data.
      *
      * @param messageData The data.
      *
-     * @return Returns a message object using the data.
+     * @return Returns a message object using the data, or null if the type is
+     * unknown.
      *
-     * @author Bradley Richards
+     * @author Bradley Richards & Manuele Vaccari
      * @since 1.0.0
      */
     public static Message fromDataObject(final MessageData messageData) {
-        String messageClassName = Message.class.getPackage().getName() + "." + messageData.getMessageType();
+        Function<MessageData, Message> handler = HANDLERS.get(messageData.getMessageType());
+        if (handler == null) {
+            return null;
+        }
         try {
-            Class<?> messageClass = Class.forName(messageClassName);
-            Constructor<?> constructor = messageClass.getConstructor(MessageData.class);
-            return (Message) constructor.newInstance(messageData);
-        } catch (InstantiationException | InvocationTargetException | NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
+            return handler.apply(messageData);
+        } catch (ClassCastException e) {
+            // The data doesn't belong to the type
             return null;
         }
     }
@@ -22,7 +22,11 @@
 import jass.client.entity.LoginEntity;
 import jass.client.eventlistener.DisconnectEventListener;
 import jass.client.message.Message;
+import jass.lib.message.BinaryCodec;
+import jass.lib.message.HelloData;
 import jass.lib.message.MessageData;
+import jass.lib.message.ResultData;
+import jass.lib.message.WireFormat;
 import jass.lib.servicelocator.Service;
 import jass.lib.servicelocator.ServiceLocator;
 import org.apache.logging.log4j.LogManager;
@@ -33,12 +37,14 @@
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManagerFactory;
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -62,11 +68,38 @@ public final class SocketUtil extends Thread implements Service, Closeable {
      */
     private static final Logger logger = LogManager.getLogger(SocketUtil.class);
 
+    /**
+     * The context of all secure connections.
+     */
+    private static SSLContext sslContext;
+
+    /**
+     * How long to wait for the server to answer the hello, in milliseconds.
+     * Servers which don't know the hello answer with an error right away, so
+     * a server which doesn't answer at all is given up on.
+     */
+    private static final int HELLO_TIMEOUT = 2000;
+
     /**
      * The socket of the server.
      */
     private final Socket socket;
 
+    /**
+     * The stream of the messages coming from the server.
+     */
+    private final InputStream in;
+
+    /**
+     * The stream of the messages going to the server.
+     */
+    private final OutputStream out;
+
+    /**
+     * The format agreed on with the server.
+     */
+    private final WireFormat wireFormat;
+
     /**
      * Whether the server is currently reachable. Shuts down everything when
      * false.
@@ -96,16 +129,89 @@ public SocketUtil(final String ipAddress, final int port, final boolean secure)
         if (secure) {
             logger.info("Connecting to server at: " + ipAddress + ":" + port + " (with SSL)");
 
+            SocketFactory factory = getSslContext().getSocketFactory();
+            socket = factory.createSocket(ipAddress, port);
+
+            // The next line is entirely optional!
+            // The SSL handshake would happen automatically, the first time we
+            // send data. Or we can immediately force the handshaking with this
+            // method:
+            ((SSLSocket) socket).startHandshake();
+        } else {
+            logger.info("Connecting to server at: " + ipAddress + ":" + port);
+            socket = new Socket(ipAddress, port);
+        }
+
+        in = new BufferedInputStream(socket.getInputStream());
+        out = new BufferedOutputStream(socket.getOutputStream());
+        wireFormat = negotiateWireFormat();
+
+        // Create thread to read incoming messages
+        this.start();
+    }
+
+    /**
+     * Ask the server to switch to the binary format. Older servers don't know
+     * the hello message and answer with an error, in which case JSON is kept.
+     *
+     * @return Returns the format to use from now on.
+     *
+     * @throws IOException If the server didn't answer in time, the connection
+     *                     is closed then.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private WireFormat negotiateWireFormat() throws IOException {
+        HelloData hello = new HelloData(WireFormat.BINARY);
+        try {
+            socket.setSoTimeout(HELLO_TIMEOUT);
+            out.write(WireFormat.JSON.encode(hello));
+            out.flush();
+
+            // Nothing else is sent to us before we are logged in, so the next
+            // line is the answer
+            String msgText = BinaryCodec.readLine(in);
+            MessageData answer = msgText == null ? null : MessageData.unserialize(msgText);
+            if (answer instanceof ResultData && answer.getId() == hello.getId() && ((ResultData) answer).getResult()) {
+                logger.info("Using the binary wire format");
+                return WireFormat.BINARY;
+            }
+        } catch (SocketTimeoutException e) {
+            // The answer could still arrive, in either format, so the
+            // connection can't be used anymore
+            socket.close();
+            throw new IOException("The server didn't answer the hello message in time", e);
+        } finally {
+            if (!socket.isClosed()) {
+                socket.setSoTimeout(0);
+            }
+        }
+        logger.info("Server doesn't support the binary wire format, using JSON");
+        return WireFormat.JSON;
+    }
+
+    /**
+     * Get the SSL context, which is created on the first secure connection.
+     * The same context is used for every reconnect, so the session of the last
+     * connection can be resumed instead of doing a full handshake.
+     *
+     * @return Returns the SSL context.
+     *
+     * @author Manuele Vaccari & https://stackoverflow.com/questions/53323855/sslserversocket-and-certificate-setup
+     * @since 1.1.0
+     */
+    private static synchronized SSLContext getSslContext() throws IOException, KeyStoreException, CertificateException, NoSuchAlgorithmException, UnrecoverableKeyException, KeyManagementException {
+        if (sslContext == null) {
             // Create and initialize the SSLContext with key material
             char[] trustStorePassword = "JassGame".toCharArray();
             char[] keyStorePassword = "JassGame".toCharArray();
 
             // First initialize the key and trust material
             KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
-            trustStore.load(getClass().getResourceAsStream("/ssl/client.keystore"), trustStorePassword);
+            trustStore.load(SocketUtil.class.getResourceAsStream("/ssl/client.keystore"), trustStorePassword);
 
             KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-            keyStore.load(getClass().getResourceAsStream("/ssl/client.keystore"), keyStorePassword);
+            keyStore.load(SocketUtil.class.getResourceAsStream("/ssl/client.keystore"), keyStorePassword);
 
             // KeyManagers decide which key material to use
             KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
@@ -115,24 +221,10 @@ public SocketUtil(final String ipAddress, final int port, final boolean secure)
             TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
             tmf.init(trustStore);
 
-            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext = SSLContext.getInstance("TLS");
             sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), SecureRandom.getInstanceStrong());
-
-            SocketFactory factory = sslContext.getSocketFactory();
-            socket = factory.createSocket(ipAddress, port);
-
-            // The next line is entirely optional!
-            // The SSL handshake would happen automatically, the first time we
-            // send data. Or we can immediately force the handshaking with this
-            // method:
-            ((SSLSocket) socket).startHandshake();
-        } else {
-            logger.info("Connecting to server at: " + ipAddress + ":" + port);
-            socket = new Socket(ipAddress, port);
         }
-
-        // Create thread to read incoming messages
-        this.start();
+        return sslContext;
     }
 
     /**
@@ -141,21 +233,33 @@ public SocketUtil(final String ipAddress, final int port, final boolean secure)
      */
     @Override
     public void run() {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+        try {
             while (serverReachable) {
-                // Will wait here for complete line
-                String msgText = in.readLine();
+                // Will wait here for complete line or frame
+                MessageData msgData;
+                if (wireFormat == WireFormat.BINARY) {
+                    byte[] frame = BinaryCodec.readFrame(in);
 
-                // In case the server closes the socket
-                if (msgText == null) {
-                    logger.info("Server disconnected");
-                    break;
-                }
+                    // In case the server closes the socket
+                    if (frame == null) {
+                        logger.info("Server disconnected");
+                        break;
+                    }
+                    msgData = BinaryCodec.decode(frame);
+                } else {
+                    String msgText = BinaryCodec.readLine(in);
 
-                // Create a message object of the correct class, using
-                // reflection
-                logger.info("Receiving message: " + msgText);
-                MessageData msgData = MessageData.unserialize(msgText);
+                    // In case the server closes the socket
+                    if (msgText == null) {
+                        logger.info("Server disconnected");
+                        break;
+                    }
+
+                    // Create a message object of the correct class, using
+                    // reflection
+                    logger.info("Receiving message: " + msgText);
+                    msgData = MessageData.unserialize(msgText);
+                }
 
                 if (msgData == null) {
                     logger.error("Received invalid message");
@@ -229,11 +333,13 @@ public void send(final Message msg) {
                 msg.getRawData().setToken(login.getToken());
                 msg.getRawData().setUsername(login.getUsername());
             }
-            OutputStreamWriter out = new OutputStreamWriter(socket.getOutputStream());
             logger.info("Sending message: " + msg.toString());
             // This will send the serialized MessageData object
-            out.write(msg.toString() + "\n");
-            out.flush();
+            byte[] frame = wireFormat.encode(msg.getRawData());
+            synchronized (out) {
+                out.write(frame);
+                out.flush();
+            }
         } catch (IOException e) {
             logger.info("Server unreachable; logged out");
             close();
@@ -99,6 +99,47 @@ public String toString() {
             return str;
         }
 
+        /**
+         * @param string The rank as string.
+         *
+         * @return Returns the corresponding rank object.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public static Rank fromString(final String string) {
+            switch (string) {
+                case "2":
+                    return Two;
+                case "3":
+                    return Three;
+                case "4":
+                    return Four;
+                case "5":
+                    return Five;
+                case "6":
+                    return Six;
+                case "7":
+                    return Seven;
+                case "8":
+                    return Eight;
+                case "9":
+                    return Nine;
+                case "10":
+                    return Ten;
+                case "jack":
+                    return Jack;
+                case "queen":
+                    return Queen;
+                case "king":
+                    return King;
+                case "ace":
+                    return Ace;
+                default:
+                    throw new IllegalStateException("Unexpected value: " + string);
+            }
+        }
+
         /**
          * @param previous Card to compare against.
          *
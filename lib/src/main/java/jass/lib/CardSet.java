@@ -0,0 +1,332 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib;
+
+/**
+ * A set of cards of the 36 card Jass deck, stored as the bits of a long. Bit
+ * {@code suit * 9 + rank} stands for a card, where the suit is the ordinal of
+ * {@link Card.Suit} and the rank counts from six (0) to ace (8). Everything
+ * works on plain longs and ints, so the rules never allocate.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class CardSet {
+    /**
+     * The amount of ranks per suit.
+     */
+    public static final int RANKS = 9;
+
+    /**
+     * The amount of cards in the deck.
+     */
+    public static final int SIZE = 4 * RANKS;
+
+    /**
+     * No cards.
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * The whole deck.
+     */
+    public static final long ALL = (1L << SIZE) - 1;
+
+    /**
+     * The suit to use, if there is no trump.
+     */
+    public static final int NO_TRUMP = -1;
+
+    /**
+     * The rank of the jack.
+     */
+    public static final int JACK = 5;
+
+    /**
+     * The rank of the nine.
+     */
+    public static final int NINE = 3;
+
+    /**
+     * The cards of the first suit.
+     */
+    private static final long FIRST_SUIT = (1L << RANKS) - 1;
+
+    /**
+     * The order of the ranks from six to ace, if the higher ranks win.
+     */
+    private static final int[] OBE_ABE_ORDER = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+
+    /**
+     * The order of the ranks from six to ace, if the lower ranks win.
+     */
+    private static final int[] ONDE_UFE_ORDER = {8, 7, 6, 5, 4, 3, 2, 1, 0};
+
+    /**
+     * The order of the ranks from six to ace in the trump suit, where the jack
+     * and the nine beat the ace.
+     */
+    private static final int[] TRUMP_ORDER = {0, 1, 2, 7, 3, 8, 4, 5, 6};
+
+    /**
+     * The points of the ranks from six to ace in the trump suit.
+     */
+    private static final int[] TRUMP_POINTS = {0, 0, 0, 14, 10, 20, 3, 4, 11};
+
+    /**
+     * The points of the ranks from six to ace in the other suits, when
+     * playing trump.
+     */
+    private static final int[] NON_TRUMP_POINTS = {0, 0, 0, 0, 10, 2, 3, 4, 11};
+
+    /**
+     * The points of the ranks from six to ace for "Obe abe".
+     */
+    private static final int[] OBE_ABE_POINTS = {0, 0, 8, 0, 10, 2, 3, 4, 11};
+
+    /**
+     * The points of the ranks from six to ace for "Onde ufe".
+     */
+    private static final int[] ONDE_UFE_POINTS = {11, 0, 8, 0, 10, 2, 3, 4, 0};
+
+    /**
+     * Added to the order of the cards of the suit which was led.
+     */
+    private static final int LEAD_BONUS = 16;
+
+    /**
+     * Added to the order of the trump cards.
+     */
+    private static final int TRUMP_BONUS = 32;
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private CardSet() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param suit The suit.
+     * @param rank The rank, from six to ace.
+     *
+     * @return Returns the index of the card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int index(final Card.Suit suit, final Card.Rank rank) {
+        int rankIndex = rank.ordinal() - Card.Rank.Six.ordinal();
+        if (rankIndex < 0) {
+            throw new IllegalArgumentException("Not a Jass card: " + rank);
+        }
+        return index(suit.ordinal(), rankIndex);
+    }
+
+    /**
+     * @param suit The suit, as ordinal of {@link Card.Suit}.
+     * @param rank The rank, from six (0) to ace (8).
+     *
+     * @return Returns the index of the card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int index(final int suit, final int rank) {
+        return suit * RANKS + rank;
+    }
+
+    /**
+     * @param index The index of a card.
+     *
+     * @return Returns the set with only the given card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long of(final int index) {
+        return 1L << index;
+    }
+
+    /**
+     * @param index The index of a card.
+     *
+     * @return Returns the suit of the card, as ordinal of {@link Card.Suit}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int suitOf(final int index) {
+        return index / RANKS;
+    }
+
+    /**
+     * @param index The index of a card.
+     *
+     * @return Returns the rank of the card, from six (0) to ace (8).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int rankOf(final int index) {
+        return index % RANKS;
+    }
+
+    /**
+     * @param suit The suit, as ordinal of {@link Card.Suit}.
+     *
+     * @return Returns the set with all cards of the suit.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long suit(final int suit) {
+        return FIRST_SUIT << (suit * RANKS);
+    }
+
+    /**
+     * @param set   The set.
+     * @param index The index of a card.
+     *
+     * @return Returns whether the card is in the set.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static boolean contains(final long set, final int index) {
+        return (set & of(index)) != 0;
+    }
+
+    /**
+     * @param set The set.
+     *
+     * @return Returns the amount of cards in the set.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int size(final long set) {
+        return Long.bitCount(set);
+    }
+
+    /**
+     * @param gameMode The game mode of the round.
+     * @param suit     The trump suit of the round, if any.
+     *
+     * @return Returns the trump suit as ordinal of {@link Card.Suit}, or
+     * {@link #NO_TRUMP}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int trumpOf(final GameMode gameMode, final Card.Suit suit) {
+        return gameMode == GameMode.TRUMPF && suit != null ? suit.ordinal() : NO_TRUMP;
+    }
+
+    /**
+     * The cards which may be played on the given lead. Whoever still has a
+     * card of the suit which was led has to follow suit or play a trump,
+     * except if the only such card is the jack of trump. Otherwise anything
+     * goes.
+     *
+     * @param hand  The cards the player still has.
+     * @param lead  The first card of the turn, or -1 if the player leads.
+     * @param trump The trump suit, or {@link #NO_TRUMP}.
+     *
+     * @return Returns the set of all cards which would be allowed (not only
+     * the ones in the hand).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long allowed(final long hand, final int lead, final int trump) {
+        long leadSuit = lead < 0 ? EMPTY : suit(suitOf(lead));
+        long trumps = trump < 0 ? EMPTY : suit(trump);
+        long trumpJack = trump < 0 ? EMPTY : of(index(trump, JACK));
+        long follow = hand & leadSuit & ~trumpJack;
+        // All ones if the player can follow suit, zero otherwise
+        long forced = (follow | -follow) >> 63;
+        return ALL & ~(forced & ~(leadSuit | trumps));
+    }
+
+    /**
+     * @param hand  The cards the player still has.
+     * @param lead  The first card of the turn, or -1 if the player leads.
+     * @param trump The trump suit, or {@link #NO_TRUMP}.
+     *
+     * @return Returns the cards of the hand which may be played.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long legalMoves(final long hand, final int lead, final int trump) {
+        return hand & allowed(hand, lead, trump);
+    }
+
+    /**
+     * @param index    The index of a card.
+     * @param leadSuit The suit which was led.
+     * @param gameMode The game mode of the round.
+     * @param trump    The trump suit, or {@link #NO_TRUMP}.
+     *
+     * @return Returns how strong the card is in the turn, the strongest card
+     * wins. Cards which neither follow suit nor are trump are -1. Looked up in
+     * the {@link TrickTable} while playing.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int strength(final int index, final int leadSuit, final GameMode gameMode, final int trump) {
+        int suit = suitOf(index);
+        int rank = rankOf(index);
+        if (suit == trump) {
+            return TRUMP_BONUS + TRUMP_ORDER[rank];
+        } else if (suit == leadSuit) {
+            return LEAD_BONUS + (gameMode == GameMode.ONDE_UFE ? ONDE_UFE_ORDER[rank] : OBE_ABE_ORDER[rank]);
+        }
+        return -1;
+    }
+
+    /**
+     * @param index    The index of a card.
+     * @param gameMode The game mode of the round.
+     * @param trump    The trump suit, or {@link #NO_TRUMP}.
+     *
+     * @return Returns how many points the card is worth. Looked up in the
+     * {@link TrickTable} while playing.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int points(final int index, final GameMode gameMode, final int trump) {
+        int rank = rankOf(index);
+        if (gameMode == GameMode.OBE_ABE) {
+            return OBE_ABE_POINTS[rank];
+        } else if (gameMode == GameMode.ONDE_UFE) {
+            return ONDE_UFE_POINTS[rank];
+        }
+        return suitOf(index) == trump ? TRUMP_POINTS[rank] : NON_TRUMP_POINTS[rank];
+    }
+}
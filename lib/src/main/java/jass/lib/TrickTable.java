@@ -0,0 +1,195 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib;
+
+/**
+ * The strength of every card for every game mode, trump suit and suit which
+ * was led, built once when the class is loaded. The winner of a turn is then
+ * found with four array reads, its points likewise.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class TrickTable {
+    /**
+     * The extra points for whoever wins the last turn of a round.
+     */
+    public static final int LAST_TURN_BONUS = 5;
+
+    /**
+     * The points of all turns of a round together, with the bonus.
+     */
+    public static final int ROUND_POINTS = 157;
+
+    /**
+     * The possible trump suits, including {@link CardSet#NO_TRUMP}.
+     */
+    private static final int TRUMPS = 5;
+
+    /**
+     * The amount of suits which can be led.
+     */
+    private static final int SUITS = 4;
+
+    /**
+     * The strengths, see {@link CardSet#strength(int, int, GameMode, int)},
+     * in rows of {@link CardSet#SIZE} cards.
+     */
+    private static final byte[] STRENGTHS = build();
+
+    /**
+     * The points, see {@link CardSet#points(int, GameMode, int)}, in rows of
+     * {@link CardSet#SIZE} cards.
+     */
+    private static final byte[] POINTS = buildPoints();
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private TrickTable() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return Returns the strengths of all cards in all situations.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static byte[] build() {
+        GameMode[] gameModes = GameMode.values();
+        byte[] strengths = new byte[gameModes.length * TRUMPS * SUITS * CardSet.SIZE];
+        for (GameMode gameMode : gameModes) {
+            for (int trump = CardSet.NO_TRUMP; trump < SUITS; trump++) {
+                for (int leadSuit = 0; leadSuit < SUITS; leadSuit++) {
+                    int row = row(gameMode, trump, leadSuit);
+                    for (int card = 0; card < CardSet.SIZE; card++) {
+                        strengths[row + card] = (byte) CardSet.strength(card, leadSuit, gameMode, trump);
+                    }
+                }
+            }
+        }
+        return strengths;
+    }
+
+    /**
+     * @return Returns the points of all cards in all game modes.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static byte[] buildPoints() {
+        GameMode[] gameModes = GameMode.values();
+        byte[] points = new byte[gameModes.length * TRUMPS * CardSet.SIZE];
+        for (GameMode gameMode : gameModes) {
+            for (int trump = CardSet.NO_TRUMP; trump < SUITS; trump++) {
+                int row = (gameMode.ordinal() * TRUMPS + trump + 1) * CardSet.SIZE;
+                for (int card = 0; card < CardSet.SIZE; card++) {
+                    points[row + card] = (byte) CardSet.points(card, gameMode, trump);
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * @param gameMode The game mode of the round.
+     * @param trump    The trump suit, or {@link CardSet#NO_TRUMP}.
+     * @param leadSuit The suit which was led.
+     *
+     * @return Returns where the strengths for the situation start.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static int row(final GameMode gameMode, final int trump, final int leadSuit) {
+        return ((gameMode.ordinal() * TRUMPS + trump + 1) * SUITS + leadSuit) * CardSet.SIZE;
+    }
+
+    /**
+     * @param index    The index of a card.
+     * @param leadSuit The suit which was led.
+     * @param gameMode The game mode of the round.
+     * @param trump    The trump suit, or {@link CardSet#NO_TRUMP}.
+     *
+     * @return Returns how strong the card is in the turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int strength(final int index, final int leadSuit, final GameMode gameMode, final int trump) {
+        return STRENGTHS[row(gameMode, trump, leadSuit) + index];
+    }
+
+    /**
+     * @param first    The index of the first card of the turn.
+     * @param second   The index of the second card.
+     * @param third    The index of the third card.
+     * @param fourth   The index of the fourth card.
+     * @param gameMode The game mode of the round.
+     * @param trump    The trump suit, or {@link CardSet#NO_TRUMP}.
+     *
+     * @return Returns the position (0 to 3) of the card which wins the turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int winner(final int first, final int second, final int third, final int fourth, final GameMode gameMode, final int trump) {
+        int row = row(gameMode, trump, CardSet.suitOf(first));
+        int winner = 0;
+        int best = STRENGTHS[row + first];
+        if (STRENGTHS[row + second] > best) {
+            winner = 1;
+            best = STRENGTHS[row + second];
+        }
+        if (STRENGTHS[row + third] > best) {
+            winner = 2;
+            best = STRENGTHS[row + third];
+        }
+        if (STRENGTHS[row + fourth] > best) {
+            winner = 3;
+        }
+        return winner;
+    }
+
+    /**
+     * @param first    The index of the first card of the turn.
+     * @param second   The index of the second card.
+     * @param third    The index of the third card.
+     * @param fourth   The index of the fourth card.
+     * @param gameMode The game mode of the round.
+     * @param trump    The trump suit, or {@link CardSet#NO_TRUMP}.
+     *
+     * @return Returns the points of the turn, without the bonus for the last
+     * turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int points(final int first, final int second, final int third, final int fourth, final GameMode gameMode, final int trump) {
+        int row = (gameMode.ordinal() * TRUMPS + trump + 1) * CardSet.SIZE;
+        return POINTS[row + first] + POINTS[row + second] + POINTS[row + third] + POINTS[row + fourth];
+    }
+}
@@ -19,10 +19,23 @@
 
 package jass.lib.database;
 
+import com.j256.ormlite.dao.BaseDaoImpl;
+import com.j256.ormlite.dao.CloseableIterator;
 import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.table.TableInfo;
 
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @param <D> The DAO for the entity
@@ -32,6 +45,39 @@
  * @since 1.0.0
  */
 public abstract class Repository<D extends Dao<E, Integer>, E extends Entity> {
+    /**
+     * How many entities a page has by default.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /**
+     * The result flags the queries of {@link #iterator()} are compiled with.
+     * A forward only result is what the database gives anyway, asking for it
+     * explicitly lets the connection tell these queries apart and fetch their
+     * rows in parts.
+     */
+    public static final int ITERATOR_RESULT_FLAGS = ResultSet.TYPE_FORWARD_ONLY;
+
+    /**
+     * The column all entities keep their ID in.
+     */
+    private static final String ID_COLUMN = "id";
+
+    /**
+     * How many commits all repositories made.
+     */
+    private static final AtomicLong commits = new AtomicLong();
+
+    /**
+     * How many statements these commits wrote.
+     */
+    private static final AtomicLong statements = new AtomicLong();
+
+    /**
+     * How many nanoseconds the commits took in total.
+     */
+    private static final AtomicLong commitTime = new AtomicLong();
+
     /**
      * The DAO.
      */
@@ -57,6 +103,18 @@ public D getDao() {
         return dao;
     }
 
+    /**
+     * @return Returns an empty unit of work on the database of this
+     * repository, to write changes of several repositories in one
+     * transaction.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public UnitOfWork newUnitOfWork() {
+        return new UnitOfWork(dao.getConnectionSource());
+    }
+
     /**
      * @param entity The entity to be added.
      *
@@ -66,13 +124,22 @@ public D getDao() {
      * @since 1.0.0
      */
     public boolean add(final E entity) {
-        try {
-            // Add the object to the db
-            dao.create(entity);
-            return true;
-        } catch (SQLException e) {
-            return false;
-        }
+        // Add the object to the db
+        return write(1, () -> dao.create(entity));
+    }
+
+    /**
+     * Add all entities at once, in one batch.
+     *
+     * @param entities The entities to be added.
+     *
+     * @return Returns true if successful and false if failed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean addAll(final Collection<E> entities) {
+        return write(entities.size(), () -> dao.create(entities));
     }
 
     /**
@@ -84,13 +151,8 @@ public boolean add(final E entity) {
      * @since 1.0.0
      */
     public boolean remove(final E entity) {
-        try {
-            // Delete the object from the db
-            dao.delete(entity);
-            return true;
-        } catch (SQLException e) {
-            return false;
-        }
+        // Delete the object from the db
+        return write(1, () -> dao.delete(entity));
     }
 
     /**
@@ -102,12 +164,38 @@ public boolean remove(final E entity) {
      * @since 1.0.0
      */
     public boolean update(final E entity) {
+        // Update the object in the db
+        return write(1, () -> dao.update(entity));
+    }
+
+    /**
+     * Copy the values of all columns, so they can be written on another
+     * thread while the entity keeps changing. Referenced entities aren't
+     * copied, only their ID is written.
+     *
+     * @param entity The entity to be copied.
+     *
+     * @return Returns the copy or null if it couldn't be created.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public E copy(final E entity) {
+        if (!(dao instanceof BaseDaoImpl)) {
+            return null;
+        }
         try {
-            // Update the object in the db
-            dao.update(entity);
-            return true;
-        } catch (SQLException e) {
-            return false;
+            @SuppressWarnings("unchecked")
+            TableInfo<E, Integer> tableInfo = ((BaseDaoImpl<E, Integer>) dao).getTableInfo();
+            E copy = tableInfo.createObject();
+            for (FieldType fieldType : tableInfo.getFieldTypes()) {
+                Field field = fieldType.getField();
+                field.setAccessible(true);
+                field.set(copy, field.get(entity));
+            }
+            return copy;
+        } catch (SQLException | IllegalAccessException e) {
+            return null;
         }
     }
 
@@ -140,4 +228,216 @@ public List<E> getAll() {
             return null;
         }
     }
+
+    /**
+     * Go through all entities, without loading them all at once. The
+     * iterator keeps a connection to the database until it's closed. How
+     * many rows are fetched from the database at once depends on the
+     * connection (see {@link #ITERATOR_RESULT_FLAGS}).
+     *
+     * @return Returns the iterator, which has to be closed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public CloseableIterator<E> iterator() {
+        return dao.iterator(ITERATOR_RESULT_FLAGS);
+    }
+
+    /**
+     * Same as {@link #iterator()}, as stream.
+     *
+     * @return Returns the stream, which has to be closed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Stream<E> stream() {
+        CloseableIterator<E> iterator = iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(iterator::closeQuietly);
+    }
+
+    /**
+     * Get the entities after the given one, ordered by ID. Unlike an offset,
+     * the ID finds the start of the page in the index, so the last pages
+     * are as fast as the first ones.
+     *
+     * @param afterId  The ID of the last entity of the previous page, or 0
+     *                 for the first page.
+     * @param pageSize How many entities the page has at most.
+     *
+     * @return Returns the entities or null if an error happened.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public List<E> getPage(final int afterId, final int pageSize) {
+        try {
+            return dao.queryBuilder().orderBy(ID_COLUMN, true).limit((long) pageSize).where().gt(ID_COLUMN, afterId).query();
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Go through all entities ordered by ID, one page at a time (see
+     * {@link #getPage(int, int)}). Only one page is in memory, and no
+     * connection is kept between the pages, so the stream may be consumed
+     * slowly.
+     *
+     * @param pageSize How many entities are loaded at once.
+     *
+     * @return Returns the stream.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Stream<E> streamPages(final int pageSize) {
+        return StreamSupport.stream(new PageSpliterator(pageSize), false);
+    }
+
+    /**
+     * Run a statement on its own, which is committed right away.
+     *
+     * @param count     How many statements are written.
+     * @param statement The statement.
+     *
+     * @return Returns true if successful and false if failed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean write(final int count, final UnitOfWork.Change statement) {
+        long start = System.nanoTime();
+        try {
+            UnitOfWork.runExclusively(dao.getConnectionSource(), statement);
+        } catch (SQLException e) {
+            return false;
+        }
+        recordCommit(count, System.nanoTime() - start);
+        return true;
+    }
+
+    /**
+     * Count a commit, for the statistics.
+     *
+     * @param count    How many statements were written.
+     * @param duration How many nanoseconds the commit took.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static void recordCommit(final int count, final long duration) {
+        commits.incrementAndGet();
+        statements.addAndGet(count);
+        commitTime.addAndGet(duration);
+    }
+
+    /**
+     * @return Returns how many commits all repositories made.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long getCommits() {
+        return commits.get();
+    }
+
+    /**
+     * @return Returns how many statements these commits wrote.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long getStatements() {
+        return statements.get();
+    }
+
+    /**
+     * @return Returns how many nanoseconds the commits took in total.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long getCommitTime() {
+        return commitTime.get();
+    }
+
+    /**
+     * Loads the next page when the current one is used up.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    private final class PageSpliterator extends Spliterators.AbstractSpliterator<E> {
+        /**
+         * How many entities are loaded at once.
+         */
+        private final int pageSize;
+
+        /**
+         * The current page.
+         */
+        private List<E> page;
+
+        /**
+         * The position of the next entity in the page.
+         */
+        private int position;
+
+        /**
+         * The ID of the last entity.
+         */
+        private int lastId;
+
+        /**
+         * Whether the last page was loaded.
+         */
+        private boolean lastPage;
+
+        /**
+         * @param pageSize How many entities are loaded at once.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private PageSpliterator(final int pageSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            if (page == null || position == page.size()) {
+                if (lastPage) {
+                    return false;
+                }
+                // Let the previous page go before loading the next one
+                page = null;
+                page = getPage(lastId, pageSize);
+                if (page == null) {
+                    throw new IllegalStateException("Could not load the entities after " + lastId + " of " + dao.getTableName());
+                }
+                position = 0;
+                lastPage = page.size() < pageSize;
+                if (page.isEmpty()) {
+                    return false;
+                }
+            }
+            E entity = page.get(position++);
+            try {
+                lastId = dao.extractId(entity);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not get the ID of an entity of " + dao.getTableName(), e);
+            }
+            action.accept(entity);
+            return true;
+        }
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.database;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.support.ConnectionSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects changes of entities and writes them all in one transaction, so
+ * there is only one commit (and one fsync with SQLite) instead of one for
+ * each statement. The changes are written in the order they were made, an
+ * entity updated several times is only written once. New entities get their
+ * ID on {@link #commit()}.
+ * <p>
+ * Not thread-safe, a unit of work belongs to whoever made it.
+ * </p>
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class UnitOfWork {
+    /**
+     * The logger of ORMLite, which writes to the log of the application.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+
+    /**
+     * The database to write to.
+     */
+    private final ConnectionSource connectionSource;
+
+    /**
+     * The changes, in the order they were made.
+     */
+    private final List<Change> changes = new ArrayList<>();
+
+    /**
+     * The entities which are already going to be updated.
+     */
+    private final Set<Entity> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param connectionSource The database to write to.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public UnitOfWork(final ConnectionSource connectionSource) {
+        this.connectionSource = connectionSource;
+    }
+
+    /**
+     * @param repository The repository of the entity.
+     * @param entity     The entity to be added.
+     * @param <E>        The type of the entity.
+     *
+     * @return Returns itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public <E extends Entity> UnitOfWork add(final Repository<?, E> repository, final E entity) {
+        Dao<E, Integer> dao = repository.getDao();
+        changes.add(() -> dao.create(entity));
+        return this;
+    }
+
+    /**
+     * @param repository The repository of the entities.
+     * @param entities   The entities to be added.
+     * @param <E>        The type of the entities.
+     *
+     * @return Returns itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public <E extends Entity> UnitOfWork addAll(final Repository<?, E> repository, final Collection<E> entities) {
+        for (E entity : entities) {
+            add(repository, entity);
+        }
+        return this;
+    }
+
+    /**
+     * @param repository The repository of the entity.
+     * @param entity     The entity to be updated, after it was changed.
+     * @param <E>        The type of the entity.
+     *
+     * @return Returns itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public <E extends Entity> UnitOfWork update(final Repository<?, E> repository, final E entity) {
+        // The update writes the entity as it is at the commit
+        if (updated.add(entity)) {
+            Dao<E, Integer> dao = repository.getDao();
+            changes.add(() -> dao.update(entity));
+        }
+        return this;
+    }
+
+    /**
+     * @param repository The repository of the entity.
+     * @param entity     The entity to be removed.
+     * @param <E>        The type of the entity.
+     *
+     * @return Returns itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public <E extends Entity> UnitOfWork remove(final Repository<?, E> repository, final E entity) {
+        Dao<E, Integer> dao = repository.getDao();
+        changes.add(() -> dao.delete(entity));
+        return this;
+    }
+
+    /**
+     * @return Returns how many statements the commit runs.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Write all changes in one transaction. If one of them fails, none of
+     * them is written. Either way the unit of work is empty afterwards.
+     *
+     * @return Returns true if successful and false if failed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean commit() {
+        if (changes.isEmpty()) {
+            return true;
+        }
+        List<Change> statements = new ArrayList<>(changes);
+        changes.clear();
+        updated.clear();
+        long start = System.nanoTime();
+        try {
+            runExclusively(connectionSource, () -> write(statements));
+        } catch (SQLException e) {
+            logger.error(e, "Committing " + statements.size() + " changes failed, none of them were written");
+            return false;
+        }
+        Repository.recordCommit(statements.size(), System.nanoTime() - start);
+        return true;
+    }
+
+    /**
+     * @param statements The statements to run in one transaction.
+     *
+     * @throws SQLException If one of them failed, then none are written.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void write(final List<Change> statements) throws SQLException {
+        TransactionManager.callInTransaction(connectionSource, () -> {
+            for (Change change : statements) {
+                change.run();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Run the statement. If all threads share one connection, only one
+     * thread at a time may use it to write, otherwise a transaction could
+     * commit the statements of others (or they read each other's generated
+     * IDs).
+     *
+     * @param connectionSource The database.
+     * @param statement        The statement.
+     *
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static void runExclusively(final ConnectionSource connectionSource, final Change statement) throws SQLException {
+        if (connectionSource.isSingleConnection(null)) {
+            synchronized (connectionSource) {
+                statement.run();
+            }
+        } else {
+            statement.run();
+        }
+    }
+
+    /**
+     * One statement of the unit of work.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    @FunctionalInterface
+    interface Change {
+        /**
+         * @throws SQLException If an SQL error occurs.
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        void run() throws SQLException;
+    }
+}
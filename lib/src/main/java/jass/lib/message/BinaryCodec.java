@@ -0,0 +1,360 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.message;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The compact binary encoding of the messages. A frame is the length of the
+ * payload (4 bytes, big endian) followed by the payload: the type of the
+ * message (1 byte), the common fields of {@link MessageData} and the fields of
+ * the message itself. Numbers are written as variable length integers and
+ * strings as their length followed by the UTF-8 bytes.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class BinaryCodec {
+    /**
+     * The longest frame (or line) a peer may send.
+     */
+    public static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private BinaryCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param messageData The message to be converted.
+     *
+     * @return Returns the complete frame (length and payload).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static byte[] encode(final MessageData messageData) {
+        MessageRegistry.Entry entry = MessageRegistry.get(messageData.getMessageType());
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown message type " + messageData.getMessageType());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            // Reserve the space of the length
+            out.writeInt(0);
+            out.writeByte(entry.getCode());
+            messageData.writeBinary(out);
+        } catch (IOException e) {
+            // A ByteArrayOutputStream never fails
+            throw new IllegalStateException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - 4;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    /**
+     * @param payload The payload of a frame (without the length).
+     *
+     * @return Returns the message, or null if the payload is invalid.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static MessageData decode(final byte[] payload) {
+        if (payload.length == 0) {
+            return null;
+        }
+        MessageRegistry.Entry entry = MessageRegistry.get(payload[0] & 0xFF);
+        if (entry == null) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1));
+        try {
+            return entry.read(in);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the payload of the next frame.
+     *
+     * @param in The stream to read from.
+     *
+     * @return Returns the payload, or null if the stream ended.
+     *
+     * @throws IOException If the stream failed or the frame is too long.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static byte[] readFrame(final InputStream in) throws IOException {
+        int length = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0) {
+                if (i == 0) {
+                    return null;
+                }
+                throw new EOFException();
+            }
+            length = (length << 8) | b;
+        }
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Frame too long");
+        }
+        byte[] payload = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(payload, offset, length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+        return payload;
+    }
+
+    /**
+     * Read the next line (of a JSON message). Reads byte by byte, so the
+     * stream can be switched to binary frames right after any line.
+     *
+     * @param in The (buffered) stream to read from.
+     *
+     * @return Returns the line without the line break, or null if the stream
+     * ended.
+     *
+     * @throws IOException If the stream failed or the line is too long.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static String readLine(final InputStream in) throws IOException {
+        byte[] line = new byte[128];
+        int length = 0;
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return length == 0 ? null : new String(line, 0, length, StandardCharsets.UTF_8);
+            }
+            if (length == MAX_FRAME_LENGTH) {
+                throw new IOException("Line too long");
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, Math.min(MAX_FRAME_LENGTH, length * 2));
+            }
+            line[length++] = (byte) b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a number using as few bytes as possible (small negative numbers
+     * included).
+     *
+     * @param out   The output.
+     * @param value The number.
+     *
+     * @throws IOException If the output failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void writeInt(final DataOutput out, final int value) throws IOException {
+        int zigZag = (value << 1) ^ (value >> 31);
+        while ((zigZag & ~0x7F) != 0) {
+            out.writeByte((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        out.writeByte(zigZag);
+    }
+
+    /**
+     * @param in The input.
+     *
+     * @return Returns the number written by {@link #writeInt(DataOutput, int)}.
+     *
+     * @throws IOException If the input failed or is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static int readInt(final DataInput in) throws IOException {
+        int zigZag = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigZag |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Malformed number");
+    }
+
+    /**
+     * @param out   The output.
+     * @param value The string, may be null.
+     *
+     * @throws IOException If the output failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void writeString(final DataOutput out, final String value) throws IOException {
+        if (value == null) {
+            writeInt(out, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param in The input.
+     *
+     * @return Returns the string written by
+     * {@link #writeString(DataOutput, String)}.
+     *
+     * @throws IOException If the input failed or is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static String readString(final DataInput in) throws IOException {
+        int length = readInt(in);
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IOException("Malformed string");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param out   The output.
+     * @param value The constant, may be null.
+     *
+     * @throws IOException If the output failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void writeEnum(final DataOutput out, final Enum<?> value) throws IOException {
+        writeInt(out, value == null ? -1 : value.ordinal());
+    }
+
+    /**
+     * @param in        The input.
+     * @param enumClass The class of the enum.
+     * @param <E>       The enum.
+     *
+     * @return Returns the constant written by
+     * {@link #writeEnum(DataOutput, Enum)}.
+     *
+     * @throws IOException If the input failed or is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static <E extends Enum<E>> E readEnum(final DataInput in, final Class<E> enumClass) throws IOException {
+        int ordinal = readInt(in);
+        if (ordinal < 0) {
+            return null;
+        }
+        E[] constants = enumClass.getEnumConstants();
+        if (ordinal >= constants.length) {
+            throw new IOException("Malformed " + enumClass.getSimpleName());
+        }
+        return constants[ordinal];
+    }
+
+    /**
+     * @param out   The output.
+     * @param cards The cards.
+     *
+     * @throws IOException If the output failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void writeCards(final DataOutput out, final JSONArray cards) throws IOException {
+        writeInt(out, cards.length());
+        for (int i = 0; i < cards.length(); i++) {
+            JSONObject card = cards.getJSONObject(i);
+            writeInt(out, card.getInt("cardId"));
+            writeInt(out, card.getInt("suitId"));
+            writeString(out, card.getString("suit"));
+            writeInt(out, card.getInt("rankId"));
+            writeString(out, card.getString("rank"));
+        }
+    }
+
+    /**
+     * @param in The input.
+     *
+     * @return Returns the cards written by
+     * {@link #writeCards(DataOutput, JSONArray)}.
+     *
+     * @throws IOException If the input failed or is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static ArrayList<CardData> readCards(final DataInput in) throws IOException {
+        int size = readInt(in);
+        if (size < 0 || size > 36) {
+            throw new IOException("Malformed cards");
+        }
+        ArrayList<CardData> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int cardId = readInt(in);
+            int suitId = readInt(in);
+            String suit = readString(in);
+            int rankId = readInt(in);
+            String rank = readString(in);
+            cards.add(new CardData(cardId, suitId, suit, rankId, rank));
+        }
+        return cards;
+    }
+}
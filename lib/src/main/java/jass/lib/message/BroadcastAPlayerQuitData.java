@@ -21,6 +21,9 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.IOException;
+
 /**
  * @author Victor Hargrave
  * @version %I%, %G%
@@ -44,4 +47,15 @@ public BroadcastAPlayerQuitData() {
     public BroadcastAPlayerQuitData(final JSONObject data) {
         super(data);
     }
+
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public BroadcastAPlayerQuitData(final DataInput in) throws IOException {
+        super(in, "BroadcastAPlayerQuit");
+    }
 }
@@ -22,6 +22,9 @@
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -84,6 +87,47 @@ public BroadcastDeckData(final JSONObject data) {
         }
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public BroadcastDeckData(final DataInput in) throws IOException {
+        super(in, "BroadcastDeck");
+        deckId = BinaryCodec.readInt(in);
+        cardsClient = BinaryCodec.readCards(in);
+        cards = new JSONArray(cardsClient);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, deckId);
+        BinaryCodec.writeCards(out, cards);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("deckId", deckId);
+        out.field("cards", cards);
+        if (cardsClient != null) {
+            out.name("cardsClient").beginArray();
+            for (CardData card : cardsClient) {
+                card.writeJson(out);
+            }
+            out.endArray();
+        }
+    }
+
     /**
      * @return Returns the deck ID.
      *
@@ -24,6 +24,10 @@
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the BroadcastDeckData message.
  *
@@ -84,6 +88,39 @@ public BroadcastGameModeData(final JSONObject data) {
         trumpfSuit = trumpfSuitTemp;
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public BroadcastGameModeData(final DataInput in) throws IOException {
+        super(in, "BroadcastGameMode");
+        gameMode = BinaryCodec.readEnum(in, GameMode.class);
+        trumpfSuit = BinaryCodec.readEnum(in, Card.Suit.class);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeEnum(out, gameMode);
+        BinaryCodec.writeEnum(out, trumpfSuit);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("gameMode", gameMode);
+        out.field("trumpfSuit", trumpfSuit);
+    }
+
     /**
      * @return Returns the game mode.
      *
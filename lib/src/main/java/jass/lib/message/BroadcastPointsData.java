@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the BroadcastPointsData message.
  *
@@ -64,6 +68,39 @@ public BroadcastPointsData(final JSONObject data) {
         points = data.getInt("points");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public BroadcastPointsData(final DataInput in) throws IOException {
+        super(in, "BroadcastPoints");
+        turnId = BinaryCodec.readInt(in);
+        points = BinaryCodec.readInt(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, turnId);
+        BinaryCodec.writeInt(out, points);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("turnId", turnId);
+        out.field("points", points);
+    }
+
     /**
      * @return Returns the turn ID.
      *
@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the BroadcastPointsData message.
  *
@@ -104,6 +108,54 @@ public BroadcastRoundOverData(final JSONObject data) {
         this.team2Player2 = data.getString("team2Player2");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public BroadcastRoundOverData(final DataInput in) throws IOException {
+        super(in, "BroadcastRoundOver");
+        roundId = BinaryCodec.readInt(in);
+        team1Points = BinaryCodec.readInt(in);
+        team2Points = BinaryCodec.readInt(in);
+        team1Player1 = BinaryCodec.readString(in);
+        team1Player2 = BinaryCodec.readString(in);
+        team2Player1 = BinaryCodec.readString(in);
+        team2Player2 = BinaryCodec.readString(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, roundId);
+        BinaryCodec.writeInt(out, team1Points);
+        BinaryCodec.writeInt(out, team2Points);
+        BinaryCodec.writeString(out, team1Player1);
+        BinaryCodec.writeString(out, team1Player2);
+        BinaryCodec.writeString(out, team2Player1);
+        BinaryCodec.writeString(out, team2Player2);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("roundId", roundId);
+        out.field("team1Points", team1Points);
+        out.field("team2Points", team2Points);
+        out.field("team1Player1", team1Player1);
+        out.field("team1Player2", team1Player2);
+        out.field("team2Player1", team2Player1);
+        out.field("team2Player2", team2Player2);
+    }
+
     /**
      * @return Returns the round id
      *
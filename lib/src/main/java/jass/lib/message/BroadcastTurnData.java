@@ -22,6 +22,9 @@
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -95,6 +98,53 @@ public BroadcastTurnData(final JSONObject data) {
         }
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public BroadcastTurnData(final DataInput in) throws IOException {
+        super(in, "BroadcastTurn");
+        turnId = BinaryCodec.readInt(in);
+        startingPlayer = BinaryCodec.readString(in);
+        winningPlayer = BinaryCodec.readString(in);
+        playedCardsClient = BinaryCodec.readCards(in);
+        playedCards = new JSONArray(playedCardsClient);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, turnId);
+        BinaryCodec.writeString(out, startingPlayer);
+        BinaryCodec.writeString(out, winningPlayer);
+        BinaryCodec.writeCards(out, playedCards);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("turnId", turnId);
+        out.field("startingPlayer", startingPlayer);
+        out.field("winningPlayer", winningPlayer);
+        out.field("playedCards", playedCards);
+        if (playedCardsClient != null) {
+            out.name("playedCardsClient").beginArray();
+            for (CardData card : playedCardsClient) {
+                card.writeJson(out);
+            }
+            out.endArray();
+        }
+    }
+
     /**
      * @return Returns the turn.
      *
@@ -145,4 +145,24 @@ public CardData setPlayed(final boolean played) {
         isPlayed = played;
         return this;
     }
+
+    /**
+     * Write the card as JSON object, with the same fields the getters would
+     * give.
+     *
+     * @param out The output.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void writeJson(final JsonWriter out) {
+        out.beginObject();
+        out.field("suit", suit);
+        out.field("rank", rank);
+        out.field("cardId", cardId);
+        out.field("suitId", suitId);
+        out.field("rankId", rankId);
+        out.field("played", isPlayed);
+        out.endObject();
+    }
 }
@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the change password message.
  *
@@ -64,6 +68,38 @@ public ChangePasswordData(final JSONObject data) {
         newPassword = data.getString("newPassword");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ChangePasswordData(final DataInput in) throws IOException {
+        super(in, "ChangePassword");
+        token = BinaryCodec.readString(in);
+        newPassword = BinaryCodec.readString(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, token);
+        BinaryCodec.writeString(out, newPassword);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("newPassword", newPassword);
+    }
+
     /**
      * @return Returns the token.
      *
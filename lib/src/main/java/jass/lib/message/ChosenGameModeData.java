@@ -24,6 +24,10 @@
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * @author Manuele Vaccari
  * @version %I%, %G%
@@ -101,6 +105,41 @@ public ChosenGameModeData(final JSONObject data) {
         trumpfSuit = trumpfSuitTemp;
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ChosenGameModeData(final DataInput in) throws IOException {
+        super(in, "ChosenGameMode");
+        gameMode = BinaryCodec.readEnum(in, GameMode.class);
+        trumpfSuit = BinaryCodec.readEnum(in, Card.Suit.class);
+        token = BinaryCodec.readString(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeEnum(out, gameMode);
+        BinaryCodec.writeEnum(out, trumpfSuit);
+        BinaryCodec.writeString(out, token);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("gameMode", gameMode);
+        out.field("trumpfSuit", trumpfSuit);
+    }
+
     /**
      * @return Returns the token.
      *
@@ -21,6 +21,9 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.IOException;
+
 /**
  * @author Thomas Weber
  * @version %I%, %G%
@@ -35,4 +38,15 @@ public ContinuePlayingData() {
     public ContinuePlayingData(final JSONObject data) {
         super(data);
     }
+
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ContinuePlayingData(final DataInput in) throws IOException {
+        super(in, "ContinuePlaying");
+    }
 }
@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the delete login message.
  *
@@ -56,6 +60,27 @@ public DeleteLoginData(final JSONObject data) {
         token = data.getString("token");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public DeleteLoginData(final DataInput in) throws IOException {
+        super(in, "DeleteLogin");
+        token = BinaryCodec.readString(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, token);
+    }
+
     /**
      * @return Returns the token.
      *
@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the Game Found message.
  *
@@ -160,6 +164,72 @@ public GameFoundData(final JSONObject data) {
         playerFourTeamId = data.getInt("playerFourTeamId");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameFoundData(final DataInput in) throws IOException {
+        super(in, "GameFound");
+        gameId = BinaryCodec.readInt(in);
+        playerOneId = BinaryCodec.readInt(in);
+        playerOne = BinaryCodec.readString(in);
+        playerOneTeamId = BinaryCodec.readInt(in);
+        playerTwoId = BinaryCodec.readInt(in);
+        playerTwo = BinaryCodec.readString(in);
+        playerTwoTeamId = BinaryCodec.readInt(in);
+        playerThreeId = BinaryCodec.readInt(in);
+        playerThree = BinaryCodec.readString(in);
+        playerThreeTeamId = BinaryCodec.readInt(in);
+        playerFourId = BinaryCodec.readInt(in);
+        playerFour = BinaryCodec.readString(in);
+        playerFourTeamId = BinaryCodec.readInt(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, gameId);
+        BinaryCodec.writeInt(out, playerOneId);
+        BinaryCodec.writeString(out, playerOne);
+        BinaryCodec.writeInt(out, playerOneTeamId);
+        BinaryCodec.writeInt(out, playerTwoId);
+        BinaryCodec.writeString(out, playerTwo);
+        BinaryCodec.writeInt(out, playerTwoTeamId);
+        BinaryCodec.writeInt(out, playerThreeId);
+        BinaryCodec.writeString(out, playerThree);
+        BinaryCodec.writeInt(out, playerThreeTeamId);
+        BinaryCodec.writeInt(out, playerFourId);
+        BinaryCodec.writeString(out, playerFour);
+        BinaryCodec.writeInt(out, playerFourTeamId);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("gameId", gameId);
+        out.field("playerOneId", playerOneId);
+        out.field("playerOne", playerOne);
+        out.field("playerOneTeamId", playerOneTeamId);
+        out.field("playerTwoId", playerTwoId);
+        out.field("playerTwo", playerTwo);
+        out.field("playerTwoTeamId", playerTwoTeamId);
+        out.field("playerThreeId", playerThreeId);
+        out.field("playerThree", playerThree);
+        out.field("playerThreeTeamId", playerThreeTeamId);
+        out.field("playerFourId", playerFourId);
+        out.field("playerFour", playerFour);
+        out.field("playerFourTeamId", playerFourTeamId);
+    }
+
     /**
      * @return Returns the game ID.
      *
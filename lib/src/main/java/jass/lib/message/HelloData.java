@@ -0,0 +1,106 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.message;
+
+import org.json.JSONObject;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The data model for the hello message. A client sends it (always as JSON)
+ * right after connecting, to ask the server to switch to another wire format.
+ * The server answers with a result and switches both directions once the
+ * result was sent. A server which doesn't know the message answers with an
+ * error, so the client stays with JSON.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class HelloData extends MessageData {
+    /**
+     * The wire format the client would like to use.
+     */
+    private final WireFormat wireFormat;
+
+    /**
+     * @param wireFormat The wire format the client would like to use.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public HelloData(final WireFormat wireFormat) {
+        super("Hello");
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * @param data The message containing all the data.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public HelloData(final JSONObject data) {
+        super(data);
+        wireFormat = data.getEnum(WireFormat.class, "wireFormat");
+    }
+
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public HelloData(final DataInput in) throws IOException {
+        super(in, "Hello");
+        wireFormat = BinaryCodec.readEnum(in, WireFormat.class);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeEnum(out, wireFormat);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("wireFormat", wireFormat);
+    }
+
+    /**
+     * @return Returns the wire format the client would like to use.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+}
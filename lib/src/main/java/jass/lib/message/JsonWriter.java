@@ -0,0 +1,387 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.message;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Writes the JSON of a message straight into a buffer, instead of building a
+ * {@link JSONObject} from the getters by reflection first. Every thread reuses
+ * its own writer, so writing a message only allocates the result.
+ * <p>
+ * The output is the same as the one of org.json: strings are escaped the same
+ * way and fields which are null are left out.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class JsonWriter {
+    /**
+     * The writer of each thread.
+     */
+    private static final ThreadLocal<JsonWriter> WRITERS = ThreadLocal.withInitial(JsonWriter::new);
+
+    /**
+     * Writers which grew beyond this size are shrunk again, so a single huge
+     * message doesn't keep the memory forever.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    /**
+     * The JSON written so far.
+     */
+    private StringBuilder buffer = new StringBuilder(512);
+
+    /**
+     * Whether the next field or value needs a comma in front of it.
+     */
+    private boolean comma = false;
+
+    /**
+     * Only {@link #get()} creates writers.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private JsonWriter() {
+    }
+
+    /**
+     * The writer of the current thread. Everything written before is
+     * discarded, so the result has to be taken before the writer is requested
+     * again.
+     *
+     * @return Returns the empty writer.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static JsonWriter get() {
+        JsonWriter writer = WRITERS.get();
+        if (writer.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            writer.buffer = new StringBuilder(512);
+        }
+        writer.buffer.setLength(0);
+        writer.comma = false;
+        return writer;
+    }
+
+    /**
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter beginObject() {
+        separate();
+        buffer.append('{');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter endObject() {
+        buffer.append('}');
+        comma = true;
+        return this;
+    }
+
+    /**
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter beginArray() {
+        separate();
+        buffer.append('[');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter endArray() {
+        buffer.append(']');
+        comma = true;
+        return this;
+    }
+
+    /**
+     * Write the name of a field, the value has to follow.
+     *
+     * @param name The name of the field.
+     *
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter name(final String name) {
+        separate();
+        quote(name);
+        buffer.append(':');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * @param name  The name of the field.
+     * @param value The value.
+     *
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter field(final String name, final int value) {
+        name(name);
+        buffer.append(value);
+        comma = true;
+        return this;
+    }
+
+    /**
+     * @param name  The name of the field.
+     * @param value The value.
+     *
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter field(final String name, final boolean value) {
+        name(name);
+        buffer.append(value);
+        comma = true;
+        return this;
+    }
+
+    /**
+     * @param name  The name of the field.
+     * @param value The value, the field is left out if null.
+     *
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter field(final String name, final Object value) {
+        if (value != null) {
+            name(name);
+            value(value);
+        }
+        return this;
+    }
+
+    /**
+     * Write a value, either a string, number, boolean, enum (by its name),
+     * {@link JSONObject} or {@link JSONArray}.
+     *
+     * @param value The value.
+     *
+     * @return Returns the writer itself.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public JsonWriter value(final Object value) {
+        separate();
+        if (value == null || value.equals(null)) {
+            buffer.append("null");
+        } else if (value instanceof String) {
+            quote((String) value);
+        } else if (value instanceof Integer || value instanceof Boolean) {
+            buffer.append(value);
+        } else if (value instanceof Enum) {
+            quote(((Enum<?>) value).name());
+        } else if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            buffer.append('{');
+            comma = false;
+            for (String key : object.keySet()) {
+                name(key);
+                value(object.opt(key));
+            }
+            buffer.append('}');
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            buffer.append('[');
+            comma = false;
+            for (Object element : array) {
+                value(element);
+            }
+            buffer.append(']');
+        } else {
+            // Anything else the way org.json would write it
+            buffer.append(JSONObject.valueToString(value));
+        }
+        comma = true;
+        return this;
+    }
+
+    /**
+     * @return Returns the JSON written so far.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    /**
+     * Encode what was written as UTF-8 and end it with a line break, without
+     * creating a string first.
+     *
+     * @return Returns the line as it is sent.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public byte[] toLine() {
+        int length = buffer.length();
+        int size = 1;
+        for (int i = 0; i < length; i++) {
+            char c = buffer.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(buffer.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                size += 1;
+            } else {
+                size += 3;
+            }
+        }
+
+        byte[] line = new byte[size];
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = buffer.charAt(i);
+            if (c < 0x80) {
+                line[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                line[pos++] = (byte) (0xC0 | (c >> 6));
+                line[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(buffer.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, buffer.charAt(++i));
+                line[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                line[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                line[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                line[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // A lone surrogate can't be encoded, replaced like
+                // String.getBytes does
+                line[pos++] = '?';
+            } else {
+                line[pos++] = (byte) (0xE0 | (c >> 12));
+                line[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                line[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        line[pos] = '\n';
+        return line;
+    }
+
+    /**
+     * Put a comma in front of the next field or value, if required.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void separate() {
+        if (comma) {
+            buffer.append(',');
+            comma = false;
+        }
+    }
+
+    /**
+     * Write a string in quotes, escaped like {@link JSONObject#quote(String)}.
+     *
+     * @param string The string.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void quote(final String string) {
+        buffer.append('"');
+        char previous = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    buffer.append('\\').append(c);
+                    break;
+                case '/':
+                    if (previous == '<') {
+                        buffer.append('\\');
+                    }
+                    buffer.append(c);
+                    break;
+                case '\b':
+                    buffer.append("\\b");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\f':
+                    buffer.append("\\f");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                default:
+                    if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                        String hex = Integer.toHexString(c);
+                        buffer.append("\\u");
+                        for (int j = hex.length(); j < 4; j++) {
+                            buffer.append('0');
+                        }
+                        buffer.append(hex);
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+            previous = c;
+        }
+        buffer.append('"');
+    }
+}
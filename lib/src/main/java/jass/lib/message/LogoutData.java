@@ -21,6 +21,9 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.IOException;
+
 /**
  * The data model for the logout message.
  *
@@ -48,4 +51,15 @@ public LogoutData() {
     public LogoutData(final JSONObject data) {
         super(data);
     }
+
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public LogoutData(final DataInput in) throws IOException {
+        super(in, "Logout");
+    }
 }
@@ -22,9 +22,10 @@
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 
 /**
  * @author Manuele Vaccari & Victor Hargrave
@@ -48,15 +49,14 @@ public static MessageData unserialize(final String jsonString) {
             return null;
         }
 
+        MessageRegistry.Entry entry = MessageRegistry.get(data.optString("messageType", null));
+        if (entry == null) {
+            return null;
+        }
         try {
-            /*
-             * @author https://stackoverflow.com/questions/3574065/instantiate-a-class-object-with-constructor-that-accepts-a-string-parameter
-             */
-            String messageClassName = MessageData.class.getPackage().getName() + "." + data.getString("messageType") + "Data";
-            Class<?> messageClass = Class.forName(messageClassName);
-            Constructor<?> constructor = messageClass.getConstructor(JSONObject.class);
-            return (MessageData) constructor.newInstance(data);
-        } catch (InstantiationException | InvocationTargetException | NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
+            return entry.read(data);
+        } catch (RuntimeException e) {
+            // Missing or malformed fields
             return null;
         }
     }
@@ -70,8 +70,9 @@ public static MessageData unserialize(final String jsonString) {
      * @since 1.0.0
      */
     public static String serialize(final MessageData messageData) {
-        JSONObject data = new JSONObject(messageData);
-        return data.toString();
+        JsonWriter out = JsonWriter.get();
+        messageData.writeJson(out);
+        return out.toString();
     }
 
     /* Required data */
@@ -142,6 +143,83 @@ public MessageData(final JSONObject data) {
         messageType = data.getString("messageType");
     }
 
+    /**
+     * @param in          The binary message containing all the data.
+     * @param messageType The type (object name).
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public MessageData(final DataInput in, final String messageType) throws IOException {
+        id = BinaryCodec.readInt(in);
+        token = BinaryCodec.readString(in);
+        username = BinaryCodec.readString(in);
+        this.messageType = messageType;
+    }
+
+    /**
+     * Write the message as JSON object, with the same fields the getters
+     * would give.
+     *
+     * @param out The output.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public final void writeJson(final JsonWriter out) {
+        out.beginObject();
+        out.field("messageType", messageType);
+        out.field("id", id);
+        // Some messages have their own token and username
+        out.field("token", getToken());
+        out.field("username", getUsername());
+        writeJsonFields(out);
+        out.endObject();
+    }
+
+    /**
+     * Write the fields of the message itself as JSON. Messages without
+     * fields don't have to override this.
+     *
+     * @param out The output.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    protected void writeJsonFields(final JsonWriter out) {
+    }
+
+    /**
+     * Write the message in the binary format (see {@link BinaryCodec}).
+     *
+     * @param out The output.
+     *
+     * @throws IOException If the output failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public final void writeBinary(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, id);
+        BinaryCodec.writeString(out, token);
+        BinaryCodec.writeString(out, username);
+        writeFields(out);
+    }
+
+    /**
+     * Write the fields of the message itself, in the same order the binary
+     * constructor of the message reads them. Messages without fields don't
+     * have to override this.
+     *
+     * @param out The output.
+     *
+     * @throws IOException If the output failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    protected void writeFields(final DataOutput out) throws IOException {
+    }
+
     /**
      * @return Returns an ID for the message to easily identify responses.
      *
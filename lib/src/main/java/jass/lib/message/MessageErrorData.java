@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the message error message.
  *
@@ -63,6 +67,36 @@ public MessageErrorData(final JSONObject data) {
         errorMessage = data.getEnum(ErrorType.class, "errorMessage");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public MessageErrorData(final DataInput in) throws IOException {
+        super(in, "MessageError");
+        errorMessage = BinaryCodec.readEnum(in, ErrorType.class);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeEnum(out, errorMessage);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("errorMessage", errorMessage);
+    }
+
     /**
      * @return Returns the error type that occurred.
      *
@@ -0,0 +1,221 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.message;
+
+import org.json.JSONObject;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * All known message types, built once when the class is loaded. Each type
+ * has its code for the binary format and the factories creating the data
+ * object from JSON or from a binary frame, so reading a message is a single
+ * lookup instead of searching the class and its constructor by reflection.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class MessageRegistry {
+    /**
+     * The message types by their code. Server and client have to agree on the
+     * codes, so never reorder this list, only append to it.
+     */
+    private static final Entry[] BY_CODE = {
+        new Entry("BroadcastAPlayerQuit", BroadcastAPlayerQuitData::new, BroadcastAPlayerQuitData::new),
+        new Entry("BroadcastDeck", BroadcastDeckData::new, BroadcastDeckData::new),
+        new Entry("BroadcastGameMode", BroadcastGameModeData::new, BroadcastGameModeData::new),
+        new Entry("BroadcastPoints", BroadcastPointsData::new, BroadcastPointsData::new),
+        new Entry("BroadcastRoundOver", BroadcastRoundOverData::new, BroadcastRoundOverData::new),
+        new Entry("BroadcastTurn", BroadcastTurnData::new, BroadcastTurnData::new),
+        new Entry("CancelSearchGame", CancelSearchGameData::new, CancelSearchGameData::new),
+        new Entry("ChangePassword", ChangePasswordData::new, ChangePasswordData::new),
+        new Entry("ChooseGameMode", ChooseGameModeData::new, ChooseGameModeData::new),
+        new Entry("ChosenGameMode", ChosenGameModeData::new, ChosenGameModeData::new),
+        new Entry("ContinuePlaying", ContinuePlayingData::new, ContinuePlayingData::new),
+        new Entry("DeleteLogin", DeleteLoginData::new, DeleteLoginData::new),
+        new Entry("GameFound", GameFoundData::new, GameFoundData::new),
+        new Entry("Login", LoginData::new, LoginData::new),
+        new Entry("Logout", LogoutData::new, LogoutData::new),
+        new Entry("MessageError", MessageErrorData::new, MessageErrorData::new),
+        new Entry("PlayCard", PlayCardData::new, PlayCardData::new),
+        new Entry("PlayedCard", PlayedCardData::new, PlayedCardData::new),
+        new Entry("Register", RegisterData::new, RegisterData::new),
+        new Entry("Result", ResultData::new, ResultData::new),
+        new Entry("SearchGame", SearchGameData::new, SearchGameData::new),
+        new Entry("StopPlaying", StopPlayingData::new, StopPlayingData::new),
+        new Entry("UserOnline", UserOnlineData::new, UserOnlineData::new),
+        new Entry("Hello", HelloData::new, HelloData::new)
+    };
+
+    /**
+     * The message types by their name.
+     */
+    private static final Map<String, Entry> BY_TYPE = new HashMap<>();
+
+    static {
+        for (int i = 0; i < BY_CODE.length; i++) {
+            BY_CODE[i].code = i;
+            BY_TYPE.put(BY_CODE[i].type, BY_CODE[i]);
+        }
+    }
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private MessageRegistry() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param type The type (object name), as in {@link MessageData#getMessageType()}.
+     *
+     * @return Returns the entry of the type, or null if the type is unknown.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static Entry get(final String type) {
+        return type == null ? null : BY_TYPE.get(type);
+    }
+
+    /**
+     * @param code The code of the type in the binary format.
+     *
+     * @return Returns the entry of the type, or null if the code is unknown.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static Entry get(final int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Reads the fields of one message type from a binary frame.
+     */
+    @FunctionalInterface
+    public interface BinaryReader {
+        /**
+         * @param in The payload, positioned after the type.
+         *
+         * @return Returns the message.
+         *
+         * @throws IOException If the payload is malformed.
+         */
+        MessageData read(DataInput in) throws IOException;
+    }
+
+    /**
+     * One message type.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public static final class Entry {
+        /**
+         * The type (object name).
+         */
+        private final String type;
+
+        /**
+         * Creates the data object from JSON.
+         */
+        private final Function<JSONObject, MessageData> jsonReader;
+
+        /**
+         * Creates the data object from a binary frame.
+         */
+        private final BinaryReader binaryReader;
+
+        /**
+         * The code in the binary format (the position in the list).
+         */
+        private int code;
+
+        /**
+         * @param type         The type (object name).
+         * @param jsonReader   Creates the data object from JSON.
+         * @param binaryReader Creates the data object from a binary frame.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private Entry(final String type, final Function<JSONObject, MessageData> jsonReader, final BinaryReader binaryReader) {
+            this.type = type;
+            this.jsonReader = jsonReader;
+            this.binaryReader = binaryReader;
+        }
+
+        /**
+         * @return Returns the type (object name).
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return Returns the code in the binary format.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @param data The message containing all the data.
+         *
+         * @return Returns the data object.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public MessageData read(final JSONObject data) {
+            return jsonReader.apply(data);
+        }
+
+        /**
+         * @param in The payload, positioned after the type.
+         *
+         * @return Returns the data object.
+         *
+         * @throws IOException If the payload is malformed.
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public MessageData read(final DataInput in) throws IOException {
+            return binaryReader.read(in);
+        }
+    }
+}
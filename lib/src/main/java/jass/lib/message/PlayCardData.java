@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * @author Victor Hargrave
  * @version %I%, %G%
@@ -62,6 +66,39 @@ public PlayCardData(final JSONObject data) {
         cardId = data.getInt("cardId");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public PlayCardData(final DataInput in) throws IOException {
+        super(in, "PlayCard");
+        turnId = BinaryCodec.readInt(in);
+        cardId = BinaryCodec.readInt(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeInt(out, turnId);
+        BinaryCodec.writeInt(out, cardId);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("turnId", turnId);
+        out.field("cardId", cardId);
+    }
+
     /**
      * @return Returns the turn ID.
      *
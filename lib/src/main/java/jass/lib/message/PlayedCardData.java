@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * @author Victor Hargrave
  * @version %I%, %G%
@@ -55,6 +59,36 @@ public PlayedCardData(final JSONObject data) {
         this.playedCardValid = data.getBoolean("playedCardValid");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public PlayedCardData(final DataInput in) throws IOException {
+        super(in, "PlayedCard");
+        playedCardValid = in.readBoolean();
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        out.writeBoolean(playedCardValid);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("playedCardValid", playedCardValid);
+    }
+
     /**
      * @return Returns whether the played card is a valid move or not.
      *
@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the create login message.
  *
@@ -86,6 +90,38 @@ public RegisterData(final JSONObject data) {
         password = data.getString("password");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public RegisterData(final DataInput in) throws IOException {
+        super(in, "Register");
+        username = BinaryCodec.readString(in);
+        password = BinaryCodec.readString(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, username);
+        BinaryCodec.writeString(out, password);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("password", password);
+    }
+
     /**
      * @return Returns the username.
      *
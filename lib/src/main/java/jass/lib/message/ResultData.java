@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the result message.
  *
@@ -78,6 +82,39 @@ public ResultData(final JSONObject data) {
         resultData = data.getJSONObject("resultData");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ResultData(final DataInput in) throws IOException {
+        super(in, "Result");
+        result = in.readBoolean();
+        resultData = new JSONObject(BinaryCodec.readString(in));
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        out.writeBoolean(result);
+        BinaryCodec.writeString(out, resultData.toString());
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeJsonFields(final JsonWriter out) {
+        out.field("result", result);
+        out.field("resultData", resultData);
+    }
+
     /**
      * @return Returns the result.
      *
@@ -21,6 +21,10 @@
 
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The data model for the Search Game message.
  *
@@ -64,6 +68,29 @@ public SearchGameData(final JSONObject data) {
         username = data.getString("username");
     }
 
+    /**
+     * @param in The binary message containing all the data.
+     *
+     * @throws IOException If the message is malformed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public SearchGameData(final DataInput in) throws IOException {
+        super(in, "SearchGame");
+        token = BinaryCodec.readString(in);
+        username = BinaryCodec.readString(in);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    protected void writeFields(final DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, token);
+        BinaryCodec.writeString(out, username);
+    }
+
     /**
      * @return Returns the token.
      *
@@ -0,0 +1,57 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.message;
+
+/**
+ * How the messages are put on the wire.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public enum WireFormat {
+    /**
+     * One JSON object per line. Understood by every client and server.
+     */
+    JSON,
+
+    /**
+     * Length-prefixed frames in the compact encoding of {@link BinaryCodec}.
+     * Only used once both sides agreed on it with a Hello message.
+     */
+    BINARY;
+
+    /**
+     * @param messageData The message to be converted.
+     *
+     * @return Returns the complete frame in this format.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public byte[] encode(final MessageData messageData) {
+        if (this == BINARY) {
+            return BinaryCodec.encode(messageData);
+        }
+        JsonWriter out = JsonWriter.get();
+        messageData.writeJson(out);
+        return out.toLine();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test Class for the card set and the legal moves.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class CardSetTest {
+    /**
+     * @param suit The suit.
+     * @param rank The rank.
+     *
+     * @return Returns the index of the card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static int card(final Card.Suit suit, final Card.Rank rank) {
+        return CardSet.index(suit, rank);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testIndex() {
+        assertEquals(0, card(Card.Suit.Clubs, Card.Rank.Six));
+        assertEquals(CardSet.SIZE - 1, card(Card.Suit.Spades, Card.Rank.Ace));
+        int index = card(Card.Suit.Hearts, Card.Rank.Jack);
+        assertEquals(Card.Suit.Hearts.ordinal(), CardSet.suitOf(index));
+        assertEquals(CardSet.JACK, CardSet.rankOf(index));
+        assertEquals(CardSet.ALL, CardSet.suit(0) | CardSet.suit(1) | CardSet.suit(2) | CardSet.suit(3));
+        assertEquals(9, CardSet.size(CardSet.suit(Card.Suit.Diamonds.ordinal())));
+    }
+
+    /*
+     * - Trump is hearts, spades was led
+     * - The player has a spade, so only spades and hearts are allowed
+     * - Without a spade, anything goes
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testFollowSuit() {
+        int trump = Card.Suit.Hearts.ordinal();
+        int lead = card(Card.Suit.Spades, Card.Rank.Queen);
+        long hand = CardSet.of(card(Card.Suit.Spades, Card.Rank.Six))
+            | CardSet.of(card(Card.Suit.Hearts, Card.Rank.Seven))
+            | CardSet.of(card(Card.Suit.Clubs, Card.Rank.Ace));
+
+        long legal = CardSet.legalMoves(hand, lead, trump);
+        assertEquals(2, CardSet.size(legal));
+        assertFalse(CardSet.contains(legal, card(Card.Suit.Clubs, Card.Rank.Ace)));
+
+        long withoutSpade = hand & ~CardSet.suit(Card.Suit.Spades.ordinal());
+        assertEquals(withoutSpade, CardSet.legalMoves(withoutSpade, lead, trump));
+        assertEquals(hand, CardSet.legalMoves(hand, -1, trump));
+    }
+
+    /*
+     * - Trump is clubs and was led
+     * - The only trump of the player is the jack, which never has to be played
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTrumpJackNeverForced() {
+        int trump = Card.Suit.Clubs.ordinal();
+        int lead = card(Card.Suit.Clubs, Card.Rank.Ten);
+        long hand = CardSet.of(card(Card.Suit.Clubs, Card.Rank.Jack))
+            | CardSet.of(card(Card.Suit.Diamonds, Card.Rank.King));
+        assertEquals(hand, CardSet.legalMoves(hand, lead, trump));
+
+        long withNine = hand | CardSet.of(card(Card.Suit.Clubs, Card.Rank.Nine));
+        assertFalse(CardSet.contains(CardSet.legalMoves(withNine, lead, trump), card(Card.Suit.Diamonds, Card.Rank.King)));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for the winner of a turn.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class TrickTableTest {
+    /**
+     * @param suit The suit.
+     * @param rank The rank.
+     *
+     * @return Returns the index of the card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static int card(final Card.Suit suit, final Card.Rank rank) {
+        return CardSet.index(suit, rank);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testMatchesStrength() {
+        for (GameMode gameMode : GameMode.values()) {
+            for (int trump = CardSet.NO_TRUMP; trump < 4; trump++) {
+                for (int leadSuit = 0; leadSuit < 4; leadSuit++) {
+                    for (int index = 0; index < CardSet.SIZE; index++) {
+                        assertEquals(CardSet.strength(index, leadSuit, gameMode, trump), TrickTable.strength(index, leadSuit, gameMode, trump));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testWinner() {
+        int trump = Card.Suit.Hearts.ordinal();
+        int spadesAce = card(Card.Suit.Spades, Card.Rank.Ace);
+        int spadesSix = card(Card.Suit.Spades, Card.Rank.Six);
+        int clubsAce = card(Card.Suit.Clubs, Card.Rank.Ace);
+        int heartsSix = card(Card.Suit.Hearts, Card.Rank.Six);
+        int heartsNine = card(Card.Suit.Hearts, Card.Rank.Nine);
+        int heartsAce = card(Card.Suit.Hearts, Card.Rank.Ace);
+
+        // Highest card of the suit which was led, other suits don't count
+        assertEquals(1, TrickTable.winner(spadesSix, spadesAce, clubsAce, clubsAce, GameMode.OBE_ABE, CardSet.NO_TRUMP));
+        assertEquals(0, TrickTable.winner(spadesSix, spadesAce, clubsAce, clubsAce, GameMode.ONDE_UFE, CardSet.NO_TRUMP));
+        // Any trump beats the suit which was led, the nine beats the ace
+        assertEquals(3, TrickTable.winner(spadesAce, clubsAce, spadesSix, heartsSix, GameMode.TRUMPF, trump));
+        assertEquals(2, TrickTable.winner(heartsAce, spadesAce, heartsNine, heartsSix, GameMode.TRUMPF, trump));
+        assertTrue(TrickTable.strength(card(Card.Suit.Hearts, Card.Rank.Jack), trump, GameMode.TRUMPF, trump) > TrickTable.strength(heartsNine, trump, GameMode.TRUMPF, trump));
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testPoints() {
+        for (GameMode gameMode : GameMode.values()) {
+            // Only a trumpf round has a trump suit
+            int firstTrump = gameMode == GameMode.TRUMPF ? 0 : CardSet.NO_TRUMP;
+            int lastTrump = gameMode == GameMode.TRUMPF ? 3 : CardSet.NO_TRUMP;
+            for (int trump = firstTrump; trump <= lastTrump; trump++) {
+                int points = 0;
+                for (int index = 0; index < CardSet.SIZE; index += 4) {
+                    points += TrickTable.points(index, index + 1, index + 2, index + 3, gameMode, trump);
+                }
+                assertEquals(TrickTable.ROUND_POINTS, points + TrickTable.LAST_TURN_BONUS);
+            }
+        }
+        int trump = Card.Suit.Hearts.ordinal();
+        assertEquals(20 + 14 + 11 + 2, TrickTable.points(card(Card.Suit.Hearts, Card.Rank.Jack), card(Card.Suit.Hearts, Card.Rank.Nine), card(Card.Suit.Spades, Card.Rank.Ace), card(Card.Suit.Spades, Card.Rank.Jack), GameMode.TRUMPF, trump));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.lib.message;
+
+import jass.lib.Card;
+import jass.lib.GameMode;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for the JSON writer, which has to give the same JSON as the
+ * reflective conversion of org.json did before.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class JsonWriterTest {
+    /**
+     * @param messageData The message.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static void assertSameJson(final MessageData messageData) {
+        // Parse what org.json writes, so enums are compared by their name
+        JSONObject expected = new JSONObject(new JSONObject(messageData).toString());
+        JSONObject actual = new JSONObject(MessageData.serialize(messageData));
+        assertTrue(messageData.getMessageType() + ": " + expected + " != " + actual, expected.similar(actual));
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testEveryMessageType() {
+        List<CardData> cards = new ArrayList<>();
+        cards.add(new CardData(1, 1, "hearts", 1, "6"));
+        cards.add(new CardData(36, 4, "spades", 9, "ace").setPlayed(true));
+
+        List<MessageData> messages = Arrays.asList(
+            new BroadcastAPlayerQuitData(),
+            new BroadcastDeckData(3, cards),
+            new BroadcastGameModeData(GameMode.TRUMPF, Card.Suit.Hearts),
+            new BroadcastGameModeData(GameMode.OBE_ABE),
+            new BroadcastPointsData(4, 57),
+            new BroadcastRoundOverData(2, 100, 57, "a", "b", "c", "d"),
+            new BroadcastTurnData(5, "a", "b", cards),
+            new CancelSearchGameData("token", "player"),
+            new ChangePasswordData("token", "new password"),
+            new ChooseGameModeData(),
+            new ChosenGameModeData(7, "token", GameMode.TRUMPF, Card.Suit.Clubs),
+            new ChosenGameModeData(7, "token", GameMode.ONDE_UFE),
+            new ContinuePlayingData(),
+            new DeleteLoginData("token"),
+            new GameFoundData(1, 2, "a", 3, 4, "b", 5, 6, "c", 3, 7, "d", 5),
+            new HelloData(WireFormat.BINARY),
+            new LoginData("player", "secret"),
+            new LogoutData(),
+            new MessageErrorData(MessageErrorData.ErrorType.INVALID_COMMAND),
+            new PlayCardData(8, 12),
+            new PlayedCardData(true),
+            new RegisterData("player", "secret"),
+            new ResultData(9, true, new JSONObject().put("token", "abc").put("nested", new JSONObject().put("list", cards))),
+            new ResultData(9, false),
+            new SearchGameData("token", "player"),
+            new StopPlayingData(),
+            new UserOnlineData("token", "player")
+        );
+        for (MessageData messageData : messages) {
+            assertSameJson(messageData);
+        }
+    }
+
+    /**
+     * The client side messages also carry the decoded cards.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testDecodedCards() {
+        List<CardData> cards = new ArrayList<>();
+        cards.add(new CardData(10, 2, "diamonds", 1, "6"));
+        String json = MessageData.serialize(new BroadcastTurnData(5, "a", "b", cards));
+        assertSameJson(MessageData.unserialize(json));
+        assertSameJson(MessageData.unserialize(MessageData.serialize(new BroadcastDeckData(1, cards))));
+    }
+
+    /**
+     * Strings have to be escaped exactly like org.json does.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testEscaping() {
+        String[] strings = {"", "plain", "quote \" and \\ backslash", "</script>", "tab\tline\nfeed\r\f\b", "\u0001\u001f", "\u0085 é", " ℀", "emoji 🃏", "lone \ud83c"};
+        for (String string : strings) {
+            JsonWriter out = JsonWriter.get();
+            out.value(string);
+            assertEquals(JSONObject.quote(string), out.toString());
+            assertArrayEquals((JSONObject.quote(string) + "\n").getBytes(StandardCharsets.UTF_8), out.toLine());
+        }
+    }
+
+    /**
+     * A message which is sent as JSON line is the serialized message followed
+     * by a line break.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testLine() {
+        MessageData messageData = new LoginData("jöe", "secret");
+        assertArrayEquals((MessageData.serialize(messageData) + "\n").getBytes(StandardCharsets.UTF_8), WireFormat.JSON.encode(messageData));
+    }
+}
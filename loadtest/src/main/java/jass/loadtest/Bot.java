@@ -0,0 +1,553 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+import jass.lib.Card;
+import jass.lib.CardSet;
+import jass.lib.GameMode;
+import jass.lib.message.BinaryCodec;
+import jass.lib.message.BroadcastAPlayerQuitData;
+import jass.lib.message.BroadcastDeckData;
+import jass.lib.message.BroadcastGameModeData;
+import jass.lib.message.BroadcastRoundOverData;
+import jass.lib.message.BroadcastTurnData;
+import jass.lib.message.CardData;
+import jass.lib.message.ChooseGameModeData;
+import jass.lib.message.ChosenGameModeData;
+import jass.lib.message.ContinuePlayingData;
+import jass.lib.message.GameFoundData;
+import jass.lib.message.HelloData;
+import jass.lib.message.LoginData;
+import jass.lib.message.LogoutData;
+import jass.lib.message.MessageData;
+import jass.lib.message.PlayCardData;
+import jass.lib.message.PlayedCardData;
+import jass.lib.message.RegisterData;
+import jass.lib.message.ResultData;
+import jass.lib.message.SearchGameData;
+import jass.lib.message.StopPlayingData;
+import jass.lib.message.WireFormat;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A player on its own connection, which registers, logs in, searches a game
+ * and then plays random legal cards until it's stopped. It talks to the
+ * server exactly like the client does and measures how long the server takes
+ * to answer.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class Bot extends Thread implements Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(Bot.class);
+
+    /**
+     * How long to wait for the server to answer the hello, in milliseconds.
+     */
+    private static final int HELLO_TIMEOUT = 2000;
+
+    /**
+     * The password of every bot.
+     */
+    private static final String PASSWORD = "secret123";
+
+    /**
+     * Where the measurements go.
+     */
+    private final LoadStatistics statistics;
+
+    /**
+     * The username of the bot.
+     */
+    private final String username;
+
+    /**
+     * The socket of the server.
+     */
+    private final Socket socket;
+
+    /**
+     * The stream of the messages coming from the server.
+     */
+    private final InputStream in;
+
+    /**
+     * The stream of the messages going to the server.
+     */
+    private final OutputStream out;
+
+    /**
+     * The format agreed on with the server.
+     */
+    private final WireFormat wireFormat;
+
+    /**
+     * Whether the bot is being stopped, no new games or rounds are started.
+     */
+    private volatile boolean stopping = false;
+
+    /**
+     * The token after logging in.
+     */
+    private volatile String token;
+
+    /**
+     * The ID of the request waiting for its result, -1 if none.
+     */
+    private int pendingId = -1;
+
+    /**
+     * What the request waiting for its result measures.
+     */
+    private LoadStatistics.Latency pendingLatency;
+
+    /**
+     * When the request waiting for its result was sent.
+     */
+    private long pendingSince;
+
+    /**
+     * When the game was searched.
+     */
+    private long searchSince;
+
+    /**
+     * The usernames of the players of the game, in the order they play, null
+     * if not in a game.
+     */
+    private volatile String[] seats;
+
+    /**
+     * The cards still in the hand.
+     */
+    private long hand = CardSet.EMPTY;
+
+    /**
+     * The IDs of the cards in the database, by their index.
+     */
+    private final int[] cardIds = new int[CardSet.SIZE];
+
+    /**
+     * The game mode of the current round.
+     */
+    private GameMode gameMode = GameMode.TRUMPF;
+
+    /**
+     * The trump suit of the current round, or {@link CardSet#NO_TRUMP}.
+     */
+    private int trump = CardSet.NO_TRUMP;
+
+    /**
+     * The ID of the current turn.
+     */
+    private int turnId;
+
+    /**
+     * The first card of the current turn, -1 if the bot leads.
+     */
+    private int lead = -1;
+
+    /**
+     * The cards the server didn't accept in the current turn.
+     */
+    private long tried = CardSet.EMPTY;
+
+    /**
+     * The ID of the card played and waiting to show up in a turn, -1 if none.
+     */
+    private int playedCardId = -1;
+
+    /**
+     * When the card was played.
+     */
+    private long playedSince;
+
+    /**
+     * Connects to the server, the bot starts playing once started.
+     *
+     * @param socketFactory The factory for plain or secure sockets.
+     * @param host          The host of the server.
+     * @param port          The port of the server.
+     * @param binary        Whether to ask for the binary wire format.
+     * @param username      The username of the bot.
+     * @param statistics    Where the measurements go.
+     *
+     * @throws IOException If the server can't be reached.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Bot(final SocketFactory socketFactory, final String host, final int port, final boolean binary, final String username, final LoadStatistics statistics) throws IOException {
+        super();
+        this.setName("Bot-" + username);
+        this.setDaemon(true);
+        this.username = username;
+        this.statistics = statistics;
+
+        long start = System.nanoTime();
+        socket = socketFactory.createSocket(host, port);
+        if (socket instanceof SSLSocket) {
+            ((SSLSocket) socket).startHandshake();
+        }
+        in = new BufferedInputStream(socket.getInputStream());
+        out = new BufferedOutputStream(socket.getOutputStream());
+        wireFormat = binary ? negotiateWireFormat() : WireFormat.JSON;
+        statistics.record(LoadStatistics.Latency.CONNECT, System.nanoTime() - start);
+        statistics.getConnected().incrementAndGet();
+    }
+
+    /**
+     * Ask the server to switch to the binary format, like the client does.
+     *
+     * @return Returns the format to use from now on.
+     *
+     * @throws IOException If the server didn't answer in time, the connection
+     *                     is closed then.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private WireFormat negotiateWireFormat() throws IOException {
+        HelloData hello = new HelloData(WireFormat.BINARY);
+        try {
+            socket.setSoTimeout(HELLO_TIMEOUT);
+            out.write(WireFormat.JSON.encode(hello));
+            out.flush();
+            String msgText = BinaryCodec.readLine(in);
+            MessageData answer = msgText == null ? null : MessageData.unserialize(msgText);
+            if (answer instanceof ResultData && answer.getId() == hello.getId() && ((ResultData) answer).getResult()) {
+                return WireFormat.BINARY;
+            }
+        } catch (SocketTimeoutException e) {
+            socket.close();
+            throw new IOException("The server didn't answer the hello message in time", e);
+        } finally {
+            if (!socket.isClosed()) {
+                socket.setSoTimeout(0);
+            }
+        }
+        return WireFormat.JSON;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void run() {
+        request(new RegisterData(username, PASSWORD), LoadStatistics.Latency.REGISTER);
+        try {
+            while (!socket.isClosed()) {
+                MessageData msgData;
+                if (wireFormat == WireFormat.BINARY) {
+                    byte[] frame = BinaryCodec.readFrame(in);
+                    if (frame == null) {
+                        break;
+                    }
+                    msgData = BinaryCodec.decode(frame);
+                } else {
+                    String msgText = BinaryCodec.readLine(in);
+                    if (msgText == null) {
+                        break;
+                    }
+                    msgData = MessageData.unserialize(msgText);
+                }
+
+                if (msgData == null) {
+                    logger.error(username + " received an invalid message");
+                    statistics.getErrors().incrementAndGet();
+                } else {
+                    handle(msgData);
+                }
+            }
+        } catch (IOException e) {
+            if (!stopping) {
+                logger.error(username + ": " + e);
+            }
+        }
+
+        if (!stopping) {
+            logger.error(username + " lost the connection");
+            statistics.getErrors().incrementAndGet();
+        }
+        close();
+    }
+
+    /**
+     * @param msgData The message from the server.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void handle(final MessageData msgData) {
+        if (msgData instanceof ResultData) {
+            onResult((ResultData) msgData);
+        } else if (msgData instanceof GameFoundData) {
+            GameFoundData data = (GameFoundData) msgData;
+            statistics.record(LoadStatistics.Latency.GAME_FOUND, System.nanoTime() - searchSince);
+            statistics.getGamesFound().incrementAndGet();
+            seats = new String[]{data.getPlayerOne(), data.getPlayerTwo(), data.getPlayerThree(), data.getPlayerFour()};
+        } else if (msgData instanceof BroadcastDeckData) {
+            hand = CardSet.EMPTY;
+            for (CardData card : ((BroadcastDeckData) msgData).getCardsClient()) {
+                int index = indexOf(card);
+                cardIds[index] = card.getCardId();
+                hand |= CardSet.of(index);
+            }
+        } else if (msgData instanceof ChooseGameModeData) {
+            // Trumpf on the longest suit
+            int suit = 0;
+            for (int i = 1; i < 4; i++) {
+                if (CardSet.size(hand & CardSet.suit(i)) > CardSet.size(hand & CardSet.suit(suit))) {
+                    suit = i;
+                }
+            }
+            send(new ChosenGameModeData(msgData.getId(), token, GameMode.TRUMPF, Card.Suit.values()[suit]));
+        } else if (msgData instanceof BroadcastGameModeData) {
+            BroadcastGameModeData data = (BroadcastGameModeData) msgData;
+            gameMode = data.getGameMode();
+            trump = CardSet.trumpOf(gameMode, data.getTrumpfSuit());
+        } else if (msgData instanceof BroadcastTurnData) {
+            onBroadcastTurn((BroadcastTurnData) msgData);
+        } else if (msgData instanceof PlayedCardData) {
+            if (!((PlayedCardData) msgData).getPlayedCardValid()) {
+                statistics.getInvalidCards().incrementAndGet();
+                playedCardId = -1;
+                playCard();
+            }
+        } else if (msgData instanceof BroadcastRoundOverData) {
+            statistics.getRounds().incrementAndGet();
+            if (!stopping) {
+                send(new ContinuePlayingData());
+            }
+        } else if (msgData instanceof BroadcastAPlayerQuitData) {
+            seats = null;
+            playedCardId = -1;
+            if (!stopping) {
+                searchGame();
+            }
+        }
+    }
+
+    /**
+     * @param data The result of a request.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void onResult(final ResultData data) {
+        if (data.getId() != pendingId) {
+            // E.g. the result of searching a game
+            if (!data.getResult()) {
+                statistics.getErrors().incrementAndGet();
+            }
+            return;
+        }
+        statistics.record(pendingLatency, System.nanoTime() - pendingSince);
+        LoadStatistics.Latency latency = pendingLatency;
+        pendingId = -1;
+
+        if (latency == LoadStatistics.Latency.REGISTER) {
+            // The user may exist from an earlier run, then only log in
+            request(new LoginData(username, PASSWORD), LoadStatistics.Latency.LOGIN);
+        } else if (latency == LoadStatistics.Latency.LOGIN) {
+            if (!data.getResult()) {
+                logger.error(username + " couldn't log in");
+                statistics.getErrors().incrementAndGet();
+                close();
+                return;
+            }
+            token = data.getResultData().getString("token");
+            searchGame();
+        }
+    }
+
+    /**
+     * @param data The turn as it is now.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void onBroadcastTurn(final BroadcastTurnData data) {
+        List<CardData> playedCards = data.getPlayedCardsClient();
+        for (CardData card : playedCards) {
+            if (card.getCardId() == playedCardId) {
+                statistics.record(LoadStatistics.Latency.PLAY_CARD, System.nanoTime() - playedSince);
+                playedCardId = -1;
+            }
+            hand &= ~CardSet.of(indexOf(card));
+        }
+        if (data.getTurnId() != turnId) {
+            turnId = data.getTurnId();
+            tried = CardSet.EMPTY;
+        }
+
+        // Play if it's the turn of this bot
+        String[] players = seats;
+        if (players == null || playedCards.size() >= 4 || playedCardId >= 0) {
+            return;
+        }
+        int starting = 0;
+        while (starting < 4 && !players[starting].equals(data.getStartingPlayer())) {
+            starting++;
+        }
+        if (starting < 4 && players[(starting + playedCards.size()) % 4].equals(username)) {
+            lead = playedCards.isEmpty() ? -1 : indexOf(playedCards.get(0));
+            playCard();
+        }
+    }
+
+    /**
+     * Play a random legal card, one the server didn't refuse yet.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void playCard() {
+        long moves = CardSet.legalMoves(hand, lead, trump) & ~tried;
+        if (moves == CardSet.EMPTY) {
+            // The server sees it differently, try the rest of the hand
+            moves = hand & ~tried;
+        }
+        if (moves == CardSet.EMPTY) {
+            logger.error(username + " has no card left to play");
+            statistics.getErrors().incrementAndGet();
+            return;
+        }
+        for (int skip = ThreadLocalRandom.current().nextInt(CardSet.size(moves)); skip > 0; skip--) {
+            moves &= moves - 1;
+        }
+        int index = Long.numberOfTrailingZeros(moves);
+        tried |= CardSet.of(index);
+        playedCardId = cardIds[index];
+        playedSince = System.nanoTime();
+        statistics.getCards().incrementAndGet();
+        send(new PlayCardData(turnId, playedCardId));
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void searchGame() {
+        searchSince = System.nanoTime();
+        send(new SearchGameData(token, username));
+    }
+
+    /**
+     * @param msgData The request.
+     * @param latency What the request measures.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void request(final MessageData msgData, final LoadStatistics.Latency latency) {
+        pendingId = msgData.getId();
+        pendingLatency = latency;
+        pendingSince = System.nanoTime();
+        send(msgData);
+    }
+
+    /**
+     * @param msgData The message to send to the server.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void send(final MessageData msgData) {
+        if (token != null) {
+            msgData.setToken(token);
+            msgData.setUsername(username);
+        }
+        try {
+            byte[] frame = wireFormat.encode(msgData);
+            synchronized (out) {
+                out.write(frame);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!stopping) {
+                logger.error(username + " couldn't send: " + e);
+            }
+            close();
+        }
+    }
+
+    /**
+     * @param card The card.
+     *
+     * @return Returns the index of the card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static int indexOf(final CardData card) {
+        return CardSet.index(Card.Suit.fromString(card.getSuit()), Card.Rank.fromString(card.getRank()));
+    }
+
+    /**
+     * Leave the game and log out, then close the connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void shutdown() {
+        stopping = true;
+        if (!socket.isClosed() && token != null) {
+            if (seats != null) {
+                send(new StopPlayingData());
+            }
+            send(new LogoutData());
+        }
+        close();
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public synchronized void close() {
+        if (!socket.isClosed()) {
+            try {
+                socket.close();
+            } catch (IOException e) { /* Ignore */ }
+            statistics.getConnected().decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, which can be recorded from many threads at once.
+ * The latencies are counted in buckets with an error of at most about 3%,
+ * from one microsecond up to about 19 hours.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class LatencyHistogram {
+    /**
+     * Up to which value (in microseconds) every value has its own bucket.
+     */
+    private static final int LINEAR = 64;
+
+    /**
+     * How many buckets each power of two is split into above that.
+     */
+    private static final int SUB_BUCKETS_BITS = 5;
+
+    /**
+     * The highest power of two counted, everything above is put in the last
+     * bucket.
+     */
+    private static final int MAX_EXPONENT = 36;
+
+    /**
+     * The amount of buckets.
+     */
+    private static final int BUCKETS = LINEAR + (MAX_EXPONENT - 6 + 1) * (1 << SUB_BUCKETS_BITS);
+
+    /**
+     * How many values fell into each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The amount of values.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * All values together, in microseconds.
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * The highest value, in microseconds.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos The latency in nanoseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void record(final long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        sum.addAndGet(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Add all values of the other histogram to this one.
+     *
+     * @param other The other histogram.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.addAndGet(i, other.counts.get(i));
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * Take all values out of this histogram, e.g. at the end of an interval.
+     * Values recorded meanwhile end up in either of the two.
+     *
+     * @return Returns a histogram with the values taken out.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public LatencyHistogram drain() {
+        LatencyHistogram drained = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = counts.getAndSet(i, 0);
+            drained.counts.set(i, bucket);
+            drained.count.addAndGet(bucket);
+        }
+        count.addAndGet(-drained.count.get());
+        drained.sum.set(sum.getAndSet(0));
+        drained.max.set(max.getAndSet(0));
+        return drained;
+    }
+
+    /**
+     * @return Returns the amount of values.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return Returns the average in microseconds, 0 if empty.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getMean() {
+        long values = count.get();
+        return values == 0 ? 0 : sum.get() / values;
+    }
+
+    /**
+     * @return Returns the highest value in microseconds, 0 if empty.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile The percentile, e.g. 99.9.
+     *
+     * @return Returns the value in microseconds which the given percentage of
+     * values don't exceed, 0 if empty.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getPercentile(final double percentile) {
+        long values = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            values += counts.get(i);
+        }
+        if (values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(values * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @param micros The value in microseconds.
+     *
+     * @return Returns the bucket to count the value in.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static int bucketOf(final long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKETS_BITS)) & ((1 << SUB_BUCKETS_BITS) - 1);
+        return LINEAR + ((exponent - 6) << SUB_BUCKETS_BITS) + subBucket;
+    }
+
+    /**
+     * @param bucket The bucket.
+     *
+     * @return Returns the highest value in microseconds which is counted in
+     * the bucket.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static long highestOf(final int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = ((bucket - LINEAR) >> SUB_BUCKETS_BITS) + 6;
+        long subBucket = (bucket - LINEAR) & ((1 << SUB_BUCKETS_BITS) - 1);
+        long width = 1L << (exponent - SUB_BUCKETS_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+/**
+ * How many bots are connected over time. Bots are always added four at a
+ * time, so they can fill a table.
+ * <ul>
+ * <li>constant: all bots right away</li>
+ * <li>linear:SECONDS: more and more bots, until all are connected after the
+ * given time</li>
+ * <li>step:BOTS:SECONDS: the given amount of bots more after each step</li>
+ * </ul>
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class LoadProfile {
+    /**
+     * How many bots to connect in the end.
+     */
+    private final int clients;
+
+    /**
+     * How long it takes until all bots are connected, in milliseconds.
+     */
+    private final long rampMillis;
+
+    /**
+     * How many bots each step adds, 0 for a linear ramp.
+     */
+    private final int stepSize;
+
+    /**
+     * How long each step lasts, in milliseconds.
+     */
+    private final long stepMillis;
+
+    /**
+     * @param clients    How many bots to connect in the end.
+     * @param rampMillis How long it takes until all bots are connected.
+     * @param stepSize   How many bots each step adds, 0 for a linear ramp.
+     * @param stepMillis How long each step lasts.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private LoadProfile(final int clients, final long rampMillis, final int stepSize, final long stepMillis) {
+        this.clients = clients;
+        this.rampMillis = rampMillis;
+        this.stepSize = stepSize;
+        this.stepMillis = stepMillis;
+    }
+
+    /**
+     * @param profile The profile, e.g. "linear:60".
+     * @param clients How many bots to connect in the end.
+     *
+     * @return Returns the profile.
+     *
+     * @throws IllegalArgumentException If the profile is unknown.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static LoadProfile parse(final String profile, final int clients) {
+        String[] parts = profile.split(":");
+        try {
+            if (parts[0].equals("constant") && parts.length == 1) {
+                return new LoadProfile(clients, 0, 0, 0);
+            } else if (parts[0].equals("linear") && parts.length == 2) {
+                return new LoadProfile(clients, Long.parseLong(parts[1]) * 1000, 0, 0);
+            } else if (parts[0].equals("step") && parts.length == 3) {
+                int stepSize = Integer.parseInt(parts[1]);
+                long stepMillis = Long.parseLong(parts[2]) * 1000;
+                if (stepSize > 0 && stepMillis > 0) {
+                    return new LoadProfile(clients, ((clients + stepSize - 1) / stepSize - 1) * stepMillis, stepSize, stepMillis);
+                }
+            }
+        } catch (NumberFormatException e) { /* Ignore */ }
+        throw new IllegalArgumentException("Unknown ramp profile " + profile + ", use constant, linear:SECONDS or step:BOTS:SECONDS");
+    }
+
+    /**
+     * @param elapsedMillis The time since the start, in milliseconds.
+     *
+     * @return Returns how many bots should be connected by then.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getClientsAt(final long elapsedMillis) {
+        long target;
+        if (elapsedMillis >= rampMillis) {
+            target = clients;
+        } else if (stepSize > 0) {
+            // The first step starts right away
+            target = Math.min(clients, (elapsedMillis / stepMillis + 1) * stepSize);
+        } else {
+            target = clients * elapsedMillis / rampMillis;
+        }
+        return (int) (target - target % 4);
+    }
+
+    /**
+     * @return Returns how long it takes until all bots are connected, in
+     * milliseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getRampMillis() {
+        return rampMillis;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+import java.util.Map;
+
+/**
+ * Prints what happened in every interval and a summary at the end. The
+ * server is considered saturated from the first interval on in which the
+ * cards take longer than the limit to show up, or requests fail.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class LoadReport {
+    /**
+     * What the bots measured.
+     */
+    private final LoadStatistics statistics;
+
+    /**
+     * Up to how long the 99th percentile of playing a card may take, in
+     * microseconds.
+     */
+    private final long limitMicros;
+
+    /**
+     * The amount of cards at the last interval.
+     */
+    private long lastCards;
+
+    /**
+     * The amount of rounds at the last interval.
+     */
+    private long lastRounds;
+
+    /**
+     * The amount of errors at the last interval.
+     */
+    private long lastErrors;
+
+    /**
+     * The most cards per second in an interval.
+     */
+    private double peakCardsPerSecond;
+
+    /**
+     * How many bots were connected in the interval with the most cards.
+     */
+    private int peakClients;
+
+    /**
+     * How many bots were connected when the server was saturated first, -1
+     * if it never was.
+     */
+    private int saturatedClients = -1;
+
+    /**
+     * After how many seconds the server was saturated first.
+     */
+    private long saturatedAfter;
+
+    /**
+     * @param statistics  What the bots measured.
+     * @param limitMillis Up to how long the 99th percentile of playing a card
+     *                    may take, in milliseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public LoadReport(final LoadStatistics statistics, final long limitMillis) {
+        this.statistics = statistics;
+        this.limitMicros = limitMillis * 1000;
+        System.out.printf("%6s %7s %7s %8s %8s %6s  %-15s %-15s %-15s%n",
+            "time", "clients", "games", "rounds/s", "cards/s", "errors", "Login p50/p99", "Found p50/p99", "PlayCard p50/p99");
+    }
+
+    /**
+     * Print the interval which just ended.
+     *
+     * @param elapsedSeconds  The seconds since the start.
+     * @param intervalSeconds The length of the interval in seconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void interval(final long elapsedSeconds, final double intervalSeconds) {
+        Map<LoadStatistics.Latency, LatencyHistogram> latencies = statistics.drainInterval();
+        int clients = statistics.getConnected().get();
+        long cards = statistics.getCards().get();
+        long rounds = statistics.getRounds().get();
+        long errors = statistics.getErrors().get();
+        double cardsPerSecond = (cards - lastCards) / intervalSeconds;
+        // Every bot counts the round, four bots play it
+        double roundsPerSecond = (rounds - lastRounds) / 4.0 / intervalSeconds;
+        long newErrors = errors - lastErrors;
+        LatencyHistogram playCard = latencies.get(LoadStatistics.Latency.PLAY_CARD);
+
+        System.out.printf("%5ds %7d %7d %8.1f %8.1f %6d  %-15s %-15s %-15s%n",
+            elapsedSeconds, clients, statistics.getGamesFound().get() / 4, roundsPerSecond, cardsPerSecond, newErrors,
+            percentiles(latencies.get(LoadStatistics.Latency.LOGIN)),
+            percentiles(latencies.get(LoadStatistics.Latency.GAME_FOUND)),
+            percentiles(playCard));
+
+        if (cardsPerSecond > peakCardsPerSecond) {
+            peakCardsPerSecond = cardsPerSecond;
+            peakClients = clients;
+        }
+        if (saturatedClients < 0 && (newErrors > 0 || playCard.getPercentile(99) > limitMicros)) {
+            saturatedClients = clients;
+            saturatedAfter = elapsedSeconds;
+        }
+        lastCards = cards;
+        lastRounds = rounds;
+        lastErrors = errors;
+    }
+
+    /**
+     * Print the summary of the whole run.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void summary() {
+        System.out.println();
+        System.out.printf("%-24s %8s %9s %9s %9s %9s %9s %9s%n", "latency (ms)", "count", "mean", "p50", "p90", "p99", "p99.9", "max");
+        for (LoadStatistics.Latency latency : LoadStatistics.Latency.values()) {
+            LatencyHistogram histogram = statistics.getTotal(latency);
+            System.out.printf("%-24s %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", latency.getLabel(), histogram.getCount(),
+                histogram.getMean() / 1000.0, histogram.getPercentile(50) / 1000.0, histogram.getPercentile(90) / 1000.0,
+                histogram.getPercentile(99) / 1000.0, histogram.getPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0);
+        }
+        System.out.println();
+        System.out.printf("Games found: %d, rounds played: %d, cards played: %d (%d refused), errors: %d%n",
+            statistics.getGamesFound().get() / 4, statistics.getRounds().get() / 4, statistics.getCards().get(),
+            statistics.getInvalidCards().get(), statistics.getErrors().get());
+        System.out.printf("Peak: %.1f cards/s with %d clients%n", peakCardsPerSecond, peakClients);
+        if (saturatedClients < 0) {
+            System.out.printf("Not saturated: PlayCard->BroadcastTurn p99 stayed below %d ms without errors%n", limitMicros / 1000);
+        } else {
+            System.out.printf("Saturated after %d s with %d clients: PlayCard->BroadcastTurn p99 above %d ms or errors%n",
+                saturatedAfter, saturatedClients, limitMicros / 1000);
+        }
+    }
+
+    /**
+     * @param histogram The latencies.
+     *
+     * @return Returns the median and 99th percentile in milliseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static String percentiles(final LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return String.format("%.1f/%.1f", histogram.getPercentile(50) / 1000.0, histogram.getPercentile(99) / 1000.0);
+    }
+}
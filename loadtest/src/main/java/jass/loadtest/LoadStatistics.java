@@ -0,0 +1,248 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything the bots measure, for the whole run and for the current
+ * interval of the report.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class LoadStatistics {
+    /**
+     * The latencies which are measured.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public enum Latency {
+        /**
+         * Opening the connection, with the SSL handshake and the hello.
+         */
+        CONNECT("Connect"),
+
+        /**
+         * From Register to its Result.
+         */
+        REGISTER("Register"),
+
+        /**
+         * From Login to its Result.
+         */
+        LOGIN("Login"),
+
+        /**
+         * From SearchGame to GameFound.
+         */
+        GAME_FOUND("SearchGame->GameFound"),
+
+        /**
+         * From PlayCard to the BroadcastTurn with the card.
+         */
+        PLAY_CARD("PlayCard->BroadcastTurn");
+
+        /**
+         * The name in the report.
+         */
+        private final String label;
+
+        /**
+         * @param label The name in the report.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        Latency(final String label) {
+            this.label = label;
+        }
+
+        /**
+         * @return Returns the name in the report.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * The latencies of the whole run.
+     */
+    private final Map<Latency, LatencyHistogram> total = new EnumMap<>(Latency.class);
+
+    /**
+     * The latencies since the last report.
+     */
+    private final Map<Latency, LatencyHistogram> interval = new EnumMap<>(Latency.class);
+
+    /**
+     * How many bots are connected right now.
+     */
+    private final AtomicInteger connected = new AtomicInteger();
+
+    /**
+     * How many games were found.
+     */
+    private final AtomicLong gamesFound = new AtomicLong();
+
+    /**
+     * How many rounds were played to the end (counted by every bot).
+     */
+    private final AtomicLong rounds = new AtomicLong();
+
+    /**
+     * How many cards were played.
+     */
+    private final AtomicLong cards = new AtomicLong();
+
+    /**
+     * How many cards the server didn't accept.
+     */
+    private final AtomicLong invalidCards = new AtomicLong();
+
+    /**
+     * How many requests failed or connections were lost.
+     */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public LoadStatistics() {
+        for (Latency latency : Latency.values()) {
+            total.put(latency, new LatencyHistogram());
+            interval.put(latency, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * @param latency The latency which was measured.
+     * @param nanos   The time it took in nanoseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void record(final Latency latency, final long nanos) {
+        interval.get(latency).record(nanos);
+    }
+
+    /**
+     * Take the latencies of the current interval out, they are added to the
+     * ones of the whole run.
+     *
+     * @return Returns the latencies since the last call.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Map<Latency, LatencyHistogram> drainInterval() {
+        Map<Latency, LatencyHistogram> drained = new EnumMap<>(Latency.class);
+        for (Latency latency : Latency.values()) {
+            LatencyHistogram histogram = interval.get(latency).drain();
+            total.get(latency).add(histogram);
+            drained.put(latency, histogram);
+        }
+        return drained;
+    }
+
+    /**
+     * @param latency The latency.
+     *
+     * @return Returns the latencies of the whole run, up to the last drained
+     * interval.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public LatencyHistogram getTotal(final Latency latency) {
+        return total.get(latency);
+    }
+
+    /**
+     * @return Returns how many bots are connected right now.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public AtomicInteger getConnected() {
+        return connected;
+    }
+
+    /**
+     * @return Returns how many games were found.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public AtomicLong getGamesFound() {
+        return gamesFound;
+    }
+
+    /**
+     * @return Returns how many rounds were played, counted by every bot.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public AtomicLong getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return Returns how many cards were played.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public AtomicLong getCards() {
+        return cards;
+    }
+
+    /**
+     * @return Returns how many cards the server didn't accept.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public AtomicLong getInvalidCards() {
+        return invalidCards;
+    }
+
+    /**
+     * @return Returns how many requests failed or connections were lost.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public AtomicLong getErrors() {
+        return errors;
+    }
+}
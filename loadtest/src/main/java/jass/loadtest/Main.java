@@ -0,0 +1,199 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts load on a running server with many bots, each on its own connection,
+ * and reports how fast the server answers while more and more bots connect.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class Main {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(Main.class);
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private Main() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param args The arguments passed in the console.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void main(final String[] args) {
+        // Create all arguments for the command line interface
+        Options options = new Options();
+        options
+            .addOption(Option.builder().longOpt("host").desc("The host of the server (default 127.0.0.1)").hasArg().build())
+            .addOption(Option.builder("p").longOpt("port").desc("The port of the server (default 2000)").hasArg().build())
+            .addOption(Option.builder("s").longOpt("ssl").desc("Connect securely").hasArg(false).build())
+            .addOption(Option.builder("b").longOpt("binary").desc("Ask for the binary wire format").hasArg(false).build())
+            .addOption(Option.builder("c").longOpt("clients").desc("How many bots to connect in the end (default 100)").hasArg().build())
+            .addOption(Option.builder("r").longOpt("ramp").desc("How the bots connect: constant, linear:SECONDS or step:BOTS:SECONDS (default linear:60)").hasArg().build())
+            .addOption(Option.builder("d").longOpt("duration").desc("How many seconds the whole test runs (default 120)").hasArg().build())
+            .addOption(Option.builder("i").longOpt("interval").desc("Report every given amount of seconds (default 10)").hasArg().build())
+            .addOption(Option.builder().longOpt("limit").desc("Up to how many milliseconds the 99th percentile of playing a card may take before the server counts as saturated (default 500)").hasArg().build())
+            .addOption(Option.builder().longOpt("prefix").desc("The start of the usernames of the bots (random by default)").hasArg().build());
+
+        // Check the arguments validity
+        CommandLine cmd;
+        String host;
+        int port;
+        int clients;
+        int duration;
+        int interval;
+        long limit;
+        LoadProfile profile;
+        try {
+            cmd = (new DefaultParser()).parse(options, args);
+            host = cmd.getOptionValue("host", "127.0.0.1");
+            port = Integer.parseInt(cmd.getOptionValue("port", "2000"));
+            clients = Integer.parseInt(cmd.getOptionValue("clients", "100"));
+            duration = Integer.parseInt(cmd.getOptionValue("duration", "120"));
+            interval = Integer.parseInt(cmd.getOptionValue("interval", "10"));
+            limit = Long.parseLong(cmd.getOptionValue("limit", "500"));
+            profile = LoadProfile.parse(cmd.getOptionValue("ramp", "linear:60"), clients);
+        } catch (ParseException | IllegalArgumentException e) {
+            // Prints "Unrecognized option: ..." or which number is wrong
+            System.out.println(e.getMessage());
+            (new HelpFormatter()).printHelp("loadtest.jar", options);
+            return;
+        }
+        String prefix = cmd.getOptionValue("prefix", "bot" + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000, 0x100000)) + "-");
+        boolean binary = cmd.hasOption("binary");
+
+        SocketFactory socketFactory;
+        try {
+            socketFactory = cmd.hasOption("ssl") ? createSslContext().getSocketFactory() : SocketFactory.getDefault();
+        } catch (IOException | GeneralSecurityException e) {
+            logger.fatal("Error creating secure socket connection - does the keystore exist?");
+            return;
+        }
+
+        System.out.printf("Load test of %s:%d with %d clients (%s), ramp %s, for %d s%n",
+            host, port, clients, binary ? "binary" : "JSON", cmd.getOptionValue("ramp", "linear:60"), duration);
+        LoadStatistics statistics = new LoadStatistics();
+        LoadReport report = new LoadReport(statistics, limit);
+        long start = System.nanoTime();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ReportThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> report.interval(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), interval),
+            interval, interval, TimeUnit.SECONDS);
+
+        // Connect the bots as the profile says, until the time is up
+        List<Bot> bots = new ArrayList<>();
+        long end = start + TimeUnit.SECONDS.toNanos(duration);
+        try {
+            while (System.nanoTime() < end) {
+                int target = profile.getClientsAt(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                while (bots.size() < target && System.nanoTime() < end) {
+                    String username = prefix + bots.size();
+                    try {
+                        Bot bot = new Bot(socketFactory, host, port, binary, username, statistics);
+                        bot.start();
+                        bots.add(bot);
+                    } catch (IOException e) {
+                        logger.error(username + " couldn't connect: " + e);
+                        statistics.getErrors().incrementAndGet();
+                        break;
+                    }
+                }
+                Thread.sleep(100);
+            }
+            reporter.shutdown();
+            reporter.awaitTermination(interval, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // The last interval may be shorter
+        double lastInterval = (System.nanoTime() - start) / 1e9 % interval;
+        if (lastInterval >= 1) {
+            report.interval(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), lastInterval);
+        }
+        for (Bot bot : bots) {
+            bot.shutdown();
+        }
+        report.summary();
+    }
+
+    /**
+     * Trust the server like the client does, with the keystore of the client.
+     *
+     * @return Returns the SSL context.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static SSLContext createSslContext() throws IOException, GeneralSecurityException {
+        char[] password = "JassGame".toCharArray();
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(Main.class.getResourceAsStream("/ssl/client.keystore"), password);
+
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, password);
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(keyStore);
+
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+        return sslContext;
+    }
+}
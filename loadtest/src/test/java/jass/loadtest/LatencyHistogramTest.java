@@ -0,0 +1,73 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.loadtest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for the latency histogram.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class LatencyHistogramTest {
+    /**
+     * Every value ends up in a bucket which is at most about 3% off.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testBuckets() {
+        for (long micros = 0; micros < 10_000_000; micros = micros * 5 / 4 + 1) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(micros <= LatencyHistogram.highestOf(bucket));
+            assertTrue(bucket == 0 || micros > LatencyHistogram.highestOf(bucket - 1));
+            assertTrue(LatencyHistogram.highestOf(bucket) <= micros + micros / 32 + 1);
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50_500, histogram.getMean());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000, histogram.getPercentile(50), 50_000 / 32);
+        assertEquals(99_000, histogram.getPercentile(99), 99_000 / 32);
+
+        // Draining moves all values
+        LatencyHistogram drained = histogram.drain();
+        assertEquals(0, histogram.getCount());
+        assertEquals(100, drained.getCount());
+        assertEquals(100_000, drained.getPercentile(100));
+    }
+}
@@ -20,10 +20,22 @@
 package jass.server;
 
 import jass.lib.servicelocator.ServiceLocator;
+import jass.server.database.PooledConnectionSource;
+import jass.server.network.OutboundQueue;
+import jass.server.network.OverflowPolicy;
 import jass.server.util.CardUtil;
+import jass.server.util.CatalogUtil;
 import jass.server.util.DatabaseUtil;
+import jass.server.util.GameExecutorUtil;
+import jass.server.util.GameJournalUtil;
+import jass.server.util.GameUtil;
+import jass.server.util.MetricsUtil;
+import jass.server.util.NioServerSocketUtil;
+import jass.server.util.SchedulerUtil;
 import jass.server.util.SearchGameUtil;
 import jass.server.util.ServerSocketUtil;
+import jass.server.util.SessionUtil;
+import jass.server.util.WriteBehindUtil;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -36,6 +48,7 @@
 import org.apache.logging.log4j.core.LoggerContext;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
@@ -82,8 +95,24 @@ public static void main(final String[] args) {
             .addOption(Option.builder("l").longOpt("db-location").desc("Define where the database is saved").hasArg().build())
             .addOption(Option.builder("u").longOpt("db-username").desc("The username required to login to the database").hasArg().build())
             .addOption(Option.builder("a").longOpt("db-password").desc("The password required to login to the database").hasArg().build())
+            .addOption(Option.builder().longOpt("db-pool-max").desc("Use a pool of at most this many connections for mysql or mariadb (one shared connection by default)").hasArg().build())
+            .addOption(Option.builder().longOpt("db-pool-min").desc("The amount of connections the pool keeps open (default 2)").hasArg().build())
+            .addOption(Option.builder().longOpt("db-pool-idle-timeout").desc("How many seconds an unused connection of the pool stays open (default 60)").hasArg().build())
+            .addOption(Option.builder().longOpt("db-pool-wait-timeout").desc("How many milliseconds to wait for a free connection of the pool (default 5000)").hasArg().build())
+            .addOption(Option.builder().longOpt("db-validation-query").desc("The query to check whether a connection of the pool still works (default SELECT 1)").hasArg().build())
             .addOption(Option.builder("v").longOpt("verbose").desc("Show more extensive logs").hasArg(false).build())
-            .addOption(Option.builder("s").longOpt("ssl").desc("Accept secure connections").hasArg(false).build());
+            .addOption(Option.builder("s").longOpt("ssl").desc("Accept secure connections").hasArg(false).build())
+            .addOption(Option.builder("n").longOpt("nio").desc("Serve all clients with a few selector threads instead of one thread per client").hasArg(false).build())
+            .addOption(Option.builder().longOpt("io-threads").desc("The amount of selector threads when using --nio").hasArg().build())
+            .addOption(Option.builder().longOpt("worker-threads").desc("The amount of threads processing messages when using --nio").hasArg().build())
+            .addOption(Option.builder().longOpt("send-queue").desc("The amount of messages a client may have waiting before the overflow policy applies").hasArg().build())
+            .addOption(Option.builder().longOpt("overflow-policy").desc("What to do with clients which are too slow: disconnect or drop-non-critical (default)").hasArg().build())
+            .addOption(Option.builder().longOpt("game-threads").desc("The amount of threads all games run on (default one per core)").hasArg().build())
+            .addOption(Option.builder().longOpt("turn-delay").desc("How many milliseconds the last turn stays visible before the next one starts (default 3500)").hasArg().build())
+            .addOption(Option.builder().longOpt("db-flush-interval").desc("How many milliseconds changes of the games are collected before writing them to the database (default 200)").hasArg().build())
+            .addOption(Option.builder().longOpt("deal-seed").desc("Deal the same cards in the same round of every game, e.g. for tournaments (random by default)").hasArg().build())
+            .addOption(Option.builder().longOpt("journal-dir").desc("Where the journal to continue running games after a crash is saved (default journal)").hasArg().build())
+            .addOption(Option.builder().longOpt("metrics-interval").desc("Log server metrics every given amount of seconds (disabled by default)").hasArg().build());
 
         // Check the arguments validity
         CommandLine cmd;
@@ -109,6 +138,17 @@ public static void main(final String[] args) {
         }
         logger.info("Using port " + port);
 
+        // Check how often the changes of the games are written
+        int flushInterval = WriteBehindUtil.DEFAULT_FLUSH_INTERVAL;
+        if (cmd.hasOption("db-flush-interval")) {
+            try {
+                flushInterval = Integer.parseInt(cmd.getOptionValue("db-flush-interval"));
+            } catch (NumberFormatException e) {
+                logger.fatal("The value you used for the flush interval is not an integer");
+                return;
+            }
+        }
+
         try {
             String dbLocation = DatabaseUtil.DEFAULT_LOCATION;
 
@@ -128,8 +168,38 @@ public static void main(final String[] args) {
 
             String databaseType = DatabaseUtil.extractDbType("jdbc:" + dbLocation);
             DatabaseUtil db;
+            if (cmd.hasOption("db-pool-max") && !databaseType.equals("mysql") && !databaseType.equals("mariadb")) {
+                logger.fatal("The connection pool can only be used with mysql or mariadb");
+                return;
+            }
             if (databaseType.equals("sqlite")) {
                 db = new DatabaseUtil(dbLocation);
+            } else if (cmd.hasOption("db-pool-max")) {
+                int poolMin = PooledConnectionSource.DEFAULT_MIN_SIZE;
+                int poolMax;
+                long idleTimeout = PooledConnectionSource.DEFAULT_IDLE_TIMEOUT;
+                long waitTimeout = PooledConnectionSource.DEFAULT_WAIT_TIMEOUT;
+                try {
+                    poolMax = Integer.parseInt(cmd.getOptionValue("db-pool-max"));
+                    if (cmd.hasOption("db-pool-min")) {
+                        poolMin = Integer.parseInt(cmd.getOptionValue("db-pool-min"));
+                    }
+                    if (cmd.hasOption("db-pool-idle-timeout")) {
+                        idleTimeout = Long.parseLong(cmd.getOptionValue("db-pool-idle-timeout")) * 1000;
+                    }
+                    if (cmd.hasOption("db-pool-wait-timeout")) {
+                        waitTimeout = Long.parseLong(cmd.getOptionValue("db-pool-wait-timeout"));
+                    }
+                } catch (NumberFormatException e) {
+                    logger.fatal("The values you used for the connection pool are not integers");
+                    return;
+                }
+                if (poolMax < 1 || poolMin < 0 || poolMin > poolMax) {
+                    logger.fatal("The connection pool needs at least one connection, and can't keep more open than it uses");
+                    return;
+                }
+                db = new DatabaseUtil(dbLocation, cmd.getOptionValue("db-username"), cmd.getOptionValue("db-password"), poolMin, poolMax, idleTimeout, waitTimeout, cmd.getOptionValue("db-validation-query"));
+                logger.info("Using a pool of " + poolMin + " to " + poolMax + " database connections");
             } else if (databaseType.equals("mysql") || databaseType.equals("mariadb")) {
                 db = new DatabaseUtil(dbLocation, cmd.getOptionValue("db-username"), cmd.getOptionValue("db-password"));
             } else {
@@ -138,10 +208,22 @@ public static void main(final String[] args) {
             }
             ServiceLocator.add(db);
             logger.info("Connection to database created");
+
+            // The cards never change, read them only once
+            ServiceLocator.add(new CatalogUtil());
+
+            // The games keep their state in memory, the database follows
+            // behind. Whatever is left is written when the server stops.
+            WriteBehindUtil writeBehindUtil = new WriteBehindUtil(db.getConnectionSource(), flushInterval);
+            ServiceLocator.add(writeBehindUtil);
+            Runtime.getRuntime().addShutdownHook(new Thread(writeBehindUtil::close, "FlushThread"));
         } catch (SQLException e) {
             logger.fatal("Error creating connection to database");
             logger.fatal(e.getMessage());
             return;
+        } catch (IllegalStateException e) {
+            logger.fatal(e.getMessage());
+            return;
         }
 
         // Check if the user wants more output in the console
@@ -155,17 +237,125 @@ public static void main(final String[] args) {
         boolean secure = cmd.hasOption("ssl");
         logger.info("SSL is " + (secure ? "enabled" : "disabled"));
 
+        // Check if the user wants to use the non-blocking connection engine
+        boolean nio = cmd.hasOption("nio");
+        int ioThreads = NioServerSocketUtil.DEFAULT_IO_THREADS;
+        int workerThreads = NioServerSocketUtil.DEFAULT_WORKER_THREADS;
+        try {
+            if (cmd.hasOption("io-threads")) {
+                ioThreads = Integer.parseInt(cmd.getOptionValue("io-threads"));
+            }
+            if (cmd.hasOption("worker-threads")) {
+                workerThreads = Integer.parseInt(cmd.getOptionValue("worker-threads"));
+            }
+        } catch (NumberFormatException e) {
+            logger.fatal("The value you used for the amount of threads is not an integer");
+            return;
+        }
+        // Check how slow clients are handled
+        int queueCapacity = OutboundQueue.DEFAULT_CAPACITY;
+        OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NON_CRITICAL;
+        int metricsInterval = 0;
+        try {
+            if (cmd.hasOption("send-queue")) {
+                queueCapacity = Integer.parseInt(cmd.getOptionValue("send-queue"));
+            }
+            if (cmd.hasOption("metrics-interval")) {
+                metricsInterval = Integer.parseInt(cmd.getOptionValue("metrics-interval"));
+            }
+        } catch (NumberFormatException e) {
+            logger.fatal("The value you used for the send queue or the metrics interval is not an integer");
+            return;
+        }
+        if (queueCapacity < 1) {
+            logger.fatal("The send queue must hold at least one message");
+            return;
+        }
+        if (cmd.hasOption("overflow-policy")) {
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(cmd.getOptionValue("overflow-policy").toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                logger.fatal("The overflow policy has to be disconnect or drop-non-critical");
+                return;
+            }
+        }
+        logger.info("Clients may queue " + queueCapacity + " messages, overflow policy is " + overflowPolicy);
+
+        // Check how long the last turn stays visible
+        if (cmd.hasOption("turn-delay")) {
+            try {
+                GameUtil.setTurnDelay(Integer.parseInt(cmd.getOptionValue("turn-delay")));
+            } catch (NumberFormatException e) {
+                logger.fatal("The value you used for the turn delay is not an integer");
+                return;
+            }
+        }
+
+        // Check how many threads the games share
+        int gameThreads = GameExecutorUtil.DEFAULT_THREADS;
+        if (cmd.hasOption("game-threads")) {
+            try {
+                gameThreads = Integer.parseInt(cmd.getOptionValue("game-threads"));
+            } catch (NumberFormatException e) {
+                logger.fatal("The value you used for the amount of game threads is not an integer");
+                return;
+            }
+        }
+
+        // Check whether the deals are random or the same in every game
+        Long dealSeed = null;
+        if (cmd.hasOption("deal-seed")) {
+            try {
+                dealSeed = Long.parseLong(cmd.getOptionValue("deal-seed"));
+            } catch (NumberFormatException e) {
+                logger.fatal("The value you used for the deal seed is not an integer");
+                return;
+            }
+        }
+
+        // Continue the games which were running when the server stopped
+        try {
+            GameJournalUtil gameJournalUtil = new GameJournalUtil(Paths.get(cmd.getOptionValue("journal-dir", GameJournalUtil.DEFAULT_DIRECTORY)), GameJournalUtil.DEFAULT_SEGMENT_SIZE);
+            ServiceLocator.add(gameJournalUtil);
+            Runtime.getRuntime().addShutdownHook(new Thread(gameJournalUtil::close, "JournalThread"));
+        } catch (IOException e) {
+            logger.fatal("Error opening the journal: " + e.getMessage());
+            return;
+        }
+
+        logger.info("Connection engine is " + (nio ? "non-blocking (" + ioThreads + " I/O threads)" : "blocking (one thread per client)"));
+
         // Initialize Other Util Classes and add to ServiceLocator
         SearchGameUtil searchGameUtil = new SearchGameUtil();
         searchGameUtil.start();
         ServiceLocator.add(searchGameUtil);
 
-        CardUtil cardUtil = new CardUtil();
+        CardUtil cardUtil = dealSeed == null ? new CardUtil() : new CardUtil(dealSeed);
         ServiceLocator.add(cardUtil);
 
+        SessionUtil sessionUtil = new SessionUtil();
+        ServiceLocator.add(sessionUtil);
+
+        SchedulerUtil schedulerUtil = new SchedulerUtil();
+        ServiceLocator.add(schedulerUtil);
+
+        GameExecutorUtil gameExecutorUtil = new GameExecutorUtil(gameThreads);
+        ServiceLocator.add(gameExecutorUtil);
+        logger.info("Games run on " + gameExecutorUtil.getThreads() + " threads");
+
+        if (metricsInterval > 0) {
+            MetricsUtil metricsUtil = new MetricsUtil(metricsInterval);
+            metricsUtil.start();
+            ServiceLocator.add(metricsUtil);
+        }
+
         // Start the listener
         try {
-            (new ServerSocketUtil(port, secure)).start();
+            if (nio) {
+                (new NioServerSocketUtil(port, ioThreads, workerThreads, secure ? ServerSocketUtil.createSslContext() : null, queueCapacity, overflowPolicy)).start();
+            } else {
+                (new ServerSocketUtil(port, secure, queueCapacity, overflowPolicy)).start();
+            }
         } catch (IOException e) {
             if (secure && e.getCause() instanceof GeneralSecurityException) {
                 logger.fatal("Error creating secure socket connection - does the keystore exist?");
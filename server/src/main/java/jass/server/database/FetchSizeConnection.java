@@ -0,0 +1,84 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.database;
+
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.jdbc.JdbcCompiledStatement;
+import com.j256.ormlite.jdbc.JdbcDatabaseConnection;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseConnectionProxy;
+import jass.lib.database.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A connection which fetches the rows of the queries going through a whole
+ * table in parts (see {@link Repository#iterator()}). Without it, MySQL and
+ * MariaDB send the whole result at once. All other statements are left as
+ * they are.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+final class FetchSizeConnection extends DatabaseConnectionProxy {
+    /**
+     * How many rows are fetched at once.
+     */
+    static final int FETCH_SIZE = 500;
+
+    /**
+     * The actual connection.
+     */
+    private final DatabaseConnection connection;
+
+    /**
+     * @param connection The actual connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    FetchSizeConnection(final DatabaseConnection connection) {
+        super(connection);
+        this.connection = connection;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public CompiledStatement compileStatement(final String statement, final StatementBuilder.StatementType type, final FieldType[] argFieldTypes, final int resultFlags, final boolean cacheStore) throws SQLException {
+        if (resultFlags != Repository.ITERATOR_RESULT_FLAGS || !(connection instanceof JdbcDatabaseConnection)) {
+            return super.compileStatement(statement, type, argFieldTypes, resultFlags, cacheStore);
+        }
+        Connection jdbcConnection = ((JdbcDatabaseConnection) connection).getInternalConnection();
+        PreparedStatement preparedStatement = jdbcConnection.prepareStatement(statement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        // Without a cursor on the server, MySQL ignores any other fetch size.
+        // It streams the rows one by one instead.
+        preparedStatement.setFetchSize(jdbcConnection.getMetaData().getURL().startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : FETCH_SIZE);
+        return new JdbcCompiledStatement(preparedStatement, type, cacheStore);
+    }
+}
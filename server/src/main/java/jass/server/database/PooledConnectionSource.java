@@ -0,0 +1,595 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.database;
+
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.support.DatabaseConnection;
+import jass.server.util.Histogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Several connections to the database, so the DAOs of different threads
+ * don't have to wait for each other. At most the maximum amount of
+ * connections are handed out, whoever needs one more waits until one is
+ * given back. Connections which weren't used for the idle timeout are
+ * closed (down to the minimum amount), and connections which weren't used
+ * for a moment are checked with the validation query before being handed
+ * out again.
+ * <p>
+ * ORMLite's own JdbcPooledConnectionSource opens as many connections as are
+ * asked for, which doesn't protect the database when it gets slow.
+ * </p>
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class PooledConnectionSource extends JdbcConnectionSource {
+    /**
+     * The default amount of connections which are kept open.
+     */
+    public static final int DEFAULT_MIN_SIZE = 2;
+
+    /**
+     * The default amount of connections which are handed out at most.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10;
+
+    /**
+     * The default amount of milliseconds after which a connection which
+     * wasn't used is closed.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 60 * 1000;
+
+    /**
+     * The default amount of milliseconds to wait for a free connection.
+     */
+    public static final long DEFAULT_WAIT_TIMEOUT = 5 * 1000;
+
+    /**
+     * How many milliseconds a connection may be unused before it's checked
+     * again when handing it out.
+     */
+    private static final long VALIDATION_INTERVAL = 1000;
+
+    /**
+     * How many milliseconds between two health checks of the unused
+     * connections.
+     */
+    private static final long HEALTH_CHECK_INTERVAL = 10 * 1000;
+
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(PooledConnectionSource.class);
+
+    /**
+     * The logger ORMLite wants for opening connections.
+     */
+    private static final com.j256.ormlite.logger.Logger ormliteLogger = LoggerFactory.getLogger(PooledConnectionSource.class);
+
+    /**
+     * The amount of connections which are kept open.
+     */
+    private final int minSize;
+
+    /**
+     * The amount of connections which are handed out at most.
+     */
+    private final int maxSize;
+
+    /**
+     * The amount of milliseconds after which a connection which wasn't used
+     * is closed.
+     */
+    private final long idleTimeout;
+
+    /**
+     * The amount of milliseconds to wait for a free connection.
+     */
+    private final long waitTimeout;
+
+    /**
+     * The query to check whether a connection still works.
+     */
+    private final String validationQuery;
+
+    /**
+     * One permit for each connection which may be handed out.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The connections which aren't used, the most recently used first.
+     */
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+
+    /**
+     * The amount of open connections, used or not.
+     */
+    private final AtomicInteger open = new AtomicInteger();
+
+    /**
+     * How long it took to get a connection.
+     */
+    private final Histogram waitTime = new Histogram();
+
+    /**
+     * How often nobody gave back a connection in time.
+     */
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * How many connections were closed because they didn't work anymore.
+     */
+    private final AtomicLong broken = new AtomicLong();
+
+    /**
+     * How many connections were closed because they weren't used.
+     */
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * Checks the unused connections.
+     */
+    private final ScheduledExecutorService healthCheck;
+
+    /**
+     * Whether the pool was closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Open the minimum amount of connections and start checking them.
+     *
+     * @param url             The JDBC url of the database.
+     * @param username        The username of the database.
+     * @param password        The password of the database.
+     * @param databaseType    The type of the database, or null to get it from
+     *                        the url.
+     * @param minSize         The amount of connections which are kept open.
+     * @param maxSize         The amount of connections which are handed out
+     *                        at most.
+     * @param idleTimeout     The amount of milliseconds after which a
+     *                        connection which wasn't used is closed.
+     * @param waitTimeout     The amount of milliseconds to wait for a free
+     *                        connection.
+     * @param validationQuery The query to check whether a connection still
+     *                        works, or null for the one of the database
+     *                        type.
+     *
+     * @throws SQLException If the connections couldn't be opened.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public PooledConnectionSource(final String url, final String username, final String password, final DatabaseType databaseType, final int minSize, final int maxSize, final long idleTimeout, final long waitTimeout, final String validationQuery) throws SQLException {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("The pool needs at least one connection and no more open than it may hand out (" + minSize + " to " + maxSize + ")");
+        }
+        setUrl(url);
+        setUsername(username);
+        setPassword(password);
+        if (databaseType != null) {
+            setDatabaseType(databaseType);
+        }
+        initialize();
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.waitTimeout = waitTimeout;
+        this.validationQuery = validationQuery == null ? getDatabaseType().getPingStatement() : validationQuery;
+        permits = new Semaphore(maxSize, true);
+
+        fill();
+        healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("DatabasePoolThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthCheck.scheduleWithFixedDelay(this::checkHealth, HEALTH_CHECK_INTERVAL, HEALTH_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public DatabaseConnection getReadOnlyConnection(final String tableName) throws SQLException {
+        return getReadWriteConnection(tableName);
+    }
+
+    /**
+     * Wait for a free connection, open a new one if none of the open ones
+     * are free.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public DatabaseConnection getReadWriteConnection(final String tableName) throws SQLException {
+        // Inside a transaction the thread keeps its connection
+        DatabaseConnection saved = getSavedConnection();
+        if (saved != null) {
+            return saved;
+        }
+        if (closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        waitTime.record(System.nanoTime() - start);
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("No database connection was free after " + waitTimeout + " ms (" + maxSize + " in use)");
+        }
+
+        try {
+            return take();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void releaseConnection(final DatabaseConnection connection) throws SQLException {
+        // Given back at the end of the transaction
+        if (isSavedConnection(connection)) {
+            return;
+        }
+        try {
+            if (closed || connection.isClosed() || open.get() > maxSize) {
+                discard(connection);
+            } else {
+                synchronized (idle) {
+                    idle.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean saveSpecialConnection(final DatabaseConnection connection) throws SQLException {
+        return saveSpecial(connection);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void clearSpecialConnection(final DatabaseConnection connection) {
+        clearSpecial(connection, ormliteLogger);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isOpen(final String tableName) {
+        return !closed;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isSingleConnection(final String tableName) {
+        return false;
+    }
+
+    /**
+     * Close all connections which aren't used, the used ones are closed
+     * when they are given back.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        healthCheck.shutdownNow();
+        List<IdleConnection> connections;
+        synchronized (idle) {
+            connections = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (IdleConnection connection : connections) {
+            discard(connection.connection);
+        }
+        super.close();
+    }
+
+    /**
+     * @return Returns the amount of connections which are handed out.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getActive() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * @return Returns the amount of open connections, used or not.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getOpen() {
+        return open.get();
+    }
+
+    /**
+     * @return Returns the amount of connections which are handed out at most.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return Returns how long it took to get a connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Histogram getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * @return Returns how often nobody gave back a connection in time.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return Returns how many connections were closed because they didn't
+     * work anymore.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getBroken() {
+        return broken.get();
+    }
+
+    /**
+     * @return Returns how many connections were closed because they weren't
+     * used.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getEvicted() {
+        return evicted.get();
+    }
+
+    /**
+     * Take the most recently used connection which still works, or open a
+     * new one. A permit has to be held.
+     *
+     * @return Returns the connection.
+     *
+     * @throws SQLException If a new connection couldn't be opened.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private DatabaseConnection take() throws SQLException {
+        while (true) {
+            IdleConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return openConnection();
+            }
+            // Connections which were just used are trusted
+            if (System.currentTimeMillis() - candidate.since < VALIDATION_INTERVAL || isValid(candidate.connection)) {
+                return candidate.connection;
+            }
+            broken.incrementAndGet();
+            discard(candidate.connection);
+        }
+    }
+
+    /**
+     * Close the connections which weren't used for too long or don't work
+     * anymore, and open new ones until the minimum amount is open.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void checkHealth() {
+        try {
+            long now = System.currentTimeMillis();
+            List<IdleConnection> expired = new ArrayList<>();
+            List<IdleConnection> unchecked = new ArrayList<>();
+            synchronized (idle) {
+                // The least recently used are at the end
+                Iterator<IdleConnection> iterator = idle.descendingIterator();
+                int keep = open.get();
+                while (iterator.hasNext()) {
+                    IdleConnection connection = iterator.next();
+                    if (keep > minSize && now - connection.since > idleTimeout) {
+                        iterator.remove();
+                        expired.add(connection);
+                        keep--;
+                    } else if (now - connection.since >= VALIDATION_INTERVAL) {
+                        iterator.remove();
+                        unchecked.add(connection);
+                    }
+                }
+            }
+            for (IdleConnection connection : expired) {
+                evicted.incrementAndGet();
+                discard(connection.connection);
+            }
+            // Put the working ones back where they were
+            for (IdleConnection connection : unchecked) {
+                if (isValid(connection.connection)) {
+                    synchronized (idle) {
+                        idle.addLast(connection);
+                    }
+                } else {
+                    broken.incrementAndGet();
+                    discard(connection.connection);
+                }
+            }
+            fill();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Health check of the database connections failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Open connections until the minimum amount is open.
+     *
+     * @throws SQLException If a connection couldn't be opened.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void fill() throws SQLException {
+        while (!closed && open.get() < minSize) {
+            DatabaseConnection connection = openConnection();
+            synchronized (idle) {
+                idle.addLast(new IdleConnection(connection, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * @return Returns a new connection.
+     *
+     * @throws SQLException If the connection couldn't be opened.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private DatabaseConnection openConnection() throws SQLException {
+        DatabaseConnection connection = makeConnection(ormliteLogger);
+        open.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * @param connection The connection.
+     *
+     * @return Returns whether the validation query still works.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean isValid(final DatabaseConnection connection) {
+        try {
+            return !connection.isClosed() && connection.queryForLong(validationQuery) >= 0;
+        } catch (SQLException e) {
+            logger.debug("Database connection doesn't work anymore: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @param connection The connection to close.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void discard(final DatabaseConnection connection) {
+        open.decrementAndGet();
+        connection.closeQuietly();
+    }
+
+    /**
+     * A connection which isn't used.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    private static final class IdleConnection {
+        /**
+         * The connection.
+         */
+        private final DatabaseConnection connection;
+
+        /**
+         * Since when the connection isn't used, in milliseconds.
+         */
+        private final long since;
+
+        /**
+         * @param connection The connection.
+         * @param since      Since when the connection isn't used, in
+         *                   milliseconds.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private IdleConnection(final DatabaseConnection connection, final long since) {
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.database;
+
+import com.j256.ormlite.dao.ObjectCache;
+import com.j256.ormlite.field.FieldType;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.stmt.GenericRowMapper;
+import com.j256.ormlite.stmt.StatementBuilder;
+import com.j256.ormlite.support.CompiledStatement;
+import com.j256.ormlite.support.DatabaseConnection;
+import com.j256.ormlite.support.DatabaseConnectionProxy;
+import com.j256.ormlite.support.DatabaseConnectionProxyFactory;
+import com.j256.ormlite.support.GeneratedKeyHolder;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the SQL statements which are sent to the database, over all
+ * connections opened by ORMLite after it was installed. Reads count as well
+ * as writes, including the ones ORMLite sends by itself (e.g. to refresh
+ * foreign fields), so the tests can check how many statements something
+ * costs. ORMLite only takes one proxy, so the connections also fetch the
+ * rows of big results in parts (see {@link FetchSizeConnection}).
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class StatementCounter implements DatabaseConnectionProxyFactory {
+    /**
+     * Whether it's already installed.
+     */
+    private static final AtomicBoolean installed = new AtomicBoolean();
+
+    /**
+     * How many statements were sent.
+     */
+    private static final AtomicLong count = new AtomicLong();
+
+    /**
+     * Only {@link #install()} creates one.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private StatementCounter() {
+    }
+
+    /**
+     * Count the statements of all connections which are opened from now on.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void install() {
+        if (installed.compareAndSet(false, true)) {
+            JdbcConnectionSource.setDatabaseConnectionProxyFactory(new StatementCounter());
+        }
+    }
+
+    /**
+     * @return Returns how many statements were sent since the counter was
+     * installed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public DatabaseConnection createProxy(final DatabaseConnection connection) {
+        return new CountingConnection(new FetchSizeConnection(connection));
+    }
+
+    /**
+     * A connection which counts every statement before running it.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    private static final class CountingConnection extends DatabaseConnectionProxy {
+        /**
+         * @param connection The actual connection.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private CountingConnection(final DatabaseConnection connection) {
+            super(connection);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public int executeStatement(final String statementStr, final int resultFlags) throws SQLException {
+            count.incrementAndGet();
+            return super.executeStatement(statementStr, resultFlags);
+        }
+
+        /**
+         * The compiled statements are the queries (and raw statements),
+         * each of them is run once.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public CompiledStatement compileStatement(final String statement, final StatementBuilder.StatementType type, final FieldType[] argFieldTypes, final int resultFlags, final boolean cacheStore) throws SQLException {
+            count.incrementAndGet();
+            return super.compileStatement(statement, type, argFieldTypes, resultFlags, cacheStore);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public int insert(final String statement, final Object[] args, final FieldType[] argfieldTypes, final GeneratedKeyHolder keyHolder) throws SQLException {
+            count.incrementAndGet();
+            return super.insert(statement, args, argfieldTypes, keyHolder);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public int update(final String statement, final Object[] args, final FieldType[] argfieldTypes) throws SQLException {
+            count.incrementAndGet();
+            return super.update(statement, args, argfieldTypes);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public int delete(final String statement, final Object[] args, final FieldType[] argfieldTypes) throws SQLException {
+            count.incrementAndGet();
+            return super.delete(statement, args, argfieldTypes);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public <T> Object queryForOne(final String statement, final Object[] args, final FieldType[] argfieldTypes, final GenericRowMapper<T> rowMapper, final ObjectCache objectCache) throws SQLException {
+            count.incrementAndGet();
+            return super.queryForOne(statement, args, argfieldTypes, rowMapper, objectCache);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public long queryForLong(final String statement) throws SQLException {
+            count.incrementAndGet();
+            return super.queryForLong(statement);
+        }
+
+        /**
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        public long queryForLong(final String statement, final Object[] args, final FieldType[] argFieldTypes) throws SQLException {
+            count.incrementAndGet();
+            return super.queryForLong(statement, args, argFieldTypes);
+        }
+    }
+}
@@ -21,6 +21,8 @@
 
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.table.DatabaseTable;
+import jass.lib.Card;
+import jass.lib.CardSet;
 import jass.lib.database.Entity;
 import jass.lib.message.CardData;
 
@@ -42,15 +44,20 @@ public final class CardEntity extends Entity {
     /**
      * The rank.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private RankEntity rank;
 
     /**
      * The suit.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private SuitEntity suit;
 
+    /**
+     * The index of the card in a {@link CardSet}, or -1 if not yet known.
+     */
+    private int index = -1;
+
     /**
      * For ORMLite all persisted classes must define a no-arg constructor with
      * at least package visibility.
@@ -104,6 +111,7 @@ public RankEntity getRank() {
      */
     public CardEntity setRank(final RankEntity rank) {
         this.rank = rank;
+        index = -1;
         return this;
     }
 
@@ -127,9 +135,23 @@ public SuitEntity getSuit() {
      */
     public CardEntity setSuit(final SuitEntity suit) {
         this.suit = suit;
+        index = -1;
         return this;
     }
 
+    /**
+     * @return Returns the index of the card in a {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getIndex() {
+        if (index < 0) {
+            index = CardSet.index(Card.Suit.fromString(suit.getKey()), Card.Rank.fromString(rank.getKey()));
+        }
+        return index;
+    }
+
     /**
      * @param cardEntity The card.
      *
@@ -21,10 +21,9 @@
 
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.table.DatabaseTable;
+import jass.lib.CardSet;
 import jass.lib.database.Entity;
 
-import java.util.ArrayList;
-
 /**
  * A model with all known (and cached) teams.
  *
@@ -34,6 +33,16 @@
  */
 @DatabaseTable(tableName = "deck")
 public final class DeckEntity extends Entity {
+    /**
+     * The name of the column with the dealt cards.
+     */
+    public static final String DEALT_CARDS_COLUMN = "dealtCards";
+
+    /**
+     * The name of the column with the played cards.
+     */
+    public static final String PLAYED_CARDS_COLUMN = "playedCards";
+
     /**
      * The ID.
      */
@@ -53,112 +62,16 @@ public final class DeckEntity extends Entity {
     private RoundEntity round;
 
     /**
-     * Card one.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardOne;
-
-    /**
-     * Boolean value if the first card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardOneHasBeenPlayed;
-
-    /**
-     * Card two.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardTwo;
-
-    /**
-     * Boolean value if the second card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardTwoHasBeenPlayed;
-
-    /**
-     * Card three.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardThree;
-
-    /**
-     * Boolean value if the third card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardThreeHasBeenPlayed;
-
-    /**
-     * Card four.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardFour;
-
-    /**
-     * Boolean value if the fourth card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardFourHasBeenPlayed;
-
-    /**
-     * Card five.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardFive;
-
-    /**
-     * Boolean value if the fifth card has been played.
+     * The cards which were dealt to the player, as {@link CardSet}.
      */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardFiveHasBeenPlayed;
+    @DatabaseField(columnName = DEALT_CARDS_COLUMN, defaultValue = "0", canBeNull = false)
+    private long dealtCards;
 
     /**
-     * Card six.
+     * The cards which the player already played, as {@link CardSet}.
      */
-    @DatabaseField(foreign = true)
-    private CardEntity cardSix;
-
-    /**
-     * Boolean value if the sixth card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardSixHasBeenPlayed;
-
-    /**
-     * Card seven.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardSeven;
-
-    /**
-     * Boolean value if the seventh card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardSevenHasBeenPlayed;
-
-    /**
-     * Card eight.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardEight;
-
-    /**
-     * Boolean value if the eight card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardEightHasBeenPlayed;
-
-    /**
-     * Card nine.
-     */
-    @DatabaseField(foreign = true)
-    private CardEntity cardNine;
-
-    /**
-     * Boolean value if the ninth card has been played.
-     */
-    @DatabaseField(defaultValue = "false", canBeNull = false)
-    private boolean cardNineHasBeenPlayed;
+    @DatabaseField(columnName = PLAYED_CARDS_COLUMN, defaultValue = "0", canBeNull = false)
+    private long playedCards;
 
     /**
      * For ORMLite all persisted classes must define a no-arg constructor with
@@ -227,462 +140,73 @@ public DeckEntity setRound(final RoundEntity round) {
     }
 
     /**
-     * @return Returns card one.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardOne() {
-        return cardOne;
-    }
-
-    /**
-     * @param cardOne Card one.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardOne(final CardEntity cardOne) {
-        this.cardOne = cardOne;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the first card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardOneHasBeenPlayed() {
-        return cardOneHasBeenPlayed;
-    }
-
-    /**
-     * @param cardOneHasBeenPlayed The first card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardOneHasBeenPlayed(final boolean cardOneHasBeenPlayed) {
-        this.cardOneHasBeenPlayed = cardOneHasBeenPlayed;
-    }
-
-    /**
-     * @return Returns card two.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardTwo() {
-        return cardTwo;
-    }
-
-    /**
-     * @param cardTwo Card two.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardTwo(final CardEntity cardTwo) {
-        this.cardTwo = cardTwo;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the second card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardTwoHasBeenPlayed() {
-        return cardTwoHasBeenPlayed;
-    }
-
-    /**
-     * @param cardTwoHasBeenPlayed The second card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardTwoHasBeenPlayed(final boolean cardTwoHasBeenPlayed) {
-        this.cardTwoHasBeenPlayed = cardTwoHasBeenPlayed;
-    }
-
-    /**
-     * @return Returns card three.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardThree() {
-        return cardThree;
-    }
-
-    /**
-     * @param cardThree Card three.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardThree(final CardEntity cardThree) {
-        this.cardThree = cardThree;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the third card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardThreeHasBeenPlayed() {
-        return cardThreeHasBeenPlayed;
-    }
-
-    /**
-     * @param cardThreeHasBeenPlayed The third card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardThreeHasBeenPlayed(final boolean cardThreeHasBeenPlayed) {
-        this.cardThreeHasBeenPlayed = cardThreeHasBeenPlayed;
-    }
-
-
-    /**
-     * @return Returns card four.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardFour() {
-        return cardFour;
-    }
-
-    /**
-     * @param cardFour Card four.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardFour(final CardEntity cardFour) {
-        this.cardFour = cardFour;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the fourth card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardFourHasBeenPlayed() {
-        return cardFourHasBeenPlayed;
-    }
-
-    /**
-     * @param cardFourHasBeenPlayed The fourth card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardFourHasBeenPlayed(final boolean cardFourHasBeenPlayed) {
-        this.cardFourHasBeenPlayed = cardFourHasBeenPlayed;
-    }
-
-    /**
-     * @return Returns card five.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardFive() {
-        return cardFive;
-    }
-
-    /**
-     * @param cardFive Card five.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardFive(final CardEntity cardFive) {
-        this.cardFive = cardFive;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the fifth card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardFiveHasBeenPlayed() {
-        return cardFiveHasBeenPlayed;
-    }
-
-    /**
-     * @param cardFiveHasBeenPlayed The fourth card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardFiveHasBeenPlayed(final boolean cardFiveHasBeenPlayed) {
-        this.cardFiveHasBeenPlayed = cardFiveHasBeenPlayed;
-    }
-
-
-    /**
-     * @return Returns card six.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardSix() {
-        return cardSix;
-    }
-
-    /**
-     * @param cardSix Card six.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardSix(final CardEntity cardSix) {
-        this.cardSix = cardSix;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the sixth card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardSixHasBeenPlayed() {
-        return cardSixHasBeenPlayed;
-    }
-
-    /**
-     * @param cardSixHasBeenPlayed The sixth card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardSixHasBeenPlayed(final boolean cardSixHasBeenPlayed) {
-        this.cardSixHasBeenPlayed = cardSixHasBeenPlayed;
-    }
-
-
-    /**
-     * @return Returns card seven.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public CardEntity getCardSeven() {
-        return cardSeven;
-    }
-
-    /**
-     * @param cardSeven Card seven.
-     *
-     * @return Returns the object for further processing.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public DeckEntity setCardSeven(final CardEntity cardSeven) {
-        this.cardSeven = cardSeven;
-        return this;
-    }
-
-    /**
-     * @return Returns boolean value if the seventh card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardSevenHasBeenPlayed() {
-        return cardSevenHasBeenPlayed;
-    }
-
-    /**
-     * @param cardSevenHasBeenPlayed The sixth card has been played boolean.
+     * @return Returns the cards which were dealt to the player, as
+     * {@link CardSet}.
      *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardSevenHasBeenPlayed(final boolean cardSevenHasBeenPlayed) {
-        this.cardSevenHasBeenPlayed = cardSevenHasBeenPlayed;
-    }
-
-
-    /**
-     * @return Returns card eight.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
+     * @author Manuele Vaccari
+     * @since 1.1.0
      */
-    public CardEntity getCardEight() {
-        return cardEight;
+    public long getDealtCards() {
+        return dealtCards;
     }
 
     /**
-     * @param cardEight Card eight.
+     * @param dealtCards The cards which were dealt to the player, as
+     *                   {@link CardSet}.
      *
      * @return Returns the object for further processing.
      *
-     * @author Victor Hargrave
-     * @since 1.0.0
+     * @author Manuele Vaccari
+     * @since 1.1.0
      */
-    public DeckEntity setCardEight(final CardEntity cardEight) {
-        this.cardEight = cardEight;
+    public DeckEntity setDealtCards(final long dealtCards) {
+        this.dealtCards = dealtCards;
         return this;
     }
 
     /**
-     * @return Returns boolean value if the eight card has been played.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardEightHasBeenPlayed() {
-        return cardEightHasBeenPlayed;
-    }
-
-    /**
-     * @param cardEightHasBeenPlayed The sixth card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardEightHasBeenPlayed(final boolean cardEightHasBeenPlayed) {
-        this.cardEightHasBeenPlayed = cardEightHasBeenPlayed;
-    }
-
-
-    /**
-     * @return Returns card nine.
+     * @return Returns the cards which the player already played, as
+     * {@link CardSet}.
      *
-     * @author Victor Hargrave
-     * @since 1.0.0
+     * @author Manuele Vaccari
+     * @since 1.1.0
      */
-    public CardEntity getCardNine() {
-        return cardNine;
+    public long getPlayedCards() {
+        return playedCards;
     }
 
     /**
-     * @param cardNine Card nine.
+     * @param playedCards The cards which the player already played, as
+     *                    {@link CardSet}.
      *
      * @return Returns the object for further processing.
      *
-     * @author Victor Hargrave
-     * @since 1.0.0
+     * @author Manuele Vaccari
+     * @since 1.1.0
      */
-    public DeckEntity setCardNine(final CardEntity cardNine) {
-        this.cardNine = cardNine;
+    public DeckEntity setPlayedCards(final long playedCards) {
+        this.playedCards = playedCards;
         return this;
     }
 
     /**
-     * @return Returns boolean value if the ninth card has been played.
+     * @return Returns the cards which haven't been played yet, as a
+     * {@link CardSet}.
      *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public boolean getCardNineHasBeenPlayed() {
-        return cardNineHasBeenPlayed;
-    }
-
-    /**
-     * @param cardNineHasBeenPlayed The sixth card has been played boolean.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
-     */
-    public void setCardNineHasBeenPlayed(final boolean cardNineHasBeenPlayed) {
-        this.cardNineHasBeenPlayed = cardNineHasBeenPlayed;
-    }
-
-    /**
-     * @return Returns the cards as an array.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    public ArrayList<CardEntity> getCards() {
-        ArrayList<CardEntity> cards = new ArrayList<>();
-        cards.add(cardOne);
-        cards.add(cardTwo);
-        cards.add(cardThree);
-        cards.add(cardFour);
-        cards.add(cardFive);
-        cards.add(cardSix);
-        cards.add(cardSeven);
-        cards.add(cardEight);
-        cards.add(cardNine);
-        return cards;
-    }
-
-    /**
-     * @return Returns booleans if cards were played as an array.
-     *
-     * @author Thomas Weber
-     * @since 1.0.0
+     * @author Manuele Vaccari
+     * @since 1.1.0
      */
-    public ArrayList<Boolean> getCardsHaveBeenPlayed() {
-        ArrayList<Boolean> cardsHaveBeenPlayed = new ArrayList<>();
-        cardsHaveBeenPlayed.add(cardOneHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardTwoHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardThreeHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardFourHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardFiveHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardSixHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardSevenHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardEightHasBeenPlayed);
-        cardsHaveBeenPlayed.add(cardNineHasBeenPlayed);
-        return cardsHaveBeenPlayed;
+    public long getHand() {
+        return dealtCards & ~playedCards;
     }
 
     /**
-     * @param cardId Set the given card as played.
+     * @param card Set the given card as played.
      *
      * @author Victor Hargrave
      * @since 1.0.0
      */
-    public void setPlayedCard(final int cardId) {
-        if (cardId == cardOne.getId()) {
-            cardOneHasBeenPlayed = true;
-        } else if (cardId == cardTwo.getId()) {
-            cardTwoHasBeenPlayed = true;
-        } else if (cardId == cardThree.getId()) {
-            cardThreeHasBeenPlayed = true;
-        } else if (cardId == cardFour.getId()) {
-            cardFourHasBeenPlayed = true;
-        } else if (cardId == cardFive.getId()) {
-            cardFiveHasBeenPlayed = true;
-        } else if (cardId == cardSix.getId()) {
-            cardSixHasBeenPlayed = true;
-        } else if (cardId == cardSeven.getId()) {
-            cardSevenHasBeenPlayed = true;
-        } else if (cardId == cardEight.getId()) {
-            cardEightHasBeenPlayed = true;
-        } else if (cardId == cardNine.getId()) {
-            cardNineHasBeenPlayed = true;
-        }
+    public void setPlayedCard(final CardEntity card) {
+        playedCards |= CardSet.of(card.getIndex()) & dealtCards;
     }
 }
@@ -24,6 +24,7 @@
 import jass.lib.database.Entity;
 
 import java.util.ArrayList;
+import java.util.function.IntFunction;
 
 /**
  * A model with all known (and cached) turns.
@@ -49,61 +50,61 @@ public final class TurnEntity extends Entity {
     /**
      * The winning user of this turn.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private UserEntity winningUser;
 
     /**
      * The starting player of this turn.
      */
-    @DatabaseField(foreign = true, canBeNull = false, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true, canBeNull = false)
     private UserEntity startingPlayer;
 
     /**
      * The first played card of the turn.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private CardEntity cardOne;
 
     /**
      * The user who played card one.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private UserEntity playerCardOne;
 
     /**
      * The second played card of the turn.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private CardEntity cardTwo;
 
     /**
      * The user who played card two.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private UserEntity playerCardTwo;
 
     /**
      * The third played card of the turn.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private CardEntity cardThree;
 
     /**
      * The user who played card three.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private UserEntity playerCardThree;
 
     /**
      * The fourth played card of the turn.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private CardEntity cardFour;
 
     /**
      * The user who played card four.
      */
-    @DatabaseField(foreign = true, foreignAutoRefresh = true)
+    @DatabaseField(foreign = true)
     private UserEntity playerCardFour;
 
     /**
@@ -372,4 +373,59 @@ public void addCard(final CardEntity card, final UserEntity user) {
             playerCardFour = user;
         }
     }
+
+    /**
+     * A turn loaded from the database only has the IDs of its users and
+     * cards, replace them with the ones already in memory instead of loading
+     * each of them on its own.
+     *
+     * @param users Gives the user with the ID, or null if unknown.
+     * @param cards Gives the card with the ID, or null if unknown.
+     *
+     * @return Returns the object for further processing.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public TurnEntity resolveReferences(final IntFunction<UserEntity> users, final IntFunction<CardEntity> cards) {
+        winningUser = resolve(winningUser, users);
+        startingPlayer = resolve(startingPlayer, users);
+        cardOne = resolve(cardOne, cards);
+        playerCardOne = resolve(playerCardOne, users);
+        cardTwo = resolve(cardTwo, cards);
+        playerCardTwo = resolve(playerCardTwo, users);
+        cardThree = resolve(cardThree, cards);
+        playerCardThree = resolve(playerCardThree, users);
+        cardFour = resolve(cardFour, cards);
+        playerCardFour = resolve(playerCardFour, users);
+        return this;
+    }
+
+    /**
+     * @param user  The user which only has its ID, or null.
+     * @param users Gives the user with the ID, or null if unknown.
+     *
+     * @return Returns the user in memory, or the given one if there is none.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static UserEntity resolve(final UserEntity user, final IntFunction<UserEntity> users) {
+        UserEntity resolved = user == null ? null : users.apply(user.getId());
+        return resolved == null ? user : resolved;
+    }
+
+    /**
+     * @param card  The card which only has its ID, or null.
+     * @param cards Gives the card with the ID, or null if unknown.
+     *
+     * @return Returns the card in memory, or the given one if there is none.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static CardEntity resolve(final CardEntity card, final IntFunction<CardEntity> cards) {
+        CardEntity resolved = card == null ? null : cards.apply(card.getId());
+        return resolved == null ? card : resolved;
+    }
 }
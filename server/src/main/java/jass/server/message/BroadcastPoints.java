@@ -48,4 +48,16 @@ public BroadcastPoints(final MessageData rawData) {
     public void process(final ClientUtil client) {
         client.send(this);
     }
+
+    /**
+     * The points of a single turn are only informational, the totals arrive
+     * with the end of the round anyway.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isCritical() {
+        return false;
+    }
 }
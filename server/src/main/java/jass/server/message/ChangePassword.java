@@ -22,9 +22,11 @@
 import jass.lib.message.ChangePasswordData;
 import jass.lib.message.MessageData;
 import jass.lib.message.ResultData;
+import jass.lib.servicelocator.ServiceLocator;
 import jass.server.entity.UserEntity;
 import jass.server.repository.UserRepository;
 import jass.server.util.ClientUtil;
+import jass.server.util.SessionUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -74,6 +76,11 @@ public void process(final ClientUtil client) {
             if (UserRepository.getSingleton(null).update(user)) {
                 logger.info("User " + user.getUsername() + " changed his password.");
                 result = true;
+
+                // Any other session of the user ends, only this one stays
+                SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+                assert sessionUtil != null;
+                sessionUtil.register(user.getUsername(), client.getToken());
             }
         }
 
@@ -22,8 +22,11 @@
 import jass.lib.message.DeleteLoginData;
 import jass.lib.message.MessageData;
 import jass.lib.message.ResultData;
+import jass.lib.servicelocator.ServiceLocator;
 import jass.server.repository.UserRepository;
 import jass.server.util.ClientUtil;
+import jass.server.util.ServerSocketUtil;
+import jass.server.util.SessionUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -68,6 +71,10 @@ public void process(final ClientUtil client) {
         if (client.getToken() != null && client.getToken().equals(data.getToken())) {
             if (UserRepository.getSingleton(null).remove(client.getUser())) {
                 logger.info("User " + client.getUser().getUsername() + " was deleted");
+                SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+                assert sessionUtil != null;
+                sessionUtil.invalidate(client.getUser().getUsername(), client.getToken());
+                ServerSocketUtil.getRegistry().logout(client);
                 client.setToken(null);
                 client.setUser(null);
                 result = true;
@@ -0,0 +1,65 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.message;
+
+import jass.lib.message.HelloData;
+import jass.lib.message.MessageData;
+import jass.lib.message.ResultData;
+import jass.lib.message.WireFormat;
+import jass.server.util.ClientUtil;
+import org.json.JSONObject;
+
+/**
+ * Agrees with the client on the wire format to use.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class Hello extends Message {
+    /**
+     * @param rawData The data (still not casted).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Hello(final MessageData rawData) {
+        super(rawData);
+    }
+
+    /**
+     * Answer in the current format, but read in the new one before the client
+     * got the answer.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void process(final ClientUtil client) {
+        HelloData data = (HelloData) this.getRawData();
+        WireFormat wireFormat = data.getWireFormat();
+        if (wireFormat == null) {
+            client.send(new Result(new ResultData(data.getId(), false)));
+            return;
+        }
+
+        client.setWireFormat(wireFormat, new Result(new ResultData(data.getId(), true, (new JSONObject()).put("wireFormat", wireFormat))));
+    }
+}
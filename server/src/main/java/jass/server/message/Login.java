@@ -22,10 +22,12 @@
 import jass.lib.message.LoginData;
 import jass.lib.message.MessageData;
 import jass.lib.message.ResultData;
+import jass.lib.servicelocator.ServiceLocator;
 import jass.server.entity.UserEntity;
 import jass.server.repository.UserRepository;
 import jass.server.util.ClientUtil;
 import jass.server.util.ServerSocketUtil;
+import jass.server.util.SessionUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONObject;
@@ -90,8 +92,10 @@ public void process(final ClientUtil client) {
         if (user != null && user.checkPassword(data.getPassword())) {
             logger.info("Client used the correct password");
 
-            // Check if already logged in...
-            if (ServerSocketUtil.exists(user.getUsername())) {
+            // Check if already logged in, and if not claim the username in one
+            // step, so two clients can't log in at the same time
+            String token = createToken();
+            if (!ServerSocketUtil.getRegistry().login(client, user.getUsername())) {
                 client.send(new Result(new ResultData(data.getId(), false, (new JSONObject()).put("reason", LoginData.Result.USER_ALREADY_LOGGED_IN))));
                 return;
             }
@@ -99,13 +103,15 @@ public void process(final ClientUtil client) {
             // Update last login time
             user.setOnline()
                 .setLastLogin(Date.from(Instant.now()));
-            String token = createToken();
             user.setToken(token);
             UserRepository.getSingleton(null).update(user);
 
             // Save the user to this connection.
             client.setUser(user);
             client.setToken(token);
+            SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+            assert sessionUtil != null;
+            sessionUtil.register(user.getUsername(), token);
 
             // Return the token to the client.
             client.send(new Result(new ResultData(data.getId(), true, (new JSONObject()).put("token", token))));
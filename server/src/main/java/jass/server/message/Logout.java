@@ -21,9 +21,13 @@
 
 import jass.lib.message.MessageData;
 import jass.lib.message.ResultData;
+import jass.lib.servicelocator.ServiceLocator;
 import jass.server.entity.UserEntity;
 import jass.server.repository.UserRepository;
 import jass.server.util.ClientUtil;
+import jass.server.util.SearchGameUtil;
+import jass.server.util.ServerSocketUtil;
+import jass.server.util.SessionUtil;
 
 /**
  * Logs out a user from the current connection.
@@ -56,6 +60,15 @@ public void process(final ClientUtil client) {
             UserRepository.getSingleton(null).update(user);
         }
 
+        // A user who is logged out can't play anymore
+        SearchGameUtil searchGameUtil = ServiceLocator.get(SearchGameUtil.class);
+        assert searchGameUtil != null;
+        searchGameUtil.remove(client);
+
+        SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+        assert sessionUtil != null;
+        sessionUtil.invalidate(client.getUsername(), client.getToken());
+        ServerSocketUtil.getRegistry().logout(client);
         client.setToken(null); // Destroy authentication token
         client.setUser(null); // Destroy account information
         client.send(new Result(new ResultData(getRawData().getId(), true)));
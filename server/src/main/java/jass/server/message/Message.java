@@ -20,10 +20,12 @@
 package jass.server.message;
 
 import jass.lib.message.MessageData;
+import jass.lib.message.WireFormat;
 import jass.server.util.ClientUtil;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Abstract model which every message has to implement.
@@ -33,11 +35,56 @@
  * @since 1.0.0
  */
 public abstract class Message {
+    /**
+     * The handlers by the type of message they process, built once instead of
+     * looking up the class of every message by reflection.
+     */
+    private static final Map<String, Function<MessageData, Message>> HANDLERS = new HashMap<>();
+
+    static {
+        HANDLERS.put("BroadcastAPlayerQuit", BroadcastAPlayerQuit::new);
+        HANDLERS.put("BroadcastDeck", BroadcastDeck::new);
+        HANDLERS.put("BroadcastGameMode", BroadcastGameMode::new);
+        HANDLERS.put("BroadcastPoints", BroadcastPoints::new);
+        HANDLERS.put("BroadcastRoundOver", BroadcastRoundOver::new);
+        HANDLERS.put("BroadcastTurn", BroadcastTurn::new);
+        HANDLERS.put("CancelSearchGame", CancelSearchGame::new);
+        HANDLERS.put("ChangePassword", ChangePassword::new);
+        HANDLERS.put("ChooseGameMode", ChooseGameMode::new);
+        HANDLERS.put("ChosenGameMode", ChosenGameMode::new);
+        HANDLERS.put("ContinuePlaying", ContinuePlaying::new);
+        HANDLERS.put("DeleteLogin", DeleteLogin::new);
+        HANDLERS.put("GameFound", GameFound::new);
+        HANDLERS.put("Hello", Hello::new);
+        HANDLERS.put("Login", Login::new);
+        HANDLERS.put("Logout", Logout::new);
+        HANDLERS.put("MessageError", MessageError::new);
+        HANDLERS.put("PlayCard", PlayCard::new);
+        HANDLERS.put("PlayedCard", PlayedCard::new);
+        HANDLERS.put("Register", Register::new);
+        HANDLERS.put("Result", Result::new);
+        HANDLERS.put("SearchGame", SearchGame::new);
+        HANDLERS.put("StopPlaying", StopPlaying::new);
+        HANDLERS.put("UserOnline", UserOnline::new);
+    }
+
     /**
      * The data of the message (still not casted).
      */
     private final MessageData rawData;
 
+    /**
+     * The message encoded in each wire format, created when first sent. A
+     * broadcast is encoded once and the same bytes are queued for every
+     * player.
+     */
+    private final byte[][] frames = new byte[WireFormat.values().length][];
+
+    /**
+     * The serialized JSON string, created when first needed.
+     */
+    private String json;
+
     /**
      * @param rawData The data (still not casted)
      *
@@ -70,28 +117,40 @@ public MessageData getRawData() {
     public abstract void process(ClientUtil client);
 
     /**
-     * Create a server message object of the correct class, using reflection
-     * <p>
-     * This would be more understandable - but a *lot* longer - if we used a
-     * series of "if" statements:
-     * <p>
-     * if (parts[0].equals("Login") msg = new Login(parts); else if
-     * (parts[0].equals("Logout") msg = new Logout(parts); else if ... else ...
+     * Whether the client can't do without this message. When a client falls
+     * behind, non-critical messages may be dropped instead of disconnecting
+     * the client (see {@link jass.server.network.OverflowPolicy}).
+     *
+     * @return Returns true if the message must be delivered.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean isCritical() {
+        return true;
+    }
+
+    /**
+     * Create a server message object of the correct class, using the
+     * handler registered for the type of the data.
      *
      * @param messageData The data.
      *
-     * @return Returns a message object using the data.
+     * @return Returns a message object using the data, or null if the type is
+     * unknown.
      *
-     * @author Bradley Richards
+     * @author Bradley Richards & Manuele Vaccari
      * @since 1.0.0
      */
     public static Message fromDataObject(final MessageData messageData) {
-        String messageClassName = Message.class.getPackage().getName() + "." + messageData.getMessageType();
+        Function<MessageData, Message> handler = HANDLERS.get(messageData.getMessageType());
+        if (handler == null) {
+            return null;
+        }
         try {
-            Class<?> messageClass = Class.forName(messageClassName);
-            Constructor<?> constructor = messageClass.getConstructor(MessageData.class);
-            return (Message) constructor.newInstance(messageData);
-        } catch (InstantiationException | InvocationTargetException | NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
+            return handler.apply(messageData);
+        } catch (ClassCastException e) {
+            // The data doesn't belong to the type
             return null;
         }
     }
@@ -103,7 +162,30 @@ public static Message fromDataObject(final MessageData messageData) {
      * @since 1.0.0
      */
     @Override
-    public String toString() {
-        return MessageData.serialize(rawData);
+    public synchronized String toString() {
+        if (json == null) {
+            json = MessageData.serialize(rawData);
+        }
+        return json;
+    }
+
+    /**
+     * Encode the message for the wire. The data must not change anymore once
+     * the message was sent, as the result is kept for the next recipient.
+     *
+     * @param wireFormat The wire format of the recipient.
+     *
+     * @return Returns the complete frame. Must not be modified.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized byte[] encode(final WireFormat wireFormat) {
+        byte[] frame = frames[wireFormat.ordinal()];
+        if (frame == null) {
+            frame = wireFormat.encode(rawData);
+            frames[wireFormat.ordinal()] = frame;
+        }
+        return frame;
     }
 }
@@ -49,4 +49,15 @@ public MessageError(final MessageData rawData) {
     @Override
     public void process(final ClientUtil client) {
     }
+
+    /**
+     * An error reply doesn't change anything on the client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isCritical() {
+        return false;
+    }
 }
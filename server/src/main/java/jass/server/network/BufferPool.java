@@ -0,0 +1,97 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A small pool of equally sized direct buffers. Secure connections only hold
+ * a buffer while they have unprocessed network bytes, so idle connections
+ * don't keep any memory. Not thread-safe, every event loop has its own pool.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+final class BufferPool {
+    /**
+     * How many buffers are kept at most, the rest is left to the garbage
+     * collector.
+     */
+    private static final int MAX_POOLED = 64;
+
+    /**
+     * The size of every buffer.
+     */
+    private final int bufferSize;
+
+    /**
+     * The buffers which are currently unused.
+     */
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
+
+    /**
+     * @param bufferSize The size of every buffer.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    BufferPool(final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return Returns an empty buffer.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.pollFirst();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * @param buffer A buffer which is no longer used.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void release(final ByteBuffer buffer) {
+        if (buffers.size() < MAX_POOLED) {
+            buffers.addFirst(buffer);
+        }
+    }
+
+    /**
+     * @return Returns the size of every buffer.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
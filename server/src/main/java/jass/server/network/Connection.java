@@ -0,0 +1,94 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import jass.lib.message.WireFormat;
+import jass.server.util.ClientUtil;
+
+/**
+ * A single connection to a client, independent of how the bytes are actually
+ * moved (one thread per socket or a selector).
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public interface Connection {
+    /**
+     * Start receiving messages. Every complete frame is handed to
+     * {@link ClientUtil#receive(String)} (JSON) or
+     * {@link ClientUtil#receive(byte[])} (binary).
+     *
+     * @param client The client the messages belong to.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void start(ClientUtil client);
+
+    /**
+     * Queue a serialized message for the client. Never blocks, the transport
+     * writes the queued messages on its own thread. If the client doesn't
+     * keep up, the {@link OverflowPolicy} of its queue decides what happens.
+     *
+     * @param frame    The complete frame of the message (see
+     *                 {@link WireFormat#encode(jass.lib.message.MessageData)}).
+     * @param critical Whether the client can't do without the message.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void send(byte[] frame, boolean critical);
+
+    /**
+     * Change how the following incoming bytes are split into messages.
+     *
+     * @param wireFormat The wire format the client uses from now on.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void setWireFormat(WireFormat wireFormat);
+
+    /**
+     * @return Returns the queue of the messages which still have to be
+     * written.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    OutboundQueue getOutbound();
+
+    /**
+     * Close the connection. Calling it more than once has no effect.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void close();
+
+    /**
+     * @return Returns whether the connection is still open.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    boolean isOpen();
+}
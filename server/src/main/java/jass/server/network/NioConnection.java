@@ -0,0 +1,603 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import jass.lib.message.BinaryCodec;
+import jass.lib.message.WireFormat;
+import jass.server.util.ClientUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A non-blocking connection, driven by a {@link NioEventLoop}. Incoming bytes
+ * are split into messages on the loop and the messages are processed in order
+ * on the worker pool, so a slow message never blocks the loop. Secure
+ * connections pass through a {@link TlsSession} first.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class NioConnection implements Connection {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(NioConnection.class);
+
+    /**
+     * The loop this connection is pinned to.
+     */
+    private final NioEventLoop loop;
+
+    /**
+     * The channel of the client.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * The pool which processes the decoded messages.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * The TLS layer, or null if the connection is plain.
+     */
+    private final TlsSession tls;
+
+    /**
+     * The key of the channel inside the selector.
+     */
+    private SelectionKey key;
+
+    /**
+     * The client the incoming messages are handed to.
+     */
+    private ClientUtil client;
+
+    /**
+     * How the incoming bytes are split into messages.
+     */
+    private volatile WireFormat wireFormat = WireFormat.JSON;
+
+    /**
+     * The bytes of the line (or frame) which is not yet complete.
+     */
+    private byte[] partial = new byte[0];
+
+    /**
+     * How many bytes of the partial line (or frame) are used.
+     */
+    private int partialLength = 0;
+
+    /**
+     * The length of the binary frame being read, or -1 while the length
+     * itself is read.
+     */
+    private int frameLength = -1;
+
+    /**
+     * The received messages which wait to be processed.
+     */
+    private final Queue<Runnable> inbound = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a worker is currently processing the inbound messages.
+     */
+    private final AtomicBoolean processing = new AtomicBoolean(false);
+
+    /**
+     * The messages which still have to be written.
+     */
+    private final OutboundQueue outbound;
+
+    /**
+     * Whether a flush is already scheduled on the loop.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /**
+     * Reused for draining the queue. Must only be used on the loop.
+     */
+    private final ArrayList<byte[]> batch = new ArrayList<>();
+
+    /**
+     * The encoded messages which are being written (all messages which were
+     * queued at the last drain), or null if there are none.
+     */
+    private ByteBuffer pending;
+
+    /**
+     * Whether the connection was closed.
+     */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * @param loop     The loop this connection is pinned to.
+     * @param channel  The channel of the client.
+     * @param workers  The pool which processes the decoded messages.
+     * @param outbound The queue of the messages which still have to be
+     *                 written.
+     * @param engine   The engine for a secure connection, or null for a plain
+     *                 connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    NioConnection(final NioEventLoop loop, final SocketChannel channel, final ExecutorService workers, final OutboundQueue outbound, final SSLEngine engine) {
+        this.loop = loop;
+        this.channel = channel;
+        this.workers = workers;
+        this.outbound = outbound;
+        this.tls = engine == null ? null : new TlsSession(engine, channel, loop.getNetBuffers(), workers, loop::execute, this::processSecure);
+    }
+
+    /**
+     * @param key The key of the channel inside the selector.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void setKey(final SelectionKey key) {
+        this.key = key;
+        if (closed.get()) {
+            key.cancel();
+        } else if (outbound.getDepth() > 0) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void start(final ClientUtil client) {
+        this.client = client;
+        loop.register(this, channel);
+    }
+
+    /**
+     * Called by the loop when there are bytes to read.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void onReadable() {
+        if (tls != null) {
+            onSecureReadable();
+            return;
+        }
+
+        ByteBuffer buffer = loop.getReadBuffer();
+        int read;
+        do {
+            buffer.clear();
+            try {
+                read = channel.read(buffer);
+            } catch (IOException e) {
+                logger.info(client.getUsername() + " - Client disconnected");
+                close();
+                return;
+            }
+            if (read < 0) {
+                logger.info(client.getUsername() + " - Client disconnected");
+                close();
+                return;
+            }
+            buffer.flip();
+            if (!decode(buffer)) {
+                logger.error(client.getUsername() + " - Message too long, closing connection");
+                close();
+                return;
+            }
+        } while (read == buffer.capacity());
+    }
+
+    /**
+     * Read the encrypted bytes and process them.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void onSecureReadable() {
+        int read;
+        try {
+            read = tls.read();
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            logger.info(client.getUsername() + " - Client disconnected");
+            close();
+            return;
+        }
+        processSecure();
+    }
+
+    /**
+     * Let the TLS layer advance the handshake, decrypt the bytes which were
+     * read and encrypt the queued frames.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void processSecure() {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        try {
+            if (!tls.process(loop.getReadBuffer(), this::decode, this::nextOutput)) {
+                logger.info(client.getUsername() + " - Client disconnected");
+                close();
+                return;
+            }
+            if (tls.hasPendingOutput()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            logger.info(client.getUsername() + " - Secure connection failed: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Split the bytes into messages.
+     *
+     * @param buffer The bytes which were just read.
+     *
+     * @return Returns false if a message exceeded the maximum length.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean decode(final ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            boolean valid = wireFormat == WireFormat.BINARY ? decodeFrame(buffer) : decodeLine(buffer);
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the bytes until the end of the current line.
+     *
+     * @param buffer The bytes which were just read.
+     *
+     * @return Returns false if the line exceeded the maximum length.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean decodeLine(final ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                int length = partialLength;
+                if (length > 0 && partial[length - 1] == '\r') {
+                    length--;
+                }
+                String msgText = new String(partial, 0, length, StandardCharsets.UTF_8);
+                dispatch(() -> client.receive(msgText));
+                reset();
+                return true;
+            }
+            if (partialLength == BinaryCodec.MAX_FRAME_LENGTH) {
+                return false;
+            }
+            ensureCapacity(partialLength + 1);
+            partial[partialLength++] = b;
+        }
+        return true;
+    }
+
+    /**
+     * Read the bytes until the end of the current binary frame.
+     *
+     * @param buffer The bytes which were just read.
+     *
+     * @return Returns false if the frame exceeded the maximum length.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean decodeFrame(final ByteBuffer buffer) {
+        if (frameLength < 0) {
+            ensureCapacity(4);
+            while (partialLength < 4 && buffer.hasRemaining()) {
+                partial[partialLength++] = buffer.get();
+            }
+            if (partialLength < 4) {
+                return true;
+            }
+            frameLength = (partial[0] & 0xFF) << 24 | (partial[1] & 0xFF) << 16 | (partial[2] & 0xFF) << 8 | (partial[3] & 0xFF);
+            partialLength = 0;
+            if (frameLength < 0 || frameLength > BinaryCodec.MAX_FRAME_LENGTH) {
+                return false;
+            }
+        }
+        int count = Math.min(frameLength - partialLength, buffer.remaining());
+        ensureCapacity(partialLength + count);
+        buffer.get(partial, partialLength, count);
+        partialLength += count;
+        if (partialLength == frameLength) {
+            byte[] frame = Arrays.copyOf(partial, frameLength);
+            dispatch(() -> client.receive(frame));
+            reset();
+        }
+        return true;
+    }
+
+    /**
+     * @param capacity The amount of bytes the partial buffer has to hold.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > partial.length) {
+            partial = Arrays.copyOf(partial, Math.min(BinaryCodec.MAX_FRAME_LENGTH, Math.max(capacity, Math.max(64, partial.length * 2))));
+        }
+    }
+
+    /**
+     * Get ready for the next message.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void reset() {
+        partialLength = 0;
+        frameLength = -1;
+        if (partial.length > 1024) {
+            // Don't hold on to the memory of one big message
+            partial = new byte[0];
+        }
+    }
+
+    /**
+     * Queue the message and make sure a worker processes it. Only one worker
+     * at a time works on a connection, so the order of the messages is kept.
+     *
+     * @param message Hands the complete message to the client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void dispatch(final Runnable message) {
+        inbound.add(message);
+        schedule();
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void schedule() {
+        if (processing.compareAndSet(false, true)) {
+            try {
+                workers.execute(this::process);
+            } catch (RejectedExecutionException e) {
+                processing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Process all queued messages on the worker.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void process() {
+        Runnable message;
+        while ((message = inbound.poll()) != null) {
+            if (closed.get()) {
+                inbound.clear();
+                break;
+            }
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                logger.error(client.getUsername() + " - Error while processing message", e);
+            }
+        }
+        processing.set(false);
+        // Another message could have arrived after the last poll
+        if (!inbound.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void send(final byte[] frame, final boolean critical) {
+        if (closed.get()) {
+            return;
+        }
+        if (!outbound.offer(frame, critical)) {
+            logger.warn(client.getUsername() + " - Client too slow, " + outbound.getDepth() + " messages queued; logged out");
+            close();
+            return;
+        }
+        // Messages sent while a flush is scheduled go out with that flush
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void setWireFormat(final WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public OutboundQueue getOutbound() {
+        return outbound;
+    }
+
+    /**
+     * Called by the loop when the socket can take more bytes.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void onWritable() {
+        flush();
+    }
+
+    /**
+     * Write as much as possible without blocking. Whatever is left will be
+     * written once the socket is writable again.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void flush() {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        if (tls != null) {
+            processSecure();
+            return;
+        }
+        try {
+            ByteBuffer buffer;
+            while ((buffer = nextOutput()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            logger.info(client.getUsername() + " - Client unreachable; logged out");
+            close();
+        }
+    }
+
+    /**
+     * Get the bytes to write next. Once the pending bytes are written, all
+     * messages queued in the meantime are encoded into a single buffer, so
+     * they go out with as few writes as possible.
+     *
+     * @return Returns the bytes to write, or null if there is nothing to
+     * write.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private ByteBuffer nextOutput() {
+        if (pending != null && pending.hasRemaining()) {
+            return pending;
+        }
+        pending = null;
+        if (outbound.drainTo(batch) == 0) {
+            return null;
+        }
+        if (batch.size() == 1) {
+            pending = ByteBuffer.wrap(batch.get(0));
+        } else {
+            int length = 0;
+            for (byte[] frame : batch) {
+                length += frame.length;
+            }
+            pending = ByteBuffer.allocate(length);
+            for (byte[] frame : batch) {
+                pending.put(frame);
+            }
+            pending.flip();
+        }
+        batch.clear();
+        return pending;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        loop.execute(() -> {
+            if (key != null) {
+                key.cancel();
+            }
+            if (tls != null) {
+                tls.close();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) { /* Ignore */ }
+        });
+        outbound.close();
+        if (client != null) {
+            // Logging out writes to the database, which mustn't block the loop
+            try {
+                workers.execute(client::disconnect);
+            } catch (RejectedExecutionException e) {
+                client.disconnect();
+            }
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isOpen() {
+        return !closed.get();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * One I/O thread of the selector based transport. Every connection is pinned
+ * to exactly one event loop, so all reads and writes of a connection happen on
+ * the same thread.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class NioEventLoop extends Thread implements Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(NioEventLoop.class);
+
+    /**
+     * The size of the shared read buffer.
+     */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * The selector watching all channels of this loop.
+     */
+    private final Selector selector;
+
+    /**
+     * The pool which processes the decoded messages.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * The context secure connections are created from, or null if the
+     * connections are plain.
+     */
+    private final SSLContext sslContext;
+
+    /**
+     * The buffer every read of this loop goes through (for secure connections
+     * the decrypted bytes). Connections only keep the bytes of an incomplete
+     * line, so an idle client costs almost nothing.
+     */
+    private final ByteBuffer readBuffer;
+
+    /**
+     * The buffers for the encrypted bytes of the secure connections, or null
+     * if the connections are plain.
+     */
+    private final BufferPool netBuffers;
+
+    /**
+     * Tasks from other threads which have to run on this loop.
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Run the thread while true.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * @param index      The number of the loop (used for the thread name).
+     * @param workers    The pool which processes the decoded messages and
+     *                   runs the expensive parts of the TLS handshakes.
+     * @param sslContext The context for secure connections, or null for plain
+     *                   connections.
+     *
+     * @throws IOException If the selector could not be opened.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public NioEventLoop(final int index, final ExecutorService workers, final SSLContext sslContext) throws IOException {
+        super();
+        this.setName("NioEventLoop-" + index);
+        this.selector = Selector.open();
+        this.workers = workers;
+        this.sslContext = sslContext;
+
+        if (sslContext != null) {
+            SSLSession session = sslContext.createSSLEngine().getSession();
+            readBuffer = ByteBuffer.allocateDirect(Math.max(READ_BUFFER_SIZE, session.getApplicationBufferSize()));
+            netBuffers = new BufferPool(session.getPacketBufferSize());
+        } else {
+            readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            netBuffers = null;
+        }
+    }
+
+    /**
+     * Wrap a freshly accepted channel. The channel is only watched by the loop
+     * once the connection was started.
+     *
+     * @param channel  The accepted channel.
+     * @param outbound The queue of the messages which still have to be
+     *                 written.
+     *
+     * @return Returns the connection which wraps the channel.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public NioConnection newConnection(final SocketChannel channel, final OutboundQueue outbound) {
+        if (sslContext == null) {
+            return new NioConnection(this, channel, workers, outbound, null);
+        }
+        SSLEngine engine = sslContext.createSSLEngine();
+        engine.setUseClientMode(false);
+        return new NioConnection(this, channel, workers, outbound, engine);
+    }
+
+    /**
+     * Start watching the channel of the connection.
+     *
+     * @param connection The connection.
+     * @param channel    The channel of the connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void register(final NioConnection connection, final SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                logger.error(e.toString());
+                connection.close();
+            }
+        });
+    }
+
+    /**
+     * Run the task on this loop. If the caller already is the loop, the task
+     * runs immediately.
+     *
+     * @param task The task to run.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void execute(final Runnable task) {
+        if (Thread.currentThread() == this) {
+            task.run();
+        } else {
+            tasks.add(task);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @return Returns the shared read buffer. Must only be used on this loop.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    /**
+     * @return Returns the pool for the encrypted bytes. Must only be used on
+     * this loop.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    BufferPool getNetBuffers() {
+        return netBuffers;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                logger.error(e.toString());
+                continue;
+            }
+
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // A broken task mustn't stop the loop of all other connections
+                    logger.error("Error while running a task on " + getName(), e);
+                }
+            }
+
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                NioConnection connection = (NioConnection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        connection.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.onWritable();
+                    }
+                } catch (CancelledKeyException e) {
+                    connection.close();
+                } catch (RuntimeException e) {
+                    logger.error("Error on a connection of " + getName() + ", it's closed", e);
+                    connection.close();
+                }
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) { /* Ignore */ }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The bounded queue of the frames which still have to be written to a client.
+ * Any thread can add frames without ever blocking on the socket, the
+ * transport drains the queue and writes everything that piled up at once.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class OutboundQueue {
+    /**
+     * The default amount of frames a client may have queued.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The amount of frames dropped on all connections.
+     */
+    private static final AtomicLong totalDropped = new AtomicLong();
+
+    /**
+     * The amount of clients disconnected because their queue was full.
+     */
+    private static final AtomicLong totalOverflows = new AtomicLong();
+
+    /**
+     * The amount of frames which fit into the queue.
+     */
+    private final int capacity;
+
+    /**
+     * What happens when the queue is full.
+     */
+    private final OverflowPolicy policy;
+
+    /**
+     * The queued frames.
+     */
+    private final ArrayDeque<byte[]> frames = new ArrayDeque<>();
+
+    /**
+     * The most frames which were queued at the same time.
+     */
+    private int maxDepth = 0;
+
+    /**
+     * The amount of frames dropped on this connection.
+     */
+    private long dropped = 0;
+
+    /**
+     * Whether the connection was closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * @param capacity The amount of frames which fit into the queue.
+     * @param policy   What happens when the queue is full.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public OutboundQueue(final int capacity, final OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Queue a frame.
+     *
+     * @param frame    The complete frame of the message.
+     * @param critical Whether the client can't do without the message.
+     *
+     * @return Returns false if the queue overflowed and the client has to be
+     * disconnected.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized boolean offer(final byte[] frame, final boolean critical) {
+        if (closed) {
+            return true;
+        }
+        if (frames.size() >= capacity) {
+            if (!critical && policy == OverflowPolicy.DROP_NON_CRITICAL) {
+                dropped++;
+                totalDropped.incrementAndGet();
+                return true;
+            }
+            totalOverflows.incrementAndGet();
+            return false;
+        }
+        frames.addLast(frame);
+        maxDepth = Math.max(maxDepth, frames.size());
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Move all queued frames into the collection.
+     *
+     * @param target Where to put the frames.
+     *
+     * @return Returns the amount of frames moved.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized int drainTo(final Collection<byte[]> target) {
+        int count = frames.size();
+        target.addAll(frames);
+        frames.clear();
+        return count;
+    }
+
+    /**
+     * Wait until there is something queued, then move all queued frames into
+     * the collection.
+     *
+     * @param target Where to put the frames.
+     *
+     * @return Returns the amount of frames moved, 0 if the queue was closed.
+     *
+     * @throws InterruptedException If the thread was interrupted while
+     *                              waiting.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized int awaitDrainTo(final Collection<byte[]> target) throws InterruptedException {
+        while (frames.isEmpty() && !closed) {
+            wait();
+        }
+        return drainTo(target);
+    }
+
+    /**
+     * Throw away everything queued, wake up a waiting writer and ignore all
+     * future frames.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void close() {
+        closed = true;
+        frames.clear();
+        notifyAll();
+    }
+
+    /**
+     * @return Returns the amount of frames currently queued.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized int getDepth() {
+        return frames.size();
+    }
+
+    /**
+     * @return Returns the most frames which were queued at the same time.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return Returns the amount of frames dropped on this connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return Returns the amount of frames which fit into the queue.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Returns the amount of frames dropped on all connections.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long getTotalDropped() {
+        return totalDropped.get();
+    }
+
+    /**
+     * @return Returns the amount of clients disconnected because their queue
+     * was full.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static long getTotalOverflows() {
+        return totalOverflows.get();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+/**
+ * What happens when a client doesn't read its messages fast enough and its
+ * outbound queue is full.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public enum OverflowPolicy {
+    /**
+     * Disconnect the client, whatever message didn't fit.
+     */
+    DISCONNECT,
+
+    /**
+     * Drop messages which are not critical (the client can do without them)
+     * and only disconnect the client if a critical message doesn't fit.
+     */
+    DROP_NON_CRITICAL
+}
@@ -0,0 +1,229 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import jass.lib.message.BinaryCodec;
+import jass.lib.message.WireFormat;
+import jass.server.util.ClientUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+
+/**
+ * The classic transport: one thread per client, blocking on the socket until
+ * a complete line (or binary frame) arrives, and a second one writing the queued messages, so
+ * a slow client never blocks the sender.
+ *
+ * @author Brad Richards & Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class SocketConnection implements Connection {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(SocketConnection.class);
+
+    /**
+     * The socket of the client.
+     */
+    private final Socket socket;
+
+    /**
+     * The messages which still have to be written.
+     */
+    private final OutboundQueue outbound;
+
+    /**
+     * How the incoming bytes are split into messages.
+     */
+    private volatile WireFormat wireFormat = WireFormat.JSON;
+
+    /**
+     * The client the incoming messages are handed to.
+     */
+    private ClientUtil client;
+
+    /**
+     * Whether the client is currently reachable. Shuts down everything when
+     * false.
+     */
+    private volatile boolean open = true;
+
+    /**
+     * @param socket   The socket of the client.
+     * @param outbound The queue of the messages which still have to be
+     *                 written.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public SocketConnection(final Socket socket, final OutboundQueue outbound) {
+        this.socket = socket;
+        this.outbound = outbound;
+    }
+
+    /**
+     * Immediately start a thread to receive messages from the client and one
+     * to write the queued messages.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void start(final ClientUtil client) {
+        this.client = client;
+        Thread reader = new Thread(this::read, "ClientThread");
+        reader.start();
+        Thread writer = new Thread(this::write, "ClientWriterThread");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reads message after message until the client disconnects.
+     *
+     * @author Brad Richards & Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void read() {
+        try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+            while (open) {
+                // Will wait here for a complete line or frame
+                if (wireFormat == WireFormat.BINARY) {
+                    byte[] frame = BinaryCodec.readFrame(in);
+                    if (frame == null) {
+                        logger.info(client.getUsername() + " - Client disconnected");
+                        break;
+                    }
+                    client.receive(frame);
+                } else {
+                    String msgText = BinaryCodec.readLine(in);
+                    if (msgText == null) {
+                        logger.info(client.getUsername() + " - Client disconnected");
+                        break;
+                    }
+                    client.receive(msgText);
+                }
+            }
+        } catch (SocketException | SSLException e) {
+            logger.info(client.getUsername() + " - Client disconnected");
+        } catch (IOException e) {
+            logger.error(e.toString());
+        }
+        client.disconnect();
+    }
+
+    /**
+     * Writes everything which piled up in the queue at once, until the
+     * connection is closed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void write() {
+        ArrayList<byte[]> batch = new ArrayList<>();
+        try {
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (open) {
+                if (outbound.awaitDrainTo(batch) == 0) {
+                    continue;
+                }
+                for (byte[] frame : batch) {
+                    out.write(frame);
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (open) {
+                logger.info(client.getUsername() + " - Client unreachable; logged out");
+            }
+        } catch (InterruptedException e) { /* Ignore */ }
+        client.disconnect();
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void send(final byte[] frame, final boolean critical) {
+        if (!open) {
+            return;
+        }
+        if (!outbound.offer(frame, critical)) {
+            logger.warn(client.getUsername() + " - Client too slow, " + outbound.getDepth() + " messages queued; logged out");
+            client.disconnect();
+        }
+    }
+
+    /**
+     * Only called while the reader thread processes a message, so the next
+     * read already uses the new format.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void setWireFormat(final WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public OutboundQueue getOutbound() {
+        return outbound;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        open = false;
+        outbound.close();
+        try {
+            socket.close();
+        } catch (IOException e) { /* Ignore */ }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+}
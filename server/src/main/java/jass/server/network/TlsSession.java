@@ -0,0 +1,352 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.network;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The TLS layer of a non-blocking connection. Drives the handshake of an
+ * {@link SSLEngine} without ever blocking the event loop: records are only
+ * written while the socket takes them, and the expensive delegated tasks of
+ * the handshake run on the worker pool. Must only be used on the event loop of
+ * the connection.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+final class TlsSession {
+    /**
+     * What is wrapped when the handshake wants to send, but there is no data.
+     */
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /**
+     * The engine doing the encryption.
+     */
+    private final SSLEngine engine;
+
+    /**
+     * The channel of the client.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * The pool of the network buffers.
+     */
+    private final BufferPool pool;
+
+    /**
+     * Where the delegated tasks of the handshake run.
+     */
+    private final Executor taskExecutor;
+
+    /**
+     * The event loop of the connection.
+     */
+    private final Executor loopExecutor;
+
+    /**
+     * What to do on the event loop after the delegated tasks ran.
+     */
+    private final Runnable resume;
+
+    /**
+     * The encrypted bytes which were read but not yet decrypted (in write
+     * mode), or null if there are none.
+     */
+    private ByteBuffer netIn;
+
+    /**
+     * The encrypted bytes which were not yet written (in read mode), or null if
+     * there are none.
+     */
+    private ByteBuffer netOut;
+
+    /**
+     * Whether delegated tasks currently run on the worker pool.
+     */
+    private boolean taskPending = false;
+
+    /**
+     * Whether the client closed the session.
+     */
+    private boolean closed = false;
+
+    /**
+     * @param engine       The engine doing the encryption (in server mode).
+     * @param channel      The channel of the client.
+     * @param pool         The pool of the network buffers.
+     * @param taskExecutor Where the delegated tasks of the handshake run.
+     * @param loopExecutor The event loop of the connection.
+     * @param resume       What to do on the event loop after the delegated
+     *                     tasks ran.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    TlsSession(final SSLEngine engine, final SocketChannel channel, final BufferPool pool, final Executor taskExecutor, final Executor loopExecutor, final Runnable resume) {
+        if (engine.getSession().getPacketBufferSize() > pool.getBufferSize()) {
+            throw new IllegalArgumentException("The network buffers are smaller than a TLS record");
+        }
+        this.engine = engine;
+        this.channel = channel;
+        this.pool = pool;
+        this.taskExecutor = taskExecutor;
+        this.loopExecutor = loopExecutor;
+        this.resume = resume;
+    }
+
+    /**
+     * Read the encrypted bytes which are available on the channel.
+     *
+     * @return Returns the amount of bytes read, or -1 if the channel was
+     * closed.
+     *
+     * @throws IOException If the channel could not be read.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    int read() throws IOException {
+        if (netIn == null) {
+            netIn = pool.acquire();
+        }
+        int read = channel.read(netIn);
+        if (read < 0) {
+            try {
+                engine.closeInbound();
+            } catch (SSLException e) { /* The client didn't say goodbye */ }
+        }
+        return read;
+    }
+
+    /**
+     * Get as far as possible without blocking: write what is pending, advance
+     * the handshake, decrypt what was read and encrypt what is queued.
+     *
+     * @param plain    The buffer to decrypt into, must hold one record.
+     * @param sink     Takes the decrypted bytes, returns false if they are
+     *                 invalid.
+     * @param outbound Gives the plain bytes to send next, or null if there
+     *                 are none.
+     *
+     * @return Returns false if the session is over.
+     *
+     * @throws IOException If the channel failed, the handshake failed or the
+     *                     sink refused the bytes.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    boolean process(final ByteBuffer plain, final Predicate<ByteBuffer> sink, final Supplier<ByteBuffer> outbound) throws IOException {
+        while (!closed) {
+            if (!flushNet() || taskPending) {
+                // Continue once the socket is writable or the tasks are done
+                return true;
+            }
+            switch (engine.getHandshakeStatus()) {
+                case NEED_TASK:
+                    runDelegatedTasks();
+                    return true;
+                case NEED_WRAP:
+                    wrap(EMPTY);
+                    break;
+                case NEED_UNWRAP:
+                    if (!unwrap(plain, sink)) {
+                        // Wait for the next bytes of the client
+                        return !closed;
+                    }
+                    break;
+                default:
+                    if (unwrap(plain, sink) || closed) {
+                        break;
+                    }
+                    ByteBuffer output = outbound.get();
+                    if (output == null) {
+                        return true;
+                    }
+                    wrap(output);
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Returns true if there are encrypted bytes which wait for the
+     * socket to become writable.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    boolean hasPendingOutput() {
+        return netOut != null;
+    }
+
+    /**
+     * Decrypt one record.
+     *
+     * @param plain The buffer to decrypt into.
+     * @param sink  Takes the decrypted bytes.
+     *
+     * @return Returns true if a record was consumed, false if more bytes are
+     * needed.
+     *
+     * @throws IOException If the record is invalid or the sink refused it.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean unwrap(final ByteBuffer plain, final Predicate<ByteBuffer> sink) throws IOException {
+        if (netIn == null) {
+            return false;
+        }
+        netIn.flip();
+        SSLEngineResult result;
+        try {
+            plain.clear();
+            result = engine.unwrap(netIn, plain);
+        } finally {
+            netIn.compact();
+            if (netIn.position() == 0) {
+                pool.release(netIn);
+                netIn = null;
+            }
+        }
+        plain.flip();
+        if (plain.hasRemaining() && !sink.test(plain)) {
+            throw new IOException("Message too long");
+        }
+        switch (result.getStatus()) {
+            case CLOSED:
+                closed = true;
+                return false;
+            case BUFFER_OVERFLOW:
+                throw new SSLException("The plain buffer is smaller than a TLS record");
+            case BUFFER_UNDERFLOW:
+                return false;
+            default:
+                return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+        }
+    }
+
+    /**
+     * Encrypt the bytes into one record and start writing it.
+     *
+     * @param source The plain bytes.
+     *
+     * @throws IOException If the encryption failed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void wrap(final ByteBuffer source) throws IOException {
+        ByteBuffer buffer = pool.acquire();
+        SSLEngineResult result;
+        try {
+            result = engine.wrap(source, buffer);
+        } catch (SSLException e) {
+            pool.release(buffer);
+            throw e;
+        }
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            netOut = buffer;
+        } else {
+            pool.release(buffer);
+        }
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Write the pending record.
+     *
+     * @return Returns true if everything was written.
+     *
+     * @throws IOException If the channel could not be written.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean flushNet() throws IOException {
+        if (netOut == null) {
+            return true;
+        }
+        channel.write(netOut);
+        if (netOut.hasRemaining()) {
+            return false;
+        }
+        pool.release(netOut);
+        netOut = null;
+        return true;
+    }
+
+    /**
+     * Run the expensive parts of the handshake (key exchange, certificate
+     * checks) on the worker pool and continue on the event loop afterwards.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void runDelegatedTasks() {
+        taskPending = true;
+        taskExecutor.execute(() -> {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+            loopExecutor.execute(() -> {
+                taskPending = false;
+                resume.run();
+            });
+        });
+    }
+
+    /**
+     * Say goodbye to the client if the socket allows it and give the buffers
+     * back to the pool.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void close() {
+        try {
+            engine.closeOutbound();
+            if (flushNet()) {
+                wrap(EMPTY);
+                flushNet();
+            }
+        } catch (IOException e) { /* The connection is closed anyway */ }
+        if (netIn != null) {
+            pool.release(netIn);
+            netIn = null;
+        }
+        if (netOut != null) {
+            pool.release(netOut);
+            netOut = null;
+        }
+    }
+}
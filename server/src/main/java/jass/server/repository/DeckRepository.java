@@ -20,9 +20,15 @@
 package jass.server.repository;
 
 import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.misc.TransactionManager;
+import jass.lib.CardSet;
 import jass.lib.database.Repository;
 import jass.server.entity.DeckEntity;
 
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
 /**
  * A model with all decks.
  *
@@ -31,6 +37,24 @@
  * @since 1.0.0
  */
 public final class DeckRepository extends Repository<Dao<DeckEntity, Integer>, DeckEntity> {
+    /**
+     * The columns of the nine cards, as the decks were saved before the card
+     * sets.
+     */
+    private static final String[] LEGACY_CARD_COLUMNS = {"cardOne_id", "cardTwo_id", "cardThree_id", "cardFour_id", "cardFive_id", "cardSix_id", "cardSeven_id", "cardEight_id", "cardNine_id"};
+
+    /**
+     * The columns telling whether the nine cards were played, as the decks
+     * were saved before the card sets.
+     */
+    private static final String[] LEGACY_PLAYED_COLUMNS = {"cardOneHasBeenPlayed", "cardTwoHasBeenPlayed", "cardThreeHasBeenPlayed", "cardFourHasBeenPlayed", "cardFiveHasBeenPlayed", "cardSixHasBeenPlayed", "cardSevenHasBeenPlayed", "cardEightHasBeenPlayed", "cardNineHasBeenPlayed"};
+
+    /**
+     * The name of the first card column, once the decks were converted but
+     * the columns couldn't be removed.
+     */
+    private static final String RETIRED_CARD_COLUMN = LEGACY_CARD_COLUMNS[0] + "_retired";
+
     /**
      * The singleton.
      */
@@ -62,4 +86,150 @@ public static DeckRepository getSingleton(final Dao<DeckEntity, Integer> dao) {
     public DeckRepository(final Dao<DeckEntity, Integer> dao) {
         super(dao);
     }
+
+    /**
+     * Add the columns of the card sets, if the table was created before
+     * them.
+     *
+     * @return Returns true if they were added, or false if they already
+     * existed.
+     *
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean addCardSetColumns() throws SQLException {
+        if (hasColumn(DeckEntity.DEALT_CARDS_COLUMN)) {
+            return false;
+        }
+        for (String column : new String[]{DeckEntity.DEALT_CARDS_COLUMN, DeckEntity.PLAYED_CARDS_COLUMN}) {
+            getDao().executeRaw("ALTER TABLE " + getDao().getTableName() + " ADD COLUMN " + column + " BIGINT DEFAULT 0 NOT NULL");
+        }
+        return true;
+    }
+
+    /**
+     * @return Returns true if the table still has the columns of the nine
+     * cards.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean hasLegacyCardColumns() {
+        return hasColumn(LEGACY_CARD_COLUMNS[0]);
+    }
+
+    /**
+     * Fill the card sets of the decks which were saved with the columns of
+     * the nine cards. Each page is committed on its own, so if it's
+     * interrupted, the next run continues with the decks which are left.
+     *
+     * @param indexOfCard Gives the index in a {@link CardSet} for the ID of a
+     *                    card.
+     * @param pageSize    How many decks to convert in one transaction.
+     *
+     * @return Returns how many decks were converted.
+     *
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int convertLegacyCardColumns(final IntUnaryOperator indexOfCard, final int pageSize) throws SQLException {
+        String query = "SELECT id, " + String.join(", ", LEGACY_CARD_COLUMNS) + ", " + String.join(", ", LEGACY_PLAYED_COLUMNS)
+            + " FROM " + getDao().getTableName()
+            + " WHERE " + DeckEntity.DEALT_CARDS_COLUMN + " = 0 AND " + LEGACY_CARD_COLUMNS[0] + " IS NOT NULL AND id > %d"
+            + " ORDER BY id LIMIT " + pageSize;
+        int converted = 0;
+        int lastId = 0;
+        while (true) {
+            // Reading all results closes them
+            List<String[]> page = getDao().queryRaw(String.format(query, lastId)).getResults();
+            if (page.isEmpty()) {
+                return converted;
+            }
+            TransactionManager.callInTransaction(getDao().getConnectionSource(), () -> {
+                for (String[] row : page) {
+                    long dealtCards = CardSet.EMPTY;
+                    long playedCards = CardSet.EMPTY;
+                    for (int i = 0; i < LEGACY_CARD_COLUMNS.length; i++) {
+                        if (row[1 + i] == null) {
+                            continue;
+                        }
+                        long card = CardSet.of(indexOfCard.applyAsInt(Integer.parseInt(row[1 + i])));
+                        dealtCards |= card;
+                        String played = row[1 + LEGACY_CARD_COLUMNS.length + i];
+                        if ("1".equals(played) || "true".equalsIgnoreCase(played)) {
+                            playedCards |= card;
+                        }
+                    }
+                    getDao().updateRaw("UPDATE " + getDao().getTableName() + " SET " + DeckEntity.DEALT_CARDS_COLUMN + " = " + dealtCards
+                        + ", " + DeckEntity.PLAYED_CARDS_COLUMN + " = " + playedCards + " WHERE id = " + Integer.parseInt(row[0]));
+                }
+                return null;
+            });
+            converted += page.size();
+            lastId = Integer.parseInt(page.get(page.size() - 1)[0]);
+        }
+    }
+
+    /**
+     * Remove the columns of the nine cards, once the decks were converted.
+     *
+     * @return Returns false if the database can't remove columns (SQLite
+     * before 3.35), the columns are then kept but not used anymore.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean dropLegacyCardColumns() {
+        for (int i = 0; i < LEGACY_CARD_COLUMNS.length; i++) {
+            for (String column : new String[]{LEGACY_CARD_COLUMNS[i], LEGACY_PLAYED_COLUMNS[i]}) {
+                if (!hasColumn(column)) {
+                    continue;
+                }
+                try {
+                    getDao().executeRaw("ALTER TABLE " + getDao().getTableName() + " DROP COLUMN " + column);
+                } catch (SQLException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rename the first card column, for databases which can't remove columns.
+     * The decks are only converted while the column has its old name, so
+     * they aren't searched again on every start.
+     *
+     * @return Returns false if the column couldn't be renamed either.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean retireLegacyCardColumns() {
+        try {
+            getDao().executeRaw("ALTER TABLE " + getDao().getTableName() + " RENAME COLUMN " + LEGACY_CARD_COLUMNS[0] + " TO " + RETIRED_CARD_COLUMN);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param column The name of the column.
+     *
+     * @return Returns true if the table has the column.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private boolean hasColumn(final String column) {
+        try {
+            getDao().queryRawValue("SELECT COUNT(" + column + ") FROM " + getDao().getTableName() + " WHERE 1 = 0");
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
 }
@@ -21,7 +21,11 @@
 
 import com.j256.ormlite.dao.Dao;
 import jass.lib.database.Repository;
+import jass.server.entity.CardEntity;
 import jass.server.entity.TurnEntity;
+import jass.server.entity.UserEntity;
+
+import java.util.function.IntFunction;
 
 /**
  * A model with all known turns.
@@ -62,5 +66,22 @@ public static TurnRepository getSingleton(final Dao<TurnEntity, Integer> dao) {
     public TurnRepository(final Dao<TurnEntity, Integer> dao) {
         super(dao);
     }
-}
 
+    /**
+     * Load a turn in one query, with the users and cards it refers to taken
+     * from memory.
+     *
+     * @param id    The ID of the turn.
+     * @param users Gives the user with the ID, or null if unknown.
+     * @param cards Gives the card with the ID, or null if unknown.
+     *
+     * @return Returns the turn, or null if there is none with the ID.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public TurnEntity getById(final int id, final IntFunction<UserEntity> users, final IntFunction<CardEntity> cards) {
+        TurnEntity turn = getById(id);
+        return turn == null ? null : turn.resolveReferences(users, cards);
+    }
+}
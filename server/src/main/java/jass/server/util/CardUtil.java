@@ -19,26 +19,37 @@
 
 package jass.server.util;
 
+import jass.lib.CardSet;
+import jass.lib.database.UnitOfWork;
 import jass.lib.message.BroadcastDeckData;
 import jass.lib.message.CardData;
 import jass.lib.servicelocator.Service;
+import jass.lib.servicelocator.ServiceLocator;
 import jass.server.entity.CardEntity;
 import jass.server.entity.DeckEntity;
 import jass.server.entity.RoundEntity;
 import jass.server.entity.UserEntity;
 import jass.server.message.BroadcastDeck;
-import jass.server.repository.CardRepository;
 import jass.server.repository.DeckRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
- * @author Victor Hargrave
+ * Deals the cards. A deal is the four hands as {@link CardSet}, shuffled
+ * from the card indexes with a fast random number generator. Without a
+ * seed, deals are prepared ahead on a background thread. With a seed, the
+ * n-th round of every game gets the same deal, so tournaments can play the
+ * same hands on all tables.
+ *
+ * @author Victor Hargrave, Manuele Vaccari
  * @version %I%, %G%
  * @since 1.0.0
  */
@@ -49,16 +60,112 @@ public final class CardUtil implements Service {
     private static final Logger logger = LogManager.getLogger(CardUtil.class);
 
     /**
-     * Empty constructor.
+     * How many deals are prepared ahead.
+     */
+    private static final int POOL_SIZE = 64;
+
+    /**
+     * The seed of the deals, or null to deal randomly.
+     */
+    private final Long seed;
+
+    /**
+     * The deals prepared ahead, when dealing randomly.
+     */
+    private final BlockingQueue<long[]> pool;
+
+    /**
+     * Deal randomly.
      *
      * @author Victor Hargrave
      * @since 1.0.0
      */
     public CardUtil() {
+        seed = null;
+        pool = new ArrayBlockingQueue<>(POOL_SIZE);
+        Thread dealer = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom();
+            try {
+                while (true) {
+                    pool.put(deal(random));
+                }
+            } catch (InterruptedException e) { /* Stop */ }
+        }, "DealThread");
+        dealer.setDaemon(true);
+        dealer.start();
+    }
+
+    /**
+     * Deal the same cards in the same round of every game.
+     *
+     * @param seed The seed of the deals.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public CardUtil(final long seed) {
+        this.seed = seed;
+        pool = null;
+        logger.info("Dealing the same cards in every game, seed " + seed);
     }
 
     /**
+     * @param roundNumber The number of the round in the game, starting at 0.
+     *
+     * @return Returns the hands of the players one to four, as
+     * {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long[] deal(final int roundNumber) {
+        if (seed != null) {
+            return deal(new SplittableRandom(seed ^ (roundNumber * 0x9E3779B97F4A7C15L)));
+        }
+        long[] hands = pool.poll();
+        if (hands == null) {
+            // The games took the deals faster than they were prepared
+            hands = deal(new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+        }
+        return hands;
+    }
+
+    /**
+     * Shuffle the cards (Fisher-Yates) and give nine to each player.
+     *
+     * @param random The random number generator.
+     *
+     * @return Returns the hands of the players one to four, as
+     * {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static long[] deal(final SplittableRandom random) {
+        byte[] cards = new byte[CardSet.SIZE];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = (byte) i;
+        }
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+        long[] hands = new long[4];
+        for (int i = 0; i < cards.length; i++) {
+            hands[i / CardSet.RANKS] |= CardSet.of(cards[i]);
+        }
+        return hands;
+    }
+
+    /**
+     * Deal the cards of the round. The decks are only added to the unit of
+     * work, they get their IDs when it's committed.
+     *
+     * @param unitOfWork  The unit of work to add the decks to.
      * @param newRound    The new round.
+     * @param roundNumber The number of the round in the game, starting at 0.
      * @param playerOne   User one.
      * @param playerTwo   User two.
      * @param playerThree User three.
@@ -66,49 +173,36 @@ public CardUtil() {
      *
      * @return Returns the four decks created for each player.
      *
-     * @author Victor Hargrave
+     * @author Victor Hargrave & Manuele Vaccari
      * @since 1.0.0
      */
-    public List<DeckEntity> addDecksForPlayers(final RoundEntity newRound, final UserEntity playerOne, final UserEntity playerTwo, final UserEntity playerThree, final UserEntity playerFour) {
-        List<CardEntity> cards = CardRepository.getSingleton(null).getAll();
-        Collections.shuffle(cards);
-        logger.info("shuffled cards");
+    public List<DeckEntity> addDecksForPlayers(final UnitOfWork unitOfWork, final RoundEntity newRound, final int roundNumber, final UserEntity playerOne, final UserEntity playerTwo, final UserEntity playerThree, final UserEntity playerFour) {
+        long[] hands = deal(roundNumber);
 
         List<DeckEntity> decks = new ArrayList<>();
-        decks.add(addNewDeck(newRound, playerOne, cards, 0));
-        decks.add(addNewDeck(newRound, playerTwo, cards, 9));
-        decks.add(addNewDeck(newRound, playerThree, cards, 18));
-        decks.add(addNewDeck(newRound, playerFour, cards, 27));
+        decks.add(newDeck(newRound, playerOne, hands[0]));
+        decks.add(newDeck(newRound, playerTwo, hands[1]));
+        decks.add(newDeck(newRound, playerThree, hands[2]));
+        decks.add(newDeck(newRound, playerFour, hands[3]));
+        unitOfWork.addAll(DeckRepository.getSingleton(null), decks);
         return decks;
     }
 
     /**
      * @param newRound The new round.
      * @param player   The player.
-     * @param cards    The cards.
-     * @param i        The ID inside the iterator.
+     * @param hand     The cards of the player, as {@link CardSet}.
      *
      * @return Returns a deck for a specific player.
      *
      * @author Victor Hargrave
      * @since 1.0.0
      */
-    private DeckEntity addNewDeck(final RoundEntity newRound, final UserEntity player, final List<CardEntity> cards, final int i) {
-        DeckEntity deck = (new DeckEntity())
+    private static DeckEntity newDeck(final RoundEntity newRound, final UserEntity player, final long hand) {
+        return (new DeckEntity())
             .setPlayer(player)
             .setRound(newRound)
-            .setCardOne(cards.get(i))
-            .setCardTwo(cards.get(i + 1))
-            .setCardThree(cards.get(i + 2))
-            .setCardFour(cards.get(i + 3))
-            .setCardFive(cards.get(i + 4))
-            .setCardSix(cards.get(i + 5))
-            .setCardSeven(cards.get(i + 6))
-            .setCardEight(cards.get(i + 7))
-            .setCardNine(cards.get(i + 8));
-        DeckRepository.getSingleton(null).add(deck);
-        logger.info("added deck for player");
-        return deck;
+            .setDealtCards(hand);
     }
 
     /**
@@ -119,7 +213,9 @@ private DeckEntity addNewDeck(final RoundEntity newRound, final UserEntity playe
      * @since 1.0.0
      */
     public void broadcastDeck(final ClientUtil client, final DeckEntity deckEntity) {
-        List<CardData> cards = deckEntity.getCards().stream().map(CardEntity::toCardData).collect(Collectors.toList());
+        CatalogUtil catalogUtil = ServiceLocator.get(CatalogUtil.class);
+        assert catalogUtil != null;
+        List<CardData> cards = catalogUtil.getCards(deckEntity.getDealtCards()).stream().map(CardEntity::toCardData).collect(Collectors.toList());
         BroadcastDeck broadcastDeckMsg = new BroadcastDeck(new BroadcastDeckData(deckEntity.getId(), cards));
 
         client.send(broadcastDeckMsg);
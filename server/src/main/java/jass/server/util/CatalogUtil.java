@@ -0,0 +1,210 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.Card;
+import jass.lib.CardSet;
+import jass.lib.servicelocator.Service;
+import jass.server.entity.CardEntity;
+import jass.server.entity.RankEntity;
+import jass.server.entity.SuitEntity;
+import jass.server.repository.CardRepository;
+import jass.server.repository.RankRepository;
+import jass.server.repository.SuitRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cards, ranks and suits never change, so they are read from the database
+ * once at startup and only handed out from memory afterwards. Every card,
+ * rank and suit exists exactly once, the cards share the rank and suit
+ * objects.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class CatalogUtil implements Service {
+    /**
+     * All cards, in the order of their ID.
+     */
+    private final List<CardEntity> cards;
+
+    /**
+     * The cards by their index in a {@link CardSet}.
+     */
+    private final CardEntity[] cardsByIndex = new CardEntity[CardSet.SIZE];
+
+    /**
+     * The cards by their ID.
+     */
+    private final Map<Integer, CardEntity> cardsById = new HashMap<>();
+
+    /**
+     * The ranks by their key.
+     */
+    private final Map<String, RankEntity> ranksByKey = new HashMap<>();
+
+    /**
+     * The suits by their key.
+     */
+    private final Map<String, SuitEntity> suitsByKey = new HashMap<>();
+
+    /**
+     * The suits by the ordinal of {@link Card.Suit}.
+     */
+    private final SuitEntity[] suitsBySuit = new SuitEntity[Card.Suit.values().length];
+
+    /**
+     * Load everything from the database.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public CatalogUtil() {
+        this(SuitRepository.getSingleton(null).getAll(), RankRepository.getSingleton(null).getAll(), CardRepository.getSingleton(null).getAll());
+    }
+
+    /**
+     * @param suits All suits.
+     * @param ranks All ranks.
+     * @param cards All cards.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public CatalogUtil(final List<SuitEntity> suits, final List<RankEntity> ranks, final List<CardEntity> cards) {
+        if (suits == null || ranks == null || cards == null || cards.size() != CardSet.SIZE) {
+            throw new IllegalStateException("The cards, ranks and suits couldn't be loaded");
+        }
+        Map<Integer, SuitEntity> suitsById = new HashMap<>();
+        for (SuitEntity suit : suits) {
+            suitsById.put(suit.getId(), suit);
+            suitsByKey.put(suit.getKey(), suit);
+            suitsBySuit[Card.Suit.fromString(suit.getKey()).ordinal()] = suit;
+        }
+        Map<Integer, RankEntity> ranksById = new HashMap<>();
+        for (RankEntity rank : ranks) {
+            ranksById.put(rank.getId(), rank);
+            ranksByKey.put(rank.getKey(), rank);
+        }
+
+        List<CardEntity> sortedCards = new ArrayList<>(cards);
+        sortedCards.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        for (CardEntity card : sortedCards) {
+            // The rank and suit were loaded with only their ID, replace them
+            // with the shared entities
+            card.setRank(ranksById.get(card.getRank().getId())).setSuit(suitsById.get(card.getSuit().getId()));
+            cardsById.put(card.getId(), card);
+            cardsByIndex[card.getIndex()] = card;
+        }
+        this.cards = Collections.unmodifiableList(sortedCards);
+    }
+
+    /**
+     * @return Returns all cards, in the order of their ID.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public List<CardEntity> getCards() {
+        return cards;
+    }
+
+    /**
+     * @param id The ID of the card.
+     *
+     * @return Returns the card, or null if there is none with the ID.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public CardEntity getCard(final int id) {
+        return cardsById.get(id);
+    }
+
+    /**
+     * @param index The index of the card in a {@link CardSet}.
+     *
+     * @return Returns the card.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public CardEntity getCardByIndex(final int index) {
+        return cardsByIndex[index];
+    }
+
+    /**
+     * @param set The cards as {@link CardSet}.
+     *
+     * @return Returns the cards, in the order of their index.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public List<CardEntity> getCards(final long set) {
+        List<CardEntity> result = new ArrayList<>(CardSet.size(set));
+        for (long rest = set; rest != CardSet.EMPTY; rest &= rest - 1) {
+            result.add(cardsByIndex[Long.numberOfTrailingZeros(rest)]);
+        }
+        return result;
+    }
+
+    /**
+     * @param key The key of the rank, e.g. "jack".
+     *
+     * @return Returns the rank, or null if there is none with the key.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public RankEntity getRank(final String key) {
+        return ranksByKey.get(key);
+    }
+
+    /**
+     * @param key The key of the suit, e.g. "hearts".
+     *
+     * @return Returns the suit, or null if there is none with the key.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public SuitEntity getSuit(final String key) {
+        return suitsByKey.get(key);
+    }
+
+    /**
+     * @param suit The suit.
+     *
+     * @return Returns the suit entity.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public SuitEntity getSuit(final Card.Suit suit) {
+        return suitsBySuit[suit.ordinal()];
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All connected clients, indexed by their connection id, and the logged in
+ * ones also by username. Every lookup is a lock-free map access and the views
+ * can be iterated while clients come and go, without copying.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class ClientRegistry {
+    /**
+     * Every connected client, by connection id.
+     */
+    private final ConcurrentHashMap<Long, ClientUtil> byId = new ConcurrentHashMap<>();
+
+    /**
+     * The logged in clients, by username.
+     */
+    private final ConcurrentHashMap<String, ClientUtil> byUsername = new ConcurrentHashMap<>();
+
+    /**
+     * @param client The new client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void add(final ClientUtil client) {
+        byId.put(client.getId(), client);
+    }
+
+    /**
+     * Remove the client, including its login.
+     *
+     * @param client The client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void remove(final ClientUtil client) {
+        logout(client);
+        byId.remove(client.getId(), client);
+    }
+
+    /**
+     * Claim the username for the client. A username belongs to at most one
+     * client: the claim is taken over from a client whose connection is
+     * already closed, but fails while another connected client has it. If
+     * the client logs in as someone else, its old username is released.
+     *
+     * @param client   The client.
+     * @param username The username.
+     *
+     * @return Returns true if the client has the username now, false if
+     * someone else is logged in with it.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean login(final ClientUtil client, final String username) {
+        ClientUtil owner = byUsername.compute(username, (name, current) -> {
+            if (current == null || current == client || !current.getConnection().isOpen()) {
+                return client;
+            }
+            return current;
+        });
+        if (owner != client) {
+            return false;
+        }
+        if (client.getUser() != null && !client.getUser().getUsername().equals(username)) {
+            byUsername.remove(client.getUser().getUsername(), client);
+        }
+        return true;
+    }
+
+    /**
+     * Release the username of the client, if it has any.
+     *
+     * @param client The client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void logout(final ClientUtil client) {
+        logout(client, null);
+    }
+
+    /**
+     * Release the username of the client, if it still has it. Someone else
+     * may have taken it over since the connection of the client was closed,
+     * then the username stays with them.
+     *
+     * @param client        The client.
+     * @param whileLoggedIn What to do before the username is released, only
+     *                      if the client still has it. Nobody can claim the
+     *                      username before it is done.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void logout(final ClientUtil client, final Runnable whileLoggedIn) {
+        if (client.getUser() == null) {
+            return;
+        }
+        byUsername.computeIfPresent(client.getUser().getUsername(), (name, current) -> {
+            if (current != client) {
+                return current;
+            }
+            if (whileLoggedIn != null) {
+                whileLoggedIn.run();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @param username The username.
+     *
+     * @return Returns the client logged in with the username, or null if
+     * there is none.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ClientUtil getByUsername(final String username) {
+        return username == null ? null : byUsername.get(username);
+    }
+
+    /**
+     * @return Returns a live, unmodifiable view of all connected clients.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Collection<ClientUtil> getClients() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /**
+     * @return Returns a live, unmodifiable view of the logged in clients.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Collection<ClientUtil> getLoggedIn() {
+        return Collections.unmodifiableCollection(byUsername.values());
+    }
+
+    /**
+     * @return Returns the amount of connected clients.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int size() {
+        return byId.size();
+    }
+}
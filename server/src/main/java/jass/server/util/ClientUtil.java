@@ -19,12 +19,14 @@
 
 package jass.server.util;
 
+import jass.lib.message.BinaryCodec;
 import jass.lib.message.ChosenGameModeData;
 import jass.lib.message.ContinuePlayingData;
 import jass.lib.message.MessageData;
 import jass.lib.message.MessageErrorData;
 import jass.lib.message.PlayCardData;
 import jass.lib.message.StopPlayingData;
+import jass.lib.message.WireFormat;
 import jass.lib.servicelocator.ServiceLocator;
 import jass.server.entity.UserEntity;
 import jass.server.eventlistener.ChosenGameModeEventListener;
@@ -33,18 +35,15 @@
 import jass.server.eventlistener.StopPlayingEventListener;
 import jass.server.message.Message;
 import jass.server.message.MessageError;
+import jass.server.network.Connection;
 import jass.server.repository.UserRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.net.ssl.SSLException;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.Socket;
-import java.net.SocketException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Copyright 2015, FHNW, Prof. Dr. Brad Richards. All rights reserved. This code
@@ -55,22 +54,36 @@
  * @version %I%, %G%
  * @since 1.0.0
  */
-public final class ClientUtil extends Thread {
+public final class ClientUtil {
     /**
      * The logger to print to console and save in a .log file.
      */
     private static final Logger logger = LogManager.getLogger(ClientUtil.class);
 
     /**
-     * The socket of the client.
+     * The counter to give every connection its own id.
      */
-    private final Socket socket;
+    private static final AtomicLong idCounter = new AtomicLong();
 
     /**
-     * Whether the client is currently reachable. Shuts down everything when
-     * false.
+     * The id of the connection.
      */
-    private volatile boolean clientReachable = true;
+    private final long id = idCounter.incrementAndGet();
+
+    /**
+     * The connection to the client.
+     */
+    private final Connection connection;
+
+    /**
+     * Whether the client was already disconnected.
+     */
+    private final AtomicBoolean disconnected = new AtomicBoolean(false);
+
+    /**
+     * How messages are put on the wire.
+     */
+    private volatile WireFormat wireFormat = WireFormat.JSON;
 
     /**
      * The user of the current connection.
@@ -83,108 +96,100 @@ public final class ClientUtil extends Thread {
     private String token = null;
 
     /**
-     * A list of all objects listening to a choose game mode event.
+     * A list of all objects listening to a choose game mode event. The lists
+     * are copied on write, as the games remove themselves on their own thread
+     * while this client might be going through them.
      */
-    private final ArrayList<ChosenGameModeEventListener> chosenGameModeListener = new ArrayList<>();
+    private final List<ChosenGameModeEventListener> chosenGameModeListener = new CopyOnWriteArrayList<>();
 
     /**
      * A list of all objects listening to a played card event.
      */
-    private final ArrayList<PlayedCardEventListener> playedCardListener = new ArrayList<>();
+    private final List<PlayedCardEventListener> playedCardListener = new CopyOnWriteArrayList<>();
 
     /**
      * A list of all objects listening to stop playing event.
      */
-    private final ArrayList<StopPlayingEventListener> stopPlayingListener = new ArrayList<>();
-
-    /**
-     * A list of all objects listening to stop playing event to be removed.
-     */
-    private final ArrayList<StopPlayingEventListener> stopPlayingListenerToRemove = new ArrayList<>();
+    private final List<StopPlayingEventListener> stopPlayingListener = new CopyOnWriteArrayList<>();
 
     /**
      * A list of all objects listening to continue playing event.
      */
-    private final ArrayList<ContinuePlayingEventListener> continuePlayingListener = new ArrayList<>();
+    private final List<ContinuePlayingEventListener> continuePlayingListener = new CopyOnWriteArrayList<>();
 
     /**
-     * A list of all objects listening to continue playing event to be removed.
+     * Create a new client object, communicating over the given connection.
+     * Immediately start receiving messages from the client.
+     *
+     * @param connection The connection to the client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.0.0
      */
-    private final ArrayList<ContinuePlayingEventListener> continuePlayingListenerToRemove = new ArrayList<>();
+    public ClientUtil(final Connection connection) {
+        this.connection = connection;
+
+        // Start to read incoming messages
+        connection.start(this);
+
+        logger.info("New client created: " + getUsername());
+    }
 
     /**
-     * Create a new client object, communicating over the given socket.
-     * Immediately start a thread to receive messages from the client.
+     * Handle one complete JSON message coming from the client.
      *
-     * @param socket The socket of the client.
+     * @param msgText The serialized message.
      *
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    public ClientUtil(final Socket socket) {
-        super();
-        this.setName("ClientThread");
-        this.socket = socket;
+    public void receive(final String msgText) {
+        logger.info(getUsername() + " - Receiving message: " + msgText);
 
-        // Create thread to read incoming messages
-        this.start();
+        // Convert JSON string into a workable object
+        handle(MessageData.unserialize(msgText));
+    }
 
-        logger.info("New client created: " + getUsername());
+    /**
+     * Handle one complete binary message coming from the client.
+     *
+     * @param frame The payload of the binary frame.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void receive(final byte[] frame) {
+        handle(BinaryCodec.decode(frame));
     }
 
     /**
+     * @param msgData The received message, or null if it was invalid.
+     *
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    @Override
-    public void run() {
-        while (clientReachable) {
-            Message msg = null;
-            try {
-                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                // Will wait here for complete line
-                String msgText = in.readLine();
-                logger.info(getUsername() + " - Receiving message: " + msgText);
-
-                if (msgText == null) {
-                    logger.info(getUsername() + " - Client disconnected");
-                    disconnect();
-                    continue;
-                }
+    private void handle(final MessageData msgData) {
+        // Create a server message object of the correct class, using
+        // reflection
+        Message msg = null;
+        if (msgData == null) {
+            logger.error("Received invalid message");
+        } else {
+            msg = Message.fromDataObject(msgData);
+            if (msg == null) {
+                logger.error("Received invalid message of type " + msgData.getMessageType());
+            } else {
+                logger.info("Received message of type " + msgData.getMessageType());
 
-                // Convert JSON string into a workable object
-                MessageData msgData = MessageData.unserialize(msgText);
-
-                // Create a server message object of the correct class, using
-                // reflection
-                if (msgData == null) {
-                    logger.error("Received invalid message");
-                } else {
-                    msg = Message.fromDataObject(msgData);
-                    if (msg == null) {
-                        logger.error("Received invalid message of type " + msgData.getMessageType());
-                    } else {
-                        logger.info("Received message of type " + msgData.getMessageType());
-
-                        handleEventListenerOnMessage(msgData.getMessageType(), msgData);
-                    }
-                }
-            } catch (SocketException | SSLException e) {
-                logger.info(getUsername() + " - Client disconnected");
-                disconnect();
-                continue;
-            } catch (IOException e) {
-                logger.error(e.toString());
+                handleEventListenerOnMessage(msgData.getMessageType(), msgData);
             }
+        }
 
-            // Note the syntax "Client.this" - writing "this" would reference
-            // the Runnable object
-            if (msg != null) {
-                msg.process(ClientUtil.this);
-            } else {
-                // Invalid message or broken socket
-                send(new MessageError(new MessageErrorData(MessageErrorData.ErrorType.INVALID_COMMAND)));
-            }
+        if (msg != null) {
+            msg.process(this);
+        } else {
+            // Invalid message
+            send(new MessageError(new MessageErrorData(MessageErrorData.ErrorType.INVALID_COMMAND)));
         }
     }
 
@@ -214,15 +219,11 @@ public void handleEventListenerOnMessage(final String msgType, final MessageData
                 }
             }
         } else if (msgType.equals("StopPlaying")) {
-            stopPlayingListener.removeAll(stopPlayingListenerToRemove);
-            stopPlayingListenerToRemove.clear();
             for (StopPlayingEventListener listener : stopPlayingListener) {
                 logger.info("Invoking stopPlaying event on " + listener.getClass().getName());
                 listener.onStopPlaying((StopPlayingData) msgData);
             }
         } else if (msgType.equals("ContinuePlaying")) {
-            continuePlayingListener.removeAll(continuePlayingListenerToRemove);
-            continuePlayingListenerToRemove.clear();
             for (ContinuePlayingEventListener listener : continuePlayingListener) {
                 logger.info("Invoking continuePlaying event on " + listener.getClass().getName());
                 listener.onContinuePlaying((ContinuePlayingData) msgData);
@@ -235,12 +236,13 @@ public void handleEventListenerOnMessage(final String msgType, final MessageData
      *
      * @return Returns whether the user could successfully authenticate.
      *
-     * @author Victor Hargrave
+     * @author Victor Hargrave & Manuele Vaccari
      * @since 1.0.0
      */
     private boolean authenticateRequest(final MessageData msgData) {
-        UserEntity user = UserRepository.getSingleton(null).getByUsername(msgData.getUsername());
-        return user != null && user.getToken() != null && user.getToken().equals(msgData.getToken());
+        SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+        assert sessionUtil != null;
+        return sessionUtil.authenticate(msgData.getUsername(), msgData.getToken());
     }
 
     /**
@@ -300,7 +302,7 @@ public void addStopPlayingEventListener(final StopPlayingEventListener listener)
      * @since 1.0.0
      */
     public void removeStopPlayingEventListener(final StopPlayingEventListener listener) {
-        this.stopPlayingListenerToRemove.add(listener);
+        this.stopPlayingListener.remove(listener);
     }
 
     /**
@@ -320,12 +322,13 @@ public void addContinuePlayingEventListener(final ContinuePlayingEventListener l
      * @since 1.0.0
      */
     public void removeContinuePlayingEventListener(final ContinuePlayingEventListener listener) {
-        this.continuePlayingListenerToRemove.add(listener);
+        this.continuePlayingListener.remove(listener);
     }
 
     /**
-     * Send a message to this client. In case of an exception, log the client
-     * out.
+     * Send a message to this client. The message is only queued, so a slow
+     * client never blocks the caller. If the client doesn't keep up, it is
+     * logged out.
      *
      * @param msg The message to be sent.
      *
@@ -333,16 +336,30 @@ public void removeContinuePlayingEventListener(final ContinuePlayingEventListene
      * @since 1.0.0
      */
     public void send(final Message msg) {
-        try {
-            OutputStreamWriter out = new OutputStreamWriter(socket.getOutputStream());
+        if (wireFormat == WireFormat.JSON) {
             logger.info(getUsername() + " - Sending message: " + msg.toString());
-            // This will send the serialized MessageData object
-            out.write(msg.toString() + "\n");
-            out.flush();
-        } catch (IOException e) {
-            logger.info(getUsername() + " - Client unreachable; logged out");
-            disconnect();
+        } else {
+            logger.info(getUsername() + " - Sending message of type " + msg.getRawData().getMessageType());
         }
+        // This will send the serialized MessageData object
+        connection.send(msg.encode(wireFormat), msg.isCritical());
+    }
+
+    /**
+     * Switch to another wire format. The incoming bytes switch before the
+     * answer is sent, since the client may use the new format as soon as it
+     * got the answer. The answer itself still goes out in the old format.
+     *
+     * @param wireFormat The wire format to use from now on.
+     * @param answer     The message which tells the client about the switch.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void setWireFormat(final WireFormat wireFormat, final Message answer) {
+        connection.setWireFormat(wireFormat);
+        send(answer);
+        this.wireFormat = wireFormat;
     }
 
     /**
@@ -352,24 +369,54 @@ public void send(final Message msg) {
      * @since 1.0.0
      */
     public void disconnect() {
+        if (!disconnected.compareAndSet(false, true)) {
+            return;
+        }
+
         SearchGameUtil searchGameUtil = ServiceLocator.get(SearchGameUtil.class);
         assert searchGameUtil != null;
         searchGameUtil.remove(this);
 
         // TODO: Close down the game if client was inside.
 
-        clientReachable = false;
+        connection.close();
+
+        // If user is still logged in ... Once the connection is closed,
+        // another client may log in with the username, then the user stays
+        // online with the new session.
+        ServerSocketUtil.getRegistry().logout(this, () -> {
+            SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+            assert sessionUtil != null;
+            sessionUtil.invalidate(user.getUsername(), token);
 
-        // If user is still logged in ...
-        if (user != null) {
             user.setOffline();
             UserRepository.getSingleton(null).update(user);
-        }
+        });
+        // Free up RAM by deleting disconnected clients.
+        ServerSocketUtil.remove(this);
         token = null;
         user = null;
+    }
 
-        // Free up RAM by deleting disconnected clients.
-        ServerSocketUtil.remove(this);
+    /**
+     * @return Returns the id of the connection, unique as long as the server
+     * runs.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return Returns the connection to the client.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Connection getConnection() {
+        return connection;
     }
 
     /**
@@ -24,8 +24,11 @@
 import com.j256.ormlite.jdbc.JdbcConnectionSource;
 import com.j256.ormlite.support.ConnectionSource;
 import com.j256.ormlite.table.TableUtils;
+import jass.lib.database.Repository;
 import jass.lib.servicelocator.Service;
 import jass.server.database.MysqlDatabaseType;
+import jass.server.database.PooledConnectionSource;
+import jass.server.database.StatementCounter;
 import jass.server.entity.CardEntity;
 import jass.server.entity.DeckEntity;
 import jass.server.entity.GameEntity;
@@ -44,6 +47,8 @@
 import jass.server.repository.TeamRepository;
 import jass.server.repository.TurnRepository;
 import jass.server.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -60,6 +65,16 @@
  * @since 1.0.0
  */
 public final class DatabaseUtil implements Service, Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(DatabaseUtil.class);
+
+    static {
+        // Before the first connection is opened
+        StatementCounter.install();
+    }
+
     /**
      * Default location to store the data.
      */
@@ -173,6 +188,47 @@ public DatabaseUtil(final String databaseUrl, final String username, final Strin
         setupDatabase();
     }
 
+    /**
+     * Create a pool of database connections, so the clients don't have to
+     * wait for each other's queries.
+     * <p>
+     * Example: mariadb://localhost:3306/jass
+     * </p>
+     *
+     * @param databaseUrl     A string containing the location of the
+     *                        database.
+     * @param username        The username of the database.
+     * @param password        The password of the database.
+     * @param minSize         The amount of connections which are kept open.
+     * @param maxSize         The amount of connections which are used at
+     *                        most.
+     * @param idleTimeout     The amount of milliseconds after which an unused
+     *                        connection is closed.
+     * @param waitTimeout     The amount of milliseconds to wait for a free
+     *                        connection.
+     * @param validationQuery The query to check whether a connection still
+     *                        works, or null for the default one.
+     *
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public DatabaseUtil(final String databaseUrl, final String username, final String password, final int minSize, final int maxSize, final long idleTimeout, final long waitTimeout, final String validationQuery) throws SQLException {
+        // Create our data-source for the database
+        String jdbcDatabaseUrl = "jdbc:" + databaseUrl;
+        String databaseType = extractDbType(jdbcDatabaseUrl);
+        if (databaseType.equals("mysql")) {
+            connectionSource = new PooledConnectionSource(jdbcDatabaseUrl, username, password, new MysqlDatabaseType(), minSize, maxSize, idleTimeout, waitTimeout, validationQuery);
+        } else if (databaseType.equals("mariadb")) {
+            connectionSource = new PooledConnectionSource(jdbcDatabaseUrl, username, password, null, minSize, maxSize, idleTimeout, waitTimeout, validationQuery);
+        } else {
+            throw new IllegalArgumentException(databaseType + " is unsupported for the connection pool.");
+        }
+
+        // Setup our database and DAOs
+        setupDatabase();
+    }
+
     /**
      * @param databaseUrl The full database url.
      *
@@ -239,9 +295,61 @@ private void setupDatabase() throws SQLException {
         TableUtils.createTableIfNotExists(connectionSource, TeamEntity.class);
         TableUtils.createTableIfNotExists(connectionSource, RoundEntity.class);
         TableUtils.createTableIfNotExists(connectionSource, DeckEntity.class);
+        migrateDecks();
         TableUtils.createTableIfNotExists(connectionSource, TurnEntity.class);
     }
 
+    /**
+     * The decks used to have a column for each of the nine cards and whether
+     * it was played, convert them to the two card sets.
+     *
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void migrateDecks() throws SQLException {
+        DeckRepository deckRepository = DeckRepository.getSingleton(null);
+        if (deckRepository.addCardSetColumns()) {
+            logger.info("Added the card set columns to the decks");
+        }
+        if (!deckRepository.hasLegacyCardColumns()) {
+            return;
+        }
+        CatalogUtil catalog = new CatalogUtil();
+        int converted = deckRepository.convertLegacyCardColumns(id -> catalog.getCard(id).getIndex(), Repository.DEFAULT_PAGE_SIZE);
+        if (converted > 0) {
+            logger.info("Converted " + converted + " decks to card sets");
+        }
+        if (deckRepository.dropLegacyCardColumns()) {
+            logger.info("Removed the card columns of the decks");
+        } else if (deckRepository.retireLegacyCardColumns()) {
+            logger.info("The database can't remove columns, the card columns of the decks are kept but not used");
+        } else {
+            logger.warn("The card columns of the decks can't be removed or renamed, they are checked again on the next start");
+        }
+    }
+
+    /**
+     * @return Returns the connection to the database.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ConnectionSource getConnectionSource() {
+        return connectionSource;
+    }
+
+    /**
+     * @return Returns the pool of connections, or null if there is only one
+     * connection.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public PooledConnectionSource getPool() {
+        return connectionSource instanceof PooledConnectionSource ? (PooledConnectionSource) connectionSource : null;
+    }
+
     /**
      * Close the database connection.
      *
@@ -0,0 +1,120 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.servicelocator.Service;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed amount of threads all games run on. Every game is assigned to one
+ * of the threads for its whole life, so thousands of games share a few
+ * threads and the events of one game never run at the same time.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class GameExecutorUtil implements Service, Closeable {
+    /**
+     * The default amount of threads, one per core.
+     */
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The threads, each one processing the events of its games in order.
+     */
+    private final ExecutorService[] shards;
+
+    /**
+     * The processing time of the events of all games.
+     */
+    private final Histogram latency = new Histogram();
+
+    /**
+     * To assign the games to the threads in turn.
+     */
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    /**
+     * @param threads The amount of threads.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameExecutorUtil(final int threads) {
+        shards = new ExecutorService[Math.max(1, threads)];
+        for (int i = 0; i < shards.length; i++) {
+            String name = "GameThread-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @param name The name of the game, for the logs.
+     *
+     * @return Returns the mailbox for a new game, on the next thread.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameMailbox createMailbox(final String name) {
+        int shard = Math.floorMod(nextShard.getAndIncrement(), shards.length);
+        return new GameMailbox(name, shards[shard], latency);
+    }
+
+    /**
+     * @return Returns the processing time of the events of all games.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Returns the amount of threads.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getThreads() {
+        return shards.length;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        for (ExecutorService shard : shards) {
+            shard.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,583 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.Card;
+import jass.lib.GameMode;
+import jass.lib.servicelocator.Service;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends everything happening in the games to a journal, so the running
+ * games can be continued after the server crashed or was stopped.
+ * <p>
+ * The journal is a memory-mapped file, an append only copies a few bytes and
+ * never waits for the disk. Each record is a length, a type, the ID of the
+ * game and the data of the event. The length is written last, so a record
+ * which was cut off by a crash is ignored when reading. Once a segment is
+ * full, only the records still needed (the start and the current round of
+ * the games which didn't end) are copied to a new segment and the old one is
+ * deleted.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class GameJournalUtil implements Service, Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(GameJournalUtil.class);
+
+    /**
+     * Where the journal is saved by default.
+     */
+    public static final String DEFAULT_DIRECTORY = "journal";
+
+    /**
+     * How many bytes a segment has by default.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    /**
+     * The bytes of a record before its data: its length, type and the ID of
+     * the game.
+     */
+    private static final int HEADER_SIZE = 2 + 1 + 4;
+
+    /**
+     * The most bytes a record takes, including its length. The largest one
+     * is the start of a round, with the four decks and hands.
+     */
+    static final int MAX_RECORD_SIZE = HEADER_SIZE + 3 * 4 + 4 * (4 + 8);
+
+    /**
+     * A game started, with its four players.
+     */
+    private static final byte GAME_STARTED = 1;
+
+    /**
+     * A round started, with the decks and the dealt cards.
+     */
+    private static final byte ROUND_STARTED = 2;
+
+    /**
+     * The game mode of the round was chosen.
+     */
+    private static final byte GAME_MODE_CHOSEN = 3;
+
+    /**
+     * A turn started, with the player starting it.
+     */
+    private static final byte TURN_STARTED = 4;
+
+    /**
+     * A card was played in the current turn.
+     */
+    private static final byte CARD_PLAYED = 5;
+
+    /**
+     * The current turn was won, with its points.
+     */
+    private static final byte TURN_WON = 6;
+
+    /**
+     * The last turn of the round was won.
+     */
+    private static final byte ROUND_OVER = 7;
+
+    /**
+     * The game ended, its records can be dropped.
+     */
+    private static final byte GAME_ENDED = 8;
+
+    /**
+     * The directory of the segments.
+     */
+    private final Path directory;
+
+    /**
+     * How many bytes a new segment has at least.
+     */
+    private final int segmentSize;
+
+    /**
+     * The games which were running when the journal was opened.
+     */
+    private final List<RecoveredGame> recoveredGames = new ArrayList<>();
+
+    /**
+     * The number of the segment being appended to.
+     */
+    private long sequence = 0;
+
+    /**
+     * The file of the segment being appended to.
+     */
+    private FileChannel channel;
+
+    /**
+     * The segment being appended to, or null once closed.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * Where the record being appended starts.
+     */
+    private int recordStart;
+
+    /**
+     * @param directory   The directory of the segments.
+     * @param segmentSize How many bytes a segment has.
+     *
+     * @throws IOException If the journal couldn't be read or written.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameJournalUtil(final Path directory, final int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(segmentSize, MAX_RECORD_SIZE * 4);
+        Files.createDirectories(directory);
+
+        // Left behind by a crash while compacting
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.tmp")) {
+            for (Path temporary : stream) {
+                Files.delete(temporary);
+            }
+        }
+
+        // Only games which got to their first round can be continued
+        Map<Integer, List<byte[]>> running = read();
+        Map<Integer, List<byte[]>> recoverable = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<byte[]>> entry : running.entrySet()) {
+            try {
+                RecoveredGame game = replay(entry.getValue());
+                if (game.getRoundId() != 0) {
+                    recoveredGames.add(game);
+                    recoverable.put(entry.getKey(), entry.getValue());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("The journal of game " + entry.getKey() + " is broken, it can't be continued");
+            }
+        }
+        compact(recoverable);
+        if (!recoveredGames.isEmpty()) {
+            logger.info("Recovered " + recoveredGames.size() + " running games from the journal");
+        }
+    }
+
+    /**
+     * @return Returns the games which were running when the journal was
+     * opened.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public List<RecoveredGame> getRecoveredGames() {
+        return Collections.unmodifiableList(recoveredGames);
+    }
+
+    /**
+     * @param gameId      The ID of the game.
+     * @param playerOne   The ID of player one.
+     * @param playerTwo   The ID of player two.
+     * @param playerThree The ID of player three.
+     * @param playerFour  The ID of player four.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void gameStarted(final int gameId, final int playerOne, final int playerTwo, final int playerThree, final int playerFour) {
+        ByteBuffer out = begin(GAME_STARTED, gameId, 16);
+        if (out != null) {
+            out.putInt(playerOne).putInt(playerTwo).putInt(playerThree).putInt(playerFour);
+            commit();
+        }
+    }
+
+    /**
+     * @param gameId            The ID of the game.
+     * @param roundId           The ID of the round.
+     * @param roundNumber       The number of the round in the game.
+     * @param gameModeChooserId The ID of the user choosing the game mode.
+     * @param deckIds           The IDs of the decks of the players one to
+     *                          four.
+     * @param hands             The cards dealt to the players one to four.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void roundStarted(final int gameId, final int roundId, final int roundNumber, final int gameModeChooserId, final int[] deckIds, final long[] hands) {
+        ByteBuffer out = begin(ROUND_STARTED, gameId, 3 * 4 + 4 * (4 + 8));
+        if (out != null) {
+            out.putInt(roundId).putInt(roundNumber).putInt(gameModeChooserId);
+            for (int i = 0; i < 4; i++) {
+                out.putInt(deckIds[i]).putLong(hands[i]);
+            }
+            commit();
+        }
+    }
+
+    /**
+     * @param gameId     The ID of the game.
+     * @param gameMode   The game mode.
+     * @param trumpfSuit The trump suit, or null.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void gameModeChosen(final int gameId, final GameMode gameMode, final Card.Suit trumpfSuit) {
+        ByteBuffer out = begin(GAME_MODE_CHOSEN, gameId, 2);
+        if (out != null) {
+            out.put((byte) gameMode.ordinal()).put((byte) (trumpfSuit == null ? -1 : trumpfSuit.ordinal()));
+            commit();
+        }
+    }
+
+    /**
+     * @param gameId           The ID of the game.
+     * @param turnId           The ID of the turn.
+     * @param startingPlayerId The ID of the user starting the turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void turnStarted(final int gameId, final int turnId, final int startingPlayerId) {
+        ByteBuffer out = begin(TURN_STARTED, gameId, 8);
+        if (out != null) {
+            out.putInt(turnId).putInt(startingPlayerId);
+            commit();
+        }
+    }
+
+    /**
+     * @param gameId The ID of the game.
+     * @param userId The ID of the user who played the card.
+     * @param card   The index of the card in a {@link jass.lib.CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void cardPlayed(final int gameId, final int userId, final int card) {
+        ByteBuffer out = begin(CARD_PLAYED, gameId, 5);
+        if (out != null) {
+            out.putInt(userId).put((byte) card);
+            commit();
+        }
+    }
+
+    /**
+     * @param gameId        The ID of the game.
+     * @param winningUserId The ID of the user who won the turn.
+     * @param points        The points the team of the user got.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void turnWon(final int gameId, final int winningUserId, final int points) {
+        ByteBuffer out = begin(TURN_WON, gameId, 6);
+        if (out != null) {
+            out.putInt(winningUserId).putShort((short) points);
+            commit();
+        }
+    }
+
+    /**
+     * @param gameId The ID of the game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void roundOver(final int gameId) {
+        if (begin(ROUND_OVER, gameId, 0) != null) {
+            commit();
+        }
+    }
+
+    /**
+     * The game won't be continued anymore, its records are dropped with the
+     * next compaction.
+     *
+     * @param gameId The ID of the game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized void gameEnded(final int gameId) {
+        if (begin(GAME_ENDED, gameId, 0) != null) {
+            commit();
+        }
+    }
+
+    /**
+     * Start a record, in a new segment if it doesn't fit into the current
+     * one anymore.
+     *
+     * @param type   The type of the record.
+     * @param gameId The ID of the game.
+     * @param size   How many bytes the data of the record takes.
+     *
+     * @return Returns the buffer to write the data of the record to, or null
+     * if the journal is closed or broken.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private ByteBuffer begin(final byte type, final int gameId, final int size) {
+        if (buffer == null) {
+            return null;
+        }
+        if (buffer.remaining() < HEADER_SIZE + size) {
+            try {
+                buffer.force();
+                compact(read());
+            } catch (IOException e) {
+                logger.error("Rolling over the journal failed, it's disabled from now on", e);
+                buffer = null;
+                return null;
+            }
+        }
+        recordStart = buffer.position();
+        buffer.position(recordStart + 2);
+        buffer.put(type).putInt(gameId);
+        return buffer;
+    }
+
+    /**
+     * Finish the record by writing its length.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void commit() {
+        buffer.putShort(recordStart, (short) (buffer.position() - recordStart - 2));
+    }
+
+    /**
+     * @return Returns the segments, oldest first.
+     *
+     * @throws IOException If the directory couldn't be read.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.dat")) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        // The numbers have a fixed width, so the names sort by age
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Read all segments and keep the records of the games which didn't end,
+     * from their start and their current round.
+     *
+     * @return Returns the records by the ID of the game.
+     *
+     * @throws IOException If a segment couldn't be read.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private Map<Integer, List<byte[]>> read() throws IOException {
+        Map<Integer, List<byte[]>> running = new LinkedHashMap<>();
+        for (Path segment : segments()) {
+            String name = segment.getFileName().toString();
+            sequence = Math.max(sequence, Long.parseLong(name.substring(8, name.length() - 4)));
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                while (records.remaining() >= 2) {
+                    int length = records.getShort();
+                    if (length < 5 || length > records.remaining()) {
+                        // The end of the segment, or a record cut off
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    records.get(record);
+                    int gameId = ByteBuffer.wrap(record, 1, 4).getInt();
+                    List<byte[]> game = running.get(gameId);
+                    switch (record[0]) {
+                        case GAME_STARTED:
+                            game = new ArrayList<>();
+                            game.add(record);
+                            running.put(gameId, game);
+                            break;
+                        case GAME_ENDED:
+                            running.remove(gameId);
+                            break;
+                        case ROUND_STARTED:
+                            if (game != null) {
+                                // The rounds before are in the database
+                                game.subList(1, game.size()).clear();
+                                game.add(record);
+                            }
+                            break;
+                        default:
+                            if (game != null) {
+                                game.add(record);
+                            }
+                            break;
+                    }
+                }
+            }
+        }
+        return running;
+    }
+
+    /**
+     * @param records The records of the game, starting with its start.
+     *
+     * @return Returns the state of the game after the records.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static RecoveredGame replay(final List<byte[]> records) {
+        RecoveredGame game = null;
+        for (byte[] record : records) {
+            ByteBuffer in = ByteBuffer.wrap(record);
+            byte type = in.get();
+            int gameId = in.getInt();
+            switch (type) {
+                case GAME_STARTED:
+                    game = new RecoveredGame(gameId, new int[]{in.getInt(), in.getInt(), in.getInt(), in.getInt()});
+                    break;
+                case ROUND_STARTED:
+                    int roundId = in.getInt();
+                    int roundNumber = in.getInt();
+                    int gameModeChooserId = in.getInt();
+                    int[] deckIds = new int[4];
+                    long[] hands = new long[4];
+                    for (int i = 0; i < 4; i++) {
+                        deckIds[i] = in.getInt();
+                        hands[i] = in.getLong();
+                    }
+                    game.startRound(roundId, roundNumber, gameModeChooserId, deckIds, hands);
+                    break;
+                case GAME_MODE_CHOSEN:
+                    GameMode gameMode = GameMode.values()[in.get()];
+                    byte trumpfSuit = in.get();
+                    game.chooseGameMode(gameMode, trumpfSuit < 0 ? null : Card.Suit.values()[trumpfSuit]);
+                    break;
+                case TURN_STARTED:
+                    game.startTurn(in.getInt(), in.getInt());
+                    break;
+                case CARD_PLAYED:
+                    game.playCard(in.getInt(), in.get());
+                    break;
+                case TURN_WON:
+                    game.winTurn(in.getInt(), in.getShort());
+                    break;
+                case ROUND_OVER:
+                    game.endRound();
+                    break;
+                default:
+                    logger.warn("Unknown record of type " + type + " in the journal");
+                    break;
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Write the given records to a new segment, continue appending there and
+     * delete the older segments. The segment is only renamed to its final
+     * name once it's complete, so a crash in between leaves the old segments
+     * as they were.
+     *
+     * @param running The records to keep, by the ID of the game.
+     *
+     * @throws IOException If a segment couldn't be written.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void compact(final Map<Integer, List<byte[]>> running) throws IOException {
+        int bytes = 0;
+        for (List<byte[]> game : running.values()) {
+            for (byte[] record : game) {
+                bytes += 2 + record.length;
+            }
+        }
+        List<Path> oldSegments = segments();
+        sequence++;
+        Path segment = directory.resolve(String.format("journal-%012d.dat", sequence));
+        Path temporary = directory.resolve(String.format("journal-%012d.tmp", sequence));
+
+        FileChannel newChannel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, bytes * 2));
+        for (List<byte[]> game : running.values()) {
+            for (byte[] record : game) {
+                newBuffer.putShort((short) record.length).put(record);
+            }
+        }
+        newBuffer.force();
+        Files.move(temporary, segment, StandardCopyOption.ATOMIC_MOVE);
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = newChannel;
+        buffer = newBuffer;
+        for (Path oldSegment : oldSegments) {
+            Files.delete(oldSegment);
+        }
+        logger.debug("Journal continues in " + segment.getFileName() + " with " + running.size() + " running games");
+    }
+
+    /**
+     * Write the journal to the disk and stop appending.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) { /* Ignore */ }
+            channel = null;
+        }
+    }
+}
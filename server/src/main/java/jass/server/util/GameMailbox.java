@@ -0,0 +1,152 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The events of one game. They are processed one after another on the
+ * thread the game was assigned to, so the state of the game never has to be
+ * locked.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class GameMailbox {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(GameMailbox.class);
+
+    /**
+     * The name of the game, for the logs.
+     */
+    private final String name;
+
+    /**
+     * The single thread processing the events.
+     */
+    private final Executor thread;
+
+    /**
+     * The processing time of the events of all games.
+     */
+    private final Histogram totalLatency;
+
+    /**
+     * The processing time of the events of this game.
+     */
+    private final Histogram latency = new Histogram();
+
+    /**
+     * How many events are waiting or being processed.
+     */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    /**
+     * The most events which were waiting at once.
+     */
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    /**
+     * @param name         The name of the game, for the logs.
+     * @param thread       The single thread processing the events.
+     * @param totalLatency The processing time of the events of all games.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    GameMailbox(final String name, final Executor thread, final Histogram totalLatency) {
+        this.name = name;
+        this.thread = thread;
+        this.totalLatency = totalLatency;
+    }
+
+    /**
+     * Queue an event of the game. An exception thrown by the event is logged,
+     * and the next event is processed as usual.
+     *
+     * @param event The event.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void post(final Runnable event) {
+        maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+        thread.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                event.run();
+            } catch (RuntimeException e) {
+                logger.error(name + " - Game event failed", e);
+            } finally {
+                long duration = System.nanoTime() - start;
+                latency.record(duration);
+                totalLatency.record(duration);
+                depth.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * @return Returns the name of the game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Returns how many events are waiting or being processed.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * @return Returns the most events which were waiting at once.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * @return Returns the processing time of the events of this game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+}
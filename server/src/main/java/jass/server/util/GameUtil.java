@@ -20,12 +20,17 @@
 package jass.server.util;
 
 import jass.lib.Card;
+import jass.lib.CardSet;
 import jass.lib.GameMode;
+import jass.lib.TrickTable;
+import jass.lib.database.UnitOfWork;
 import jass.lib.message.BroadcastAPlayerQuitData;
+import jass.lib.message.BroadcastDeckData;
 import jass.lib.message.BroadcastGameModeData;
 import jass.lib.message.BroadcastPointsData;
 import jass.lib.message.BroadcastRoundOverData;
 import jass.lib.message.BroadcastTurnData;
+import jass.lib.message.CardData;
 import jass.lib.message.ChooseGameModeData;
 import jass.lib.message.ChosenGameModeData;
 import jass.lib.message.ContinuePlayingData;
@@ -38,7 +43,6 @@
 import jass.server.entity.DeckEntity;
 import jass.server.entity.GameEntity;
 import jass.server.entity.RoundEntity;
-import jass.server.entity.SuitEntity;
 import jass.server.entity.TeamEntity;
 import jass.server.entity.TurnEntity;
 import jass.server.entity.UserEntity;
@@ -47,6 +51,7 @@
 import jass.server.eventlistener.PlayedCardEventListener;
 import jass.server.eventlistener.StopPlayingEventListener;
 import jass.server.message.BroadcastAPlayerQuit;
+import jass.server.message.BroadcastDeck;
 import jass.server.message.BroadcastGameMode;
 import jass.server.message.BroadcastPoints;
 import jass.server.message.BroadcastRoundOver;
@@ -55,20 +60,19 @@
 import jass.server.message.GameFound;
 import jass.server.message.Message;
 import jass.server.message.PlayedCard;
-import jass.server.repository.CardRepository;
 import jass.server.repository.DeckRepository;
 import jass.server.repository.GameRepository;
-import jass.server.repository.RankRepository;
 import jass.server.repository.RoundRepository;
-import jass.server.repository.SuitRepository;
 import jass.server.repository.TeamRepository;
 import jass.server.repository.TurnRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -82,6 +86,18 @@ public final class GameUtil implements ChosenGameModeEventListener, PlayedCardEv
      */
     private static final Logger logger = LogManager.getLogger(GameUtil.class);
 
+    /**
+     * How many milliseconds the last turn stays visible before the next one
+     * starts, by default.
+     */
+    public static final int DEFAULT_TURN_DELAY = 3500;
+
+    /**
+     * How many milliseconds the last turn stays visible before the next one
+     * starts.
+     */
+    private static volatile int turnDelay = DEFAULT_TURN_DELAY;
+
     /**
      * The client for player one.
      */
@@ -102,10 +118,16 @@ public final class GameUtil implements ChosenGameModeEventListener, PlayedCardEv
      */
     private final ClientUtil clientPlayerFour;
 
+    /**
+     * The events of the game, processed one after another. All the state
+     * below is only touched from there.
+     */
+    private final GameMailbox mailbox;
+
     /**
      * The game.
      */
-    private final GameEntity game;
+    private GameEntity game;
 
     /**
      * The current round in the game.
@@ -137,11 +159,61 @@ public final class GameUtil implements ChosenGameModeEventListener, PlayedCardEv
      */
     private DeckEntity currentDeckPlayerFour;
 
+    /**
+     * The number of the current round in the game, starting at 0.
+     */
+    private int roundNumber = 0;
+
+    /**
+     * How many turns were started in the current round.
+     */
+    private int turnsInRound = 0;
+
     /**
      * Players wanting to continue playing another round
      */
     private int continuePlayClicks = 0;
 
+    /**
+     * The next turn waiting to be started, or null if there is none.
+     */
+    private ScheduledFuture<?> nextTurn = null;
+
+    /**
+     * Whether the game was stopped. Events which are already on their way
+     * aren't processed anymore.
+     */
+    private boolean stopped = false;
+
+    /**
+     * Whether the game is in the database, so it has to be ended there as
+     * well.
+     */
+    private boolean saved = false;
+
+    /**
+     * Whether the game waits for new entities to be written, since it needs
+     * their IDs to go on.
+     */
+    private boolean waitingForDatabase = false;
+
+    /**
+     * The events which arrived while the game waited for the database, to be
+     * processed afterwards.
+     */
+    private final Queue<Runnable> heldBack = new ArrayDeque<>();
+
+    /**
+     * @param delay How many milliseconds the last turn stays visible before
+     *              the next one starts.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void setTurnDelay(final int delay) {
+        turnDelay = delay;
+    }
+
     /**
      * @param clientPlayerOne   Player one.
      * @param clientPlayerTwo   Player two.
@@ -152,30 +224,252 @@ public final class GameUtil implements ChosenGameModeEventListener, PlayedCardEv
      * @since 1.0.0
      */
     public GameUtil(final ClientUtil clientPlayerOne, final ClientUtil clientPlayerTwo, final ClientUtil clientPlayerThree, final ClientUtil clientPlayerFour) {
+        this(null, clientPlayerOne, clientPlayerTwo, clientPlayerThree, clientPlayerFour);
+    }
+
+    /**
+     * Continue a game which was running when the server stopped.
+     *
+     * @param recoveredGame     The game as it was written to the journal.
+     * @param clientPlayerOne   Player one.
+     * @param clientPlayerTwo   Player two.
+     * @param clientPlayerThree Player three.
+     * @param clientPlayerFour  Player four.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameUtil(final RecoveredGame recoveredGame, final ClientUtil clientPlayerOne, final ClientUtil clientPlayerTwo, final ClientUtil clientPlayerThree, final ClientUtil clientPlayerFour) {
         this.clientPlayerOne = clientPlayerOne;
-        UserEntity playerOne = clientPlayerOne.getUser();
         this.clientPlayerTwo = clientPlayerTwo;
-        UserEntity playerTwo = clientPlayerTwo.getUser();
         this.clientPlayerThree = clientPlayerThree;
-        UserEntity playerThree = clientPlayerThree.getUser();
         this.clientPlayerFour = clientPlayerFour;
-        UserEntity playerFour = clientPlayerFour.getUser();
 
-        // Add event listeners
+        GameExecutorUtil gameExecutorUtil = ServiceLocator.get(GameExecutorUtil.class);
+        assert gameExecutorUtil != null;
+        mailbox = gameExecutorUtil.createMailbox("Game of " + clientPlayerOne.getUsername() + ", " + clientPlayerTwo.getUsername() + ", " + clientPlayerThree.getUsername() + ", " + clientPlayerFour.getUsername());
+
+        // Start the game before adding the event listeners, so anything they
+        // receive is queued behind it
+        if (recoveredGame == null) {
+            mailbox.post(this::startGame);
+        } else {
+            mailbox.post(() -> resumeGame(recoveredGame));
+        }
         addEventListeners(clientPlayerOne, clientPlayerTwo, clientPlayerThree, clientPlayerFour);
+    }
+
+    /**
+     * Create the game and its first round.
+     *
+     * @author Thomas Weber & Victor Hargrave & Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void startGame() {
+        UserEntity playerOne = clientPlayerOne.getUser();
+        UserEntity playerTwo = clientPlayerTwo.getUser();
+        UserEntity playerThree = clientPlayerThree.getUser();
+        UserEntity playerFour = clientPlayerFour.getUser();
+
+        // The game, its first round and the decks are written in one
+        // transaction
+        UnitOfWork unitOfWork = GameRepository.getSingleton(null).newUnitOfWork();
 
         // Assign and create Teams
         TeamEntity teamOne = (new TeamEntity()).setPlayerOne(playerOne).setPlayerTwo(playerThree);
-        TeamRepository.getSingleton(null).add(teamOne);
+        unitOfWork.add(TeamRepository.getSingleton(null), teamOne);
         TeamEntity teamTwo = (new TeamEntity()).setPlayerOne(playerTwo).setPlayerTwo(playerFour);
-        TeamRepository.getSingleton(null).add(teamTwo);
+        unitOfWork.add(TeamRepository.getSingleton(null), teamTwo);
 
         // Initialize new Game
         game = (new GameEntity()).setTeamOne(teamOne).setTeamTwo(teamTwo);
-        GameRepository.getSingleton(null).add(game);
-        logger.info("Successfully created game with ID: " + game.getId());
+        unitOfWork.add(GameRepository.getSingleton(null), game);
+
+        // Create a round
+        CardUtil cardUtil = ServiceLocator.get(CardUtil.class);
+        assert cardUtil != null;
+        currentRound = (new RoundEntity()).setGameModeChooser(playerOne).setGame(game);
+        unitOfWork.add(RoundRepository.getSingleton(null), currentRound);
+        turnsInRound = 0;
+        List<DeckEntity> decks = cardUtil.addDecksForPlayers(unitOfWork, currentRound, roundNumber, playerOne, playerTwo, playerThree, playerFour);
+        commitThen(unitOfWork, "The new game couldn't be saved in the database", () -> {
+            logger.info("Successfully created game with ID: " + game.getId());
+            saved = true;
+            getJournal().gameStarted(game.getId(), playerOne.getId(), playerTwo.getId(), playerThree.getId(), playerFour.getId());
+
+            // Broadcast to all Players that a game was created for them
+            broadcastGameFound();
+
+            // Send a deck to each user
+            cardUtil.broadcastDeck(clientPlayerOne, decks.get(0));
+            currentDeckPlayerOne = decks.get(0);
+            cardUtil.broadcastDeck(clientPlayerTwo, decks.get(1));
+            currentDeckPlayerTwo = decks.get(1);
+            cardUtil.broadcastDeck(clientPlayerThree, decks.get(2));
+            currentDeckPlayerThree = decks.get(2);
+            cardUtil.broadcastDeck(clientPlayerFour, decks.get(3));
+            currentDeckPlayerFour = decks.get(3);
+            journalRoundStarted();
+
+            // Send a message to player one to choose a game mode
+            sendChooseGameMode();
+        });
+    }
+
+    /**
+     * Continue the game as it was written to the journal. The database may be
+     * behind the journal, whatever is missing there is written again.
+     *
+     * @param recoveredGame The game as it was written to the journal.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void resumeGame(final RecoveredGame recoveredGame) {
+        game = GameRepository.getSingleton(null).getById(recoveredGame.getGameId());
+        currentRound = RoundRepository.getSingleton(null).getById(recoveredGame.getRoundId());
+        if (game == null || currentRound == null) {
+            logger.error("Game " + recoveredGame.getGameId() + " can't be continued, it's missing in the database");
+            stopped = true;
+            getJournal().gameEnded(recoveredGame.getGameId());
+            removeEventListeners(clientPlayerOne, clientPlayerTwo, clientPlayerThree, clientPlayerFour);
+            SearchGameUtil.runningGames.remove(this);
+            // Let the players find a new game instead
+            SearchGameUtil searchGameUtil = ServiceLocator.get(SearchGameUtil.class);
+            assert searchGameUtil != null;
+            searchGameUtil.add(clientPlayerOne);
+            searchGameUtil.add(clientPlayerTwo);
+            searchGameUtil.add(clientPlayerThree);
+            searchGameUtil.add(clientPlayerFour);
+            return;
+        }
+        logger.info("Continuing game with ID: " + game.getId());
+        saved = true;
+
+        // Connect the entities again, the database only gives their IDs
+        WriteBehindUtil writeBehind = getWriteBehind();
+        ClientUtil[] clients = {clientPlayerOne, clientPlayerTwo, clientPlayerThree, clientPlayerFour};
+        game.setTeamOne(TeamRepository.getSingleton(null).getById(game.getTeamOne().getId()))
+            .setTeamTwo(TeamRepository.getSingleton(null).getById(game.getTeamTwo().getId()));
+        currentRound.setGame(game)
+            .setGameModeChooser(clients[recoveredGame.seatOf(recoveredGame.getGameModeChooserId())].getUser())
+            .setGameMode(recoveredGame.getGameMode())
+            .setTrumpfSuit(recoveredGame.getTrumpfSuit())
+            .setPointsTeamOne(recoveredGame.getPointsTeamOne())
+            .setPointsTeamTwo(recoveredGame.getPointsTeamTwo());
+
+        // Only the cards which weren't played yet are left in the decks
+        DeckEntity[] decks = new DeckEntity[4];
+        for (int seat = 0; seat < 4; seat++) {
+            decks[seat] = DeckRepository.getSingleton(null).getById(recoveredGame.getDeckId(seat));
+            decks[seat].setPlayer(clients[seat].getUser()).setRound(currentRound)
+                .setPlayedCards(decks[seat].getDealtCards() & ~recoveredGame.getHand(seat));
+            writeBehind.update(DeckRepository.getSingleton(null), decks[seat]);
+        }
+        currentDeckPlayerOne = decks[0];
+        currentDeckPlayerTwo = decks[1];
+        currentDeckPlayerThree = decks[2];
+        currentDeckPlayerFour = decks[3];
+
+        TurnRepository turnRepository = TurnRepository.getSingleton(null);
+        roundNumber = recoveredGame.getRoundNumber();
+        turnsInRound = 0;
+        currentTurn = null;
+        for (RecoveredGame.Turn recoveredTurn : recoveredGame.getTurns()) {
+            TurnEntity turn = turnRepository.getById(recoveredTurn.getTurnId(), userId -> {
+                int seat = recoveredGame.seatOf(userId);
+                return seat < 0 ? null : clients[seat].getUser();
+            }, getCatalog()::getCard);
+            turn.setRound(currentRound);
+            for (int i = turn.getCards().size(); i < recoveredTurn.size(); i++) {
+                turn.addCard(getCatalog().getCardByIndex(recoveredTurn.getCard(i)), clients[recoveredGame.seatOf(recoveredTurn.getUserId(i))].getUser());
+            }
+            if (recoveredTurn.getWinningUserId() != 0) {
+                turn.setWinningUser(clients[recoveredGame.seatOf(recoveredTurn.getWinningUserId())].getUser());
+            }
+            writeBehind.update(turnRepository, turn);
+            turnsInRound++;
+            currentTurn = turn;
+        }
+
+        boolean isRoundOver = recoveredGame.isRoundOver();
+        if (currentTurn != null && currentTurn.getCardFour() != null && currentTurn.getWinningUser() == null) {
+            // Stopped right between the last card of a turn and its winner
+            UserEntity winningUser = calculateTurnWinner(currentRound, currentTurn);
+            isRoundOver = isRoundOver(winningUser);
+            int points = calculateTurnPoints(currentRound, currentTurn) + (isRoundOver ? TrickTable.LAST_TURN_BONUS : 0);
+            currentTurn.setWinningUser(winningUser);
+            writeBehind.update(turnRepository, currentTurn);
+            getJournal().turnWon(game.getId(), winningUser.getId(), points);
+            if (game.getTeamOne().checkIfPlayerIsInTeam(winningUser)) {
+                currentRound.addPointsTeamOne(points);
+            } else {
+                currentRound.addPointsTeamTwo(points);
+            }
+            if (isRoundOver) {
+                getJournal().roundOver(game.getId());
+            }
+        }
+        writeBehind.update(RoundRepository.getSingleton(null), currentRound);
+
+        // Show the players the game as it was
+        broadcastGameFound();
+        for (int seat = 0; seat < 4; seat++) {
+            List<CardData> cards = getCatalog().getCards(decks[seat].getHand()).stream()
+                .map(CardEntity::toCardData).collect(Collectors.toList());
+            clients[seat].send(new BroadcastDeck(new BroadcastDeckData(decks[seat].getId(), cards)));
+        }
+        if (currentRound.getGameMode() == null) {
+            sendChooseGameMode();
+            return;
+        }
+        if (currentRound.getGameMode() == GameMode.TRUMPF) {
+            broadcast(new BroadcastGameMode(new BroadcastGameModeData(currentRound.getGameMode(), currentRound.getTrumpfSuit())));
+        } else {
+            broadcast(new BroadcastGameMode(new BroadcastGameModeData(currentRound.getGameMode())));
+        }
+        int turnId = currentTurn == null ? 0 : currentTurn.getId();
+        if (currentRound.getPointsTeamOne() > 0) {
+            BroadcastPoints pointsMsg = new BroadcastPoints(new BroadcastPointsData(turnId, currentRound.getPointsTeamOne()));
+            clientPlayerOne.send(pointsMsg);
+            clientPlayerThree.send(pointsMsg);
+        }
+        if (currentRound.getPointsTeamTwo() > 0) {
+            BroadcastPoints pointsMsg = new BroadcastPoints(new BroadcastPointsData(turnId, currentRound.getPointsTeamTwo()));
+            clientPlayerTwo.send(pointsMsg);
+            clientPlayerFour.send(pointsMsg);
+        }
 
-        // Broadcast to all Players that a game was created for them
+        if (isRoundOver) {
+            // The players already saw the end of the round
+            startNewRound();
+        } else if (currentTurn == null) {
+            startNextTurn(clients[recoveredGame.seatOf(recoveredGame.getGameModeChooserId())].getUser());
+        } else {
+            String winningUsername = currentTurn.getWinningUser() != null ? currentTurn.getWinningUser().getUsername() : "";
+            broadcast(new BroadcastTurn(new BroadcastTurnData(currentTurn.getId(),
+                currentTurn.getStartingPlayer().getUsername(), winningUsername,
+                currentTurn.getCards().stream().map(CardEntity::toCardData).collect(Collectors.toList())
+            )));
+            if (currentTurn.getWinningUser() != null) {
+                scheduleNextTurn(currentTurn.getWinningUser());
+            }
+        }
+    }
+
+    /**
+     * Broadcast to all players that a game was created for them.
+     *
+     * @author Thomas Weber & Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void broadcastGameFound() {
+        UserEntity playerOne = clientPlayerOne.getUser();
+        UserEntity playerTwo = clientPlayerTwo.getUser();
+        UserEntity playerThree = clientPlayerThree.getUser();
+        UserEntity playerFour = clientPlayerFour.getUser();
+        TeamEntity teamOne = game.getTeamOne();
+        TeamEntity teamTwo = game.getTeamTwo();
         GameFound gameFound = new GameFound(new GameFoundData(
             game.getId(),
             playerOne.getId(), playerOne.getUsername(), getTeamIdForPlayer(playerOne, teamOne, teamTwo),
@@ -184,26 +478,18 @@ public GameUtil(final ClientUtil clientPlayerOne, final ClientUtil clientPlayerT
             playerFour.getId(), playerFour.getUsername(), getTeamIdForPlayer(playerFour, teamOne, teamTwo)
         ));
         broadcast(gameFound);
+    }
 
-        // Create a round
-        CardUtil cardUtil = ServiceLocator.get(CardUtil.class);
-        assert cardUtil != null;
-        currentRound = (new RoundEntity()).setGameModeChooser(playerOne).setGame(game);
-        RoundRepository.getSingleton(null).add(currentRound);
-
-        // Send a deck to each user
-        List<DeckEntity> decks = cardUtil.addDecksForPlayers(currentRound, playerOne, playerTwo, playerThree, playerFour);
-        cardUtil.broadcastDeck(clientPlayerOne, decks.get(0));
-        currentDeckPlayerOne = decks.get(0);
-        cardUtil.broadcastDeck(clientPlayerTwo, decks.get(1));
-        currentDeckPlayerTwo = decks.get(1);
-        cardUtil.broadcastDeck(clientPlayerThree, decks.get(2));
-        currentDeckPlayerThree = decks.get(2);
-        cardUtil.broadcastDeck(clientPlayerFour, decks.get(3));
-        currentDeckPlayerFour = decks.get(3);
-
-        // Send a message to player one to choose a game mode
-        sendChooseGameMode();
+    /**
+     * Write the new round and its decks to the journal.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void journalRoundStarted() {
+        getJournal().roundStarted(game.getId(), currentRound.getId(), roundNumber, currentRound.getGameModeChooser().getId(),
+            new int[]{currentDeckPlayerOne.getId(), currentDeckPlayerTwo.getId(), currentDeckPlayerThree.getId(), currentDeckPlayerFour.getId()},
+            new long[]{currentDeckPlayerOne.getHand(), currentDeckPlayerTwo.getHand(), currentDeckPlayerThree.getHand(), currentDeckPlayerFour.getHand()});
     }
 
     /**
@@ -215,8 +501,9 @@ private void startNewRound() {
         // Create a round
         CardUtil cardUtil = ServiceLocator.get(CardUtil.class);
         assert cardUtil != null;
+        roundNumber++;
         currentRound = (new RoundEntity()).setGameModeChooser(gameModeChooser).setGame(game);
-        RoundRepository.getSingleton(null).add(currentRound);
+        turnsInRound = 0;
 
         // Make sure decks are set to null
         currentDeckPlayerOne = null;
@@ -224,19 +511,25 @@ private void startNewRound() {
         currentDeckPlayerThree = null;
         currentDeckPlayerFour = null;
 
-        // Send a deck to each user
-        List<DeckEntity> decks = cardUtil.addDecksForPlayers(currentRound, clientPlayerOne.getUser(), clientPlayerTwo.getUser(), clientPlayerThree.getUser(), clientPlayerFour.getUser());
-        cardUtil.broadcastDeck(clientPlayerOne, decks.get(0));
-        currentDeckPlayerOne = decks.get(0);
-        cardUtil.broadcastDeck(clientPlayerTwo, decks.get(1));
-        currentDeckPlayerTwo = decks.get(1);
-        cardUtil.broadcastDeck(clientPlayerThree, decks.get(2));
-        currentDeckPlayerThree = decks.get(2);
-        cardUtil.broadcastDeck(clientPlayerFour, decks.get(3));
-        currentDeckPlayerFour = decks.get(3);
-
-        // Send a message to player one to choose a game mode
-        sendChooseGameMode();
+        // The round and its decks are written in one transaction
+        UnitOfWork unitOfWork = RoundRepository.getSingleton(null).newUnitOfWork()
+            .add(RoundRepository.getSingleton(null), currentRound);
+        List<DeckEntity> decks = cardUtil.addDecksForPlayers(unitOfWork, currentRound, roundNumber, clientPlayerOne.getUser(), clientPlayerTwo.getUser(), clientPlayerThree.getUser(), clientPlayerFour.getUser());
+        commitThen(unitOfWork, "The new round couldn't be saved in the database", () -> {
+            // Send a deck to each user
+            cardUtil.broadcastDeck(clientPlayerOne, decks.get(0));
+            currentDeckPlayerOne = decks.get(0);
+            cardUtil.broadcastDeck(clientPlayerTwo, decks.get(1));
+            currentDeckPlayerTwo = decks.get(1);
+            cardUtil.broadcastDeck(clientPlayerThree, decks.get(2));
+            currentDeckPlayerThree = decks.get(2);
+            cardUtil.broadcastDeck(clientPlayerFour, decks.get(3));
+            currentDeckPlayerFour = decks.get(3);
+            journalRoundStarted();
+
+            // Send a message to player one to choose a game mode
+            sendChooseGameMode();
+        });
     }
 
     /**
@@ -301,12 +594,82 @@ private void removeEventListeners(final ClientUtil clientPlayerOne, final Client
         clientPlayerFour.removeContinuePlayingEventListener(this);
     }
 
+    /**
+     * @param event The event to process after the ones already queued, unless
+     *              the game was stopped in between.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void post(final Runnable event) {
+        mailbox.post(() -> {
+            if (stopped) {
+                return;
+            }
+            if (waitingForDatabase) {
+                heldBack.add(event);
+            } else {
+                event.run();
+            }
+        });
+    }
+
+    /**
+     * Write the new entities on the database thread instead of the thread of
+     * the game, and go on once they have their IDs. The events of the players
+     * are held back until then. If the entities couldn't be written, the game
+     * can't go on without their IDs and is ended instead.
+     *
+     * @param unitOfWork The new entities.
+     * @param failure    What to log if they couldn't be written.
+     * @param then       Goes on with the game, on its thread.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void commitThen(final UnitOfWork unitOfWork, final String failure, final Runnable then) {
+        waitingForDatabase = true;
+        getWriteBehind().commit(unitOfWork, success -> mailbox.post(() -> {
+            waitingForDatabase = false;
+            if (!success) {
+                logger.error(failure + ", the game is ended");
+                endGame();
+                return;
+            }
+            then.run();
+            Runnable event;
+            while (!waitingForDatabase && !stopped && (event = heldBack.poll()) != null) {
+                event.run();
+            }
+        }));
+    }
+
+    /**
+     * @return Returns the events of the game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameMailbox getMailbox() {
+        return mailbox;
+    }
+
     /**
      * @author Manuele Vaccari
      * @since 1.0.0
      */
     @Override
     public void onChosenGameMode(final ChosenGameModeData data) {
+        post(() -> chooseGameMode(data));
+    }
+
+    /**
+     * @param data The game mode the player chose.
+     *
+     * @author Manuele Vaccari
+     * @since 1.0.0
+     */
+    private void chooseGameMode(final ChosenGameModeData data) {
         // Get the right client to compare to.
         String gameModeChooserUsername = currentRound.getGameModeChooser().getUsername();
         ClientUtil client;
@@ -332,17 +695,19 @@ public void onChosenGameMode(final ChosenGameModeData data) {
             } else {
                 broadcastGameMode = new BroadcastGameMode(new BroadcastGameModeData(data.getGameMode()));
             }
-            RoundRepository.getSingleton(null).update(currentRound);
+            getWriteBehind().update(RoundRepository.getSingleton(null), currentRound);
+            getJournal().gameModeChosen(game.getId(), currentRound.getGameMode(), currentRound.getTrumpfSuit());
             broadcast(broadcastGameMode);
 
             // send turn information to clients
-            TurnEntity turn = addNewTurn(client.getUser(), currentRound);
-            BroadcastTurn broadcastTurn = new BroadcastTurn(new BroadcastTurnData(turn.getId(),
-                turn.getStartingPlayer().getUsername(), "",
-                turn.getCards().stream().map(CardEntity::toCardData).collect(Collectors.toList())
-            ));
-            this.currentTurn = turn;
-            broadcast(broadcastTurn);
+            addNewTurn(client.getUser(), currentRound, turn -> {
+                BroadcastTurn broadcastTurn = new BroadcastTurn(new BroadcastTurnData(turn.getId(),
+                    turn.getStartingPlayer().getUsername(), "",
+                    turn.getCards().stream().map(CardEntity::toCardData).collect(Collectors.toList())
+                ));
+                this.currentTurn = turn;
+                broadcast(broadcastTurn);
+            });
         }
     }
 
@@ -405,7 +770,17 @@ private void sendChooseGameMode() {
      * @since 1.0.0
      */
     @Override
-    public void onPlayedCard(final PlayCardData data) throws InterruptedException {
+    public void onPlayedCard(final PlayCardData data) {
+        post(() -> playCard(data));
+    }
+
+    /**
+     * @param data The card the player played.
+     *
+     * @author Thomas Weber & Victor Hargrave & Manuele Vaccari
+     * @since 1.0.0
+     */
+    private void playCard(final PlayCardData data) {
         boolean isValid = validateMove(data);
         boolean isRoundOver = false;
         ClientUtil clientUtil = this.getClientUtilByUsername(data.getUsername());
@@ -416,34 +791,38 @@ public void onPlayedCard(final PlayCardData data) throws InterruptedException {
         }
 
         if (isValid) {
+            // The state in memory is what counts, the database only follows
+            // behind. A card for any other than the current turn is outdated.
+            WriteBehindUtil writeBehind = getWriteBehind();
             TurnRepository turnRepository = TurnRepository.getSingleton(null);
-            TurnEntity turn = turnRepository.getById(data.getTurnId());
-            CardEntity card = CardRepository.getSingleton(null).getById(data.getCardId());
+            TurnEntity turn = currentTurn != null && currentTurn.getId() == data.getTurnId() ? currentTurn : null;
+            CardEntity card = getCatalog().getCard(data.getCardId());
             if (turn != null) {
                 if (card != null) {
                     turn.addCard(card, clientUtil.getUser());
-                    turnRepository.update(turn);
-                    currentDeck.setPlayedCard(data.getCardId());
-                    DeckRepository.getSingleton(null).update(currentDeck);
+                    getJournal().cardPlayed(game.getId(), clientUtil.getUser().getId(), card.getIndex());
+                    writeBehind.update(turnRepository, turn);
+                    currentDeck.setPlayedCard(card);
+                    writeBehind.update(DeckRepository.getSingleton(null), currentDeck);
                 }
                 if (turn.getCardFour() != null) {
                     UserEntity winningUser = calculateTurnWinner(currentRound, turn);
                     if (winningUser != null) {
                         turn.setWinningUser(winningUser);
-                        turnRepository.update(turn);
+                        writeBehind.update(turnRepository, turn);
                     }
 
                     // Calculate points depending on game mode
-                    int points = calculatePointsByGameMode(turn);
-
-                    try {
-                        isRoundOver = isRoundOver(turnRepository, winningUser);
-                        // The last "Stich" gives 5 extra points to winning team
-                        if (isRoundOver) {
-                            points = (points + 5);
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
+                    int points = calculateTurnPoints(currentRound, turn);
+
+                    isRoundOver = isRoundOver(winningUser);
+                    // The last "Stich" gives 5 extra points to winning team
+                    if (isRoundOver) {
+                        points = (points + TrickTable.LAST_TURN_BONUS);
+                    }
+
+                    if (winningUser != null) {
+                        getJournal().turnWon(game.getId(), winningUser.getId(), points);
                     }
 
                     // Update points for the winning team
@@ -464,20 +843,16 @@ public void onPlayedCard(final PlayCardData data) throws InterruptedException {
                             game.getTeamOne().getPlayerOne().getUsername(), game.getTeamOne().getPlayerTwo().getUsername(),
                             game.getTeamTwo().getPlayerOne().getUsername(), game.getTeamTwo().getPlayerTwo().getUsername()));
                     broadcast(broadcastRoundOver);
+                    getJournal().roundOver(game.getId());
+                    // Don't leave a finished round waiting for the database
+                    writeBehind.requestFlush();
                     return;
                 }
 
-                // start new turn after 3.5 seconds
+                // Start the new turn once everyone had the time to see the
+                // last one, without blocking the thread of the game
                 if (turn.getWinningUser() != null) {
-                    Thread.sleep(3500);
-                    TurnEntity newTurn = addNewTurn(turn.getWinningUser(), currentRound);
-
-                    BroadcastTurn newBroadcastTurn = new BroadcastTurn(new BroadcastTurnData(newTurn.getId(),
-                        newTurn.getStartingPlayer().getUsername(), "",
-                        newTurn.getCards().stream().map(CardEntity::toCardData).collect(Collectors.toList())
-                    ));
-                    this.currentTurn = newTurn;
-                    broadcast(newBroadcastTurn);
+                    scheduleNextTurn(turn.getWinningUser());
                 }
             }
         } else {
@@ -487,6 +862,40 @@ public void onPlayedCard(final PlayCardData data) throws InterruptedException {
         }
     }
 
+    /**
+     * Start the next turn once everyone had the time to see the last one.
+     *
+     * @param startingPlayer The player who won the last turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void scheduleNextTurn(final UserEntity startingPlayer) {
+        SchedulerUtil schedulerUtil = ServiceLocator.get(SchedulerUtil.class);
+        assert schedulerUtil != null;
+        nextTurn = schedulerUtil.schedule(() -> post(() -> startNextTurn(startingPlayer)), turnDelay);
+    }
+
+    /**
+     * Start the next turn of the current round.
+     *
+     * @param startingPlayer The player who won the last turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void startNextTurn(final UserEntity startingPlayer) {
+        nextTurn = null;
+        addNewTurn(startingPlayer, currentRound, newTurn -> {
+            BroadcastTurn newBroadcastTurn = new BroadcastTurn(new BroadcastTurnData(newTurn.getId(),
+                newTurn.getStartingPlayer().getUsername(), "",
+                newTurn.getCards().stream().map(CardEntity::toCardData).collect(Collectors.toList())
+            ));
+            this.currentTurn = newTurn;
+            broadcast(newBroadcastTurn);
+        });
+    }
+
     /**
      * @param turn        The current turn.
      * @param winningUser The user who won.
@@ -499,12 +908,12 @@ private void broadcastPointsToWinningTeam(final TurnEntity turn, final UserEntit
         BroadcastPoints pointsMsg = new BroadcastPoints(new BroadcastPointsData(turn.getId(), points));
         if (game.getTeamOne().checkIfPlayerIsInTeam(winningUser)) {
             currentRound.addPointsTeamOne(points);
-            RoundRepository.getSingleton(null).update(currentRound);
+            getWriteBehind().update(RoundRepository.getSingleton(null), currentRound);
             getClientUtilByUsername(game.getTeamOne().getPlayerOne().getUsername()).send(pointsMsg);
             getClientUtilByUsername(game.getTeamOne().getPlayerTwo().getUsername()).send(pointsMsg);
         } else if (game.getTeamTwo().checkIfPlayerIsInTeam(winningUser)) {
             currentRound.addPointsTeamTwo(points);
-            RoundRepository.getSingleton(null).update(currentRound);
+            getWriteBehind().update(RoundRepository.getSingleton(null), currentRound);
             getClientUtilByUsername(game.getTeamTwo().getPlayerOne().getUsername()).send(pointsMsg);
             getClientUtilByUsername(game.getTeamTwo().getPlayerTwo().getUsername()).send(pointsMsg);
         } else {
@@ -513,42 +922,15 @@ private void broadcastPointsToWinningTeam(final TurnEntity turn, final UserEntit
     }
 
     /**
-     * @param turnRepository The turn repo.
-     * @param winningUser    The user who won.
+     * @param winningUser The user who won.
      *
      * @return Returns whether the round is already over.
      *
-     * @throws SQLException If an SQL error occurs.
      * @author Victor Hargrave
      * @since 1.0.0
      */
-    private boolean isRoundOver(final TurnRepository turnRepository, final UserEntity winningUser) throws SQLException {
-        boolean isRoundOver;
-        int numberOfTurnsPlayed = turnRepository.getDao().queryForEq("round_id", currentRound.getId()).size();
-        isRoundOver = numberOfTurnsPlayed == 9 && winningUser != null;
-        return isRoundOver;
-    }
-
-    /**
-     * @param turn The current turn.
-     *
-     * @return Returns the total points.
-     *
-     * @author Manuele Vaccari
-     * @since 1.0.0
-     */
-    private int calculatePointsByGameMode(final TurnEntity turn) {
-        int points = 0;
-        if (currentRound.getGameMode() == GameMode.TRUMPF) {
-            points = calculateCardPointsTrumpf(turn.getCards(), currentRound.getTrumpfSuit());
-        } else if (currentRound.getGameMode() == GameMode.OBE_ABE) {
-            points = calculateCardPointsObeAbe(turn.getCards());
-        } else if (currentRound.getGameMode() == GameMode.ONDE_UFE) {
-            points = calculateCardPointsOndeUfe(turn.getCards());
-        } else {
-            logger.fatal("Unknown game mode to calculate points.");
-        }
-        return points;
+    private boolean isRoundOver(final UserEntity winningUser) {
+        return turnsInRound == 9 && winningUser != null;
     }
 
     ////////////////////////////////////////////////////////////////////////////
@@ -556,66 +938,25 @@ private int calculatePointsByGameMode(final TurnEntity turn) {
     ////////////////////////////////////////////////////////////////////////////
 
     /**
-     * @param cards  All cards
-     * @param trumpf The trump suit to check
-     *
-     * @return Returns the points of all cards together.
-     *
-     * @author Manuele Vaccari
-     * @since 1.0.0
-     */
-    private static int calculateCardPointsTrumpf(final ArrayList<CardEntity> cards, final Card.Suit trumpf) {
-        // Convert suit enum to database entity
-        SuitEntity trumpfSuit = SuitRepository.getSingleton(null).getByName(trumpf.toString().toLowerCase());
-        assert trumpfSuit != null;
-
-        int points = 0;
-        for (CardEntity card : cards) {
-            if (card.getSuit().equals(trumpfSuit)) {
-                if (card.getRank().getKey().equals("jack")) {
-                    points += 20;
-                } else if (card.getRank().getKey().equals("9")) {
-                    points += 14;
-                } else {
-                    points += card.getRank().getPointsTrumpf();
-                }
-            } else {
-                points += card.getRank().getPointsTrumpf();
-            }
-        }
-        return points;
-    }
-
-    /**
-     * @param cards All cards
-     *
-     * @return Returns the points of all cards together.
-     *
-     * @author Manuele Vaccari
-     * @since 1.0.0
-     */
-    private static int calculateCardPointsObeAbe(final ArrayList<CardEntity> cards) {
-        int points = 0;
-        for (CardEntity card : cards) {
-            points += card.getRank().getPointsObeAbe();
-        }
-        return points;
-    }
-
-    /**
-     * @param cards All cards
+     * @param currentRound The current round.
+     * @param currentTurn  The current turn, with all four cards.
      *
-     * @return Returns the points of all cards together.
+     * @return Returns the points of all cards together, without the bonus for
+     * the last turn.
      *
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    private static int calculateCardPointsOndeUfe(final ArrayList<CardEntity> cards) {
-        int points = 0;
-        for (CardEntity card : cards) {
-            points += card.getRank().getPointsOndeufe();
+    static int calculateTurnPoints(final RoundEntity currentRound, final TurnEntity currentTurn) {
+        GameMode gameMode = currentRound.getGameMode();
+        if (gameMode == null) {
+            logger.fatal("Unknown game mode to calculate points.");
+            return 0;
         }
-        return points;
+        return TrickTable.points(
+            currentTurn.getCardOne().getIndex(), currentTurn.getCardTwo().getIndex(),
+            currentTurn.getCardThree().getIndex(), currentTurn.getCardFour().getIndex(),
+            gameMode, CardSet.trumpOf(gameMode, currentRound.getTrumpfSuit()));
     }
 
     ////////////////////////////////////////////////////////////////////////////
@@ -623,6 +964,8 @@ private static int calculateCardPointsOndeUfe(final ArrayList<CardEntity> cards)
     ////////////////////////////////////////////////////////////////////////////
 
     /**
+     * Unit test of this method in "GameUtilTest".
+     *
      * @param currentRound The current round.
      * @param currentTurn  The current turn.
      *
@@ -631,184 +974,26 @@ private static int calculateCardPointsOndeUfe(final ArrayList<CardEntity> cards)
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    private static UserEntity calculateTurnWinner(final RoundEntity currentRound, final TurnEntity currentTurn) {
-        CardEntity winningCard = null;
-        if (currentRound.getGameMode() == GameMode.TRUMPF) {
-            winningCard = calculateTurnWinnerTrump(currentRound.getTrumpfSuit(), currentTurn);
-        } else if (currentRound.getGameMode() == GameMode.OBE_ABE) {
-            winningCard = calculateTurnWinnerObeAbe(currentTurn);
-        } else if (currentRound.getGameMode() == GameMode.ONDE_UFE) {
-            winningCard = calculateTurnWinnerOndeufe(currentTurn);
-        }
-
-        if (winningCard == null) {
-            return null;
-        }
-
-        // Figure out who played the card and return the user.
-        if (winningCard.equals(currentTurn.getCardOne())) {
-            return currentTurn.getPlayerCardOne();
-        } else if (winningCard.equals(currentTurn.getCardTwo())) {
-            return currentTurn.getPlayerCardTwo();
-        } else if (winningCard.equals(currentTurn.getCardThree())) {
-            return currentTurn.getPlayerCardThree();
-        } else if (winningCard.equals(currentTurn.getCardFour())) {
-            return currentTurn.getPlayerCardFour();
-        } else {
+    public static UserEntity calculateTurnWinner(final RoundEntity currentRound, final TurnEntity currentTurn) {
+        GameMode gameMode = currentRound.getGameMode();
+        if (gameMode == null) {
             return null;
         }
-    }
 
-    /**
-     * @param trumpf      The trumpf of the current round.
-     * @param currentTurn The current turn.
-     *
-     * @return Returns the card which wins the current turn.
-     *
-     * @author Manuele Vaccari
-     * @since 1.0.0
-     */
-    private static CardEntity calculateTurnWinnerTrump(final Card.Suit trumpf, final TurnEntity currentTurn) {
-        RankRepository rankRepo = RankRepository.getSingleton(null);
-        SuitRepository suitRepo = SuitRepository.getSingleton(null);
-
-        // Get suit of first card played
-        SuitEntity suitOfFirstCard = currentTurn.getCardOne().getSuit();
-
-        // Convert suit enum to database entity
-        SuitEntity trumpfSuit = suitRepo.getByName(trumpf.toString().toLowerCase());
-        assert trumpfSuit != null;
-
-        // Get all 4 cards
-        ArrayList<CardEntity> cards = currentTurn.getCards();
-
-        // Check by order
-        if (CardRepository.isAnyCardOfSuit(cards, trumpfSuit)) {
-            if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("jack"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("jack"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("9"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("9"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("ace"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("ace"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("king"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("king"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("queen"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("queen"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("10"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("10"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("8"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("8"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("7"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("7"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("6"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, trumpfSuit, rankRepo.getByName("6"));
-            } else {
-                return null;
-            }
-        } else {
-            if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("ace"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("ace"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("king"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("king"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("queen"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("queen"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("jack"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("jack"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("10"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("10"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("9"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("9"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("8"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("8"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("7"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("7"));
-            } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("6"))) {
-                return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("6"));
-            } else {
-                return null;
-            }
-        }
-    }
-
-    /**
-     * @param currentTurn The current turn.
-     *
-     * @return Returns the card which wins the current turn.
-     *
-     * @author Sasa Trajkova
-     * @since 1.0.0
-     */
-    private static CardEntity calculateTurnWinnerObeAbe(final TurnEntity currentTurn) {
-        RankRepository rankRepo = RankRepository.getSingleton(null);
-
-        // Get suit of first card played
-        SuitEntity suitOfFirstCard = currentTurn.getCardOne().getSuit();
-
-        // Get all 4 cards
-        ArrayList<CardEntity> cards = currentTurn.getCards();
-
-        // Check by order
-        if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("ace"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("ace"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("king"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("king"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("queen"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("queen"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("jack"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("jack"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("10"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("10"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("9"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("9"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("8"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("8"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("7"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("7"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("6"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("6"));
-        } else {
-            return null;
-        }
-    }
-
-    /**
-     * @param currentTurn The current turn.
-     *
-     * @return Returns the card which wins the current turn.
-     *
-     * @author Victor Hargrave
-     * @since 1.0.0
-     */
-    private static CardEntity calculateTurnWinnerOndeufe(final TurnEntity currentTurn) {
-        RankRepository rankRepo = RankRepository.getSingleton(null);
-
-        // Get suit of first card played
-        SuitEntity suitOfFirstCard = currentTurn.getCardOne().getSuit();
-
-        // Get all 4 cards
-        ArrayList<CardEntity> cards = currentTurn.getCards();
-
-        // Check by order
-        if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("6"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("6"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("7"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("7"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("8"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("8"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("9"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("9"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("10"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("10"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("jack"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("jack"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("queen"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("queen"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("king"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("king"));
-        } else if (CardRepository.isAnyCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("ace"))) {
-            return CardRepository.getCardOfSuitAndRank(cards, suitOfFirstCard, rankRepo.getByName("ace"));
-        } else {
-            return null;
+        // Figure out who played the winning card and return the user.
+        int winner = TrickTable.winner(
+            currentTurn.getCardOne().getIndex(), currentTurn.getCardTwo().getIndex(),
+            currentTurn.getCardThree().getIndex(), currentTurn.getCardFour().getIndex(),
+            gameMode, CardSet.trumpOf(gameMode, currentRound.getTrumpfSuit()));
+        switch (winner) {
+            case 0:
+                return currentTurn.getPlayerCardOne();
+            case 1:
+                return currentTurn.getPlayerCardTwo();
+            case 2:
+                return currentTurn.getPlayerCardThree();
+            default:
+                return currentTurn.getPlayerCardFour();
         }
     }
 
@@ -817,18 +1002,22 @@ private static CardEntity calculateTurnWinnerOndeufe(final TurnEntity currentTur
     /**
      * @param startingPlayer The player to start.
      * @param round          The round.
+     * @param then           Gets the new turn, once it was inserted.
      *
-     * @return Returns the new turn.
-     *
-     * @author Victor Hargrave
+     * @author Victor Hargrave & Manuele Vaccari
      * @since 1.0.0
      */
-    private static TurnEntity addNewTurn(final UserEntity startingPlayer, final RoundEntity round) {
+    private void addNewTurn(final UserEntity startingPlayer, final RoundEntity round, final Consumer<TurnEntity> then) {
         TurnEntity turn = (new TurnEntity())
             .setRound(round)
             .setStartingPlayer(startingPlayer);
-        TurnRepository.getSingleton(null).add(turn);
-        return turn;
+        // Inserted before the clients hear of it, they need the ID of the turn
+        TurnRepository turnRepository = TurnRepository.getSingleton(null);
+        commitThen(turnRepository.newUnitOfWork().add(turnRepository, turn), "The new turn couldn't be saved in the database", () -> {
+            getJournal().turnStarted(game.getId(), turn.getId(), startingPlayer.getId());
+            turnsInRound++;
+            then.accept(turn);
+        });
     }
 
     /**
@@ -840,20 +1029,23 @@ private static TurnEntity addNewTurn(final UserEntity startingPlayer, final Roun
      * @since 1.0.0
      */
     private boolean validateMove(final PlayCardData data) {
-        boolean isValidMove = false;
-        CardEntity playedCard = CardRepository.getSingleton(null).getById(data.getCardId());
+        GameMode gameMode = currentRound.getGameMode();
+        if (gameMode == null) {
+            return false;
+        }
+        // The turn is full, the next one only starts after the delay
+        if (currentTurn == null || currentTurn.getCardFour() != null || nextTurn != null) {
+            return false;
+        }
+        CardEntity playedCard = getCatalog().getCard(data.getCardId());
+        if (playedCard == null) {
+            return false;
+        }
         DeckEntity deckOfPlayer = getCurrentDeckByUsername(data.getUsername());
-
-        CardEntity cardOne = currentTurn.getCardOne();
-        if (currentRound.getGameMode() == GameMode.TRUMPF) {
-            isValidMove = validateMoveTrump(playedCard, deckOfPlayer, cardOne, String.valueOf(currentRound.getTrumpfSuit()));
-        } else if (currentRound.getGameMode() == GameMode.OBE_ABE) {
-            isValidMove = validateMoveObeAbe(playedCard, deckOfPlayer, cardOne);
-        } else if (currentRound.getGameMode() == GameMode.ONDE_UFE) {
-            isValidMove = validateMoveOndeUfe(playedCard, deckOfPlayer, cardOne);
+        if (deckOfPlayer == null) {
+            return false;
         }
-
-        return isValidMove;
+        return isAllowed(playedCard, deckOfPlayer, currentTurn.getCardOne(), CardSet.trumpOf(gameMode, currentRound.getTrumpfSuit()));
     }
 
     /**
@@ -871,56 +1063,7 @@ private boolean validateMove(final PlayCardData data) {
      * @since 1.0.0
      */
     public static boolean validateMoveTrump(final CardEntity playedCard, final DeckEntity deck, final CardEntity firstCardOfTurn, final String trumpSuit) {
-        // In case the playedCard is first card of current turn the move is
-        // always valid
-        if (firstCardOfTurn == null || firstCardOfTurn.getId() == playedCard.getId()) {
-            return true;
-        }
-
-        // If playedCard equals the trump suit, the move is always valid
-        if (playedCard.getSuit().getKey().equals(trumpSuit)) {
-            return true;
-        }
-
-        boolean isValidMove = true;
-
-        // If the suit of the playedCard does not equal the suit of the
-        // firstCardOfTurn, it might be an invalid move - depending on if the
-        // client had another card in his hands which he must have played.
-        if (!firstCardOfTurn.getSuit().getKey().equals(playedCard.getSuit().getKey())) {
-
-            // Get deck of the current player as array and which cards have been
-            // played
-            ArrayList<CardEntity> cardsInDeck = deck.getCards();
-            ArrayList<Boolean> cardsHaveBeenPlayed = deck.getCardsHaveBeenPlayed();
-
-            for (int i = 0; i < cardsInDeck.size(); i++) {
-                // Only unplayed cards should be checked
-                if (cardsHaveBeenPlayed.get(i) == null || !cardsHaveBeenPlayed.get(i)) {
-                    // If a card has the same suite as the firstCardOfTurn, this
-                    // card has to have been played and thus this move is
-                    // invalid
-                    if (cardsInDeck.get(i).getSuit().getKey().equals(firstCardOfTurn.getSuit().getKey())) {
-
-                        // Check exception of trump jack as you are never forced
-                        // to play this card.
-                        if (cardsInDeck.get(i).getSuit().getKey().equals(trumpSuit)) {
-                            if (cardsInDeck.get(i).getRank().getId() != 6) {
-                                isValidMove = false;
-                                break;
-                            }
-                        } else {
-                            isValidMove = false;
-                            break;
-                        }
-
-                    }
-                }
-            }
-
-        }
-
-        return isValidMove;
+        return isAllowed(playedCard, deck, firstCardOfTurn, Card.Suit.fromString(trumpSuit).ordinal());
     }
 
     /**
@@ -935,36 +1078,7 @@ public static boolean validateMoveTrump(final CardEntity playedCard, final DeckE
      * @since 1.0.0
      */
     public static boolean validateMoveObeAbe(final CardEntity playedCard, final DeckEntity deck, final CardEntity firstCardOfTurn) {
-        // In case the playedCard is first card of current turn the move is
-        // always valid
-        if (firstCardOfTurn == null || firstCardOfTurn.getId() == playedCard.getId()) {
-            return true;
-        }
-
-        // If the suit of the playedCard does not equal the suit of the
-        // firstCardOfTurn, it might be an invalid move - depending on if the
-        // client had another card in his hands which he must have played.
-        if (firstCardOfTurn.getSuit().getKey().equals(playedCard.getSuit().getKey())) {
-            return true;
-        }
-
-        // Get deck of the current player as array and which cards have been
-        // played
-        ArrayList<CardEntity> cardsInDeck = deck.getCards();
-        ArrayList<Boolean> cardsHaveBeenPlayed = deck.getCardsHaveBeenPlayed();
-
-        for (int i = 0; i < cardsInDeck.size(); i++) {
-            // Only unplayed cards should be checked
-            if (cardsHaveBeenPlayed.get(i) == null || !cardsHaveBeenPlayed.get(i)) {
-                // If a card has the same suite as the firstCardOfTurn, this
-                // card has to have been played and thus this move is invalid
-                if (cardsInDeck.get(i).getSuit().getKey().equals(firstCardOfTurn.getSuit().getKey())) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        return isAllowed(playedCard, deck, firstCardOfTurn, CardSet.NO_TRUMP);
     }
 
     /**
@@ -979,36 +1093,65 @@ public static boolean validateMoveObeAbe(final CardEntity playedCard, final Deck
      * @since 1.0.0
      */
     public static boolean validateMoveOndeUfe(final CardEntity playedCard, final DeckEntity deck, final CardEntity firstCardOfTurn) {
-        // In case the playedCard is first card of current turn the move is
-        // always valid
-        if (firstCardOfTurn == null || firstCardOfTurn.getId() == playedCard.getId()) {
-            return true;
-        }
+        return isAllowed(playedCard, deck, firstCardOfTurn, CardSet.NO_TRUMP);
+    }
 
-        // If the suit of the playedCard does not equal the suit of the
-        // firstCardOfTurn, it might be an invalid move - depending on if the
-        // client had another card in his hands which he must have played.
-        if (firstCardOfTurn.getSuit().getKey().equals(playedCard.getSuit().getKey())) {
-            return true;
-        }
+    /**
+     * The card has to be in the hand of the player, and whoever still has a
+     * card of the suit which was led has to follow suit (or play a trump),
+     * see {@link CardSet#legalMoves(long, int, int)}.
+     *
+     * @param playedCard      The card that the user wants to play.
+     * @param deck            The complete deck of the player who wants to
+     *                        play.
+     * @param firstCardOfTurn The first card played in the current turn, or
+     *                        null.
+     * @param trump           The trump suit, or {@link CardSet#NO_TRUMP}.
+     *
+     * @return Returns true if the move is valid otherwise false.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static boolean isAllowed(final CardEntity playedCard, final DeckEntity deck, final CardEntity firstCardOfTurn, final int trump) {
+        int lead = firstCardOfTurn == null ? -1 : firstCardOfTurn.getIndex();
+        return CardSet.contains(CardSet.legalMoves(deck.getHand(), lead, trump), playedCard.getIndex());
+    }
 
-        // Get deck of the current player as array and which cards have been
-        // played
-        ArrayList<CardEntity> cardsInDeck = deck.getCards();
-        ArrayList<Boolean> cardsHaveBeenPlayed = deck.getCardsHaveBeenPlayed();
-
-        for (int i = 0; i < cardsInDeck.size(); i++) {
-            // Only unplayed cards should be checked
-            if (cardsHaveBeenPlayed.get(i) == null || !cardsHaveBeenPlayed.get(i)) {
-                // If a card has the same suite as the firstCardOfTurn, this
-                // card has to have been played and thus this move is invalid
-                if (cardsInDeck.get(i).getSuit().getKey().equals(firstCardOfTurn.getSuit().getKey())) {
-                    return false;
-                }
-            }
-        }
+    /**
+     * @return Returns the cards, ranks and suits.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static CatalogUtil getCatalog() {
+        CatalogUtil catalogUtil = ServiceLocator.get(CatalogUtil.class);
+        assert catalogUtil != null;
+        return catalogUtil;
+    }
+
+    /**
+     * @return Returns the queue of the changes to write to the database.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static WriteBehindUtil getWriteBehind() {
+        WriteBehindUtil writeBehindUtil = ServiceLocator.get(WriteBehindUtil.class);
+        assert writeBehindUtil != null;
+        return writeBehindUtil;
+    }
 
-        return true;
+    /**
+     * @return Returns the journal to continue the game after a crash.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static GameJournalUtil getJournal() {
+        GameJournalUtil gameJournalUtil = ServiceLocator.get(GameJournalUtil.class);
+        assert gameJournalUtil != null;
+        return gameJournalUtil;
     }
 
     /**
@@ -1059,21 +1202,49 @@ private DeckEntity getCurrentDeckByUsername(final String username) {
      */
     @Override
     public void onStopPlaying(final StopPlayingData data) {
+        post(() -> stopPlaying(data));
+    }
+
+    /**
+     * @param data The message of the player who quit.
+     *
+     * @author Victor Hargrave
+     * @since 1.0.0
+     */
+    private void stopPlaying(final StopPlayingData data) {
         ClientUtil client = getClientUtilByUsername(data.getUsername());
         if (client != null) {
+            endGame();
+        }
+    }
+
+    /**
+     * End the game for all players, and tell them that it's over.
+     *
+     * @author Victor Hargrave & Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void endGame() {
+        stopped = true;
+        heldBack.clear();
+        if (nextTurn != null) {
+            nextTurn.cancel(false);
+            nextTurn = null;
+        }
+        if (saved) {
             setGameToInactive();
-            BroadcastAPlayerQuit broadcastAPlayerQuit = new BroadcastAPlayerQuit(new BroadcastAPlayerQuitData());
-            broadcast(broadcastAPlayerQuit);
-            removeEventListeners(clientPlayerOne, clientPlayerTwo, clientPlayerThree, clientPlayerFour);
-            SearchGameUtil searchGameUtil = ServiceLocator.get(SearchGameUtil.class);
-            assert searchGameUtil != null;
-            searchGameUtil.remove(clientPlayerOne);
-            searchGameUtil.remove(clientPlayerTwo);
-            searchGameUtil.remove(clientPlayerThree);
-            searchGameUtil.remove(clientPlayerFour);
-            // remove reference to this game to initiate garbage collection
-            SearchGameUtil.runningGames.remove(this);
         }
+        BroadcastAPlayerQuit broadcastAPlayerQuit = new BroadcastAPlayerQuit(new BroadcastAPlayerQuitData());
+        broadcast(broadcastAPlayerQuit);
+        removeEventListeners(clientPlayerOne, clientPlayerTwo, clientPlayerThree, clientPlayerFour);
+        SearchGameUtil searchGameUtil = ServiceLocator.get(SearchGameUtil.class);
+        assert searchGameUtil != null;
+        searchGameUtil.remove(clientPlayerOne);
+        searchGameUtil.remove(clientPlayerTwo);
+        searchGameUtil.remove(clientPlayerThree);
+        searchGameUtil.remove(clientPlayerFour);
+        // remove reference to this game to initiate garbage collection
+        SearchGameUtil.runningGames.remove(this);
     }
 
     /**
@@ -1082,7 +1253,10 @@ public void onStopPlaying(final StopPlayingData data) {
      */
     private void setGameToInactive() {
         game.setActive(false);
-        GameRepository.getSingleton(null).update(game);
+        WriteBehindUtil writeBehind = getWriteBehind();
+        writeBehind.update(GameRepository.getSingleton(null), game);
+        writeBehind.requestFlush();
+        getJournal().gameEnded(game.getId());
     }
 
     /**
@@ -1091,6 +1265,14 @@ private void setGameToInactive() {
      */
     @Override
     public void onContinuePlaying(final ContinuePlayingData data) {
+        post(this::continuePlaying);
+    }
+
+    /**
+     * @author Thomas Weber
+     * @since 1.0.0
+     */
+    private void continuePlaying() {
         continuePlayClicks++;
         // If all four players decide to play another round, initialize new round
         if (continuePlayClicks == 4) {
@@ -0,0 +1,115 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in buckets of powers of two microseconds, which is exact
+ * enough for percentiles in a log and cheap enough to record every event
+ * from several threads.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class Histogram {
+    /**
+     * The amount of buckets, the last one takes everything longer than about
+     * 9 minutes.
+     */
+    private static final int BUCKETS = 40;
+
+    /**
+     * The counts of the buckets. Bucket i holds the durations from 2^(i-1)
+     * to 2^i - 1 microseconds.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The amount of recorded durations.
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * The longest recorded duration in microseconds.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos The duration in nanoseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void record(final long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * @return Returns the amount of recorded durations.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * @return Returns the longest recorded duration in microseconds.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100.
+     *
+     * @return Returns the duration in microseconds, which the given percentage
+     * of the recorded durations didn't exceed (rounded up to the bucket).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getPercentile(final double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) - 1, max.get());
+            }
+        }
+        return max.get();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The players searching for a game. Adding, removing and picking a player
+ * at random takes the same time however many players are waiting, because
+ * the players are kept in an array with their position in a map: a removed
+ * player is replaced by the last one. Whoever waits for a table is woken up
+ * as soon as there are enough players.
+ *
+ * @param <T> The type of the players.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class MatchmakingQueue<T> {
+    /**
+     * How many players sit at one table.
+     */
+    private final int tableSize;
+
+    /**
+     * Guards the players.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when there are enough players for a table, or on
+     * {@link #wakeUp()}.
+     */
+    private final Condition changed = lock.newCondition();
+
+    /**
+     * The waiting players, in no particular order.
+     */
+    private final ArrayList<Entry<T>> entries = new ArrayList<>();
+
+    /**
+     * The waiting players, to find their position in the array.
+     */
+    private final Map<T, Entry<T>> index = new HashMap<>();
+
+    /**
+     * How long the players waited until they got a table.
+     */
+    private final Histogram timeToMatch = new Histogram();
+
+    /**
+     * Whether {@link #wakeUp()} was called since the last
+     * {@link #await(long)}, so a wake up is never missed.
+     */
+    private boolean woken;
+
+    /**
+     * @param tableSize How many players sit at one table.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public MatchmakingQueue(final int tableSize) {
+        this.tableSize = tableSize;
+    }
+
+    /**
+     * @param player The player to add.
+     *
+     * @return Returns true if the player was added, or false if it was
+     * already waiting.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean add(final T player) {
+        lock.lock();
+        try {
+            if (index.containsKey(player)) {
+                return false;
+            }
+            Entry<T> entry = new Entry<>(player, entries.size(), System.nanoTime());
+            entries.add(entry);
+            index.put(player, entry);
+            if (entries.size() >= tableSize) {
+                changed.signalAll();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param player The player to remove.
+     *
+     * @return Returns true if the player was removed, or false if it wasn't
+     * waiting.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean remove(final T player) {
+        lock.lock();
+        try {
+            Entry<T> entry = index.get(player);
+            if (entry == null) {
+                return false;
+            }
+            removeEntry(entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the players for a table, each of the waiting players has the same
+     * chance to be picked.
+     *
+     * @param table  The array to fill with the players, as long as a table
+     *               is big.
+     * @param random The random generator.
+     *
+     * @return Returns true if the table was filled, or false if there weren't
+     * enough players (then nobody is taken).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean poll(final T[] table, final Random random) {
+        lock.lock();
+        try {
+            if (entries.size() < tableSize) {
+                return false;
+            }
+            long now = System.nanoTime();
+            for (int i = 0; i < tableSize; i++) {
+                // Picking from the ones which are left never picks twice
+                Entry<T> entry = entries.get(random.nextInt(entries.size()));
+                removeEntry(entry);
+                table[i] = entry.player;
+                timeToMatch.record(now - entry.since);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until there are enough players for a table.
+     *
+     * @param timeout How many milliseconds to wait at most, or 0 to wait
+     *                until there are enough players or {@link #wakeUp()} is
+     *                called.
+     *
+     * @return Returns true if there are enough players for a table.
+     *
+     * @throws InterruptedException If the thread was interrupted.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean await(final long timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            if (entries.size() < tableSize && !woken) {
+                if (timeout > 0) {
+                    changed.await(timeout, TimeUnit.MILLISECONDS);
+                } else {
+                    changed.await();
+                }
+            }
+            woken = false;
+            return entries.size() >= tableSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wake up whoever waits in {@link #await(long)}, even if there aren't
+     * enough players. If nobody waits, the next call returns right away.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void wakeUp() {
+        lock.lock();
+        try {
+            woken = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Returns how many players are waiting.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Returns how long the players waited until they got a table.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Histogram getTimeToMatch() {
+        return timeToMatch;
+    }
+
+    /**
+     * Move the last player to the position of the removed one, the lock has
+     * to be held.
+     *
+     * @param entry The player to remove.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void removeEntry(final Entry<T> entry) {
+        index.remove(entry.player);
+        Entry<T> last = entries.remove(entries.size() - 1);
+        if (last != entry) {
+            entries.set(entry.position, last);
+            last.position = entry.position;
+        }
+    }
+
+    /**
+     * A waiting player.
+     *
+     * @param <T> The type of the players.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    private static final class Entry<T> {
+        /**
+         * The player.
+         */
+        private final T player;
+
+        /**
+         * The position in the array.
+         */
+        private int position;
+
+        /**
+         * When the player was added, in nanoseconds.
+         */
+        private final long since;
+
+        /**
+         * @param player   The player.
+         * @param position The position in the array.
+         * @param since    When the player was added, in nanoseconds.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private Entry(final T player, final int position, final long since) {
+            this.player = player;
+            this.position = position;
+            this.since = since;
+        }
+    }
+}
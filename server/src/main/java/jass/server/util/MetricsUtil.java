@@ -0,0 +1,170 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.database.Repository;
+import jass.lib.servicelocator.Service;
+import jass.lib.servicelocator.ServiceLocator;
+import jass.server.database.PooledConnectionSource;
+import jass.server.database.StatementCounter;
+import jass.server.network.OutboundQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Periodically logs how the server is doing, to find clients which don't keep
+ * up before they become a problem.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class MetricsUtil extends Thread implements Service, Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(MetricsUtil.class);
+
+    /**
+     * How many seconds to wait between two reports.
+     */
+    private final int interval;
+
+    /**
+     * Run the thread while true.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * @param interval How many seconds to wait between two reports.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public MetricsUtil(final int interval) {
+        super();
+        this.interval = interval;
+        this.setName("MetricsThread");
+        this.setDaemon(true);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(interval * 1000L);
+            } catch (InterruptedException e) {
+                break;
+            }
+            report();
+        }
+    }
+
+    /**
+     * Log the current numbers. Clients with messages waiting are listed one by
+     * one in the debug log.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void report() {
+        Collection<ClientUtil> clients = ServerSocketUtil.getClients();
+        int queued = 0;
+        int deepest = 0;
+        for (ClientUtil client : clients) {
+            OutboundQueue outbound = client.getConnection().getOutbound();
+            int depth = outbound.getDepth();
+            queued += depth;
+            deepest = Math.max(deepest, outbound.getMaxDepth());
+            if (depth > 0) {
+                logger.debug(client.getUsername() + " - " + depth + " of " + outbound.getCapacity() + " messages queued (max " + outbound.getMaxDepth() + ", dropped " + outbound.getDropped() + ")");
+            }
+        }
+        // Copy the games, so they can end meanwhile
+        List<GameUtil> games;
+        synchronized (SearchGameUtil.runningGames) {
+            games = new ArrayList<>(SearchGameUtil.runningGames);
+        }
+        int events = 0;
+        int deepestMailbox = 0;
+        for (GameUtil game : games) {
+            GameMailbox mailbox = game.getMailbox();
+            events += mailbox.getDepth();
+            deepestMailbox = Math.max(deepestMailbox, mailbox.getMaxDepth());
+            logger.debug(mailbox.getName() + " - " + mailbox.getDepth() + " events queued (max " + mailbox.getMaxDepth() + "), processed " + mailbox.getLatency().getCount() + " in p50 " + mailbox.getLatency().getPercentile(50) + "us, p99 " + mailbox.getLatency().getPercentile(99) + "us");
+        }
+        SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+        GameExecutorUtil gameExecutorUtil = ServiceLocator.get(GameExecutorUtil.class);
+        WriteBehindUtil writeBehindUtil = ServiceLocator.get(WriteBehindUtil.class);
+        SearchGameUtil searchGameUtil = ServiceLocator.get(SearchGameUtil.class);
+        DatabaseUtil databaseUtil = ServiceLocator.get(DatabaseUtil.class);
+        PooledConnectionSource pool = databaseUtil == null ? null : databaseUtil.getPool();
+        logger.info("Clients: " + ServerSocketUtil.getRegistry().size()
+            + ", logged in: " + ServerSocketUtil.getRegistry().getLoggedIn().size()
+            + ", queued messages: " + queued
+            + ", deepest queue: " + deepest
+            + ", dropped messages: " + OutboundQueue.getTotalDropped()
+            + ", too slow clients: " + OutboundQueue.getTotalOverflows()
+            + (sessionUtil == null ? "" : ", sessions: " + sessionUtil.getSessions()
+            + ", authenticated requests: " + sessionUtil.getHits()
+            + ", rejected requests: " + sessionUtil.getMisses())
+            + (searchGameUtil == null ? "" : ", searching: " + searchGameUtil.getQueueLength()
+            + ", time to match p50: " + searchGameUtil.getTimeToMatch().getPercentile(50)
+            + "us, p99: " + searchGameUtil.getTimeToMatch().getPercentile(99) + "us")
+            + ", games: " + games.size()
+            + ", queued game events: " + events
+            + ", deepest mailbox: " + deepestMailbox
+            + (gameExecutorUtil == null ? "" : ", game event p50: " + gameExecutorUtil.getLatency().getPercentile(50)
+            + "us, p99: " + gameExecutorUtil.getLatency().getPercentile(99)
+            + "us, max: " + gameExecutorUtil.getLatency().getMax() + "us")
+            + (writeBehindUtil == null ? "" : ", pending writes: " + writeBehindUtil.getPending()
+            + ", written: " + writeBehindUtil.getWritten()
+            + " in " + writeBehindUtil.getFlushes() + " transactions")
+            + ", database commits: " + Repository.getCommits()
+            + " for " + Repository.getStatements() + " statements"
+            + ", SQL statements: " + StatementCounter.getCount()
+            + (Repository.getCommits() == 0 ? "" : ", commit mean: " + Repository.getCommitTime() / Repository.getCommits() / 1000 + "us")
+            + (pool == null ? "" : ", db connections: " + pool.getActive() + " used of " + pool.getOpen()
+            + " open (max " + pool.getMaxSize() + "), wait p50: " + pool.getWaitTime().getPercentile(50)
+            + "us, p99: " + pool.getWaitTime().getPercentile(99)
+            + "us, timeouts: " + pool.getTimeouts()
+            + ", broken: " + pool.getBroken()
+            + ", evicted: " + pool.getEvicted()));
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        running = false;
+        this.interrupt();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.server.network.NioConnection;
+import jass.server.network.NioEventLoop;
+import jass.server.network.OutboundQueue;
+import jass.server.network.OverflowPolicy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates a server socket (with or without SSL) which serves all clients with a
+ * small, fixed number of selector threads instead of one thread per client.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class NioServerSocketUtil extends Thread {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(NioServerSocketUtil.class);
+
+    /**
+     * The default amount of selector threads.
+     */
+    public static final int DEFAULT_IO_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * The default amount of threads which process the messages.
+     */
+    public static final int DEFAULT_WORKER_THREADS = Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * The server socket listener.
+     */
+    private final ServerSocketChannel listener;
+
+    /**
+     * The port of the listener.
+     */
+    private final int port;
+
+    /**
+     * The selector threads.
+     */
+    private final NioEventLoop[] loops;
+
+    /**
+     * The pool which processes the decoded messages.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * The amount of messages a client may have queued.
+     */
+    private final int queueCapacity;
+
+    /**
+     * What happens when a client doesn't read its messages fast enough.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * The loop which gets the next client.
+     */
+    private int nextLoop = 0;
+
+    /**
+     * @param port           The port of the server.
+     * @param ioThreads      The amount of selector threads.
+     * @param workerThreads  The amount of threads which process the messages.
+     * @param sslContext     The context for secure connections (see
+     *                       {@link ServerSocketUtil#createSslContext()}), or
+     *                       null for plain connections.
+     * @param queueCapacity  The amount of messages a client may have queued.
+     * @param overflowPolicy What happens when a client doesn't read its
+     *                       messages fast enough.
+     *
+     * @throws IOException An error with the socket.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public NioServerSocketUtil(final int port, final int ioThreads, final int workerThreads, final SSLContext sslContext, final int queueCapacity, final OverflowPolicy overflowPolicy) throws IOException {
+        super();
+        this.port = port;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.setName("NioServerSocketThread");
+
+        AtomicInteger workerCount = new AtomicInteger();
+        ThreadFactory workerFactory = runnable -> {
+            Thread thread = new Thread(runnable, "MessageWorker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        workers = Executors.newFixedThreadPool(workerThreads, workerFactory);
+
+        loops = new NioEventLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new NioEventLoop(i + 1, workers, sslContext);
+            loops[i].start();
+        }
+
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress(port), 128);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    @SuppressWarnings("InfiniteLoopStatement")
+    public void run() {
+        logger.info("Starting non-blocking listener on port " + port + " with " + loops.length + " I/O threads");
+        while (true) {
+            try {
+                // The listener stays blocking, only the clients are selected.
+                SocketChannel channel = listener.accept();
+                channel.socket().setTcpNoDelay(true);
+                NioConnection connection = loops[nextLoop].newConnection(channel, new OutboundQueue(queueCapacity, overflowPolicy));
+                nextLoop = (nextLoop + 1) % loops.length;
+                ServerSocketUtil.add(new ClientUtil(connection));
+            } catch (IOException e) {
+                logger.info(e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.Card;
+import jass.lib.CardSet;
+import jass.lib.GameMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of a game as it was written to the journal, enough to continue
+ * the current round once the players are back (see {@link GameJournalUtil}).
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class RecoveredGame {
+    /**
+     * The ID of the game.
+     */
+    private final int gameId;
+
+    /**
+     * The IDs of the players one to four.
+     */
+    private final int[] userIds;
+
+    /**
+     * The ID of the current round, or 0 if there is none yet.
+     */
+    private int roundId = 0;
+
+    /**
+     * The number of the current round in the game, starting at 0.
+     */
+    private int roundNumber = 0;
+
+    /**
+     * The ID of the user choosing the game mode of the current round.
+     */
+    private int gameModeChooserId = 0;
+
+    /**
+     * The IDs of the decks of the players one to four.
+     */
+    private final int[] deckIds = new int[4];
+
+    /**
+     * The cards the players one to four still have, as {@link CardSet}.
+     */
+    private final long[] hands = new long[4];
+
+    /**
+     * The game mode of the current round, or null if not chosen yet.
+     */
+    private GameMode gameMode = null;
+
+    /**
+     * The trump suit of the current round, or null.
+     */
+    private Card.Suit trumpfSuit = null;
+
+    /**
+     * The turns of the current round.
+     */
+    private final List<Turn> turns = new ArrayList<>();
+
+    /**
+     * The points of team one (players one and three) in the current round.
+     */
+    private int pointsTeamOne = 0;
+
+    /**
+     * The points of team two (players two and four) in the current round.
+     */
+    private int pointsTeamTwo = 0;
+
+    /**
+     * Whether the current round is over.
+     */
+    private boolean roundOver = false;
+
+    /**
+     * @param gameId  The ID of the game.
+     * @param userIds The IDs of the players one to four.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    RecoveredGame(final int gameId, final int[] userIds) {
+        this.gameId = gameId;
+        this.userIds = userIds.clone();
+    }
+
+    /**
+     * @param roundId           The ID of the round.
+     * @param roundNumber       The number of the round in the game.
+     * @param gameModeChooserId The ID of the user choosing the game mode.
+     * @param deckIds           The IDs of the decks of the players one to
+     *                          four.
+     * @param hands             The cards dealt to the players one to four.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void startRound(final int roundId, final int roundNumber, final int gameModeChooserId, final int[] deckIds, final long[] hands) {
+        this.roundId = roundId;
+        this.roundNumber = roundNumber;
+        this.gameModeChooserId = gameModeChooserId;
+        System.arraycopy(deckIds, 0, this.deckIds, 0, 4);
+        System.arraycopy(hands, 0, this.hands, 0, 4);
+        gameMode = null;
+        trumpfSuit = null;
+        turns.clear();
+        pointsTeamOne = 0;
+        pointsTeamTwo = 0;
+        roundOver = false;
+    }
+
+    /**
+     * @param gameMode   The game mode.
+     * @param trumpfSuit The trump suit, or null.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void chooseGameMode(final GameMode gameMode, final Card.Suit trumpfSuit) {
+        this.gameMode = gameMode;
+        this.trumpfSuit = trumpfSuit;
+    }
+
+    /**
+     * @param turnId           The ID of the turn.
+     * @param startingPlayerId The ID of the user starting the turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void startTurn(final int turnId, final int startingPlayerId) {
+        turns.add(new Turn(turnId, startingPlayerId));
+    }
+
+    /**
+     * @param userId The ID of the user who played the card.
+     * @param card   The index of the card in a {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void playCard(final int userId, final int card) {
+        int seat = seatOf(userId);
+        if (turns.isEmpty() || seat < 0) {
+            return;
+        }
+        Turn turn = turns.get(turns.size() - 1);
+        if (turn.size < 4) {
+            turn.userIds[turn.size] = userId;
+            turn.cards[turn.size] = card;
+            turn.size++;
+        }
+        hands[seat] &= ~CardSet.of(card);
+    }
+
+    /**
+     * @param winningUserId The ID of the user who won the turn.
+     * @param points        The points the team of the user got.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void winTurn(final int winningUserId, final int points) {
+        if (!turns.isEmpty()) {
+            turns.get(turns.size() - 1).winningUserId = winningUserId;
+        }
+        // Players one and three are team one
+        if (seatOf(winningUserId) % 2 == 0) {
+            pointsTeamOne += points;
+        } else {
+            pointsTeamTwo += points;
+        }
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    void endRound() {
+        roundOver = true;
+    }
+
+    /**
+     * @param userId The ID of the user.
+     *
+     * @return Returns the seat (0 to 3) of the user, or -1 if the user doesn't
+     * play in this game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int seatOf(final int userId) {
+        for (int i = 0; i < userIds.length; i++) {
+            if (userIds[i] == userId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Returns the ID of the game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @param seat The seat (0 to 3).
+     *
+     * @return Returns the ID of the player.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getUserId(final int seat) {
+        return userIds[seat];
+    }
+
+    /**
+     * @return Returns the ID of the current round, or 0 if there is none.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getRoundId() {
+        return roundId;
+    }
+
+    /**
+     * @return Returns the number of the current round in the game, starting
+     * at 0.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getRoundNumber() {
+        return roundNumber;
+    }
+
+    /**
+     * @return Returns the ID of the user choosing the game mode.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getGameModeChooserId() {
+        return gameModeChooserId;
+    }
+
+    /**
+     * @param seat The seat (0 to 3).
+     *
+     * @return Returns the ID of the deck of the player.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getDeckId(final int seat) {
+        return deckIds[seat];
+    }
+
+    /**
+     * @param seat The seat (0 to 3).
+     *
+     * @return Returns the cards the player still has, as {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getHand(final int seat) {
+        return hands[seat];
+    }
+
+    /**
+     * @return Returns the game mode, or null if not chosen yet.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public GameMode getGameMode() {
+        return gameMode;
+    }
+
+    /**
+     * @return Returns the trump suit, or null.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Card.Suit getTrumpfSuit() {
+        return trumpfSuit;
+    }
+
+    /**
+     * @return Returns the turns of the current round.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public List<Turn> getTurns() {
+        return Collections.unmodifiableList(turns);
+    }
+
+    /**
+     * @return Returns the points of team one in the current round.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getPointsTeamOne() {
+        return pointsTeamOne;
+    }
+
+    /**
+     * @return Returns the points of team two in the current round.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getPointsTeamTwo() {
+        return pointsTeamTwo;
+    }
+
+    /**
+     * @return Returns whether the current round is over.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean isRoundOver() {
+        return roundOver;
+    }
+
+    /**
+     * A turn of the current round.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public static final class Turn {
+        /**
+         * The ID of the turn.
+         */
+        private final int turnId;
+
+        /**
+         * The ID of the user starting the turn.
+         */
+        private final int startingPlayerId;
+
+        /**
+         * The IDs of the users who played the cards.
+         */
+        private final int[] userIds = new int[4];
+
+        /**
+         * The indexes of the played cards in a {@link CardSet}.
+         */
+        private final int[] cards = new int[4];
+
+        /**
+         * How many cards were played.
+         */
+        private int size = 0;
+
+        /**
+         * The ID of the user who won the turn, or 0.
+         */
+        private int winningUserId = 0;
+
+        /**
+         * @param turnId           The ID of the turn.
+         * @param startingPlayerId The ID of the user starting the turn.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private Turn(final int turnId, final int startingPlayerId) {
+            this.turnId = turnId;
+            this.startingPlayerId = startingPlayerId;
+        }
+
+        /**
+         * @return Returns the ID of the turn.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getTurnId() {
+            return turnId;
+        }
+
+        /**
+         * @return Returns the ID of the user starting the turn.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getStartingPlayerId() {
+            return startingPlayerId;
+        }
+
+        /**
+         * @return Returns how many cards were played.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param i The position of the card (0 to 3).
+         *
+         * @return Returns the index of the card in a {@link CardSet}.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getCard(final int i) {
+            return cards[i];
+        }
+
+        /**
+         * @param i The position of the card (0 to 3).
+         *
+         * @return Returns the ID of the user who played the card.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getUserId(final int i) {
+            return userIds[i];
+        }
+
+        /**
+         * @return Returns the ID of the user who won the turn, or 0.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getWinningUserId() {
+            return winningUserId;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.servicelocator.Service;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timer thread shared by all games, to run something later without
+ * blocking the thread of a client in the meantime (for example starting the
+ * next turn after everyone had the time to see the last one).
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class SchedulerUtil implements Service, Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(SchedulerUtil.class);
+
+    /**
+     * The timer.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Start the timer thread.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public SchedulerUtil() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("SchedulerThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled tasks (games which ended early) don't have to wait for
+        // their time to be freed
+        timer.setRemoveOnCancelPolicy(true);
+        executor = timer;
+    }
+
+    /**
+     * Run the task once after the delay. An exception thrown by the task is
+     * logged, and doesn't stop the timer.
+     *
+     * @param task  The task.
+     * @param delay The delay in milliseconds.
+     *
+     * @return Returns the future to cancel the task with.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public ScheduledFuture<?> schedule(final Runnable task, final long delay) {
+        return executor.schedule(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Scheduled task failed", e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -20,6 +20,9 @@
 package jass.server.util;
 
 import jass.lib.servicelocator.Service;
+import jass.lib.servicelocator.ServiceLocator;
+import jass.server.entity.GameEntity;
+import jass.server.repository.GameRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -28,10 +31,12 @@
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Creates a game once 4 clients are searching for a game in the lobby.
+ * Creates a game once 4 clients are searching for a game in the lobby. The
+ * thread sleeps until {@link #add(ClientUtil)} brings enough clients
+ * together.
  *
  * @author Thomas Weber, Manuele Vaccari
  * @version %I%, %G%
@@ -43,34 +48,62 @@ public final class SearchGameUtil extends Thread implements Service, Closeable {
      */
     private static final int PLAYERS_PER_GAME = 4;
 
+    /**
+     * How many milliseconds the players of a recovered game have to come back.
+     */
+    private static final long RECOVERY_TIMEOUT = 5 * 60 * 1000;
+
     /**
      * The logger to print to console and save in a .log file.
      */
     private static final Logger logger = LogManager.getLogger(SearchGameUtil.class);
 
     /**
-     * List of all clients which are searching for a game.
+     * All clients which are searching for a game.
      */
-    private static final List<ClientUtil> searchingClients = Collections.synchronizedList(new ArrayList<>());
+    private final MatchmakingQueue<ClientUtil> searchingClients = new MatchmakingQueue<>(PLAYERS_PER_GAME);
 
     /**
      * A list of all currently running games.
      */
     public static final List<GameUtil> runningGames = Collections.synchronizedList(new ArrayList<>());
 
+    /**
+     * The games which were running when the server stopped, waiting for their
+     * players to search for a game again. Also guards
+     * {@link #returningClients}.
+     */
+    private final List<RecoveredGame> recoveredGames = new ArrayList<>();
+
+    /**
+     * The clients searching for a game, which wait for their recovered game
+     * instead of getting a new one.
+     */
+    private final List<ClientUtil> returningClients = new ArrayList<>();
+
+    /**
+     * Until when the recovered games wait for their players.
+     */
+    private final long recoveryDeadline;
+
     /**
      * Run the thread while true.
      */
-    private boolean running = true;
+    private volatile boolean running = true;
 
     /**
-     * Empty constructor.
+     * Continue the games which were running when the server stopped, once
+     * their players are back (see {@link GameJournalUtil}).
      *
      * @author Manuele Vaccari
      * @since 1.0.0
      */
     public SearchGameUtil() {
-        // TODO Restore running games after server maybe crashed/stopped
+        GameJournalUtil gameJournalUtil = ServiceLocator.get(GameJournalUtil.class);
+        if (gameJournalUtil != null) {
+            recoveredGames.addAll(gameJournalUtil.getRecoveredGames());
+        }
+        recoveryDeadline = System.currentTimeMillis() + RECOVERY_TIMEOUT;
     }
 
     /**
@@ -79,36 +112,144 @@ public SearchGameUtil() {
      */
     @Override
     public void run() {
+        ClientUtil[] players = new ClientUtil[PLAYERS_PER_GAME];
         while (running) {
-            if (searchingClients.size() >= PLAYERS_PER_GAME) {
-                // Search for 4 players to add.
-                ArrayList<ClientUtil> playersToPlay = new ArrayList<>();
-                while (playersToPlay.size() < PLAYERS_PER_GAME) {
-                    Random random = new Random();
-                    // Pick a random users, from the ones searching.
-                    ClientUtil player = searchingClients.get(random.nextInt(searchingClients.size()));
-                    // If it wasn't already picked, add it now.
-                    if (!playersToPlay.contains(player)) {
-                        playersToPlay.add(player);
+            long timeout = resumeRecoveredGames();
+            if (searchingClients.poll(players, ThreadLocalRandom.current())) {
+                runningGames.add(new GameUtil(players[0], players[1], players[2], players[3]));
+                logger.info("Total of " + getQueueLength() + " users searching for a game");
+            } else {
+                try {
+                    // Recovered games have to be ended in time
+                    searchingClients.await(timeout);
+                } catch (InterruptedException e) { /* Ignore */ }
+            }
+        }
+    }
+
+    /**
+     * Continue the recovered games of which all players are searching again.
+     * Games of which the players didn't come back in time are ended, and the
+     * players which came back search for a new game.
+     *
+     * @return Returns how many milliseconds are left until the recovered
+     * games are ended, or 0 if there are none.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private long resumeRecoveredGames() {
+        List<RecoveredGame> resumed = new ArrayList<>();
+        List<ClientUtil[]> resumedPlayers = new ArrayList<>();
+        List<RecoveredGame> ended = new ArrayList<>();
+        List<ClientUtil> released = new ArrayList<>();
+        long remaining;
+        synchronized (recoveredGames) {
+            if (recoveredGames.isEmpty()) {
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            Iterator<RecoveredGame> iterator = recoveredGames.iterator();
+            while (iterator.hasNext()) {
+                RecoveredGame recoveredGame = iterator.next();
+                ClientUtil[] players = new ClientUtil[PLAYERS_PER_GAME];
+                int found = 0;
+                for (ClientUtil client : returningClients) {
+                    int seat = client.getUser() == null ? -1 : recoveredGame.seatOf(client.getUser().getId());
+                    if (seat >= 0 && players[seat] == null) {
+                        players[seat] = client;
+                        found++;
                     }
                 }
 
-                // Create the game.
-                GameUtil newGame = new GameUtil(playersToPlay.get(0), playersToPlay.get(1), playersToPlay.get(2), playersToPlay.get(3));
-                runningGames.add(newGame);
-
-                // Remove the players from searching.
-                for (ClientUtil player : playersToPlay) {
-                    searchingClients.remove(player);
+                if (found == PLAYERS_PER_GAME) {
+                    iterator.remove();
+                    for (ClientUtil player : players) {
+                        returningClients.remove(player);
+                    }
+                    resumed.add(recoveredGame);
+                    resumedPlayers.add(players);
+                } else if (now > recoveryDeadline) {
+                    iterator.remove();
+                    ended.add(recoveredGame);
                 }
-
-                logger.info("Total of " + searchingClients.size() + " users searching for a game");
+            }
+            if (recoveredGames.isEmpty()) {
+                released.addAll(returningClients);
+                returningClients.clear();
+                remaining = 0;
             } else {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) { /* Ignore */ }
+                remaining = Math.max(1, recoveryDeadline - now);
+            }
+        }
+
+        // Outside the lock, a game which can't be continued adds its players again
+        for (int i = 0; i < resumed.size(); i++) {
+            ClientUtil[] players = resumedPlayers.get(i);
+            runningGames.add(new GameUtil(resumed.get(i), players[0], players[1], players[2], players[3]));
+            logger.info("Continuing game " + resumed.get(i).getGameId() + " with its players");
+        }
+        for (RecoveredGame recoveredGame : ended) {
+            GameJournalUtil gameJournalUtil = ServiceLocator.get(GameJournalUtil.class);
+            assert gameJournalUtil != null;
+            gameJournalUtil.gameEnded(recoveredGame.getGameId());
+            GameEntity game = GameRepository.getSingleton(null).getById(recoveredGame.getGameId());
+            if (game != null) {
+                game.setActive(false);
+                GameRepository.getSingleton(null).update(game);
             }
+            logger.info("Game " + recoveredGame.getGameId() + " isn't continued, not all players came back");
+        }
+        for (ClientUtil client : released) {
+            searchingClients.add(client);
+        }
+        return remaining;
+    }
+
+    /**
+     * @param client The client.
+     *
+     * @return Returns the recovered game the user of the client plays in, or
+     * null. The lock of {@link #recoveredGames} has to be held.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private RecoveredGame getRecoveredGame(final ClientUtil client) {
+        if (client.getUser() == null) {
+            return null;
+        }
+        for (RecoveredGame recoveredGame : recoveredGames) {
+            if (recoveredGame.seatOf(client.getUser().getId()) >= 0) {
+                return recoveredGame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Returns how many clients are searching for a game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getQueueLength() {
+        int returning;
+        synchronized (recoveredGames) {
+            returning = returningClients.size();
         }
+        return searchingClients.size() + returning;
+    }
+
+    /**
+     * @return Returns how long the clients searched until they got a new
+     * game.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public Histogram getTimeToMatch() {
+        return searchingClients.getTimeToMatch();
     }
 
     /**
@@ -118,21 +259,31 @@ public void run() {
     @Override
     public void close() {
         running = false;
+        searchingClients.wakeUp();
     }
 
     /**
      * Add new client to search for game - if the client already is in the
-     * searching list remove the client.
+     * searching list nothing happens.
      *
      * @param client The client to add.
      *
-     * @author Thomas Weber
+     * @author Thomas Weber, Manuele Vaccari
      * @since 1.0.0
      */
-    public synchronized void add(final ClientUtil client) {
-        if (!searchingClients.contains(client)) {
-            searchingClients.add(client);
-            logger.info("Added new client " + client.getUsername() + " to waiting list. Total of " + searchingClients.size() + " users searching for a game");
+    public void add(final ClientUtil client) {
+        synchronized (recoveredGames) {
+            if (getRecoveredGame(client) != null) {
+                if (!returningClients.contains(client)) {
+                    returningClients.add(client);
+                    logger.info("Added client " + client.getUsername() + " to the players waiting for their recovered game");
+                }
+                searchingClients.wakeUp();
+                return;
+            }
+        }
+        if (searchingClients.add(client)) {
+            logger.info("Added new client " + client.getUsername() + " to waiting list. Total of " + getQueueLength() + " users searching for a game");
         }
     }
 
@@ -142,18 +293,18 @@ public synchronized void add(final ClientUtil client) {
      *
      * @param client The client to remove.
      *
-     * @author Thomas Weber
+     * @author Thomas Weber, Manuele Vaccari
      * @since 1.0.0
      */
-    public synchronized void remove(final ClientUtil client) {
-        Iterator<ClientUtil> iterator = searchingClients.iterator();
-        while (iterator.hasNext()) {
-            ClientUtil c = iterator.next();
-            if (c.getToken().equals(client.getToken())) {
-                iterator.remove();
-                logger.info("Removed client " + client.getUsername() + " from waiting list");
-                break;
+    public void remove(final ClientUtil client) {
+        boolean removed = searchingClients.remove(client);
+        if (!removed) {
+            synchronized (recoveredGames) {
+                removed = returningClients.remove(client);
             }
         }
+        if (removed) {
+            logger.info("Removed client " + client.getUsername() + " from waiting list");
+        }
     }
 }
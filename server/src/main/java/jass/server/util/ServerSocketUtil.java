@@ -19,12 +19,16 @@
 
 package jass.server.util;
 
+import jass.server.network.OutboundQueue;
+import jass.server.network.OverflowPolicy;
+import jass.server.network.SocketConnection;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManagerFactory;
 import java.io.IOException;
 import java.net.ServerSocket;
@@ -36,7 +40,7 @@
 import java.security.SecureRandom;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
-import java.util.ArrayList;
+import java.util.Collection;
 
 /**
  * Creates a server socket (with or without SSL).
@@ -56,6 +60,16 @@ public final class ServerSocketUtil extends Thread {
      */
     public static final int DEFAULT_PORT = 2000;
 
+    /**
+     * How many TLS sessions are kept for resumption.
+     */
+    private static final int SESSION_CACHE_SIZE = 10000;
+
+    /**
+     * How long (in seconds) a TLS session can be resumed.
+     */
+    private static final int SESSION_TIMEOUT = 12 * 60 * 60;
+
     /**
      * The server socket listener.
      */
@@ -67,13 +81,26 @@ public final class ServerSocketUtil extends Thread {
     private final int port;
 
     /**
-     * A list of all the connected clients.
+     * The amount of messages a client may have queued.
      */
-    private static final ArrayList<ClientUtil> clients = new ArrayList<>();
+    private final int queueCapacity;
 
     /**
-     * @param port   The port of the server.
-     * @param secure Whether to use SSL or not.
+     * What happens when a client doesn't read its messages fast enough.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * All the connected clients.
+     */
+    private static final ClientRegistry clients = new ClientRegistry();
+
+    /**
+     * @param port           The port of the server.
+     * @param secure         Whether to use SSL or not.
+     * @param queueCapacity  The amount of messages a client may have queued.
+     * @param overflowPolicy What happens when a client doesn't read its
+     *                       messages fast enough.
      *
      * @throws IOException               An error with the socket.
      * @throws KeyStoreException         An error with SSL.
@@ -84,45 +111,75 @@ public final class ServerSocketUtil extends Thread {
      * @author Manuele Vaccari & https://stackoverflow.com/questions/53323855/sslserversocket-and-certificate-setup
      * @since 1.0.0
      */
-    public ServerSocketUtil(final int port, final boolean secure) throws IOException, KeyStoreException, CertificateException, NoSuchAlgorithmException, UnrecoverableKeyException, KeyManagementException {
+    public ServerSocketUtil(final int port, final boolean secure, final int queueCapacity, final OverflowPolicy overflowPolicy) throws IOException, KeyStoreException, CertificateException, NoSuchAlgorithmException, UnrecoverableKeyException, KeyManagementException {
         super();
         this.port = port;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
         this.setName("ServerSocketThread");
 
         if (secure) {
-            /*
-             * https://docs.oracle.com/javase/8/docs/technotes/guides/security/jsse/JSSERefGuide.html
-             * @author https://stackoverflow.com/questions/53323855/sslserversocket-and-certificate-setup
-             */
-            // Create and initialize the SSLContext with key material
-            char[] trustStorePassword = "JassGame".toCharArray();
-            char[] keyStorePassword = "JassGame".toCharArray();
+            // Initialize the Server Socket
+            SSLServerSocketFactory factory = createSslContext().getServerSocketFactory();
 
-            // First initialize the key and trust material
-            KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
-            trustStore.load(getClass().getResourceAsStream("/ssl/server.keystore"), trustStorePassword);
+            listener = factory.createServerSocket(port, 10, null);
+        } else {
+            listener = new ServerSocket(port, 10, null);
+        }
+    }
 
-            KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-            keyStore.load(getClass().getResourceAsStream("/ssl/server.keystore"), keyStorePassword);
+    /**
+     * Create the SSL context of the server from the keystore in the resources.
+     * The context keeps a cache of the negotiated sessions, so that clients
+     * which reconnect can resume their session instead of doing a full
+     * handshake.
+     *
+     * @return Returns the initialized SSL context.
+     *
+     * @throws IOException               An error with the keystore.
+     * @throws KeyStoreException         An error with SSL.
+     * @throws CertificateException      An error with SSL.
+     * @throws NoSuchAlgorithmException  An error with SSL.
+     * @throws UnrecoverableKeyException An error with SSL.
+     * @throws KeyManagementException    An error with SSL.
+     * @author Manuele Vaccari & https://stackoverflow.com/questions/53323855/sslserversocket-and-certificate-setup
+     * @since 1.1.0
+     */
+    public static SSLContext createSslContext() throws IOException, KeyStoreException, CertificateException, NoSuchAlgorithmException, UnrecoverableKeyException, KeyManagementException {
+        /*
+         * https://docs.oracle.com/javase/8/docs/technotes/guides/security/jsse/JSSERefGuide.html
+         * @author https://stackoverflow.com/questions/53323855/sslserversocket-and-certificate-setup
+         */
+        // Create and initialize the SSLContext with key material
+        char[] trustStorePassword = "JassGame".toCharArray();
+        char[] keyStorePassword = "JassGame".toCharArray();
 
-            // KeyManagers decide which key material to use
-            KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            kmf.init(keyStore, keyStorePassword);
+        // First initialize the key and trust material
+        KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(ServerSocketUtil.class.getResourceAsStream("/ssl/server.keystore"), trustStorePassword);
 
-            // TrustManagers decide whether to allow connections
-            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-            tmf.init(trustStore);
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        keyStore.load(ServerSocketUtil.class.getResourceAsStream("/ssl/server.keystore"), keyStorePassword);
 
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), SecureRandom.getInstanceStrong());
+        // KeyManagers decide which key material to use
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, keyStorePassword);
 
-            // Initialize the Server Socket
-            SSLServerSocketFactory factory = sslContext.getServerSocketFactory();
+        // TrustManagers decide whether to allow connections
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(trustStore);
 
-            listener = factory.createServerSocket(port, 10, null);
-        } else {
-            listener = new ServerSocket(port, 10, null);
-        }
+        // The handshakes draw from this random, a blocking source would stall
+        // every handshake on the event loops.
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), new SecureRandom());
+
+        // Keep the sessions, so that reconnecting clients can resume them
+        SSLSessionContext sessionContext = sslContext.getServerSessionContext();
+        sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+        sessionContext.setSessionTimeout(SESSION_TIMEOUT);
+
+        return sslContext;
     }
 
     /**
@@ -137,7 +194,7 @@ public void run() {
             try {
                 // Listen for new incoming connections.
                 Socket socket = listener.accept();
-                clients.add(new ClientUtil(socket));
+                add(new ClientUtil(new SocketConnection(socket, new OutboundQueue(queueCapacity, overflowPolicy))));
             } catch (IOException e) {
                 logger.info(e.toString());
             }
@@ -152,13 +209,8 @@ public void run() {
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    public static synchronized ClientUtil get(final String username) {
-        for (ClientUtil c : clients) {
-            if (c.getUser() != null && c.getUser().getUsername().equals(username)) {
-                return c;
-            }
-        }
-        return null;
+    public static ClientUtil get(final String username) {
+        return clients.getByUsername(username);
     }
 
     /**
@@ -171,13 +223,40 @@ public static synchronized ClientUtil get(final String username) {
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    public static synchronized boolean exists(final String username) {
-        for (ClientUtil c : clients) {
-            if (c.getUser() != null && c.getUser().getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+    public static boolean exists(final String username) {
+        return clients.getByUsername(username) != null;
+    }
+
+    /**
+     * @return Returns the registry of the connected clients.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static ClientRegistry getRegistry() {
+        return clients;
+    }
+
+    /**
+     * @return Returns a live view of the connected clients.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static Collection<ClientUtil> getClients() {
+        return clients.getClients();
+    }
+
+    /**
+     * Add a new client to the list of connected clients.
+     *
+     * @param client The client object.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void add(final ClientUtil client) {
+        clients.add(client);
     }
 
     /**
@@ -188,7 +267,7 @@ public static synchronized boolean exists(final String username) {
      * @author Manuele Vaccari
      * @since 1.0.0
      */
-    public static synchronized void remove(final ClientUtil client) {
+    public static void remove(final ClientUtil client) {
         clients.remove(client);
     }
 }
@@ -0,0 +1,130 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.servicelocator.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the tokens of all logged in users in memory, so a request is
+ * authenticated without asking the database. A session is registered on
+ * login and removed on logout, when the user is deleted and when the client
+ * disconnects.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class SessionUtil implements Service {
+    /**
+     * The token of every logged in user, by username.
+     */
+    private final ConcurrentHashMap<String, String> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * How many requests were authenticated.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * How many requests had no session or the wrong token.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Start a session, replacing any other session of the user.
+     *
+     * @param username The username.
+     * @param token    The token the user got on login.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void register(final String username, final String token) {
+        tokens.put(username, token);
+    }
+
+    /**
+     * End the session. Nothing happens if the user meanwhile logged in again
+     * with another token.
+     *
+     * @param username The username.
+     * @param token    The token of the session.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void invalidate(final String username, final String token) {
+        if (username != null && token != null) {
+            tokens.remove(username, token);
+        }
+    }
+
+    /**
+     * @param username The username sent with the request.
+     * @param token    The token sent with the request.
+     *
+     * @return Returns true if the user is logged in with this token.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public boolean authenticate(final String username, final String token) {
+        String expected = username == null ? null : tokens.get(username);
+        if (expected != null && expected.equals(token)) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return Returns the amount of logged in users.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public int getSessions() {
+        return tokens.size();
+    }
+
+    /**
+     * @return Returns how many requests were authenticated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Returns how many requests had no session or the wrong token.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
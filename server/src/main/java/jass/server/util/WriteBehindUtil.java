@@ -0,0 +1,336 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import com.j256.ormlite.support.ConnectionSource;
+import jass.lib.database.Entity;
+import jass.lib.database.Repository;
+import jass.lib.database.UnitOfWork;
+import jass.lib.servicelocator.Service;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Writes changed entities to the database on its own thread, so the games
+ * keep their state in memory and never wait for the database. Changes are
+ * collected and written together in one transaction every few milliseconds,
+ * an entity changed several times in between is only written once. A write
+ * which failed is tried again, less often the longer it keeps failing.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class WriteBehindUtil implements Service, Closeable {
+    /**
+     * The logger to print to console and save in a .log file.
+     */
+    private static final Logger logger = LogManager.getLogger(WriteBehindUtil.class);
+
+    /**
+     * How many milliseconds changes are collected by default.
+     */
+    public static final int DEFAULT_FLUSH_INTERVAL = 200;
+
+    /**
+     * The most milliseconds to wait before a failed write is tried again.
+     */
+    private static final long MAX_RETRY_DELAY = 30_000;
+
+    /**
+     * The database to write to.
+     */
+    private final ConnectionSource connectionSource;
+
+    /**
+     * The thread writing to the database.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * How many milliseconds changes are collected.
+     */
+    private final long flushInterval;
+
+    /**
+     * The copies of the changed entities to write, by the entity, in the
+     * order they were first changed.
+     */
+    private Map<Entity, Change<?>> pending = new LinkedHashMap<>();
+
+    /**
+     * How many writes failed in a row. Only used on the database thread.
+     */
+    private int failures;
+
+    /**
+     * When to try the failed write again, in nanoseconds of
+     * {@link System#nanoTime()}. Only used on the database thread.
+     */
+    private long retryAt;
+
+    /**
+     * How many entities were written.
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * How many transactions were used to write them.
+     */
+    private final AtomicLong flushes = new AtomicLong();
+
+    /**
+     * @param connectionSource The database to write to.
+     * @param flushInterval    How many milliseconds changes are collected.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public WriteBehindUtil(final ConnectionSource connectionSource, final int flushInterval) {
+        this.connectionSource = connectionSource;
+        this.flushInterval = Math.max(1, flushInterval);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DatabaseThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> write(false), this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue the entity to be updated in the database. Must be called after
+     * the entity was changed, its values are copied right away so the
+     * entity can keep changing while they are written.
+     *
+     * @param repository The repository of the entity.
+     * @param entity     The changed entity.
+     * @param <E>        The type of the entity.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public <E extends Entity> void update(final Repository<?, E> repository, final E entity) {
+        E values = repository.copy(entity);
+        if (values == null) {
+            logger.warn("Couldn't copy " + entity.getClass().getSimpleName() + ", it's written as it is then");
+            values = entity;
+        }
+        Change<E> change = new Change<>(repository, values);
+        synchronized (this) {
+            // Changed again, it keeps its place but the newer values
+            pending.put(entity, change);
+        }
+    }
+
+    /**
+     * Write new entities on the database thread, for callers which need their
+     * IDs but mustn't wait for the database.
+     *
+     * @param unitOfWork The changes, which mustn't be touched until they are
+     *                   done.
+     * @param done       Gets whether the changes were written, on the
+     *                   database thread.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void commit(final UnitOfWork unitOfWork, final Consumer<Boolean> done) {
+        Runnable task = () -> done.accept(unitOfWork.commit());
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the caller still has to go on
+            task.run();
+        }
+    }
+
+    /**
+     * Write everything queued so far soon, without waiting for it.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void requestFlush() {
+        if (!executor.isShutdown()) {
+            executor.execute(() -> write(false));
+        }
+    }
+
+    /**
+     * Write everything queued so far and wait until it's done, even if the
+     * last write failed only a moment ago.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public void flush() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            executor.submit(() -> write(true)).get();
+        } catch (ExecutionException e) {
+            logger.error("Writing to the database failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write all changes queued so far in one transaction. If that fails, they
+     * are queued again in front of the newer ones. Only runs on the database
+     * thread.
+     *
+     * @param retryNow Whether to write even if the last write failed only a
+     *                 moment ago.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void write(final boolean retryNow) {
+        if (failures > 0 && !retryNow && System.nanoTime() - retryAt < 0) {
+            return;
+        }
+        Map<Entity, Change<?>> changes;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = pending;
+            pending = new LinkedHashMap<>();
+        }
+        UnitOfWork updates = new UnitOfWork(connectionSource);
+        for (Change<?> change : changes.values()) {
+            change.addTo(updates);
+        }
+        if (updates.commit()) {
+            written.addAndGet(changes.size());
+            flushes.incrementAndGet();
+            failures = 0;
+            return;
+        }
+
+        failures++;
+        long delay = Math.min(MAX_RETRY_DELAY, flushInterval << Math.min(failures, 16));
+        retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        logger.error("Writing " + changes.size() + " changes to the database failed " + failures + " times in a row, trying again in " + delay + " ms");
+        synchronized (this) {
+            // The values queued in the meantime are newer
+            changes.putAll(pending);
+            pending = changes;
+        }
+    }
+
+    /**
+     * @return Returns how many entities are waiting to be written.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * @return Returns how many entities were written.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return Returns how many transactions were used to write them.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    /**
+     * Write everything which is left, then stop the database thread.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        flush();
+        executor.shutdown();
+    }
+
+    /**
+     * The copied values of an entity, to be written by its repository.
+     *
+     * @param <E> The type of the entity.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    private static final class Change<E extends Entity> {
+        /**
+         * The repository of the entity.
+         */
+        private final Repository<?, E> repository;
+
+        /**
+         * The values to write.
+         */
+        private final E values;
+
+        /**
+         * @param repository The repository of the entity.
+         * @param values     The values to write.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private Change(final Repository<?, E> repository, final E values) {
+            this.repository = repository;
+            this.values = values;
+        }
+
+        /**
+         * @param unitOfWork The unit of work to update the entity in.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private void addTo(final UnitOfWork unitOfWork) {
+            unitOfWork.update(repository, values);
+        }
+    }
+}
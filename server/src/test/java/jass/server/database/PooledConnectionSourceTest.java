@@ -0,0 +1,124 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.database;
+
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.support.DatabaseConnection;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests handing out and taking back the connections of the pool.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class PooledConnectionSourceTest {
+    /**
+     * The directory of the database.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @param minSize The amount of connections which are kept open.
+     * @param maxSize The amount of connections which are handed out at most.
+     *
+     * @return Returns a pool on an SQLite database.
+     *
+     * @throws SQLException If the database couldn't be opened.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private PooledConnectionSource createPool(final int minSize, final int maxSize) throws SQLException {
+        String url = "jdbc:sqlite:" + folder.getRoot().toPath().resolve("pool.sqlite3");
+        return new PooledConnectionSource(url, null, null, null, minSize, maxSize, PooledConnectionSource.DEFAULT_IDLE_TIMEOUT, 200, null);
+    }
+
+    /**
+     * The minimum amount is opened right away, given back connections are
+     * used again, and no more than the maximum amount are handed out.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testMaxSizeIsNotExceeded() throws SQLException, IOException {
+        PooledConnectionSource pool = createPool(1, 2);
+        assertEquals(1, pool.getOpen());
+
+        DatabaseConnection first = pool.getReadWriteConnection(null);
+        DatabaseConnection second = pool.getReadOnlyConnection(null);
+        assertEquals(2, pool.getActive());
+        assertEquals(2, pool.getOpen());
+        try {
+            pool.getReadWriteConnection(null);
+            fail("A third connection was handed out");
+        } catch (SQLException e) {
+            assertEquals(1, pool.getTimeouts());
+        }
+
+        pool.releaseConnection(first);
+        assertSame(first, pool.getReadWriteConnection(null));
+        pool.releaseConnection(first);
+        pool.releaseConnection(second);
+        assertEquals(0, pool.getActive());
+        assertEquals(2, pool.getOpen());
+        assertEquals(4, pool.getWaitTime().getCount());
+
+        pool.close();
+        assertEquals(0, pool.getOpen());
+    }
+
+    /**
+     * Inside a transaction the thread keeps using its connection, even if
+     * no other one is free.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTransactionKeepsItsConnection() throws SQLException, IOException {
+        PooledConnectionSource pool = createPool(0, 1);
+        long value = TransactionManager.callInTransaction(pool, () -> {
+            DatabaseConnection connection = pool.getReadWriteConnection(null);
+            try {
+                return connection.queryForLong("SELECT 42");
+            } finally {
+                pool.releaseConnection(connection);
+            }
+        });
+        assertEquals(42, value);
+        assertEquals(0, pool.getActive());
+        assertEquals(0, pool.getTimeouts());
+        assertTrue(pool.isOpen(null));
+        pool.close();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.repository;
+
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import jass.lib.CardSet;
+import jass.server.entity.DeckEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests converting the decks which were saved with a column for each card.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class DeckRepositoryTest {
+    /**
+     * The directory of the database.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The database.
+     */
+    private JdbcConnectionSource connectionSource;
+
+    /**
+     * The repository of the decks.
+     */
+    private DeckRepository deckRepository;
+
+    /**
+     * Create the deck table as it was before the card sets, with one deck.
+     *
+     * @throws SQLException If the database couldn't be created.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void setUp() throws SQLException {
+        connectionSource = new JdbcConnectionSource("jdbc:sqlite:" + folder.getRoot().toPath().resolve("deck.sqlite3"));
+        deckRepository = new DeckRepository(DaoManager.createDao(connectionSource, DeckEntity.class));
+        String[] numbers = {"One", "Two", "Three", "Four", "Five", "Six", "Seven", "Eight", "Nine"};
+        StringBuilder columns = new StringBuilder();
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < numbers.length; i++) {
+            columns.append(", card").append(numbers[i]).append("_id INTEGER, card").append(numbers[i]).append("HasBeenPlayed BOOLEAN");
+            names.append(", card").append(numbers[i]).append("_id, card").append(numbers[i]).append("HasBeenPlayed");
+            // The cards with the IDs 1 to 9, only the first one was played
+            values.append(", ").append(i + 1).append(", ").append(i == 0 ? 1 : 0);
+        }
+        deckRepository.getDao().executeRaw("CREATE TABLE deck (id INTEGER PRIMARY KEY AUTOINCREMENT, player_id INTEGER, round_id INTEGER" + columns + ")");
+        deckRepository.getDao().executeRaw("INSERT INTO deck (player_id, round_id" + names + ") VALUES (1, 1" + values + ")");
+    }
+
+    /**
+     * @throws IOException If the database couldn't be closed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void tearDown() throws IOException {
+        connectionSource.close();
+    }
+
+    /*
+     * - The decks are converted to card sets
+     * - Assertion is that the cards are kept, and that the card columns aren't
+     *   there anymore afterwards (or renamed if the database can't remove
+     *   them), so the next start doesn't search the decks again.
+     */
+
+    /**
+     * @throws SQLException If the decks couldn't be converted.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testConvertLegacyCardColumns() throws SQLException {
+        assertTrue(deckRepository.addCardSetColumns());
+        assertTrue(deckRepository.hasLegacyCardColumns());
+        assertEquals(1, deckRepository.convertLegacyCardColumns(id -> id - 1, 10));
+        assertTrue(deckRepository.dropLegacyCardColumns() || deckRepository.retireLegacyCardColumns());
+        assertFalse(deckRepository.hasLegacyCardColumns());
+
+        DeckEntity deck = deckRepository.getAll().get(0);
+        long dealtCards = CardSet.EMPTY;
+        for (int i = 0; i < 9; i++) {
+            dealtCards |= CardSet.of(i);
+        }
+        assertEquals(dealtCards, deck.getDealtCards());
+        assertEquals(CardSet.of(0), deck.getPlayedCards());
+    }
+}
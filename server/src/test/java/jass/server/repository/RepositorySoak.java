@@ -0,0 +1,436 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.repository;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.table.DatabaseTable;
+import com.j256.ormlite.table.TableUtils;
+import jass.lib.database.Entity;
+import jass.lib.database.Repository;
+import jass.lib.database.UnitOfWork;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Goes through a big synthetic history table in an SQLite file, once
+ * streamed, once page by page and once loaded at once, and measures the live
+ * heap (after a garbage collection) while doing so. Streamed and paged, the
+ * heap has to stay flat however big the table is. This is not a unit test,
+ * run it with:
+ * <p>
+ * java -cp ... jass.server.repository.RepositorySoak [rows] [page size]
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class RepositorySoak {
+    /**
+     * How many rows are written in one transaction when filling the table.
+     */
+    private static final int ROWS_PER_COMMIT = 10_000;
+
+    /**
+     * How many samples of the heap are taken while going through the table.
+     */
+    private static final int SAMPLES = 20;
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private RepositorySoak() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param args The amount of rows and the page size.
+     *
+     * @throws IOException  If the database file couldn't be created.
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void main(final String[] args) throws IOException, SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : Repository.DEFAULT_PAGE_SIZE;
+
+        Path file = Files.createTempFile("jass-soak", ".sqlite3");
+        ConnectionSource connectionSource = new JdbcConnectionSource("jdbc:sqlite:" + file.toAbsolutePath());
+        try {
+            HistoryRepository repository = createRepository(connectionSource);
+            long start = System.nanoTime();
+            fill(repository, rows);
+            System.out.printf("Filled %d rows in %.1f s%n", rows, (System.nanoTime() - start) / 1e9);
+
+            try (Stream<HistoryEntity> stream = repository.stream()) {
+                print("Streamed", scan(stream, rows));
+            }
+            print("Paged", scan(repository.streamPages(pageSize), rows));
+            print("Loaded at once", scanList(repository, rows));
+        } finally {
+            connectionSource.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * @param connectionSource The database.
+     *
+     * @return Returns the repository of the history, on an empty table.
+     *
+     * @throws SQLException If an SQL error occurs.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static HistoryRepository createRepository(final ConnectionSource connectionSource) throws SQLException {
+        TableUtils.dropTable(connectionSource, HistoryEntity.class, true);
+        TableUtils.createTable(connectionSource, HistoryEntity.class);
+        Dao<HistoryEntity, Integer> dao = DaoManager.createDao(connectionSource, HistoryEntity.class);
+        return new HistoryRepository(dao);
+    }
+
+    /**
+     * @param repository The repository of the history.
+     * @param rows       How many rows to add.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void fill(final HistoryRepository repository, final int rows) {
+        UnitOfWork unitOfWork = repository.newUnitOfWork();
+        for (int i = 0; i < rows; i++) {
+            unitOfWork.add(repository, (new HistoryEntity()).setGameId(i / 108).setPoints(i % 157).setCards("turn " + i + " of a game long gone"));
+            if (unitOfWork.size() == ROWS_PER_COMMIT || i == rows - 1) {
+                if (!unitOfWork.commit()) {
+                    throw new IllegalStateException("The history couldn't be written");
+                }
+            }
+        }
+    }
+
+    /**
+     * Go through the rows and sample the live heap.
+     *
+     * @param stream The rows.
+     * @param rows   How many rows there are, to know when to sample.
+     *
+     * @return Returns the result.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static Result scan(final Stream<HistoryEntity> stream, final int rows) {
+        Result result = new Result(liveHeap());
+        int every = Math.max(1, rows / SAMPLES);
+        stream.forEach(entity -> {
+            result.add(entity);
+            if (result.rows % every == 0) {
+                result.sample(liveHeap());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Load all rows at once, for comparison.
+     *
+     * @param repository The repository of the history.
+     * @param rows       How many rows there are, to know when to sample.
+     *
+     * @return Returns the result.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static Result scanList(final HistoryRepository repository, final int rows) {
+        Result result = new Result(liveHeap());
+        List<HistoryEntity> all = repository.getAll();
+        result.sample(liveHeap());
+        for (HistoryEntity entity : all) {
+            result.add(entity);
+        }
+        return result;
+    }
+
+    /**
+     * @return Returns the heap which is still used after a garbage
+     * collection, in bytes.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static long liveHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @param name   What was measured.
+     * @param result The result.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static void print(final String name, final Result result) {
+        System.out.printf("%s: %d rows in %.1f s, live heap %d KiB before, at most %d KiB more while scanning%n",
+            name, result.getRows(), result.getSeconds(), result.getHeapBefore() / 1024, result.getHeapGrowth() / 1024);
+    }
+
+    /**
+     * The rows seen and the heap used while going through the table.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public static final class Result {
+        /**
+         * When the scan started, in nanoseconds.
+         */
+        private final long start = System.nanoTime();
+
+        /**
+         * The live heap before the scan.
+         */
+        private final long heapBefore;
+
+        /**
+         * The most live heap while scanning.
+         */
+        private long heapMax;
+
+        /**
+         * How many rows were seen.
+         */
+        private int rows;
+
+        /**
+         * The ID of the last row, to check the order.
+         */
+        private int lastId;
+
+        /**
+         * Whether the rows came ordered by ID.
+         */
+        private boolean ordered = true;
+
+        /**
+         * @param heapBefore The live heap before the scan.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private Result(final long heapBefore) {
+            this.heapBefore = heapBefore;
+            this.heapMax = heapBefore;
+        }
+
+        /**
+         * @param entity The row.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private void add(final HistoryEntity entity) {
+            rows++;
+            ordered &= entity.getId() > lastId;
+            lastId = entity.getId();
+        }
+
+        /**
+         * @param heap The live heap.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private void sample(final long heap) {
+            heapMax = Math.max(heapMax, heap);
+        }
+
+        /**
+         * @return Returns how many rows were seen.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * @return Returns whether the rows came ordered by ID.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public boolean isOrdered() {
+            return ordered;
+        }
+
+        /**
+         * @return Returns the live heap before the scan, in bytes.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getHeapBefore() {
+            return heapBefore;
+        }
+
+        /**
+         * @return Returns how much more live heap was used at most while
+         * scanning, in bytes.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getHeapGrowth() {
+            return Math.max(0, heapMax - heapBefore);
+        }
+
+        /**
+         * @return Returns how many seconds the scan took so far.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public double getSeconds() {
+            return (System.nanoTime() - start) / 1e9;
+        }
+    }
+
+    /**
+     * A row of the synthetic history.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    @DatabaseTable(tableName = "history")
+    public static final class HistoryEntity extends Entity {
+        /**
+         * The ID.
+         */
+        @DatabaseField(generatedId = true)
+        private int id;
+
+        /**
+         * The game the row belongs to.
+         */
+        @DatabaseField(index = true)
+        private int gameId;
+
+        /**
+         * The points of the turn.
+         */
+        @DatabaseField
+        private int points;
+
+        /**
+         * Some text, so the rows have a realistic size.
+         */
+        @DatabaseField
+        private String cards;
+
+        /**
+         * @return Returns the ID.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @param gameId The game the row belongs to.
+         *
+         * @return Returns the object for further processing.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public HistoryEntity setGameId(final int gameId) {
+            this.gameId = gameId;
+            return this;
+        }
+
+        /**
+         * @param points The points of the turn.
+         *
+         * @return Returns the object for further processing.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public HistoryEntity setPoints(final int points) {
+            this.points = points;
+            return this;
+        }
+
+        /**
+         * @param cards Some text.
+         *
+         * @return Returns the object for further processing.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public HistoryEntity setCards(final String cards) {
+            this.cards = cards;
+            return this;
+        }
+    }
+
+    /**
+     * The repository of the synthetic history.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public static final class HistoryRepository extends Repository<Dao<HistoryEntity, Integer>, HistoryEntity> {
+        /**
+         * @param dao The DAO to edit inside the database.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public HistoryRepository(final Dao<HistoryEntity, Integer> dao) {
+            super(dao);
+        }
+    }
+}
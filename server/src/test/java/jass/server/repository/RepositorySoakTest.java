@@ -0,0 +1,95 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.repository;
+
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import jass.server.repository.RepositorySoak.HistoryEntity;
+import jass.server.repository.RepositorySoak.HistoryRepository;
+import jass.server.repository.RepositorySoak.Result;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests going through a table without loading it at once, with a smaller
+ * table than {@link RepositorySoak} uses.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class RepositorySoakTest {
+    /**
+     * How many rows the table has.
+     */
+    private static final int ROWS = 50_000;
+
+    /**
+     * The directory of the database.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Every row is seen once, the pages in the order of the IDs, and the
+     * heap grows much less than when loading the table at once.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testScanKeepsHeapFlat() throws SQLException, IOException {
+        JdbcConnectionSource connectionSource = new JdbcConnectionSource("jdbc:sqlite:" + folder.getRoot().toPath().resolve("soak.sqlite3"));
+        try {
+            HistoryRepository repository = RepositorySoak.createRepository(connectionSource);
+            RepositorySoak.fill(repository, ROWS);
+
+            // The last page is full, the one after it is empty
+            List<HistoryEntity> page = repository.getPage(ROWS - 100, 100);
+            assertEquals(100, page.size());
+            assertEquals(ROWS, page.get(99).getId());
+            assertTrue(repository.getPage(ROWS, 100).isEmpty());
+
+            Result streamed;
+            try (Stream<HistoryEntity> stream = repository.stream()) {
+                streamed = RepositorySoak.scan(stream, ROWS);
+            }
+            Result paged = RepositorySoak.scan(repository.streamPages(333), ROWS);
+            Result loaded = RepositorySoak.scanList(repository, ROWS);
+
+            assertEquals(ROWS, streamed.getRows());
+            assertEquals(ROWS, paged.getRows());
+            assertTrue(paged.isOrdered());
+            assertEquals(ROWS, loaded.getRows());
+            assertTrue(streamed.getHeapGrowth() < loaded.getHeapGrowth() / 4);
+            assertTrue(paged.getHeapGrowth() < loaded.getHeapGrowth() / 4);
+        } finally {
+            connectionSource.close();
+        }
+    }
+}
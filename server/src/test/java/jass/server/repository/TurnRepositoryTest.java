@@ -0,0 +1,199 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.repository;
+
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import jass.lib.CardSet;
+import jass.lib.database.UnitOfWork;
+import jass.server.database.StatementCounter;
+import jass.server.entity.CardEntity;
+import jass.server.entity.DeckEntity;
+import jass.server.entity.RankEntity;
+import jass.server.entity.RoundEntity;
+import jass.server.entity.SuitEntity;
+import jass.server.entity.TurnEntity;
+import jass.server.entity.UserEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests how many statements loading a turn and saving a move cost.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class TurnRepositoryTest {
+    /**
+     * The directory of the database.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The database.
+     */
+    private JdbcConnectionSource connectionSource;
+
+    /**
+     * The repository of the turns.
+     */
+    private TurnRepository turnRepository;
+
+    /**
+     * The repository of the decks.
+     */
+    private DeckRepository deckRepository;
+
+    /**
+     * The repository of the rounds.
+     */
+    private RoundRepository roundRepository;
+
+    /**
+     * The users in memory, by their ID.
+     */
+    private final Map<Integer, UserEntity> users = new HashMap<>();
+
+    /**
+     * The cards in memory, by their ID.
+     */
+    private final Map<Integer, CardEntity> cards = new HashMap<>();
+
+    /**
+     * The round of the turn.
+     */
+    private RoundEntity round;
+
+    /**
+     * @throws SQLException If the database couldn't be created.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void setUp() throws SQLException {
+        StatementCounter.install();
+        connectionSource = new JdbcConnectionSource("jdbc:sqlite:" + folder.getRoot().toPath().resolve("turn.sqlite3"));
+        TableUtils.createTable(connectionSource, UserEntity.class);
+        TableUtils.createTable(connectionSource, RoundEntity.class);
+        TableUtils.createTable(connectionSource, DeckEntity.class);
+        TableUtils.createTable(connectionSource, TurnEntity.class);
+        UserRepository userRepository = new UserRepository(DaoManager.createDao(connectionSource, UserEntity.class));
+        roundRepository = new RoundRepository(DaoManager.createDao(connectionSource, RoundEntity.class));
+        deckRepository = new DeckRepository(DaoManager.createDao(connectionSource, DeckEntity.class));
+        turnRepository = new TurnRepository(DaoManager.createDao(connectionSource, TurnEntity.class));
+
+        for (int i = 0; i < 4; i++) {
+            UserEntity user = (new UserEntity()).setUsername("player" + i).setPassword("secret123");
+            assertTrue(userRepository.add(user));
+            users.put(user.getId(), user);
+        }
+        SuitEntity suit = (new SuitEntity()).setId(1).setKey("hearts");
+        String[] ranks = {"6", "7", "8", "9"};
+        for (int i = 0; i < ranks.length; i++) {
+            RankEntity rank = (new RankEntity()).setId(i + 1).setKey(ranks[i]);
+            cards.put(i + 1, (new CardEntity()).setId(i + 1).setRank(rank).setSuit(suit));
+        }
+        round = new RoundEntity();
+        assertTrue(roundRepository.add(round));
+    }
+
+    /**
+     * @throws IOException If the database couldn't be closed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void tearDown() throws IOException {
+        connectionSource.close();
+    }
+
+    /**
+     * The users and cards of the turn come from memory, not from a query of
+     * their own.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testLoadingATurnTakesOneStatement() {
+        UserEntity[] players = users.values().toArray(new UserEntity[0]);
+        TurnEntity turn = (new TurnEntity()).setRound(round).setStartingPlayer(players[0]);
+        for (int i = 0; i < players.length; i++) {
+            turn.addCard(cards.get(i + 1), players[i]);
+        }
+        turn.setWinningUser(players[3]);
+        assertTrue(turnRepository.add(turn));
+
+        long statements = StatementCounter.getCount();
+        TurnEntity loaded = turnRepository.getById(turn.getId(), users::get, cards::get);
+        assertEquals(statements + 1, StatementCounter.getCount());
+
+        assertSame(players[0], loaded.getStartingPlayer());
+        assertSame(players[3], loaded.getWinningUser());
+        assertSame(cards.get(1), loaded.getCardOne());
+        assertSame(cards.get(4), loaded.getCardFour());
+        assertSame(players[3], loaded.getPlayerCardFour());
+    }
+
+    /**
+     * A played card changes the turn, the deck and the round, which are
+     * written with one statement each.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testSavingAMoveTakesOneStatementPerRow() {
+        UserEntity player = users.values().iterator().next();
+        CardEntity card = cards.get(1);
+        DeckEntity deck = (new DeckEntity()).setPlayer(player).setRound(round).setDealtCards(CardSet.of(card.getIndex()));
+        TurnEntity turn = (new TurnEntity()).setRound(round).setStartingPlayer(player);
+        assertTrue(deckRepository.add(deck));
+        assertTrue(turnRepository.add(turn));
+
+        long statements = StatementCounter.getCount();
+        turn.addCard(card, player);
+        deck.setPlayedCard(card);
+        round.addPointsTeamOne(11);
+        UnitOfWork unitOfWork = turnRepository.newUnitOfWork()
+            .update(turnRepository, turn)
+            .update(deckRepository, deck)
+            .update(roundRepository, round);
+        assertTrue(unitOfWork.commit());
+        assertEquals(statements + 3, StatementCounter.getCount());
+
+        assertEquals(CardSet.EMPTY, deckRepository.getById(deck.getId()).getHand());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.repository;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import jass.lib.database.Repository;
+import jass.lib.database.UnitOfWork;
+import jass.server.entity.TeamEntity;
+import jass.server.entity.UserEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests writing the changes of several repositories in one transaction.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class UnitOfWorkTest {
+    /**
+     * The directory of the database.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The database.
+     */
+    private JdbcConnectionSource connectionSource;
+
+    /**
+     * The repository of the users.
+     */
+    private UserRepository userRepository;
+
+    /**
+     * The repository of the teams.
+     */
+    private TeamRepository teamRepository;
+
+    /**
+     * @throws SQLException If the database couldn't be created.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void setUp() throws SQLException {
+        connectionSource = new JdbcConnectionSource("jdbc:sqlite:" + folder.getRoot().toPath().resolve("unit.sqlite3"));
+        TableUtils.createTable(connectionSource, UserEntity.class);
+        TableUtils.createTable(connectionSource, TeamEntity.class);
+        Dao<UserEntity, Integer> userDao = DaoManager.createDao(connectionSource, UserEntity.class);
+        Dao<TeamEntity, Integer> teamDao = DaoManager.createDao(connectionSource, TeamEntity.class);
+        userRepository = new UserRepository(userDao);
+        teamRepository = new TeamRepository(teamDao);
+    }
+
+    /**
+     * @throws IOException If the database couldn't be closed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void tearDown() throws IOException {
+        connectionSource.close();
+    }
+
+    /**
+     * The entities get their IDs on the commit, which is counted once.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testCommitWritesEverything() {
+        UserEntity one = (new UserEntity()).setUsername("one").setPassword("secret123");
+        UserEntity two = (new UserEntity()).setUsername("two").setPassword("secret123");
+        TeamEntity team = (new TeamEntity()).setPlayerOne(one).setPlayerTwo(two);
+        UnitOfWork unitOfWork = userRepository.newUnitOfWork()
+            .add(userRepository, one)
+            .add(userRepository, two)
+            .add(teamRepository, team);
+        assertEquals(0, team.getId());
+
+        long commits = Repository.getCommits();
+        long statements = Repository.getStatements();
+        assertTrue(unitOfWork.commit());
+        assertEquals(commits + 1, Repository.getCommits());
+        assertEquals(statements + 3, Repository.getStatements());
+        assertEquals(0, unitOfWork.size());
+
+        assertNotEquals(0, team.getId());
+        assertEquals("two", teamRepository.getById(team.getId()).getPlayerTwo().getUsername());
+
+        // Updated twice, written once
+        one.setOnline();
+        unitOfWork.update(userRepository, one);
+        unitOfWork.update(userRepository, one);
+        assertEquals(1, unitOfWork.size());
+        assertTrue(unitOfWork.commit());
+        assertTrue(userRepository.getById(one.getId()).isOnline());
+    }
+
+    /**
+     * If one statement fails, nothing is written.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testFailedCommitWritesNothing() {
+        UnitOfWork unitOfWork = userRepository.newUnitOfWork()
+            .add(userRepository, (new UserEntity()).setUsername("same").setPassword("secret123"))
+            .add(userRepository, (new UserEntity()).setUsername("other").setPassword("secret123"))
+            .add(userRepository, (new UserEntity()).setUsername("same").setPassword("secret123"));
+        assertFalse(unitOfWork.commit());
+        assertEquals(0, userRepository.getAll().size());
+    }
+}
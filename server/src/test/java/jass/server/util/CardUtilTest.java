@@ -0,0 +1,75 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.CardSet;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests dealing the cards.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class CardUtilTest {
+    /**
+     * Every card is dealt exactly once, nine to each player.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testDealGivesEveryCardOnce() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 1000; i++) {
+            long[] hands = CardUtil.deal(random);
+            long all = CardSet.EMPTY;
+            for (long hand : hands) {
+                assertEquals(CardSet.RANKS, CardSet.size(hand));
+                assertEquals(CardSet.EMPTY, all & hand);
+                all |= hand;
+            }
+            assertEquals(CardSet.ALL, all);
+        }
+    }
+
+    /**
+     * With a seed, every game gets the same deal in the same round.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testSeededDealsRepeat() {
+        CardUtil tableOne = new CardUtil(2020);
+        CardUtil tableTwo = new CardUtil(2020);
+        for (int round = 0; round < 10; round++) {
+            assertArrayEquals(tableOne.deal(round), tableTwo.deal(round));
+        }
+        assertNotEquals(tableOne.deal(0)[0], tableOne.deal(1)[0]);
+    }
+}
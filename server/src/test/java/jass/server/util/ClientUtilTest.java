@@ -0,0 +1,151 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.message.LoginData;
+import jass.lib.servicelocator.ServiceLocator;
+import jass.server.entity.UserEntity;
+import jass.server.message.Login;
+import jass.server.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for clients which disconnect while someone else logs in with
+ * their username.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class ClientUtilTest {
+    /**
+     * The username both clients log in with.
+     */
+    private String username;
+
+    /**
+     * The client which logs in first.
+     */
+    private ClientUtil first;
+
+    /**
+     * The client which logs in second.
+     */
+    private ClientUtil second;
+
+    /**
+     * Create the user and both clients.
+     *
+     * @throws Exception If the server couldn't be started.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void createTestData() throws Exception {
+        TestServer.start();
+        username = "relogin-" + System.nanoTime();
+        UserRepository.getSingleton(null).add((new UserEntity()).setUsername(username).setPassword("secret"));
+        first = new ClientUtil(new RecordingConnection());
+        ServerSocketUtil.add(first);
+        second = new ClientUtil(new RecordingConnection());
+        ServerSocketUtil.add(second);
+    }
+
+    /**
+     * Disconnect both clients again.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void disconnect() {
+        first.disconnect();
+        second.disconnect();
+    }
+
+    /*
+     * - The connection of the first client is closed
+     * - The second client logs in with the same username
+     * - Only then the first client is disconnected
+     * - Assertion is that the user stays online with the session of the
+     *   second client.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testDisconnectAfterTakeOver() {
+        login(first);
+        first.getConnection().close();
+        login(second);
+        assertNotNull(second.getToken());
+
+        first.disconnect();
+
+        UserEntity user = UserRepository.getSingleton(null).getByUsername(username);
+        assertTrue(user.isOnline());
+        assertEquals(second.getToken(), user.getToken());
+        assertSame(second, ServerSocketUtil.getRegistry().getByUsername(username));
+        SessionUtil sessionUtil = ServiceLocator.get(SessionUtil.class);
+        assert sessionUtil != null;
+        assertTrue(sessionUtil.authenticate(username, second.getToken()));
+    }
+
+    /*
+     * - The client logs in and is disconnected
+     * - Assertion is that the user is offline and the username is free.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testDisconnect() {
+        login(first);
+
+        first.disconnect();
+
+        UserEntity user = UserRepository.getSingleton(null).getByUsername(username);
+        assertFalse(user.isOnline());
+        assertNull(ServerSocketUtil.getRegistry().getByUsername(username));
+    }
+
+    /**
+     * @param client The client to log in.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void login(final ClientUtil client) {
+        new Login(new LoginData(username, "secret")).process(client);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.GameMode;
+import jass.lib.message.ChosenGameModeData;
+import jass.server.entity.UserEntity;
+import jass.server.repository.TurnRepository;
+import jass.server.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test Class for a game whose new entities can't be written.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class CommitFailureTest {
+    /**
+     * The connections of the four players.
+     */
+    private final RecordingConnection[] connections = new RecordingConnection[4];
+
+    /**
+     * The clients of the four players.
+     */
+    private final ClientUtil[] clients = new ClientUtil[4];
+
+    /**
+     * The game of the four players.
+     */
+    private GameUtil game;
+
+    /**
+     * Log in four players and start their game.
+     *
+     * @throws Exception If the server couldn't be started.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void createTestData() throws Exception {
+        TestServer.start();
+        for (int seat = 0; seat < 4; seat++) {
+            UserEntity user = (new UserEntity()).setUsername("failure" + seat + "-" + System.nanoTime()).setPassword("secret");
+            UserRepository.getSingleton(null).add(user);
+            connections[seat] = new RecordingConnection();
+            clients[seat] = new ClientUtil(connections[seat]);
+            clients[seat].setUser(user);
+            clients[seat].setToken("token" + seat);
+        }
+        game = new GameUtil(clients[0], clients[1], clients[2], clients[3]);
+    }
+
+    /**
+     * Bring back the table of the turns, in case the test failed before.
+     *
+     * @throws Exception If the table couldn't be renamed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void restoreTable() throws Exception {
+        if (TurnRepository.getSingleton(null).getDao().isTableExists()) {
+            return;
+        }
+        TurnRepository.getSingleton(null).getDao().executeRaw("ALTER TABLE turn_away RENAME TO turn");
+    }
+
+    /*
+     * - The game mode is chosen, but the first turn can't be written
+     * - Assertion is that the game is ended for all players, and none of them
+     *   gets a turn without ID.
+     */
+
+    /**
+     * @throws Exception If the table couldn't be renamed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTurnNotSaved() throws Exception {
+        for (RecordingConnection connection : connections) {
+            assertEquals(1, connection.await("BroadcastDeck", 1).size());
+        }
+        TurnRepository.getSingleton(null).getDao().executeRaw("ALTER TABLE turn RENAME TO turn_away");
+
+        game.onChosenGameMode(new ChosenGameModeData(0, clients[0].getToken(), GameMode.OBE_ABE));
+
+        for (RecordingConnection connection : connections) {
+            assertEquals(1, connection.await("BroadcastAPlayerQuit", 1).size());
+            assertEquals(0, connection.get("BroadcastTurn").size());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.Card;
+import jass.lib.CardSet;
+import jass.lib.GameMode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests writing the games to the journal and reading them back.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class GameJournalUtilTest {
+    /**
+     * The directory of the journal.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The cards dealt to the players one to four, by suit.
+     */
+    private static final long[] HANDS = {
+        0x1FFL, 0x1FFL << CardSet.RANKS, 0x1FFL << (2 * CardSet.RANKS), 0x1FFL << (3 * CardSet.RANKS)
+    };
+
+    /**
+     * A game which didn't end is read back as it was, one which ended isn't.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testRunningGameIsRecovered() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        GameJournalUtil journal = new GameJournalUtil(directory, GameJournalUtil.DEFAULT_SEGMENT_SIZE);
+        journal.gameStarted(1, 11, 12, 13, 14);
+        journal.roundStarted(1, 100, 0, 11, new int[]{21, 22, 23, 24}, HANDS);
+        journal.gameModeChosen(1, GameMode.TRUMPF, Card.Suit.Hearts);
+        journal.turnStarted(1, 200, 11);
+        journal.cardPlayed(1, 11, 8);
+        journal.cardPlayed(1, 12, 9);
+        journal.cardPlayed(1, 13, 18);
+        journal.cardPlayed(1, 14, 27);
+        journal.turnWon(1, 11, 20);
+        journal.turnStarted(1, 201, 11);
+        journal.cardPlayed(1, 11, 0);
+        // A game which ended isn't recovered
+        journal.gameStarted(2, 15, 16, 17, 18);
+        journal.roundStarted(2, 101, 0, 15, new int[]{25, 26, 27, 28}, HANDS);
+        journal.gameEnded(2);
+        journal.close();
+
+        List<RecoveredGame> games = new GameJournalUtil(directory, GameJournalUtil.DEFAULT_SEGMENT_SIZE).getRecoveredGames();
+        assertEquals(1, games.size());
+        RecoveredGame game = games.get(0);
+        assertEquals(1, game.getGameId());
+        assertEquals(100, game.getRoundId());
+        assertEquals(11, game.getGameModeChooserId());
+        assertEquals(2, game.seatOf(13));
+        assertEquals(24, game.getDeckId(3));
+        assertEquals(GameMode.TRUMPF, game.getGameMode());
+        assertEquals(Card.Suit.Hearts, game.getTrumpfSuit());
+        assertEquals(20, game.getPointsTeamOne());
+        assertEquals(0, game.getPointsTeamTwo());
+        assertFalse(game.isRoundOver());
+
+        assertEquals(2, game.getTurns().size());
+        assertEquals(11, game.getTurns().get(0).getWinningUserId());
+        RecoveredGame.Turn turn = game.getTurns().get(1);
+        assertEquals(201, turn.getTurnId());
+        assertEquals(1, turn.size());
+        assertEquals(0, turn.getCard(0));
+        assertEquals(HANDS[0] & ~CardSet.of(8) & ~CardSet.of(0), game.getHand(0));
+        assertEquals(HANDS[1] & ~CardSet.of(9), game.getHand(1));
+    }
+
+    /**
+     * Full segments are replaced by one with only the current round of the
+     * games which didn't end.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testSegmentsAreCompacted() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        // Small segments, so they roll over many times
+        GameJournalUtil journal = new GameJournalUtil(directory, 256);
+        journal.gameStarted(1, 11, 12, 13, 14);
+        for (int round = 0; round < 50; round++) {
+            journal.roundStarted(1, 100 + round, round, 11, new int[]{21, 22, 23, 24}, HANDS);
+            journal.gameModeChosen(1, GameMode.OBE_ABE, null);
+            journal.turnStarted(1, 200 + round, 12);
+            journal.gameStarted(2 + round, 15, 16, 17, 18);
+            journal.gameEnded(2 + round);
+        }
+        journal.cardPlayed(1, 12, 9);
+        journal.close();
+
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertEquals(1, segments.count());
+        }
+        List<RecoveredGame> games = new GameJournalUtil(directory, 256).getRecoveredGames();
+        assertEquals(1, games.size());
+        RecoveredGame game = games.get(0);
+        assertEquals(149, game.getRoundId());
+        assertEquals(49, game.getRoundNumber());
+        assertEquals(GameMode.OBE_ABE, game.getGameMode());
+        assertNull(game.getTrumpfSuit());
+        assertEquals(1, game.getTurns().size());
+        assertEquals(249, game.getTurns().get(0).getTurnId());
+        assertEquals(1, game.getTurns().get(0).size());
+    }
+
+    /**
+     * The start of a round, the largest record, is written completely however
+     * few bytes are left in the segment.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testLargestRecordFitsAtEverySegmentEnd() throws IOException {
+        int segmentSize = GameJournalUtil.MAX_RECORD_SIZE * 4;
+        for (int remaining = 0; remaining <= GameJournalUtil.MAX_RECORD_SIZE; remaining++) {
+            Path directory = folder.newFolder().toPath();
+            GameJournalUtil journal = new GameJournalUtil(directory, segmentSize);
+            // The start of a game takes 23 bytes
+            journal.gameStarted(1, 11, 12, 13, 14);
+            // Fill the rest up with records of 7 and 9 bytes of another game
+            int filler = segmentSize - 23 - remaining;
+            while (filler % 7 != 0) {
+                journal.gameModeChosen(2, GameMode.TRUMPF, Card.Suit.Clubs);
+                filler -= 9;
+            }
+            for (; filler > 0; filler -= 7) {
+                journal.roundOver(2);
+            }
+            journal.roundStarted(1, 100 + remaining, 0, 11, new int[]{21, 22, 23, 24}, HANDS);
+            journal.close();
+
+            List<RecoveredGame> games = new GameJournalUtil(directory, segmentSize).getRecoveredGames();
+            assertEquals(1, games.size());
+            assertEquals(100 + remaining, games.get(0).getRoundId());
+            assertEquals(HANDS[3], games.get(0).getHand(3));
+        }
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.CardSet;
+import jass.lib.GameMode;
+import jass.lib.TrickTable;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Headless simulation of whole games with four agents, without clients or a
+ * database. The cards are dealt, checked, compared and counted with the same
+ * card sets and tables the server uses, every round has to end with empty
+ * hands and {@link TrickTable#ROUND_POINTS} points. The games are split up on
+ * a fork/join pool, each part with its own random generator, so the same seed
+ * always gives the same games, whatever the parallelism. This is not a unit
+ * test, run it with:
+ * <p>
+ * java -cp ... jass.server.util.GameSimulation [games] [parallelism] [RANDOM|LOWEST] [seed]
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class GameSimulation {
+    /**
+     * How many rounds make up a game.
+     */
+    public static final int ROUNDS_PER_GAME = 12;
+
+    /**
+     * Up to how many games one task plays itself instead of splitting them.
+     */
+    private static final int GAMES_PER_TASK = 256;
+
+    /**
+     * How a player chooses the game mode and the cards to play. The agent only
+     * gets to see the own hand, the engine checks every card it plays.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public enum Agent {
+        /**
+         * Any game mode, any trump and any legal card.
+         */
+        RANDOM {
+            @Override
+            GameMode chooseGameMode(final long hand, final SplittableRandom random) {
+                return GameMode.values()[random.nextInt(GameMode.values().length)];
+            }
+
+            @Override
+            int chooseTrump(final long hand, final SplittableRandom random) {
+                return random.nextInt(4);
+            }
+
+            @Override
+            int playCard(final long hand, final long legalMoves, final SplittableRandom random) {
+                long moves = legalMoves;
+                for (int skip = random.nextInt(CardSet.size(moves)); skip > 0; skip--) {
+                    moves &= moves - 1;
+                }
+                return Long.numberOfTrailingZeros(moves);
+            }
+        },
+
+        /**
+         * Always trumpf on the longest suit and always the legal card with
+         * the lowest index.
+         */
+        LOWEST {
+            @Override
+            GameMode chooseGameMode(final long hand, final SplittableRandom random) {
+                return GameMode.TRUMPF;
+            }
+
+            @Override
+            int chooseTrump(final long hand, final SplittableRandom random) {
+                int trump = 0;
+                for (int suit = 1; suit < 4; suit++) {
+                    if (CardSet.size(hand & CardSet.suit(suit)) > CardSet.size(hand & CardSet.suit(trump))) {
+                        trump = suit;
+                    }
+                }
+                return trump;
+            }
+
+            @Override
+            int playCard(final long hand, final long legalMoves, final SplittableRandom random) {
+                return Long.numberOfTrailingZeros(legalMoves);
+            }
+        };
+
+        /**
+         * @param hand   The cards of the player choosing.
+         * @param random The random generator of the game.
+         *
+         * @return Returns the game mode of the round.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        abstract GameMode chooseGameMode(long hand, SplittableRandom random);
+
+        /**
+         * @param hand   The cards of the player choosing.
+         * @param random The random generator of the game.
+         *
+         * @return Returns the trump suit, only asked for a trumpf round.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        abstract int chooseTrump(long hand, SplittableRandom random);
+
+        /**
+         * @param hand       The cards the player still has.
+         * @param legalMoves The cards of the hand which may be played.
+         * @param random     The random generator of the game.
+         *
+         * @return Returns the index of the card to play.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        abstract int playCard(long hand, long legalMoves, SplittableRandom random);
+    }
+
+    /**
+     * What came out of a number of games.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    public static final class Result {
+        /**
+         * How many games were played.
+         */
+        private long games;
+
+        /**
+         * How many rounds were played.
+         */
+        private long rounds;
+
+        /**
+         * All points of team one (player one and three) together.
+         */
+        private long pointsTeamOne;
+
+        /**
+         * All points of team two (player two and four) together.
+         */
+        private long pointsTeamTwo;
+
+        /**
+         * How many times a rule was broken, an illegal card or a round
+         * which didn't add up.
+         */
+        private long violations;
+
+        /**
+         * How many bytes the threads allocated while playing, -1 if the JVM
+         * can't tell.
+         */
+        private long allocatedBytes;
+
+        /**
+         * @param other The result of other games.
+         *
+         * @return Returns this result, with the other one added.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        private Result add(final Result other) {
+            games += other.games;
+            rounds += other.rounds;
+            pointsTeamOne += other.pointsTeamOne;
+            pointsTeamTwo += other.pointsTeamTwo;
+            violations += other.violations;
+            allocatedBytes = allocatedBytes < 0 || other.allocatedBytes < 0 ? -1 : allocatedBytes + other.allocatedBytes;
+            return this;
+        }
+
+        /**
+         * @return Returns how many games were played.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * @return Returns how many rounds were played.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getRounds() {
+            return rounds;
+        }
+
+        /**
+         * @return Returns all points of team one together.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getPointsTeamOne() {
+            return pointsTeamOne;
+        }
+
+        /**
+         * @return Returns all points of team two together.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getPointsTeamTwo() {
+            return pointsTeamTwo;
+        }
+
+        /**
+         * @return Returns how many times a rule was broken.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getViolations() {
+            return violations;
+        }
+
+        /**
+         * @return Returns how many bytes were allocated, -1 if unknown.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    /**
+     * Plays a range of games, or splits it in two.
+     *
+     * @author Manuele Vaccari
+     * @version %I%, %G%
+     * @since 1.1.0
+     */
+    private static final class SimulationTask extends RecursiveTask<Result> {
+        /**
+         * The version of the class, as tasks are serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The agent all four players use.
+         */
+        private final Agent agent;
+
+        /**
+         * The random generator for these games only.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * How many games to play.
+         */
+        private final int games;
+
+        /**
+         * @param agent  The agent all four players use.
+         * @param random The random generator for these games only.
+         * @param games  How many games to play.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        SimulationTask(final Agent agent, final SplittableRandom random, final int games) {
+            this.agent = agent;
+            this.random = random;
+            this.games = games;
+        }
+
+        /**
+         * @return Returns the result of the games.
+         *
+         * @author Manuele Vaccari
+         * @since 1.1.0
+         */
+        @Override
+        protected Result compute() {
+            if (games <= GAMES_PER_TASK) {
+                long allocatedBefore = allocatedBytes();
+                Result result = new Result();
+                int[] cards = new int[4];
+                for (int game = 0; game < games; game++) {
+                    for (int round = 0; round < ROUNDS_PER_GAME; round++) {
+                        // The player choosing moves on every round
+                        playRound(agent, random, round % 4, cards, result);
+                    }
+                    result.games++;
+                }
+                long allocatedAfter = allocatedBytes();
+                result.allocatedBytes = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+                return result;
+            }
+
+            // The split happens before anything runs, so it doesn't depend on the threads
+            SimulationTask first = new SimulationTask(agent, random.split(), games / 2);
+            SimulationTask second = new SimulationTask(agent, random, games - games / 2);
+            first.fork();
+            Result result = second.compute();
+            return first.join().add(result);
+        }
+    }
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private GameSimulation() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param args The amount of games, the parallelism, the agent and the seed
+     *             (all optional).
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static void main(final String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Agent agent = args.length > 2 ? Agent.valueOf(args[2]) : Agent.RANDOM;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        // The first runs only warm up the JIT
+        for (int run = 1; run <= 5; run++) {
+            long start = System.nanoTime();
+            Result result = simulate(games, parallelism, agent, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Run %d: %d games (%d rounds) in %.2f s, %.0f games/s, %s bytes/game, %d violations, points %d:%d%n",
+                run, result.getGames(), result.getRounds(), seconds, result.getGames() / seconds,
+                result.getAllocatedBytes() < 0 ? "?" : String.valueOf(result.getAllocatedBytes() / result.getGames()),
+                result.getViolations(), result.getPointsTeamOne(), result.getPointsTeamTwo());
+        }
+    }
+
+    /**
+     * @param games       How many games to play.
+     * @param parallelism How many threads to play on.
+     * @param agent       The agent all four players use.
+     * @param seed        The seed, the same seed gives the same games.
+     *
+     * @return Returns the result of all games.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    public static Result simulate(final int games, final int parallelism, final Agent agent, final long seed) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new SimulationTask(agent, new SplittableRandom(seed), games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one round: deal, choose the game mode and play nine turns, the
+     * winner of a turn starts the next one.
+     *
+     * @param agent   The agent all four players use.
+     * @param random  The random generator of the game.
+     * @param chooser The seat of the player choosing the game mode.
+     * @param cards   The cards of the current turn, reused.
+     * @param result  The result to count the round into.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static void playRound(final Agent agent, final SplittableRandom random, final int chooser, final int[] cards, final Result result) {
+        long[] hands = CardUtil.deal(random);
+        GameMode gameMode = agent.chooseGameMode(hands[chooser], random);
+        int trump = gameMode == GameMode.TRUMPF ? agent.chooseTrump(hands[chooser], random) : CardSet.NO_TRUMP;
+
+        int[] points = new int[2];
+        int startingSeat = chooser;
+        for (int turn = 0; turn < CardSet.RANKS; turn++) {
+            int lead = -1;
+            for (int i = 0; i < 4; i++) {
+                int seat = (startingSeat + i) % 4;
+                long hand = hands[seat];
+                int card = agent.playCard(hand, CardSet.legalMoves(hand, lead, trump), random);
+                // The same check the server does on every played card
+                if (!CardSet.contains(hand, card) || !CardSet.contains(CardSet.allowed(hand, lead, trump), card)) {
+                    result.violations++;
+                    card = Long.numberOfTrailingZeros(CardSet.legalMoves(hand, lead, trump));
+                }
+                hands[seat] = hand & ~CardSet.of(card);
+                cards[i] = card;
+                if (i == 0) {
+                    lead = card;
+                }
+            }
+            int winnerSeat = (startingSeat + TrickTable.winner(cards[0], cards[1], cards[2], cards[3], gameMode, trump)) % 4;
+            int turnPoints = TrickTable.points(cards[0], cards[1], cards[2], cards[3], gameMode, trump);
+            if (turn == CardSet.RANKS - 1) {
+                turnPoints += TrickTable.LAST_TURN_BONUS;
+            }
+            // Seats one and three (0 and 2) are team one
+            points[winnerSeat % 2] += turnPoints;
+            startingSeat = winnerSeat;
+        }
+
+        for (long hand : hands) {
+            if (hand != CardSet.EMPTY) {
+                result.violations++;
+            }
+        }
+        if (points[0] + points[1] != TrickTable.ROUND_POINTS) {
+            result.violations++;
+        }
+        result.pointsTeamOne += points[0];
+        result.pointsTeamTwo += points[1];
+        result.rounds++;
+    }
+
+    /**
+     * @return Returns how many bytes the current thread allocated so far, -1
+     * if the JVM can't tell.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
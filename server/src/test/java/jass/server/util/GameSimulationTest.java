@@ -0,0 +1,65 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.TrickTable;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the rules by simulating whole games.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class GameSimulationTest {
+    /**
+     * No illegal card gets through and every round adds up, with both agents.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testRoundsAddUp() {
+        for (GameSimulation.Agent agent : GameSimulation.Agent.values()) {
+            GameSimulation.Result result = GameSimulation.simulate(2000, 2, agent, 42);
+            assertEquals(2000, result.getGames());
+            assertEquals(2000L * GameSimulation.ROUNDS_PER_GAME, result.getRounds());
+            assertEquals(0, result.getViolations());
+            assertEquals(result.getRounds() * TrickTable.ROUND_POINTS, result.getPointsTeamOne() + result.getPointsTeamTwo());
+        }
+    }
+
+    /**
+     * The same seed gives the same games, whatever the parallelism.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testSeededGamesRepeat() {
+        GameSimulation.Result single = GameSimulation.simulate(1000, 1, GameSimulation.Agent.RANDOM, 2020);
+        GameSimulation.Result parallel = GameSimulation.simulate(1000, 4, GameSimulation.Agent.RANDOM, 2020);
+        assertEquals(single.getPointsTeamOne(), parallel.getPointsTeamOne());
+        assertEquals(single.getPointsTeamTwo(), parallel.getPointsTeamTwo());
+    }
+}
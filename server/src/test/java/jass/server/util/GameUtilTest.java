@@ -20,17 +20,21 @@
 package jass.server.util;
 
 import jass.lib.Card;
+import jass.lib.CardSet;
 import jass.lib.GameMode;
 import jass.server.entity.CardEntity;
 import jass.server.entity.DeckEntity;
 import jass.server.entity.RankEntity;
 import jass.server.entity.RoundEntity;
 import jass.server.entity.SuitEntity;
+import jass.server.entity.TurnEntity;
+import jass.server.entity.UserEntity;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -180,6 +184,22 @@ private ArrayList<CardEntity> insertCardSeedData() {
         return createdCards;
     }
 
+    /**
+     * @param ids The positions of the cards in the seed data.
+     *
+     * @return Returns the cards as {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private long cardSet(final int... ids) {
+        long set = CardSet.EMPTY;
+        for (int id : ids) {
+            set |= CardSet.of(cards.get(id).getIndex());
+        }
+        return set;
+    }
+
     /*
      * - Game Mode Trump
      * - Trump Suite Hearts
@@ -201,27 +221,11 @@ public void testValidateMoveTrump1() {
             .setTrumpfSuit(Card.Suit.Hearts);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(10));
-        deck.setCardOneHasBeenPlayed(false);
-        deck.setCardTwo(cards.get(11));
-        deck.setCardTwoHasBeenPlayed(false);
-        deck.setCardThree(cards.get(25));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(26));
-        deck.setCardFourHasBeenPlayed(true);
-        deck.setCardFive(cards.get(27));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(28));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(26));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(30));
-        deck.setCardEightHasBeenPlayed(true);
-        deck.setCardNine(cards.get(5));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(10, 11, 25, 29, 27, 28, 26, 30, 5))
+            .setPlayedCards(cardSet(29, 27, 30));
 
         CardEntity firstCardOfTurn = cards.get(0);
-        CardEntity playedCard = deck.getCardSeven();
+        CardEntity playedCard = cards.get(26);
 
         assertTrue(GameUtil.validateMoveTrump(playedCard, deck, firstCardOfTurn, String.valueOf(round.getTrumpfSuit())));
     }
@@ -249,27 +253,11 @@ public void testValidateMoveTrump2() {
             .setTrumpfSuit(Card.Suit.Clubs);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(true);
-        deck.setCardThree(cards.get(9));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(false);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 9, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 23));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardThree();
+        CardEntity playedCard = cards.get(9);
 
         assertTrue(GameUtil.validateMoveTrump(playedCard, deck, firstCardOfTurn, String.valueOf(round.getTrumpfSuit())));
     }
@@ -296,27 +284,11 @@ public void testValidateMoveTrump3() {
             .setTrumpfSuit(Card.Suit.Clubs);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(false);
-        deck.setCardThree(cards.get(8));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 8, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 31));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardThree();
+        CardEntity playedCard = cards.get(8);
 
         assertFalse(GameUtil.validateMoveTrump(playedCard, deck, firstCardOfTurn, String.valueOf(round.getTrumpfSuit())));
     }
@@ -343,27 +315,11 @@ public void testValidateMoveTrump4() {
             .setTrumpfSuit(Card.Suit.Clubs);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(true);
-        deck.setCardThree(cards.get(9));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 9, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 23, 31));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardNine();
+        CardEntity playedCard = cards.get(35);
 
         assertTrue(GameUtil.validateMoveTrump(playedCard, deck, firstCardOfTurn, String.valueOf(round.getTrumpfSuit())));
     }
@@ -387,27 +343,11 @@ public void testValidateMoveObeAbe1() {
             .setGameMode(GameMode.OBE_ABE);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(true);
-        deck.setCardThree(cards.get(9));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(false);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 9, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 23));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardThree();
+        CardEntity playedCard = cards.get(9);
 
         assertTrue(GameUtil.validateMoveObeAbe(playedCard, deck, firstCardOfTurn));
     }
@@ -431,27 +371,11 @@ public void testValidateMoveObeAbe2() {
             .setGameMode(GameMode.OBE_ABE);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(false);
-        deck.setCardThree(cards.get(8));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 8, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 31));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardThree();
+        CardEntity playedCard = cards.get(8);
 
         assertFalse(GameUtil.validateMoveObeAbe(playedCard, deck, firstCardOfTurn));
     }
@@ -474,27 +398,11 @@ public void testValidateMoveObeAbe3() {
             .setGameMode(GameMode.OBE_ABE);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(true);
-        deck.setCardThree(cards.get(9));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 9, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 23, 31));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardNine();
+        CardEntity playedCard = cards.get(35);
 
         assertTrue(GameUtil.validateMoveObeAbe(playedCard, deck, firstCardOfTurn));
     }
@@ -518,26 +426,11 @@ public void testValidateMoveOndeUfe1() {
             .setGameMode(GameMode.ONDE_UFE);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(true);
-        deck.setCardThree(cards.get(9));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(false);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 9, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 23));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardThree();
+        CardEntity playedCard = cards.get(9);
 
         assertTrue(GameUtil.validateMoveOndeUfe(playedCard, deck, firstCardOfTurn));
     }
@@ -561,27 +454,11 @@ public void testValidateMoveOndeUfe2() {
             .setGameMode(GameMode.ONDE_UFE);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(false);
-        deck.setCardThree(cards.get(8));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 8, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 31));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardThree();
+        CardEntity playedCard = cards.get(8);
 
         assertFalse(GameUtil.validateMoveOndeUfe(playedCard, deck, firstCardOfTurn));
     }
@@ -604,28 +481,138 @@ public void testValidateMoveOndeUfe3() {
             .setGameMode(GameMode.ONDE_UFE);
         DeckEntity deck = (new DeckEntity()).setRound(round);
 
-        deck.setCardOne(cards.get(20));
-        deck.setCardOneHasBeenPlayed(true);
-        deck.setCardTwo(cards.get(23));
-        deck.setCardTwoHasBeenPlayed(true);
-        deck.setCardThree(cards.get(9));
-        deck.setCardThreeHasBeenPlayed(false);
-        deck.setCardFour(cards.get(30));
-        deck.setCardFourHasBeenPlayed(false);
-        deck.setCardFive(cards.get(31));
-        deck.setCardFiveHasBeenPlayed(true);
-        deck.setCardSix(cards.get(32));
-        deck.setCardSixHasBeenPlayed(false);
-        deck.setCardSeven(cards.get(33));
-        deck.setCardSevenHasBeenPlayed(false);
-        deck.setCardEight(cards.get(34));
-        deck.setCardEightHasBeenPlayed(false);
-        deck.setCardNine(cards.get(35));
-        deck.setCardNineHasBeenPlayed(false);
+        deck.setDealtCards(cardSet(20, 23, 9, 30, 31, 32, 33, 34, 35))
+            .setPlayedCards(cardSet(20, 23, 31));
 
         CardEntity firstCardOfTurn = cards.get(24);
-        CardEntity playedCard = deck.getCardNine();
+        CardEntity playedCard = cards.get(35);
 
         assertTrue(GameUtil.validateMoveOndeUfe(playedCard, deck, firstCardOfTurn));
     }
+
+    /**
+     * @param round The round.
+     * @param cards The cards in the order they were played.
+     *
+     * @return Returns the position (0 to 3) of the player who won the turn.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private static int turnWinner(final RoundEntity round, final CardEntity... cards) {
+        UserEntity[] players = new UserEntity[cards.length];
+        TurnEntity turn = (new TurnEntity()).setRound(round);
+        for (int i = 0; i < cards.length; i++) {
+            players[i] = (new UserEntity()).setUsername("player" + i);
+            turn.addCard(cards[i], players[i]);
+        }
+        UserEntity winner = GameUtil.calculateTurnWinner(round, turn);
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == winner) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * - Game Mode Trump
+     * - Trump Suite Hearts
+     * - Queen of spades is led, then the ace and the king of spades follow
+     * - The third player plays the six of hearts.
+     * - Assertion is that the six wins, as any trump beats the other suits.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTurnWinnerTrump1() {
+        RoundEntity round = (new RoundEntity())
+            .setGameMode(GameMode.TRUMPF)
+            .setTrumpfSuit(Card.Suit.Hearts);
+        assertEquals(2, turnWinner(round, cards.get(24), cards.get(26), cards.get(0), cards.get(25)));
+    }
+
+    /*
+     * - Game Mode Trump
+     * - Trump Suite Clubs
+     * - Ace, nine and jack of clubs are played, and the ace of hearts.
+     * - Assertion is that the jack wins before the nine and the ace.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTurnWinnerTrump2() {
+        RoundEntity round = (new RoundEntity())
+            .setGameMode(GameMode.TRUMPF)
+            .setTrumpfSuit(Card.Suit.Clubs);
+        assertEquals(2, turnWinner(round, cards.get(35), cards.get(30), cards.get(32), cards.get(8)));
+        assertEquals(1, turnWinner(round, cards.get(35), cards.get(30), cards.get(31), cards.get(8)));
+    }
+
+    /*
+     * - Queen of spades is led, then the ace of spades, the ace of hearts and
+     *   the six of spades.
+     * - Assertion is that the ace of spades wins, as the ace of hearts doesn't
+     *   follow suit.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTurnWinnerObeAbe() {
+        RoundEntity round = (new RoundEntity())
+            .setGameMode(GameMode.OBE_ABE);
+        assertEquals(1, turnWinner(round, cards.get(24), cards.get(26), cards.get(8), cards.get(18)));
+    }
+
+    /*
+     * - Queen of spades is led, then the ace of spades, the six of hearts and
+     *   the six of spades.
+     * - Assertion is that the six of spades wins, as the six of hearts doesn't
+     *   follow suit.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testTurnWinnerOndeUfe() {
+        RoundEntity round = (new RoundEntity())
+            .setGameMode(GameMode.ONDE_UFE);
+        assertEquals(3, turnWinner(round, cards.get(24), cards.get(26), cards.get(0), cards.get(18)));
+    }
+
+    /*
+     * - Game Mode Obe Abe
+     * - The player leads the turn
+     * - Assertion is that only the cards still in his hand may be played, not
+     *   the ones he already played or never had.
+     */
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testValidateMoveOnlyCardsInHand() {
+        RoundEntity round = (new RoundEntity())
+            .setGameMode(GameMode.OBE_ABE);
+        DeckEntity deck = (new DeckEntity()).setRound(round);
+
+        deck.setDealtCards(cardSet(0, 2, 3, 10, 12, 13, 30, 32, 33))
+            .setPlayedCards(cardSet(0));
+
+        assertTrue(GameUtil.validateMoveObeAbe(cards.get(2), deck, null));
+        assertFalse(GameUtil.validateMoveObeAbe(cards.get(0), deck, null));
+        assertFalse(GameUtil.validateMoveObeAbe(cards.get(25), deck, null));
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests forming tables from the players searching for a game.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class MatchmakingQueueTest {
+    /**
+     * Removed players are never picked, every table has different players
+     * and all waiting players get picked about equally often.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testPollIsFair() {
+        Random random = new Random(42);
+        int[] picked = new int[8];
+        Integer[] table = new Integer[4];
+        for (int round = 0; round < 10000; round++) {
+            MatchmakingQueue<Integer> queue = new MatchmakingQueue<>(4);
+            for (int player = 0; player < 10; player++) {
+                assertTrue(queue.add(player));
+            }
+            assertFalse(queue.add(3));
+            assertTrue(queue.remove(8));
+            assertTrue(queue.remove(9));
+            assertFalse(queue.remove(9));
+
+            assertTrue(queue.poll(table, random));
+            Set<Integer> players = new HashSet<>();
+            for (Integer player : table) {
+                assertTrue(player < 8);
+                assertTrue(players.add(player));
+                picked[player]++;
+            }
+            assertEquals(4, queue.size());
+            assertTrue(queue.poll(table, random));
+            assertFalse(queue.poll(table, random));
+            assertEquals(0, queue.size());
+        }
+        // Every player is in the first table half of the times
+        for (int count : picked) {
+            assertEquals(5000, count, 250);
+        }
+    }
+
+    /**
+     * Waiting for a table ends as soon as the last player is added.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test(timeout = 10000)
+    public void testAwaitWakesUpOnAdd() throws InterruptedException {
+        MatchmakingQueue<Integer> queue = new MatchmakingQueue<>(4);
+        for (int player = 0; player < 3; player++) {
+            queue.add(player);
+        }
+        assertFalse(queue.await(10));
+
+        Thread adder = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) { /* Ignore */ }
+            queue.add(3);
+        });
+        adder.start();
+        while (!queue.await(0)) {
+            // Woken up for nothing, wait again
+        }
+        adder.join();
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.getTimeToMatch().getCount());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.message.MessageData;
+import jass.lib.message.WireFormat;
+import jass.server.network.Connection;
+import jass.server.network.OutboundQueue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A connection without a socket, which keeps every message sent to the
+ * client, so a test can wait for them.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+final class RecordingConnection implements Connection {
+    /**
+     * How long to wait for a message at most.
+     */
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * The messages sent to the client, in order.
+     */
+    private final List<MessageData> messages = new ArrayList<>();
+
+    /**
+     * Whether the connection is still open.
+     */
+    private volatile boolean open = true;
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void start(final ClientUtil client) {
+        // Nothing to read
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public synchronized void send(final byte[] frame, final boolean critical) {
+        messages.add(MessageData.unserialize(new String(frame, StandardCharsets.UTF_8).trim()));
+        notifyAll();
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void setWireFormat(final WireFormat wireFormat) {
+        // The messages are always kept as JSON
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public OutboundQueue getOutbound() {
+        return null;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    /**
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @param messageType The type of the messages.
+     * @param count       How many of them to wait for.
+     *
+     * @return Returns the messages of the type sent so far, fewer than asked
+     * for if they didn't arrive in time.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    synchronized List<MessageData> await(final String messageType, final int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT;
+        List<MessageData> found = get(messageType);
+        while (found.size() < count && deadline - System.nanoTime() > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, deadline - System.nanoTime());
+            found = get(messageType);
+        }
+        return found;
+    }
+
+    /**
+     * @param messageType The type of the messages.
+     *
+     * @return Returns the messages of the type sent so far.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    synchronized List<MessageData> get(final String messageType) {
+        List<MessageData> found = new ArrayList<>();
+        for (MessageData message : messages) {
+            if (message.getMessageType().equals(messageType)) {
+                found.add(message);
+            }
+        }
+        return found;
+    }
+}
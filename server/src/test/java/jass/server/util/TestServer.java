@@ -0,0 +1,80 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.servicelocator.ServiceLocator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * The services of the server on a database of its own, for the tests which
+ * play with real games. The repositories are singletons, so all of these
+ * tests share the one database.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+final class TestServer {
+    /**
+     * Whether the services were started.
+     */
+    private static boolean started = false;
+
+    /**
+     * Utility classes, which are collections of static members, are not meant
+     * to be instantiated.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private TestServer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Start the services, unless another test already did.
+     *
+     * @throws IOException  If the directory couldn't be created.
+     * @throws SQLException If the database couldn't be created.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    static synchronized void start() throws IOException, SQLException {
+        if (started) {
+            return;
+        }
+        Path directory = Files.createTempDirectory("jass-server-test");
+        DatabaseUtil db = new DatabaseUtil("sqlite:" + directory.resolve("jass.sqlite3"));
+        ServiceLocator.add(db);
+        ServiceLocator.add(new CatalogUtil());
+        ServiceLocator.add(new WriteBehindUtil(db.getConnectionSource(), 20));
+        ServiceLocator.add(new GameJournalUtil(directory.resolve("journal"), GameJournalUtil.DEFAULT_SEGMENT_SIZE));
+        ServiceLocator.add(new SearchGameUtil());
+        ServiceLocator.add(new CardUtil(42));
+        ServiceLocator.add(new SessionUtil());
+        ServiceLocator.add(new SchedulerUtil());
+        ServiceLocator.add(new GameExecutorUtil(1));
+        started = true;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import jass.lib.CardSet;
+import jass.lib.GameMode;
+import jass.lib.message.BroadcastDeckData;
+import jass.lib.message.BroadcastTurnData;
+import jass.lib.message.CardData;
+import jass.lib.message.ChosenGameModeData;
+import jass.lib.message.MessageData;
+import jass.lib.message.PlayCardData;
+import jass.lib.message.PlayedCardData;
+import jass.lib.message.StopPlayingData;
+import jass.lib.servicelocator.ServiceLocator;
+import jass.server.entity.UserEntity;
+import jass.server.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test Class for a game while it waits to start the next turn.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class TurnDelayTest {
+    /**
+     * The connections of the four players.
+     */
+    private final RecordingConnection[] connections = new RecordingConnection[4];
+
+    /**
+     * The clients of the four players.
+     */
+    private final ClientUtil[] clients = new ClientUtil[4];
+
+    /**
+     * The game of the four players.
+     */
+    private GameUtil game;
+
+    /**
+     * Log in four players, the next turn only starts long after the test.
+     *
+     * @throws Exception If the server couldn't be started.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void createTestData() throws Exception {
+        TestServer.start();
+        GameUtil.setTurnDelay(60_000);
+        for (int seat = 0; seat < 4; seat++) {
+            UserEntity user = (new UserEntity()).setUsername("delay" + seat + "-" + System.nanoTime()).setPassword("secret");
+            UserRepository.getSingleton(null).add(user);
+            connections[seat] = new RecordingConnection();
+            clients[seat] = new ClientUtil(connections[seat]);
+            clients[seat].setUser(user);
+            clients[seat].setToken("token" + seat);
+        }
+        game = new GameUtil(clients[0], clients[1], clients[2], clients[3]);
+    }
+
+    /**
+     * Stop the game again.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void stopGame() {
+        StopPlayingData data = new StopPlayingData();
+        data.setUsername(clients[0].getUsername());
+        game.onStopPlaying(data);
+        GameUtil.setTurnDelay(GameUtil.DEFAULT_TURN_DELAY);
+    }
+
+    /*
+     * - Game Mode Obe Abe
+     * - All four players played a card, the next turn waits for the delay
+     * - Player one plays another card on the full turn
+     * - Assertion is that the card is refused and the points of the turn are
+     *   only sent once.
+     */
+
+    /**
+     * @throws InterruptedException If interrupted while waiting.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testPlayCardDuringTurnDelay() throws InterruptedException {
+        CatalogUtil catalog = ServiceLocator.get(CatalogUtil.class);
+        assert catalog != null;
+        long[] hands = new long[4];
+        for (int seat = 0; seat < 4; seat++) {
+            List<MessageData> decks = connections[seat].await("BroadcastDeck", 1);
+            assertEquals(1, decks.size());
+            for (CardData card : ((BroadcastDeckData) decks.get(0)).getCardsClient()) {
+                hands[seat] |= CardSet.of(catalog.getCard(card.getCardId()).getIndex());
+            }
+        }
+
+        game.onChosenGameMode(new ChosenGameModeData(0, clients[0].getToken(), GameMode.OBE_ABE));
+        List<MessageData> turns = connections[0].await("BroadcastTurn", 1);
+        assertEquals(1, turns.size());
+        int turnId = ((BroadcastTurnData) turns.get(0)).getTurnId();
+
+        int trump = CardSet.trumpOf(GameMode.OBE_ABE, null);
+        int lead = -1;
+        for (int seat = 0; seat < 4; seat++) {
+            int card = Long.numberOfTrailingZeros(CardSet.legalMoves(hands[seat], lead, trump));
+            if (lead < 0) {
+                lead = card;
+            }
+            hands[seat] &= ~CardSet.of(card);
+            playCard(seat, turnId, card);
+        }
+        // Everyone gets the turn again after each card
+        assertEquals(5, connections[0].await("BroadcastTurn", 5).size());
+        assertEquals(2, countPoints());
+
+        // The turn is over, but the next one didn't start yet
+        playCard(0, turnId, Long.numberOfTrailingZeros(CardSet.legalMoves(hands[0], lead, trump)));
+        List<MessageData> answers = connections[0].await("PlayedCard", 1);
+        assertEquals(1, answers.size());
+        assertFalse(((PlayedCardData) answers.get(0)).getPlayedCardValid());
+        assertEquals(2, countPoints());
+    }
+
+    /**
+     * @param seat   The seat of the player.
+     * @param turnId The ID of the turn.
+     * @param card   The index of the card in a {@link CardSet}.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private void playCard(final int seat, final int turnId, final int card) {
+        CatalogUtil catalog = ServiceLocator.get(CatalogUtil.class);
+        assert catalog != null;
+        PlayCardData data = new PlayCardData(turnId, catalog.getCardByIndex(card).getId());
+        data.setUsername(clients[seat].getUsername());
+        data.setToken(clients[seat].getToken());
+        game.onPlayedCard(data);
+    }
+
+    /**
+     * @return Returns how many points messages the players got, only the
+     * winning team gets them.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    private int countPoints() {
+        int points = 0;
+        for (RecordingConnection connection : connections) {
+            points += connection.get("BroadcastPoints").size();
+        }
+        return points;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * fhnw-jass is jass game programmed in java for a school project.
+ * Copyright (C) 2020 Manuele Vaccari & Victor Hargrave & Thomas Weber & Sasa
+ * Trajkova
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package jass.server.util;
+
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import jass.server.entity.UserEntity;
+import jass.server.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests writing the changed entities on the database thread.
+ *
+ * @author Manuele Vaccari
+ * @version %I%, %G%
+ * @since 1.1.0
+ */
+public final class WriteBehindUtilTest {
+    /**
+     * The directory of the database.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The database.
+     */
+    private JdbcConnectionSource connectionSource;
+
+    /**
+     * The repository of the users.
+     */
+    private UserRepository userRepository;
+
+    /**
+     * Only writes when asked to, the interval is never reached.
+     */
+    private WriteBehindUtil writeBehind;
+
+    /**
+     * @throws SQLException If the database couldn't be created.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Before
+    public void setUp() throws SQLException {
+        connectionSource = new JdbcConnectionSource("jdbc:sqlite:" + folder.getRoot().toPath().resolve("behind.sqlite3"));
+        TableUtils.createTable(connectionSource, UserEntity.class);
+        userRepository = new UserRepository(DaoManager.createDao(connectionSource, UserEntity.class));
+        writeBehind = new WriteBehindUtil(connectionSource, 3_600_000);
+    }
+
+    /**
+     * @throws IOException If the database couldn't be closed.
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @After
+    public void tearDown() throws IOException {
+        writeBehind.close();
+        connectionSource.close();
+    }
+
+    /**
+     * The values at the time of the update are written, not the ones the
+     * entity has by then.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testValuesAreCopied() {
+        UserEntity user = (new UserEntity()).setUsername("one").setPassword("secret123");
+        userRepository.add(user);
+
+        writeBehind.update(userRepository, user.setUsername("two"));
+        user.setUsername("three");
+        writeBehind.flush();
+        assertEquals("two", userRepository.getById(user.getId()).getUsername());
+    }
+
+    /**
+     * A failed write stays queued, until it's written together with the newer
+     * values.
+     *
+     * @author Manuele Vaccari
+     * @since 1.1.0
+     */
+    @Test
+    public void testFailedWriteIsRetried() {
+        UserEntity one = (new UserEntity()).setUsername("one").setPassword("secret123");
+        UserEntity two = (new UserEntity()).setUsername("two").setPassword("secret123");
+        userRepository.add(one);
+        userRepository.add(two);
+
+        // The username is taken
+        writeBehind.update(userRepository, one.setUsername("two"));
+        writeBehind.flush();
+        assertEquals(1, writeBehind.getPending());
+        assertEquals(0, writeBehind.getWritten());
+
+        writeBehind.update(userRepository, two.setUsername("four"));
+        writeBehind.update(userRepository, one.setUsername("three"));
+        writeBehind.flush();
+        assertEquals(0, writeBehind.getPending());
+        assertEquals(2, writeBehind.getWritten());
+        assertEquals("three", userRepository.getById(one.getId()).getUsername());
+        assertEquals("four", userRepository.getById(two.getId()).getUsername());
+    }
+}